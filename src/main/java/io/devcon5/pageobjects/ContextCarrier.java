@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+
+/**
+ * Carrier for the thread bound state of a test, that is the current {@link io.devcon5.pageobjects.SeleniumContext}
+ * and the current {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}. Both are bound to the thread that
+ * initialized them, so that work handed over to an executor or a {@link java.util.concurrent.CompletableFuture}
+ * has neither a driver nor a collector. The carrier captures the state of the current thread and reinstalls it
+ * on the thread executing the work. After the work is done, the previous state of the executing thread is
+ * restored.
+ * <pre>
+ *     ContextCarrier carrier = ContextCarrier.capture();
+ *     executor.submit(carrier.wrap(() -&gt; Page.navigateTo(LoginPage.class)));
+ * </pre>
+ */
+public final class ContextCarrier {
+
+    private final Optional<SeleniumContext> context;
+    private final Optional<ResponseTimeCollector> collector;
+
+    private ContextCarrier(Optional<SeleniumContext> context, Optional<ResponseTimeCollector> collector) {
+
+        this.context = context;
+        this.collector = collector;
+    }
+
+    /**
+     * Captures the selenium context and the response time collector of the current thread.
+     * @return
+     *  a carrier for the state of the current thread
+     */
+    public static ContextCarrier capture() {
+
+        return new ContextCarrier(SeleniumContext.currentContext(), ResponseTimeCollector.current());
+    }
+
+    /**
+     * Creates an executor that propagates the state of the submitting thread to the thread running the submitted
+     * command. The state is captured each time a command is submitted.
+     * @param executor
+     *  the executor to run the commands
+     * @return
+     *  an executor propagating the thread bound state of the test
+     */
+    public static Executor propagating(Executor executor) {
+
+        return command -> executor.execute(capture().wrap(command));
+    }
+
+    /**
+     * The captured selenium context
+     * @return
+     *  the context or the empty optional if no context was bound to the capturing thread
+     */
+    public Optional<SeleniumContext> getContext() {
+
+        return context;
+    }
+
+    /**
+     * The captured response time collector
+     * @return
+     *  the collector or the empty optional if no collector was bound to the capturing thread
+     */
+    public Optional<ResponseTimeCollector> getCollector() {
+
+        return collector;
+    }
+
+    /**
+     * Runs the task on the current thread with the captured state installed.
+     * @param task
+     *  the task to run
+     */
+    public void run(Runnable task) {
+
+        final Optional<SeleniumContext> previousContext = SeleniumContext.bind(context);
+        final Optional<ResponseTimeCollector> previousCollector = ResponseTimeCollector.bind(collector);
+        try {
+            task.run();
+        } finally {
+            ResponseTimeCollector.bind(previousCollector);
+            SeleniumContext.bind(previousContext);
+        }
+    }
+
+    /**
+     * Calls the task on the current thread with the captured state installed.
+     * @param task
+     *  the task to call
+     * @param <T>
+     *  the type of the result
+     * @return
+     *  the result of the task
+     * @throws Exception
+     *  if the task failed
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+
+        final Optional<SeleniumContext> previousContext = SeleniumContext.bind(context);
+        final Optional<ResponseTimeCollector> previousCollector = ResponseTimeCollector.bind(collector);
+        try {
+            return task.call();
+        } finally {
+            ResponseTimeCollector.bind(previousCollector);
+            SeleniumContext.bind(previousContext);
+        }
+    }
+
+    /**
+     * Wraps the task so that it runs with the captured state on whatever thread it is executed.
+     * @param task
+     *  the task to wrap
+     * @return
+     *  a runnable installing the captured state
+     */
+    public Runnable wrap(Runnable task) {
+
+        return () -> run(task);
+    }
+
+    /**
+     * Wraps the task so that it is called with the captured state on whatever thread it is executed.
+     * @param task
+     *  the task to wrap
+     * @param <T>
+     *  the type of the result
+     * @return
+     *  a callable installing the captured state
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+
+        return () -> call(task);
+    }
+}
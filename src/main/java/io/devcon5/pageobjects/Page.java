@@ -17,7 +17,8 @@
 package io.devcon5.pageobjects;
 
 import static io.devcon5.pageobjects.SeleniumContext.currentDriver;
-import static io.devcon5.pageobjects.tx.TransactionHelper.getClassTxName;
+import static io.devcon5.pageobjects.measure.TransactionRegistry.NO_TRANSACTION;
+import static io.devcon5.pageobjects.tx.TransactionHelper.getClassTxId;
 
 import java.util.Optional;
 
@@ -61,15 +62,19 @@ public interface Page extends ElementGroup {
     static <T extends Page> T navigateTo(Class<T> pageType) {
 
         final T page = PageLoader.loadPage(pageType);
+        final int txId = getClassTxId(pageType);
         final Optional<TransactionSupport> tx = Optional.ofNullable(TransactionSupport.class.isAssignableFrom(pageType)
+                                                                    && txId != NO_TRANSACTION
                                                                ? (TransactionSupport) page
                                                                : null);
-        tx.ifPresent(ts -> getClassTxName(pageType).ifPresent(ts::txBegin));
+        tx.ifPresent(ts -> ts.txBegin(txId));
         try {
             page.loadPage();
-        } finally {
-            tx.ifPresent(ts -> getClassTxName(pageType).ifPresent(ts::txEnd));
+        } catch (RuntimeException | Error e) {
+            tx.ifPresent(ts -> ts.txEnd(txId, e));
+            throw e;
         }
+        tx.ifPresent(ts -> ts.txEnd(txId));
 
         page.locateElements();
         return page;
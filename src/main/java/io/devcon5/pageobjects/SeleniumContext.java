@@ -60,6 +60,21 @@ public class SeleniumContext {
         return CONTEXT.get();
     }
 
+    /**
+     * Binds the context to the current thread without initializing it. Use this method to make an already
+     * initialized context available to another thread, i.e. see {@link io.devcon5.pageobjects.ContextCarrier}.
+     * @param context
+     *  the context to bind to the current thread or the empty optional to unbind the current context
+     * @return
+     *  the context that was bound to the current thread before
+     */
+    public static Optional<SeleniumContext> bind(Optional<SeleniumContext> context) {
+
+        final Optional<SeleniumContext> previous = CONTEXT.get();
+        CONTEXT.set(context);
+        return previous;
+    }
+
     /**
      * Global accessor to the current web driver, which is stored in a thread local.
      * @return
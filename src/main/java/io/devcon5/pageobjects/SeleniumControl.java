@@ -26,6 +26,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import io.devcon5.pageobjects.measure.TimeSource;
 import io.inkstand.scribble.rules.ExternalResource;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
@@ -79,13 +80,13 @@ public class SeleniumControl extends ExternalResource {
             d.get(baseUrl);
             driverInit.ifPresent(di -> di.accept(d.manage()));
         });
-        this.startTime = Instant.now();
+        this.startTime = TimeSource.current().now();
     }
 
     @Override
     protected void after() {
 
-        final Instant finishTime = Instant.now();
+        final Instant finishTime = TimeSource.current().now();
         this.managedContext.ifPresent(SeleniumContext::destroy);
         this.testDuration = Duration.between(this.startTime, finishTime);
         LOG.info("Test executed in {} s", this.testDuration.getSeconds());
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+
+/**
+ * Execution mode for running many concurrent user flows, one thread per user. On a JVM supporting virtual threads
+ * (Java 21+) each user runs on its own virtual thread, on older JVMs platform threads are used instead.
+ * Each user is executed in its own scope, meaning a {@link io.devcon5.pageobjects.SeleniumContext} and a
+ * {@link io.devcon5.pageobjects.measure.ResponseTimeCollector} are created for and bound to the user thread only
+ * as long as the user flow runs. The binding is not inherited by threads started by the user flow, use
+ * the {@link io.devcon5.pageobjects.ContextCarrier} to propagate it explicitly.
+ */
+public final class UserThreads {
+
+    private static final Logger LOG = getLogger(UserThreads.class);
+
+    private static final boolean VIRTUAL_THREADS_SUPPORTED = virtualThreadFactory("probe-").isPresent();
+
+    private UserThreads() {
+    }
+
+    /**
+     * Indicates whether the current JVM supports virtual threads.
+     * @return
+     *  true if users are run on virtual threads
+     */
+    public static boolean isVirtualThreadSupported() {
+
+        return VIRTUAL_THREADS_SUPPORTED;
+    }
+
+    /**
+     * Creates a thread factory for user threads. Threads are virtual threads, if supported by the JVM, otherwise
+     * daemon platform threads.
+     * @param namePrefix
+     *  the prefix for the names of the created threads. The threads are numbered consecutively.
+     * @return
+     *  a factory for user threads
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+
+        return virtualThreadFactory(namePrefix).orElseGet(() -> platformThreadFactory(namePrefix));
+    }
+
+    /**
+     * Creates an executor that starts a new thread for each submitted task. If the JVM supports virtual threads,
+     * every task is run on a new virtual thread, otherwise a cached pool of platform threads is used.
+     * @param namePrefix
+     *  the prefix for the names of the user threads
+     * @return
+     *  an executor for user flows. The executor should be shutdown after use.
+     */
+    public static ExecutorService newUserExecutor(String namePrefix) {
+
+        final ThreadFactory factory = threadFactory(namePrefix);
+        if (VIRTUAL_THREADS_SUPPORTED) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                        .invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                LOG.debug("Could not create thread-per-task executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    /**
+     * Wraps the user flow in its own scope. When the returned callable is invoked, a new
+     * {@link io.devcon5.pageobjects.SeleniumContext} and a new
+     * {@link io.devcon5.pageobjects.measure.ResponseTimeCollector} are bound to the executing thread. Both are
+     * released when the user flow is done, the driver is quit.
+     * @param driverProvider
+     *  the provider for the web driver of the user
+     * @param baseUrl
+     *  the base url to resolve relative urls of the page object model
+     * @param userFlow
+     *  the user flow to execute
+     * @param <T>
+     *  the result type of the user flow
+     * @return
+     *  a callable running the user flow in its own scope
+     */
+    public static <T> Callable<T> scoped(Supplier<WebDriver> driverProvider, String baseUrl, Callable<T> userFlow) {
+
+        return scoped(driverProvider, ResponseTimeCollector::new, baseUrl, userFlow);
+    }
+
+    /**
+     * Wraps the user flow in its own scope. When the returned callable is invoked, a new
+     * {@link io.devcon5.pageobjects.SeleniumContext} and a collector of the collector provider are bound to the
+     * executing thread, i.e. a buffered {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}. Both are
+     * released when the user flow is done, the driver is quit and the collector is flushed.
+     * @param driverProvider
+     *  the provider for the web driver of the user
+     * @param collectorProvider
+     *  the provider for the response time collector of the user
+     * @param baseUrl
+     *  the base url to resolve relative urls of the page object model
+     * @param userFlow
+     *  the user flow to execute
+     * @param <T>
+     *  the result type of the user flow
+     * @return
+     *  a callable running the user flow in its own scope
+     */
+    public static <T> Callable<T> scoped(Supplier<WebDriver> driverProvider,
+                                         Supplier<ResponseTimeCollector> collectorProvider,
+                                         String baseUrl,
+                                         Callable<T> userFlow) {
+
+        return () -> {
+            final SeleniumContext context = new SeleniumContext(driverProvider);
+            final ResponseTimeCollector collector = collectorProvider.get();
+            context.setBaseUrl(baseUrl);
+            context.init();
+            try {
+                collector.startCollecting();
+                try {
+                    return userFlow.call();
+                } finally {
+                    collector.stopCollecting();
+                }
+            } finally {
+                context.destroy();
+            }
+        };
+    }
+
+    /**
+     * Creates a factory for virtual threads. As the library is compiled for Java 8, the factory is obtained
+     * reflectively.
+     * @param namePrefix
+     *  the prefix of the thread names
+     * @return
+     *  a thread factory or the empty optional if virtual threads are not supported
+     */
+    private static Optional<ThreadFactory> virtualThreadFactory(String namePrefix) {
+
+        try {
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            final Object builder = builderType.getMethod("name", String.class, long.class)
+                                              .invoke(Thread.class.getMethod("ofVirtual").invoke(null), namePrefix, 0L);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.trace("Virtual threads not supported", e);
+            return Optional.empty();
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String namePrefix) {
+
+        final AtomicLong counter = new AtomicLong();
+        return r -> {
+            final Thread t = new Thread(r, namePrefix + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
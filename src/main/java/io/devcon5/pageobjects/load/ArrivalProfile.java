@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * Profile of the target arrival rate of scenario iterations for an open workload model. A profile consists of one
+ * or more consecutive segments, each having a constant rate or a rate linearly ramping from one rate to another.
+ * Rates are specified in iterations per second.
+ * <pre>
+ *     ArrivalProfile.ramp(0, 10, Duration.ofMinutes(1))
+ *                   .thenConstant(10, Duration.ofMinutes(10));
+ * </pre>
+ * The profile is immutable.
+ */
+public final class ArrivalProfile {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final double EPSILON = 1e-9;
+
+    private final List<Segment> segments;
+
+    private ArrivalProfile(List<Segment> segments) {
+
+        this.segments = Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Creates a profile with a constant arrival rate
+     * @param ratePerSecond
+     *  the number of iterations started per second
+     * @param duration
+     *  the duration of the profile
+     * @return
+     *  a new profile
+     */
+    public static ArrivalProfile constant(double ratePerSecond, Duration duration) {
+
+        return ramp(ratePerSecond, ratePerSecond, duration);
+    }
+
+    /**
+     * Creates a profile with an arrival rate that changes linearly over time
+     * @param fromRate
+     *  the arrival rate at the beginning of the profile in iterations per second
+     * @param toRate
+     *  the arrival rate at the end of the profile in iterations per second
+     * @param duration
+     *  the duration of the profile
+     * @return
+     *  a new profile
+     */
+    public static ArrivalProfile ramp(double fromRate, double toRate, Duration duration) {
+
+        return new ArrivalProfile(Collections.singletonList(new Segment(fromRate, toRate, duration)));
+    }
+
+    /**
+     * Creates a profile where the arrival rate is increased stepwise.
+     * @param startRate
+     *  the arrival rate of the first step in iterations per second
+     * @param increment
+     *  the amount the arrival rate is increased (or decreased, if negative) with each step
+     * @param steps
+     *  the number of steps
+     * @param stepDuration
+     *  the duration of each step
+     * @return
+     *  a new profile
+     */
+    public static ArrivalProfile steps(double startRate, double increment, int steps, Duration stepDuration) {
+
+        if (steps < 1) {
+            throw new IllegalArgumentException("At least one step is required");
+        }
+        ArrivalProfile profile = constant(startRate, stepDuration);
+        for (int i = 1; i < steps; i++) {
+            profile = profile.thenConstant(startRate + i * increment, stepDuration);
+        }
+        return profile;
+    }
+
+    /**
+     * Appends a segment with a constant arrival rate to this profile
+     * @param ratePerSecond
+     *  the number of iterations started per second
+     * @param duration
+     *  the duration of the segment
+     * @return
+     *  a new profile
+     */
+    public ArrivalProfile thenConstant(double ratePerSecond, Duration duration) {
+
+        return thenRamp(ratePerSecond, ratePerSecond, duration);
+    }
+
+    /**
+     * Appends a segment with a linearly changing arrival rate to this profile
+     * @param fromRate
+     *  the arrival rate at the beginning of the segment in iterations per second
+     * @param toRate
+     *  the arrival rate at the end of the segment in iterations per second
+     * @param duration
+     *  the duration of the segment
+     * @return
+     *  a new profile
+     */
+    public ArrivalProfile thenRamp(double fromRate, double toRate, Duration duration) {
+
+        final List<Segment> result = new ArrayList<>(segments);
+        result.add(new Segment(fromRate, toRate, duration));
+        return new ArrivalProfile(result);
+    }
+
+    /**
+     * The total duration of the profile
+     * @return
+     *  the sum of the durations of all segments
+     */
+    public Duration getDuration() {
+
+        return segments.stream().map(s -> s.duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * The target arrival rate at a specific point in time of the profile.
+     * @param elapsed
+     *  the time elapsed since the start of the profile
+     * @return
+     *  the target arrival rate in iterations per second. After the end of the profile, the rate is 0.
+     */
+    public double rateAt(Duration elapsed) {
+
+        Duration segmentStart = Duration.ZERO;
+        for (Segment segment : segments) {
+            final Duration segmentEnd = segmentStart.plus(segment.duration);
+            if (elapsed.compareTo(segmentEnd) < 0) {
+                return segment.rateAt(elapsed.minus(segmentStart).toNanos() / NANOS_PER_SECOND);
+            }
+            segmentStart = segmentEnd;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates an iterator over the scheduled start times of all iterations of this profile. The n-th iteration
+     * starts at the point in time where the integral of the arrival rate reaches n, so that the first iteration
+     * starts immediately.
+     * @return
+     *  the start times in nanoseconds relative to the start of the profile, in ascending order
+     */
+    PrimitiveIterator.OfLong arrivals() {
+
+        return new PrimitiveIterator.OfLong() {
+
+            private int segment;
+            private double segmentStart;
+            private double arrivalsBeforeSegment;
+            private long arrival;
+            private long next = -1;
+
+            @Override
+            public boolean hasNext() {
+
+                if (next < 0) {
+                    next = advance();
+                }
+                return next >= 0;
+            }
+
+            @Override
+            public long nextLong() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final long result = next;
+                next = -1;
+                return result;
+            }
+
+            private long advance() {
+
+                while (segment < segments.size()) {
+                    final Segment current = segments.get(segment);
+                    final double count = arrival - arrivalsBeforeSegment;
+                    if (count < current.arrivals() - EPSILON) {
+                        arrival++;
+                        return Math.round((segmentStart + current.timeOf(count)) * NANOS_PER_SECOND);
+                    }
+                    arrivalsBeforeSegment += current.arrivals();
+                    segmentStart += current.seconds;
+                    segment++;
+                }
+                return -1;
+            }
+        };
+    }
+
+    /**
+     * A segment of the profile with a linear changing arrival rate
+     */
+    private static final class Segment {
+
+        final double fromRate;
+        final double toRate;
+        final Duration duration;
+        final double seconds;
+
+        Segment(double fromRate, double toRate, Duration duration) {
+
+            Objects.requireNonNull(duration, "Duration must not be null");
+            if (fromRate < 0 || toRate < 0) {
+                throw new IllegalArgumentException("Arrival rate must not be negative");
+            }
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException("Duration must not be negative");
+            }
+            this.fromRate = fromRate;
+            this.toRate = toRate;
+            this.duration = duration;
+            this.seconds = duration.toNanos() / NANOS_PER_SECOND;
+        }
+
+        double rateAt(double elapsedSeconds) {
+
+            return fromRate + (toRate - fromRate) * elapsedSeconds / seconds;
+        }
+
+        /**
+         * The number of arrivals within the segment, the integral of the rate over the segment duration
+         */
+        double arrivals() {
+
+            return (fromRate + toRate) / 2 * seconds;
+        }
+
+        /**
+         * Solves {@code fromRate * t + slope * t^2 / 2 = count} for the time t (in seconds relative to the
+         * segment start) of the given number of arrivals. The numerically stable form of the quadratic solution
+         * also covers a constant rate (slope = 0).
+         */
+        double timeOf(double count) {
+
+            if (count <= 0) {
+                return 0;
+            }
+            final double slope = (toRate - fromRate) / seconds;
+            return 2 * count / (fromRate + Math.sqrt(Math.max(0, fromRate * fromRate + 2 * slope * count)));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.devcon5.pageobjects.UserThreads;
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.measure.TimeSource;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+
+/**
+ * Scheduler for an open workload model. Other than the closed model of the
+ * {@link io.devcon5.pageobjects.load.LoadGenerator}, where a fixed number of virtual users run the scenario one
+ * iteration after the other, the scheduler starts new iterations at the target arrival rate of an
+ * {@link io.devcon5.pageobjects.load.ArrivalProfile}, regardless of how long the previous iterations take. So a
+ * slowdown of the system under test is not hidden by a lower rate of requests.
+ * <br>
+ * Every iteration is run by a new virtual user with its own {@link io.devcon5.pageobjects.SeleniumContext} and
+ * {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}. In addition to the transactions of the scenario,
+ * each iteration is recorded as a transaction itself, whose scheduled start is the point in time defined by the
+ * profile, so that its {@link io.devcon5.pageobjects.measure.ResponseTime#getQueueingDelay()} denotes how late the
+ * iteration was actually started. Iterations are delayed, i.e. if the maximum number of concurrent iterations
+ * is reached or the creation of the driver takes long.
+ * <br>
+ * Iterations are scheduled using {@link System#nanoTime()}, while the recorded points in time are taken from the
+ * current {@link io.devcon5.pageobjects.measure.TimeSource}.
+ */
+public class ArrivalRateScheduler {
+
+    private static final Logger LOG = getLogger(ArrivalRateScheduler.class);
+
+    private Supplier<WebDriver> driverProvider;
+    private String baseUrl;
+    private Scenario scenario;
+    private ArrivalProfile profile;
+    private String transaction;
+    private int maxConcurrency;
+
+    private ArrivalRateScheduler() {
+    }
+
+    /**
+     * Runs the load test and blocks until all iterations have finished.
+     * @return
+     *  the result of the load test
+     * @throws InterruptedException
+     *  if the current thread was interrupted while scheduling or waiting for iterations. All running iterations
+     *  are interrupted as well.
+     */
+    public LoadResult run() throws InterruptedException {
+
+        final Instant start = TimeSource.current().now();
+        final long startNanos = System.nanoTime();
+        final long startVersion = ResponseTimes.getVersion();
+        final LongAdder iterationCount = new LongAdder();
+        final LongAdder failureCount = new LongAdder();
+        final Semaphore concurrency = new Semaphore(maxConcurrency);
+        final ExecutorService executor = UserThreads.newUserExecutor("arrival-");
+        try {
+            final PrimitiveIterator.OfLong arrivals = profile.arrivals();
+            int arrival = 0;
+            while (arrivals.hasNext()) {
+                final long scheduledNanos = arrivals.nextLong();
+                LoadGenerator.sleepUntil(startNanos + scheduledNanos);
+                final VirtualUser user = new VirtualUser(arrival++);
+                final Instant scheduledStart = start.plusNanos(scheduledNanos);
+                executor.execute(() -> runIteration(user, scheduledStart, concurrency, iterationCount, failureCount));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOG.debug("Waiting for {} iterations to finish", maxConcurrency - concurrency.availablePermits());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final Map<String, List<ResponseTime>> responseTimes = LoadGenerator.responseTimesSince(startVersion);
+        return new LoadResult(start,
+                              Duration.ofNanos(System.nanoTime() - startNanos),
+                              iterationCount.sum(),
+                              failureCount.sum(),
+                              responseTimes,
+                              LoadGenerator.summaryOf(responseTimes));
+    }
+
+    private void runIteration(VirtualUser user,
+                              Instant scheduledStart,
+                              Semaphore concurrency,
+                              LongAdder iterationCount,
+                              LongAdder failureCount) {
+
+        try {
+            concurrency.acquire();
+            try {
+                UserThreads.scoped(driverProvider, baseUrl, () -> {
+                    final TimeSource clock = TimeSource.current();
+                    final long startNanos = clock.nanoTime();
+                    try {
+                        scenario.run(user);
+                    } catch (Exception | Error e) {
+                        captureIteration(clock, scheduledStart, startNanos, e);
+                        throw e;
+                    }
+                    captureIteration(clock, scheduledStart, startNanos, null);
+                    return null;
+                }).call();
+            } finally {
+                concurrency.release();
+            }
+            iterationCount.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            iterationCount.increment();
+            failureCount.increment();
+            LOG.debug("Iteration of user {} failed", user.getId(), e);
+        }
+    }
+
+    private void captureIteration(TimeSource clock, Instant scheduledStart, long startNanos, Throwable exception) {
+
+        final Duration duration = clock.elapsedSince(startNanos);
+        ResponseTimeCollector.current().ifPresent(rtc -> rtc.captureTx(transaction,
+                                                                       scheduledStart,
+                                                                       clock.toInstant(startNanos),
+                                                                       duration,
+                                                                       exception));
+    }
+
+    /**
+     * Creates a new builder for fluent setup of an open model load test
+     * @return
+     *  a new builder
+     */
+    public static ArrivalRateSchedulerBuilder builder() {
+
+        return new ArrivalRateSchedulerBuilder();
+    }
+
+    /**
+     * Builder for creating an arrival rate scheduler
+     */
+    public static class ArrivalRateSchedulerBuilder {
+
+        private Supplier<WebDriver> driver;
+        private String baseUrl;
+        private Scenario scenario;
+        private ArrivalProfile profile;
+        private String transaction = "Iteration";
+        private int maxConcurrency = Integer.MAX_VALUE;
+
+        ArrivalRateSchedulerBuilder() {
+
+        }
+
+        public ArrivalRateSchedulerBuilder driver(Supplier<WebDriver> driver) {
+
+            this.driver = driver;
+            return this;
+        }
+
+        public ArrivalRateSchedulerBuilder baseUrl(String baseUrl) {
+
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public ArrivalRateSchedulerBuilder scenario(Scenario scenario) {
+
+            this.scenario = scenario;
+            return this;
+        }
+
+        public ArrivalRateSchedulerBuilder profile(ArrivalProfile profile) {
+
+            this.profile = profile;
+            return this;
+        }
+
+        /**
+         * The name of the transaction recording each iteration including its queueing delay. Default is
+         * "Iteration".
+         */
+        public ArrivalRateSchedulerBuilder transaction(String transaction) {
+
+            this.transaction = transaction;
+            return this;
+        }
+
+        /**
+         * The maximum number of concurrently running iterations. Iterations exceeding this limit are queued until
+         * another iteration has finished. Default is unlimited.
+         */
+        public ArrivalRateSchedulerBuilder maxConcurrency(int maxConcurrency) {
+
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public ArrivalRateScheduler build() {
+
+            Objects.requireNonNull(driver, "Driver must not be null");
+            Objects.requireNonNull(baseUrl, "BaseUrl must not be null");
+            Objects.requireNonNull(scenario, "Scenario must not be null");
+            Objects.requireNonNull(profile, "Profile must not be null");
+            Objects.requireNonNull(transaction, "Transaction must not be null");
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("Max concurrency must be at least 1");
+            }
+            final ArrivalRateScheduler scheduler = new ArrivalRateScheduler();
+            scheduler.driverProvider = this.driver;
+            scheduler.baseUrl = this.baseUrl;
+            scheduler.scenario = this.scenario;
+            scheduler.profile = this.profile;
+            scheduler.transaction = this.transaction;
+            scheduler.maxConcurrency = this.maxConcurrency;
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.devcon5.pageobjects.UserThreads;
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimeSummary;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.measure.TimeSource;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+
+/**
+ * Generates load by running a {@link io.devcon5.pageobjects.load.Scenario} with a number of concurrent virtual users.
+ * Each virtual user runs on its own user thread (see {@link io.devcon5.pageobjects.UserThreads}) with its own
+ * {@link io.devcon5.pageobjects.SeleniumContext} and {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}.
+ * The load test runs in three phases:
+ * <ul>
+ *     <li>ramp-up: the virtual users are started evenly distributed over the ramp-up time</li>
+ *     <li>steady state: all users run the scenario repeatedly</li>
+ *     <li>ramp-down: the virtual users are stopped evenly distributed over the ramp-down time. A virtual user always
+ *     completes its current iteration.</li>
+ * </ul>
+ * Without a steady state duration, each virtual user runs until it has completed the configured number of
+ * iterations. With both, a user stops on whatever limit is reached first.
+ * <br>
+ * To generate realistic load, the scenario should use think times between interactions (see
+ * {@link io.devcon5.pageobjects.load.VirtualUser#think()}) and iterations may be paced to a target length. The
+ * pacing waits after an iteration until the target length is reached. Think time and pacing are recorded as separate
+ * transactions and are not included in the duration of other transactions.
+ * <br>
+ * As each virtual user waits for an iteration to finish before it starts the next one, a stall of the system
+ * under test delays the iterations that should have been run in the meantime, so their response times are never
+ * recorded. For paced iterations, the statistics of the {@link io.devcon5.pageobjects.load.LoadResult} can be
+ * corrected for this coordinated omission against the pacing, see
+ * {@link LoadGeneratorBuilder#correctCoordinatedOmission()}.
+ * <pre>
+ *     LoadResult result = LoadGenerator.builder()
+ *                                      .driver(Drivers.HEADLESS)
+ *                                      .baseUrl("http://localhost:8080")
+ *                                      .users(100)
+ *                                      .rampUp(Duration.ofSeconds(30))
+ *                                      .steadyState(Duration.ofMinutes(10))
+ *                                      .scenario(user -&gt; Page.navigateTo(LoginPage.class).login())
+ *                                      .build()
+ *                                      .run();
+ * </pre>
+ * All transactions are recorded into the global {@link io.devcon5.pageobjects.measure.ResponseTimes} table. The
+ * {@link io.devcon5.pageobjects.load.LoadResult} contains the response times added to that table during the run.
+ * <br>
+ * An iteration fails if the scenario throws any exception or error, i.e. an {@link AssertionError} of a page object
+ * flow. Failed iterations are counted and the virtual user continues with its next iteration.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOG = getLogger(LoadGenerator.class);
+
+    private Supplier<WebDriver> driverProvider;
+    private String baseUrl;
+    private Scenario scenario;
+    private int users;
+    private long iterations;
+    private Duration rampUp;
+    private Optional<Duration> steadyState;
+    private Duration rampDown;
+    private ThinkTime thinkTime;
+    private Optional<ThinkTime> pacing;
+    private Optional<Duration> expectedInterval;
+    private Supplier<ResponseTimeCollector> collector;
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Runs the load test and blocks until all virtual users have finished.
+     * @return
+     *  the result of the load test
+     * @throws InterruptedException
+     *  if the current thread was interrupted while waiting for the users. All virtual users are interrupted as well.
+     */
+    public LoadResult run() throws InterruptedException {
+
+        final Instant start = TimeSource.current().now();
+        final long startNanos = System.nanoTime();
+        final long startVersion = ResponseTimes.getVersion();
+        final LongAdder iterationCount = new LongAdder();
+        final LongAdder failureCount = new LongAdder();
+        final ExecutorService executor = UserThreads.newUserExecutor("vu-");
+        final Optional<Duration> previousInterval = ResponseTimes.getExpectedInterval();
+        expectedInterval.ifPresent(ResponseTimes::setExpectedInterval);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                final VirtualUser user = new VirtualUser(i, thinkTime);
+                futures.add(executor.submit(UserThreads.scoped(driverProvider, collector, baseUrl, () -> {
+                    runUser(user, startNanos, iterationCount, failureCount);
+                    return null;
+                })));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Virtual user aborted", e.getCause());
+                }
+            }
+            final Map<String, List<ResponseTime>> responseTimes = responseTimesSince(startVersion);
+            return new LoadResult(start,
+                                  Duration.ofNanos(System.nanoTime() - startNanos),
+                                  iterationCount.sum(),
+                                  failureCount.sum(),
+                                  responseTimes,
+                                  summaryOf(responseTimes));
+        } finally {
+            executor.shutdownNow();
+            if (expectedInterval.isPresent()) {
+                ResponseTimes.setExpectedInterval(previousInterval.orElse(null));
+            }
+        }
+    }
+
+    /**
+     * Runs the scenario repeatedly for a single virtual user until one of the limits is reached.
+     */
+    private void runUser(VirtualUser user, long startNanos, LongAdder iterationCount, LongAdder failureCount)
+            throws InterruptedException {
+
+        sleepUntil(startNanos + startOffset(user.getId()).toNanos());
+        final Optional<Long> stopNanos = steadyState.map(
+                steady -> startNanos + rampUp.plus(steady).plus(stopOffset(user.getId())).toNanos());
+        while (hasNextIteration(user, stopNanos)) {
+            final long iterationStart = System.nanoTime();
+            try {
+                scenario.run(user);
+            } catch (InterruptedException | VirtualMachineError e) {
+                throw e;
+            } catch (Throwable e) {
+                failureCount.increment();
+                LOG.debug("Iteration {} of user {} failed", user.getIteration(), user.getId(), e);
+            } finally {
+                iterationCount.increment();
+                user.nextIteration();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Virtual user " + user.getId() + " interrupted");
+            }
+            if (pacing.isPresent() && hasNextIteration(user, stopNanos)) {
+                final long target = iterationStart + pacing.get().next().toNanos();
+                user.idle(VirtualUser.PACING_TX,
+                          stopNanos.filter(stop -> stop - target < 0).orElse(target));
+            }
+        }
+    }
+
+    private boolean hasNextIteration(VirtualUser user, Optional<Long> stopNanos) {
+
+        return (iterations == 0 || user.getIteration() < iterations)
+                && stopNanos.map(stop -> System.nanoTime() - stop < 0).orElse(true);
+    }
+
+    private Duration startOffset(int user) {
+
+        return rampUp.multipliedBy(user).dividedBy(users);
+    }
+
+    private Duration stopOffset(int user) {
+
+        return rampDown.multipliedBy(user).dividedBy(users);
+    }
+
+    /**
+     * Collects the response times finished since the version of the global response time collection, so that the
+     * response times recorded before the load test are not part of its result.
+     * @param version
+     *  the version of the collection at the start of the load test
+     * @return
+     *  a map of transaction names to the response times of that transaction finished since the version
+     */
+    static Map<String, List<ResponseTime>> responseTimesSince(long version) {
+
+        final Map<String, List<ResponseTime>> result = new HashMap<>();
+        for (ResponseTime rt : ResponseTimes.getResponseTimesSince(version).getResponseTimes()) {
+            result.computeIfAbsent(rt.getTransaction(), tx -> new ArrayList<>()).add(rt);
+        }
+        result.replaceAll((tx, responseTimes) -> Collections.unmodifiableList(responseTimes));
+        return result;
+    }
+
+    /**
+     * Creates the summary of the response times of a load test
+     * @param responseTimes
+     *  the response times of the load test per transaction name
+     * @return
+     *  the summary of the response times
+     */
+    static ResponseTimeSummary summaryOf(Map<String, List<ResponseTime>> responseTimes) {
+
+        final List<ResponseTime> all = new ArrayList<>();
+        responseTimes.values().forEach(all::addAll);
+        return ResponseTimes.getSummary(all);
+    }
+
+    static void sleepUntil(long deadlineNanos) throws InterruptedException {
+
+        final long remaining = deadlineNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * Creates a new builder for fluent setup of a load test
+     * @return
+     *  a new builder
+     */
+    public static LoadGeneratorBuilder builder() {
+
+        return new LoadGeneratorBuilder();
+    }
+
+    /**
+     * Builder for creating a load generator
+     */
+    public static class LoadGeneratorBuilder {
+
+        private Supplier<WebDriver> driver;
+        private String baseUrl;
+        private Scenario scenario;
+        private int users = 1;
+        private long iterations;
+        private Duration rampUp = Duration.ZERO;
+        private Duration steadyState;
+        private Duration rampDown = Duration.ZERO;
+        private ThinkTime thinkTime = ThinkTime.none();
+        private ThinkTime pacing;
+        private Duration fixedPacing;
+        private boolean correctCoordinatedOmission;
+        private Duration expectedInterval;
+        private Supplier<ResponseTimeCollector> collector = ResponseTimeCollector::new;
+
+        LoadGeneratorBuilder() {
+
+        }
+
+        public LoadGeneratorBuilder driver(Supplier<WebDriver> driver) {
+
+            this.driver = driver;
+            return this;
+        }
+
+        public LoadGeneratorBuilder baseUrl(String baseUrl) {
+
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public LoadGeneratorBuilder scenario(Scenario scenario) {
+
+            this.scenario = scenario;
+            return this;
+        }
+
+        /**
+         * The number of concurrent virtual users. Default is 1.
+         */
+        public LoadGeneratorBuilder users(int users) {
+
+            this.users = users;
+            return this;
+        }
+
+        /**
+         * The number of iterations each virtual user runs the scenario. Default is 0, that is unlimited, in which
+         * case a steady state duration must be set.
+         */
+        public LoadGeneratorBuilder iterations(long iterations) {
+
+            this.iterations = iterations;
+            return this;
+        }
+
+        public LoadGeneratorBuilder rampUp(Duration rampUp) {
+
+            this.rampUp = rampUp;
+            return this;
+        }
+
+        public LoadGeneratorBuilder steadyState(Duration steadyState) {
+
+            this.steadyState = steadyState;
+            return this;
+        }
+
+        /**
+         * The duration in which the users stop one after another at the end of the steady state. Requires a
+         * {@link #steadyState(Duration)}, as users running a fixed number of iterations stop when they are done.
+         * Default is none.
+         */
+        public LoadGeneratorBuilder rampDown(Duration rampDown) {
+
+            this.rampDown = rampDown;
+            return this;
+        }
+
+        /**
+         * The default think time of the virtual users, used by {@link VirtualUser#think()}. Default is none.
+         */
+        public LoadGeneratorBuilder thinkTime(ThinkTime thinkTime) {
+
+            this.thinkTime = thinkTime;
+            return this;
+        }
+
+        /**
+         * Paces the iterations of each virtual user to a fixed target length.
+         */
+        public LoadGeneratorBuilder pacing(Duration iterationLength) {
+
+            pacing(ThinkTime.fixed(iterationLength));
+            this.fixedPacing = iterationLength;
+            return this;
+        }
+
+        /**
+         * Paces the iterations of each virtual user to a target length of the given distribution. If an iteration
+         * takes longer than the target length, the next iteration is started immediately.
+         */
+        public LoadGeneratorBuilder pacing(ThinkTime iterationLength) {
+
+            this.pacing = iterationLength;
+            this.fixedPacing = null;
+            return this;
+        }
+
+        /**
+         * Corrects the statistics of the load result for coordinated omission against the fixed pacing of the
+         * iterations, see {@link ResponseTimes#setExpectedInterval(Duration)}. Requires a pacing set by
+         * {@link #pacing(Duration)}.
+         */
+        public LoadGeneratorBuilder correctCoordinatedOmission() {
+
+            this.correctCoordinatedOmission = true;
+            return this;
+        }
+
+        /**
+         * Corrects the statistics of the load result for coordinated omission against the expected interval between
+         * two iterations of a virtual user, i.e. the mean of a pacing distribution.
+         */
+        public LoadGeneratorBuilder correctCoordinatedOmission(Duration expectedInterval) {
+
+            this.correctCoordinatedOmission = true;
+            this.expectedInterval = expectedInterval;
+            return this;
+        }
+
+        /**
+         * The provider for the response time collector of each virtual user, i.e. to create buffered collectors
+         * with {@link ResponseTimeCollector#builder()} for a large number of users. Default is an unbuffered
+         * collector.
+         */
+        public LoadGeneratorBuilder collector(Supplier<ResponseTimeCollector> collector) {
+
+            this.collector = collector;
+            return this;
+        }
+
+        public LoadGenerator build() {
+
+            Objects.requireNonNull(driver, "Driver must not be null");
+            Objects.requireNonNull(baseUrl, "BaseUrl must not be null");
+            Objects.requireNonNull(scenario, "Scenario must not be null");
+            Objects.requireNonNull(rampUp, "RampUp must not be null");
+            Objects.requireNonNull(rampDown, "RampDown must not be null");
+            Objects.requireNonNull(thinkTime, "ThinkTime must not be null");
+            Objects.requireNonNull(collector, "Collector must not be null");
+            if (users < 1) {
+                throw new IllegalArgumentException("At least one user is required");
+            }
+            if (iterations < 1 && steadyState == null) {
+                throw new IllegalStateException("Either iterations or steady state duration must be set");
+            }
+            if (!rampDown.isZero() && steadyState == null) {
+                throw new IllegalStateException("RampDown requires a steady state duration");
+            }
+            final Duration interval = this.expectedInterval != null ? this.expectedInterval : this.fixedPacing;
+            if (correctCoordinatedOmission && (interval == null || interval.isNegative() || interval.isZero())) {
+                throw new IllegalArgumentException(
+                        "Coordinated omission correction requires a fixed pacing or a positive expected interval");
+            }
+            final LoadGenerator gen = new LoadGenerator();
+            gen.driverProvider = this.driver;
+            gen.baseUrl = this.baseUrl;
+            gen.scenario = this.scenario;
+            gen.users = this.users;
+            gen.iterations = Math.max(0, this.iterations);
+            gen.rampUp = this.rampUp;
+            gen.steadyState = Optional.ofNullable(this.steadyState);
+            gen.rampDown = this.rampDown;
+            gen.thinkTime = this.thinkTime;
+            gen.pacing = Optional.ofNullable(this.pacing);
+            gen.expectedInterval = correctCoordinatedOmission ? Optional.of(interval) : Optional.empty();
+            gen.collector = this.collector;
+            return gen;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeSummary;
+
+/**
+ * The aggregated result of a load test run by the {@link io.devcon5.pageobjects.load.LoadGenerator}.
+ */
+public class LoadResult {
+
+    private final Instant start;
+    private final Duration duration;
+    private final long iterations;
+    private final long failures;
+    private final Map<String, List<ResponseTime>> responseTimes;
+    private final ResponseTimeSummary summary;
+
+    LoadResult(Instant start,
+               Duration duration,
+               long iterations,
+               long failures,
+               Map<String, List<ResponseTime>> responseTimes,
+               ResponseTimeSummary summary) {
+
+        this.start = start;
+        this.duration = duration;
+        this.iterations = iterations;
+        this.failures = failures;
+        this.responseTimes = responseTimes;
+        this.summary = summary;
+    }
+
+    /**
+     * The point in time the load test was started
+     * @return
+     *  the start of the load test
+     */
+    public Instant getStart() {
+
+        return start;
+    }
+
+    /**
+     * The duration of the entire load test including all phases
+     * @return
+     *  the duration of the load test
+     */
+    public Duration getDuration() {
+
+        return duration;
+    }
+
+    /**
+     * The number of scenario iterations executed by all virtual users
+     * @return
+     *  the total number of iterations
+     */
+    public long getIterations() {
+
+        return iterations;
+    }
+
+    /**
+     * The number of scenario iterations that failed with an exception
+     * @return
+     *  the number of failed iterations
+     */
+    public long getFailures() {
+
+        return failures;
+    }
+
+    /**
+     * The response times recorded in the global {@link io.devcon5.pageobjects.measure.ResponseTimes} table during
+     * the load test. Response times recorded before the load test was started are not included.
+     * @return
+     *  a map of transaction names to the recorded response times of that transaction
+     */
+    public Map<String, List<ResponseTime>> getResponseTimes() {
+
+        return responseTimes;
+    }
+
+    /**
+     * The summary of the response times of the load test, created from the same response times as
+     * {@link #getResponseTimes()}: the statistics of the successful transactions and the number of failed ones.
+     * If the load test was run with a
+     * correction for coordinated omission, the summary contains the corrected statistics next to the recorded ones.
+     * @return
+     *  the summary of the recorded response times
+     */
+    public ResponseTimeSummary getSummary() {
+
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(64)
+            .append("LoadResult{")
+            .append("start=").append(start)
+            .append(", duration=").append(duration)
+            .append(", iterations=").append(iterations)
+            .append(", failures=").append(failures)
+            .append(", transactions=").append(responseTimes.keySet())
+            .append('}');
+        return sb.toString();
+    }
+}
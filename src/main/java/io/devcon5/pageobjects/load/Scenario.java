@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+/**
+ * A scenario is the flow of a single user, written as plain code against the page object model. A scenario is
+ * executed repeatedly by every virtual user of a {@link io.devcon5.pageobjects.load.LoadGenerator}. When the scenario
+ * runs, the {@link io.devcon5.pageobjects.SeleniumContext} and the
+ * {@link io.devcon5.pageobjects.measure.ResponseTimeCollector} of the virtual user are bound to the current thread,
+ * so that pages can be navigated and transactions are recorded as in a regular test.
+ * <pre>
+ *     Scenario login = user -&gt; Page.navigateTo(LoginPage.class)
+ *                                 .enterUsername("user" + user.getId())
+ *                                 .enterPassword("secret")
+ *                                 .pressLogin();
+ * </pre>
+ */
+@FunctionalInterface
+public interface Scenario {
+
+    /**
+     * Runs a single iteration of the scenario
+     * @param user
+     *  the virtual user running the scenario
+     * @throws Exception
+     *  if the iteration failed. The failure is counted, the virtual user continues with the next iteration.
+     */
+    void run(VirtualUser user) throws Exception;
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution of the think time of a virtual user, that is the time a real user would spend reading a page or
+ * entering data before the next interaction. Think times make the generated load less bursty. The same
+ * distributions can be used for the pacing, the target length of a scenario iteration.
+ * Think time and pacing are recorded as transactions of their own and are excluded from the duration of
+ * transactions open at that time, see {@link io.devcon5.pageobjects.load.VirtualUser#think(ThinkTime)}.
+ */
+@FunctionalInterface
+public interface ThinkTime {
+
+    /**
+     * Determines the next think time
+     * @return
+     *  the duration of the next think time, never negative
+     */
+    Duration next();
+
+    /**
+     * No think time at all
+     * @return
+     *  a think time of zero
+     */
+    static ThinkTime none() {
+
+        return () -> Duration.ZERO;
+    }
+
+    /**
+     * A fixed think time
+     * @param duration
+     *  the duration of every think time
+     * @return
+     *  a constant think time
+     */
+    static ThinkTime fixed(Duration duration) {
+
+        Objects.requireNonNull(duration, "Duration must not be null");
+        return () -> duration;
+    }
+
+    /**
+     * Uniformly distributed think times
+     * @param min
+     *  the minimum think time (inclusive)
+     * @param max
+     *  the maximum think time (exclusive)
+     * @return
+     *  a uniformly distributed think time
+     */
+    static ThinkTime uniform(Duration min, Duration max) {
+
+        final long minNanos = min.toNanos();
+        final long maxNanos = max.toNanos();
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Max must not be less than min");
+        }
+        return () -> Duration.ofNanos(minNanos == maxNanos
+                                      ? minNanos
+                                      : ThreadLocalRandom.current().nextLong(minNanos, maxNanos));
+    }
+
+    /**
+     * Normally distributed think times. As think times can not be negative, the distribution is truncated at zero.
+     * @param mean
+     *  the mean think time
+     * @param stdDeviation
+     *  the standard deviation of the think time
+     * @return
+     *  a normally distributed think time
+     */
+    static ThinkTime normal(Duration mean, Duration stdDeviation) {
+
+        final long meanNanos = mean.toNanos();
+        final long stdDevNanos = stdDeviation.toNanos();
+        return () -> Duration.ofNanos(Math.max(0,
+                                               meanNanos + Math.round(ThreadLocalRandom.current().nextGaussian()
+                                                                              * stdDevNanos)));
+    }
+
+    /**
+     * Exponentially distributed think times, as they occur for independent events with a constant rate.
+     * @param mean
+     *  the mean think time
+     * @return
+     *  an exponentially distributed think time
+     */
+    static ThinkTime exponential(Duration mean) {
+
+        final long meanNanos = mean.toNanos();
+        return () -> Duration.ofNanos(Math.round(-meanNanos * Math.log(1 - ThreadLocalRandom.current().nextDouble())));
+    }
+}
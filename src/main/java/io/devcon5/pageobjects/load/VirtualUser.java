@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.TimeSource;
+
+/**
+ * A virtual user of a load test. Each virtual user runs on its own thread with its own
+ * {@link io.devcon5.pageobjects.SeleniumContext} and {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}.
+ * The virtual user is passed to every iteration of the {@link io.devcon5.pageobjects.load.Scenario} and is not
+ * thread-safe.
+ */
+public class VirtualUser {
+
+    /**
+     * Name of the transaction recording think times
+     */
+    public static final String THINK_TIME_TX = "ThinkTime";
+
+    /**
+     * Name of the transaction recording the pacing between iterations
+     */
+    public static final String PACING_TX = "Pacing";
+
+    private final int id;
+    private final ThinkTime thinkTime;
+    private long iteration;
+
+    VirtualUser(int id) {
+
+        this(id, ThinkTime.none());
+    }
+
+    VirtualUser(int id, ThinkTime thinkTime) {
+
+        this.id = id;
+        this.thinkTime = thinkTime;
+    }
+
+    /**
+     * The id of the virtual user. The users of a load test are numbered consecutively starting at 0.
+     * @return
+     *  the id of the user
+     */
+    public int getId() {
+
+        return id;
+    }
+
+    /**
+     * The number of the current iteration of the scenario for this user, starting at 0.
+     * @return
+     *  the current iteration
+     */
+    public long getIteration() {
+
+        return iteration;
+    }
+
+    /**
+     * Pauses the user for the default think time of the load test.
+     * @throws InterruptedException
+     *  if the user was interrupted while thinking
+     */
+    public void think() throws InterruptedException {
+
+        think(thinkTime);
+    }
+
+    /**
+     * Pauses the user for a think time of the given distribution. The think time is recorded as
+     * {@link #THINK_TIME_TX} transaction and is excluded from all transactions of the user that are open
+     * while thinking.
+     * @param thinkTime
+     *  the distribution of the think time
+     * @throws InterruptedException
+     *  if the user was interrupted while thinking
+     */
+    public void think(ThinkTime thinkTime) throws InterruptedException {
+
+        final Duration duration = thinkTime.next();
+        idle(THINK_TIME_TX, System.nanoTime() + duration.toNanos());
+    }
+
+    /**
+     * Pauses the user until the given deadline and records the paused time as transaction that is excluded from all
+     * open transactions.
+     * @param txName
+     *  the name of the transaction to record the idle time
+     * @param deadlineNanos
+     *  the {@link System#nanoTime()} until which the user should pause
+     * @throws InterruptedException
+     *  if the user was interrupted while waiting
+     */
+    void idle(String txName, long deadlineNanos) throws InterruptedException {
+
+        final long remaining = deadlineNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        final TimeSource clock = TimeSource.current();
+        final long startNanos = clock.nanoTime();
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        } finally {
+            final Duration duration = clock.elapsedSince(startNanos);
+            ResponseTimeCollector.current()
+                                 .ifPresent(rtc -> rtc.captureIdleTx(txName, clock.toInstant(startNanos), duration));
+        }
+    }
+
+    void nextIteration() {
+
+        iteration++;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only log of values. Neither appending nor reading takes a lock: an appending thread claims a slot by
+ * incrementing the claimed count, writes its value and publishes the slot. The values are stored in fixed size chunks
+ * that are never moved and slots are published in the order they were claimed, so that a reader sees all values up
+ * to the size it has read. An appending thread only waits for threads that claimed an earlier slot and have not
+ * published it yet, which takes no longer than writing a value. A snapshot of the log is a view of the values
+ * appended so far and is created without copying any value.
+ * @param <T>
+ *  the type of the values
+ */
+final class AppendLog<T> {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicReference<Object[][]> chunks = new AtomicReference<>(new Object[0][]);
+    private final AtomicInteger claimed = new AtomicInteger();
+    private volatile int size;
+
+    /**
+     * Appends a value to the log
+     * @param value
+     *  the value to append
+     */
+    void append(T value) {
+
+        publish(claim(value));
+    }
+
+    /**
+     * Writes a value into the next free slot without making it visible to readers. The slot has to be published
+     * with {@link #publish(int)}, even if the caller fails, as later slots are not visible before.
+     * @param value
+     *  the value to append
+     * @return
+     *  the position of the slot
+     */
+    int claim(T value) {
+
+        final int index = claimed.getAndIncrement();
+        chunk(index >>> CHUNK_BITS)[index & CHUNK_MASK] = value;
+        return index;
+    }
+
+    /**
+     * Makes a claimed slot visible to readers, after all slots claimed before are visible
+     * @param index
+     *  the position of the slot returned by {@link #claim(Object)}
+     */
+    void publish(int index) {
+
+        while (size != index) {
+            Thread.yield();
+        }
+        size = index + 1;
+    }
+
+    private Object[] chunk(int chunkIndex) {
+
+        Object[][] current = chunks.get();
+        while (chunkIndex >= current.length) {
+            final Object[][] grown = Arrays.copyOf(current, chunkIndex + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Object[CHUNK_SIZE];
+            }
+            current = chunks.compareAndSet(current, grown) ? grown : chunks.get();
+        }
+        return current[chunkIndex];
+    }
+
+    /**
+     * @return
+     *  the number of values in the log
+     */
+    int size() {
+
+        return size;
+    }
+
+    /**
+     * @param index
+     *  the position of the value, must be less than the size read before
+     * @return
+     *  the value at the position
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+
+        return (T) chunks.get()[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /**
+     * Creates a view of the values appended so far
+     * @return
+     *  an unmodifiable list of the values
+     */
+    List<T> snapshot() {
+
+        return view(0, size, Collections.emptyList());
+    }
+
+    /**
+     * Creates a view of a range of the values, followed by additional values
+     * @param from
+     *  the position of the first value, inclusive
+     * @param to
+     *  the position of the last value, exclusive. Must not be greater than the size read before
+     * @param tail
+     *  values that follow the range in the view
+     * @return
+     *  an unmodifiable list of the values
+     */
+    List<T> view(int from, int to, List<T> tail) {
+
+        return new View(from, to, tail);
+    }
+
+    private final class View extends AbstractList<T> implements RandomAccess {
+
+        private final int from;
+        private final int length;
+        private final List<T> tail;
+
+        View(int from, int to, List<T> tail) {
+
+            this.from = from;
+            this.length = to - from;
+            this.tail = tail;
+        }
+
+        @Override
+        public T get(int index) {
+
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return index < length ? AppendLog.this.get(from + index) : tail.get(index - length);
+        }
+
+        @Override
+        public int size() {
+
+            return length + tail.size();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+
+/**
+ * Consumer of response times that decouples the measured threads from a slow consumer, i.e. one that writes to a
+ * file, a database or the network. Response times are put into a bounded, preallocated ring buffer and delivered
+ * in batches to the actual consumer by a background thread. What happens if the buffer is full is defined by the
+ * {@link BackPressure} policy, response times that are not delivered are counted as dropped.
+ * <br>
+ * The consumer can be used for both, the start and the end of a measure:
+ * <pre>
+ *     AsyncResponseTimeConsumer async = AsyncResponseTimeConsumer.builder().consumer(sink).build();
+ *     ResponseTimes.onMeasureEnd(async);
+ *     ...
+ *     async.close();
+ * </pre>
+ * The consumer must be closed after use to deliver the remaining response times and to stop the background thread.
+ */
+public final class AsyncResponseTimeConsumer implements Consumer<ResponseTime>, AutoCloseable {
+
+    private static final Logger LOG = getLogger(AsyncResponseTimeConsumer.class);
+
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    /**
+     * Defines how response times are handled if the buffer is full.
+     */
+    public enum BackPressure {
+        /**
+         * The measured thread waits until there is a free slot in the buffer (default)
+         */
+        BLOCK,
+        /**
+         * The response time is dropped
+         */
+        DROP,
+        /**
+         * If the buffer is filled by half or more, only a random sample of the response times is put into the buffer,
+         * the others are dropped. If the buffer is full, the response time is dropped.
+         */
+        SAMPLE
+    }
+
+    private final RingBuffer<ResponseTime> buffer;
+    private final Consumer<List<ResponseTime>> batchConsumer;
+    private final int batchSize;
+    private final BackPressure backPressure;
+    private final int sampleRate;
+    private final int sampleThreshold;
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * Number of threads currently in {@link #accept(ResponseTime)}, so that closing waits for response times that
+     * are put into the buffer concurrently
+     */
+    private final LongAdder producers = new LongAdder();
+    private final Thread worker;
+    private volatile boolean closed;
+    private volatile long delivered;
+
+    private AsyncResponseTimeConsumer(AsyncResponseTimeConsumerBuilder builder) {
+
+        this.buffer = new RingBuffer<>(builder.capacity);
+        this.batchConsumer = builder.batchConsumer;
+        this.batchSize = builder.batchSize;
+        this.backPressure = builder.backPressure;
+        this.sampleRate = builder.sampleRate;
+        this.sampleThreshold = buffer.capacity() / 2;
+        this.worker = new Thread(this::drain, builder.threadName);
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Puts the response time into the buffer for asynchronous delivery
+     * @param responseTime
+     *  the response time to deliver
+     */
+    @Override
+    public void accept(ResponseTime responseTime) {
+
+        producers.increment();
+        try {
+            offer(responseTime);
+        } finally {
+            producers.decrement();
+        }
+    }
+
+    private void offer(ResponseTime responseTime) {
+
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        switch (backPressure) {
+            case BLOCK:
+                while (!buffer.offer(responseTime)) {
+                    if (closed || Thread.currentThread().isInterrupted()) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.unpark(worker);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+                break;
+            case SAMPLE:
+                if (buffer.size() >= sampleThreshold && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                    dropped.increment();
+                    return;
+                }
+                //fall through
+            default:
+                if (!buffer.offer(responseTime)) {
+                    dropped.increment();
+                }
+        }
+    }
+
+    private void drain() {
+
+        final List<ResponseTime> batch = new ArrayList<>(batchSize);
+        while (true) {
+            final boolean done = closed;
+            if (buffer.drainTo(batch, batchSize) > 0) {
+                deliver(batch);
+            } else if (done && buffer.getConsumedCount() >= buffer.getProducedCount()) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void deliver(List<ResponseTime> batch) {
+
+        try {
+            batchConsumer.accept(batch);
+        } catch (RuntimeException e) {
+            LOG.warn("Consumer failed to process {} response times", batch.size(), e);
+        } finally {
+            batch.clear();
+            delivered = buffer.getConsumedCount();
+        }
+    }
+
+    /**
+     * Waits until all response times that have been put into the buffer before the invocation of this method are
+     * delivered to the consumer.
+     * @param timeout
+     *  the maximum time to wait
+     * @return
+     *  <code>true</code> if all response times have been delivered, <code>false</code> if the timeout elapsed or the
+     *  current thread was interrupted
+     */
+    public boolean flush(Duration timeout) {
+
+        final long target = buffer.getProducedCount();
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        while (delivered < target) {
+            if (!worker.isAlive() || Thread.currentThread().isInterrupted() || System.nanoTime() - deadline > 0) {
+                return delivered >= target;
+            }
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting response times, delivers all buffered response times and stops the background thread.
+     * Response times put into the buffer while the background thread stops are delivered by the closing thread.
+     * Response times passed to this consumer afterwards are dropped.
+     */
+    @Override
+    public void close() {
+
+        closed = true;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (producers.sum() > 0) {
+            Thread.yield();
+        }
+        final List<ResponseTime> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            if (worker.isAlive()) {
+                dropped.add(batch.size());
+                batch.clear();
+            } else {
+                deliver(batch);
+            }
+        }
+    }
+
+    /**
+     * @return
+     *  the number of response times that were not delivered because of back pressure or because the consumer
+     *  was closed
+     */
+    public long getDroppedCount() {
+
+        return dropped.sum();
+    }
+
+    /**
+     * @return
+     *  the number of response times that were delivered to the consumer
+     */
+    public long getDeliveredCount() {
+
+        return delivered;
+    }
+
+    /**
+     * @return
+     *  the number of response times waiting for delivery
+     */
+    public int getPendingCount() {
+
+        return buffer.size();
+    }
+
+    /**
+     * @return
+     *  the maximum number of response times that can wait for delivery
+     */
+    public int getCapacity() {
+
+        return buffer.capacity();
+    }
+
+    /**
+     * Creates a new builder for an asynchronous consumer
+     * @return
+     *  a new builder
+     */
+    public static AsyncResponseTimeConsumerBuilder builder() {
+
+        return new AsyncResponseTimeConsumerBuilder();
+    }
+
+    /**
+     * Builder for creating an asynchronous consumer. The background thread is started when the consumer is built.
+     */
+    public static class AsyncResponseTimeConsumerBuilder {
+
+        private Consumer<List<ResponseTime>> batchConsumer;
+        private int capacity = 8192;
+        private int batchSize = 256;
+        private BackPressure backPressure = BackPressure.BLOCK;
+        private int sampleRate = 10;
+        private String threadName = "response-time-consumer";
+
+        AsyncResponseTimeConsumerBuilder() {
+
+        }
+
+        /**
+         * @param consumer
+         *  the consumer to which the response times are delivered one by one
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder consumer(Consumer<ResponseTime> consumer) {
+
+            Objects.requireNonNull(consumer, "Consumer must not be null");
+            this.batchConsumer = batch -> batch.forEach(consumer);
+            return this;
+        }
+
+        /**
+         * @param batchConsumer
+         *  the consumer to which the response times are delivered in batches. The list must not be retained after
+         *  the consumer returned.
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder batchConsumer(Consumer<List<ResponseTime>> batchConsumer) {
+
+            this.batchConsumer = batchConsumer;
+            return this;
+        }
+
+        /**
+         * @param capacity
+         *  the number of response times the buffer can hold, rounded up to the next power of two. Default is 8192.
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder capacity(int capacity) {
+
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param batchSize
+         *  the maximum number of response times delivered at once. Default is 256.
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder batchSize(int batchSize) {
+
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param backPressure
+         *  the policy if the buffer is full. Default is {@link BackPressure#BLOCK}
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder backPressure(BackPressure backPressure) {
+
+            this.backPressure = backPressure;
+            return this;
+        }
+
+        /**
+         * @param sampleRate
+         *  for {@link BackPressure#SAMPLE}, one of sampleRate response times is kept if the buffer is filled by half
+         *  or more. Default is 10.
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder sampleRate(int sampleRate) {
+
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param threadName
+         *  the name of the background thread
+         * @return
+         *  this builder
+         */
+        public AsyncResponseTimeConsumerBuilder threadName(String threadName) {
+
+            this.threadName = threadName;
+            return this;
+        }
+
+        public AsyncResponseTimeConsumer build() {
+
+            Objects.requireNonNull(batchConsumer, "Consumer must not be null");
+            Objects.requireNonNull(backPressure, "BackPressure must not be null");
+            Objects.requireNonNull(threadName, "ThreadName must not be null");
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("BatchSize must be positive");
+            }
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("SampleRate must be positive");
+            }
+            final AsyncResponseTimeConsumer consumer = new AsyncResponseTimeConsumer(this);
+            consumer.worker.start();
+            return consumer;
+        }
+    }
+}
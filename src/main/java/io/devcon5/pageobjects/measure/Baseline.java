@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Aggregated response times of a run, that is the histogram of the successful transactions per transaction name,
+ * see {@link ResponseTimes#getHistograms()}. A baseline is persisted after a run and compared with the response
+ * times of a later run using the {@link RegressionDetector}. Other than the raw samples, a baseline only requires a
+ * few kilobytes per transaction regardless of the number of recorded transactions. The baseline is immutable.
+ * <br>
+ * The file starts with a magic number and a version, followed by the time the baseline was captured and the number
+ * of transactions. Each transaction is written as its name followed by its histogram, see
+ * {@link Histogram#writeTo(java.io.DataOutput)}.
+ */
+public final class Baseline {
+
+    private static final int MAGIC = 0x504F424C;
+    private static final int VERSION = 1;
+
+    private final Instant timestamp;
+    private final Map<String, Histogram> histograms;
+
+    private Baseline(Instant timestamp, Map<String, Histogram> histograms) {
+
+        this.timestamp = timestamp;
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Captures the histograms of the successful transactions recorded so far
+     * @return
+     *  a new baseline of the global response times
+     */
+    public static Baseline capture() {
+
+        return of(ResponseTimes.getHistograms());
+    }
+
+    /**
+     * Creates a baseline of the histograms. The histograms are copied.
+     * @param histograms
+     *  the histograms per transaction name
+     * @return
+     *  a new baseline
+     */
+    public static Baseline of(Map<String, Histogram> histograms) {
+
+        final Map<String, Histogram> copies = new TreeMap<>();
+        histograms.forEach((tx, h) -> copies.put(tx, h.copy()));
+        return new Baseline(Instant.now(), copies);
+    }
+
+    /**
+     * Reads a baseline written by {@link #writeTo(Path)}
+     * @param file
+     *  the baseline file
+     * @return
+     *  the baseline read from the file
+     * @throws IOException
+     *  if the file could not be read or is no baseline file
+     */
+    public static Baseline read(Path file) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is no baseline file");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported baseline version " + version);
+            }
+            final Instant timestamp = Instant.ofEpochMilli(in.readLong());
+            final int count = in.readInt();
+            final Map<String, Histogram> histograms = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                histograms.put(in.readUTF(), Histogram.readFrom(in));
+            }
+            return new Baseline(timestamp, histograms);
+        }
+    }
+
+    /**
+     * Writes the baseline to the file, replacing an existing file.
+     * @param file
+     *  the file to write the baseline to
+     * @throws IOException
+     *  if writing the file failed
+     */
+    public void writeTo(Path file) throws IOException {
+
+        Objects.requireNonNull(file, "File must not be null");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(timestamp.toEpochMilli());
+            out.writeInt(histograms.size());
+            for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+                out.writeUTF(e.getKey());
+                e.getValue().writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * @return
+     *  the point in time the baseline was captured
+     */
+    public Instant getTimestamp() {
+
+        return timestamp;
+    }
+
+    /**
+     * @return
+     *  the histograms per transaction name, ordered by name
+     */
+    public Map<String, Histogram> getHistograms() {
+
+        return histograms;
+    }
+}
@@ -21,7 +21,8 @@ import java.time.Instant;
 import java.util.concurrent.Callable;
 
 /**
- * A functional stop watch for measuring the time for executing a specific task.
+ * A functional stop watch for measuring the time for executing a specific task. The time is measured using the
+ * current {@link io.devcon5.pageobjects.measure.TimeSource}.
  */
 public final class ExecutionStopWatch {
 
@@ -53,14 +54,16 @@ public final class ExecutionStopWatch {
      *  return value or exception.
      */
     public static <T> MeasuredExecutionResult<T> runMeasured(Callable<T> callable) {
-        final Instant start = Instant.now();
+        final TimeSource clock = TimeSource.current();
+        final long startNanos = clock.nanoTime();
+        final Instant start = clock.toInstant(startNanos);
         MeasuredExecutionResult<T> result;
         try {
             final T returnValue = callable.call();
-            final Duration duration = Duration.between(start, Instant.now());
+            final Duration duration = clock.elapsedSince(startNanos);
             result = new MeasuredExecutionResult<>(start, duration, returnValue);
         } catch (Exception e) {
-            result = new MeasuredExecutionResult<>(start, Duration.between(start, Instant.now()), e);
+            result = new MeasuredExecutionResult<>(start, clock.elapsedSince(startNanos), e);
         }
         return result;
     }
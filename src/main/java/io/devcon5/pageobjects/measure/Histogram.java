@@ -0,0 +1,455 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A high dynamic range histogram for recording durations with fixed memory, following the bucket layout of the
+ * HdrHistogram. Values are recorded with microsecond resolution into log-linear buckets, so that the relative
+ * error of any recorded value is bound by the number of significant decimal digits. The memory footprint only
+ * depends on the highest trackable value and the precision, not on the number of recorded values.
+ * <br>
+ * Recording is lock-free and may be done concurrently by multiple threads. Queries performed during concurrent
+ * recording reflect an approximate state. Count, sum, minimum and maximum are tracked exactly.
+ */
+public class Histogram {
+
+    /**
+     * Default highest trackable value, 1 hour
+     */
+    public static final Duration DEFAULT_HIGHEST_TRACKABLE = Duration.ofHours(1);
+
+    /**
+     * Default number of significant decimal digits
+     */
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 3;
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram tracking up to 1 hour with 3 significant digits.
+     */
+    public Histogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE, DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Creates a histogram
+     * @param highestTrackable
+     *  the highest duration that can be tracked. Longer durations are counted as this value, but the exact maximum
+     *  is still tracked.
+     * @param significantDigits
+     *  the number of significant decimal digits of recorded values, between 1 and 5
+     */
+    public Histogram(Duration highestTrackable, int significantDigits) {
+
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and 5");
+        }
+        this.highestTrackableValue = Math.max(2, toMicros(highestTrackable));
+        this.significantDigits = significantDigits;
+
+        final long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        final int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution)
+                                                                    / Math.log(2));
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        final int subBucketCount = 1 << subBucketCountMagnitude;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * subBucketHalfCount);
+    }
+
+    /**
+     * Records a duration
+     * @param duration
+     *  the duration to record
+     */
+    public void record(Duration duration) {
+
+        recordValue(toMicros(duration), 1);
+    }
+
+    /**
+     * Records a value in microseconds
+     * @param micros
+     *  the value to record. Negative values are recorded as 0.
+     * @param count
+     *  the number of times the value should be recorded
+     */
+    public void recordValue(long micros, long count) {
+
+        final long value = Math.max(0, micros);
+        counts.addAndGet(countsIndex(Math.min(value, highestTrackableValue)), count);
+        totalCount.add(count);
+        totalSum.add(value * count);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Adds all values of the other histogram to this histogram. Both histograms must have the same layout.
+     * @param other
+     *  the histogram to add
+     */
+    public void add(Histogram other) {
+
+        if (other.counts.length() != counts.length() || other.significantDigits != significantDigits) {
+            throw new IllegalArgumentException("Histograms have different layouts");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            final long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalSum.add(other.totalSum.sum());
+        if (other.getTotalCount() > 0) {
+            min.accumulate(other.min.get());
+            max.accumulate(other.max.get());
+        }
+    }
+
+    /**
+     * Creates an empty histogram with the same layout as this histogram.
+     * @return
+     *  a new, empty histogram
+     */
+    public Histogram emptyCopy() {
+
+        return new Histogram(Duration.of(highestTrackableValue, ChronoUnit.MICROS), significantDigits);
+    }
+
+    /**
+     * Creates a copy of this histogram
+     * @return
+     *  a new histogram with all values of this histogram
+     */
+    public Histogram copy() {
+
+        final Histogram copy = emptyCopy();
+        copy.add(this);
+        return copy;
+    }
+
+    /**
+     * Writes the layout and all recorded values of the histogram to the output, omitting empty buckets.
+     * @param out
+     *  the output to write the histogram to
+     * @throws IOException
+     *  if writing to the output failed
+     */
+    public void writeTo(DataOutput out) throws IOException {
+
+        int buckets = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                buckets++;
+            }
+        }
+        out.writeLong(highestTrackableValue);
+        out.writeInt(significantDigits);
+        out.writeLong(totalSum.sum());
+        out.writeLong(getTotalCount() == 0 ? 0 : min.get());
+        out.writeLong(max.get());
+        out.writeInt(buckets);
+        for (int i = 0; i < counts.length() && buckets > 0; i++) {
+            final long count = counts.get(i);
+            if (count != 0) {
+                out.writeInt(i);
+                out.writeLong(count);
+                buckets--;
+            }
+        }
+    }
+
+    /**
+     * Reads a histogram written by {@link #writeTo(DataOutput)}
+     * @param in
+     *  the input to read the histogram from
+     * @return
+     *  a new histogram with the layout and the values read from the input
+     * @throws IOException
+     *  if reading from the input failed or the data is not a valid histogram
+     */
+    public static Histogram readFrom(DataInput in) throws IOException {
+
+        final long highestTrackable = in.readLong();
+        final int significantDigits = in.readInt();
+        if (highestTrackable < 2 || significantDigits < 1 || significantDigits > 5) {
+            throw new IOException("Invalid histogram layout");
+        }
+        final Histogram histogram = new Histogram(Duration.of(highestTrackable, ChronoUnit.MICROS), significantDigits);
+        final long sum = in.readLong();
+        final long minValue = in.readLong();
+        final long maxValue = in.readLong();
+        final int buckets = in.readInt();
+        for (int b = 0; b < buckets; b++) {
+            final int index = in.readInt();
+            final long count = in.readLong();
+            if (index < 0 || index >= histogram.counts.length() || count < 0) {
+                throw new IOException("Invalid histogram bucket " + index);
+            }
+            histogram.counts.addAndGet(index, count);
+            histogram.totalCount.add(count);
+        }
+        histogram.totalSum.add(sum);
+        if (histogram.getTotalCount() > 0) {
+            histogram.min.accumulate(minValue);
+            histogram.max.accumulate(maxValue);
+        }
+        return histogram;
+    }
+
+    /**
+     * Creates a copy of this histogram that is corrected for coordinated omission, following the correction of the
+     * HdrHistogram. If a value is recorded by a load driver that waits for each response before sending the next
+     * request, a stall of the system delays the requests that should have been sent in the meantime, so their
+     * response times are never recorded. The correction adds these missing values: for every recorded value exceeding
+     * the expected interval between two requests, the values <code>value - interval</code>,
+     * <code>value - 2 * interval</code> and so on are recorded as long as they are not below the interval.
+     * @param expectedInterval
+     *  the expected interval between two recorded values, i.e. the pacing of a virtual user
+     * @return
+     *  a new histogram containing the values of this histogram and the values added by the correction
+     */
+    public Histogram copyCorrectedForCoordinatedOmission(Duration expectedInterval) {
+
+        final long interval = toMicros(Objects.requireNonNull(expectedInterval, "Interval must not be null"));
+        final Histogram corrected = copy();
+        if (interval <= 0) {
+            return corrected;
+        }
+        final long maxValue = max.get();
+        forEachBucket((micros, count) -> {
+            final long value = Math.min(highestEquivalentValue(micros), maxValue);
+            for (long missing = value - interval; missing >= interval; missing -= interval) {
+                corrected.recordValue(missing, count);
+            }
+        });
+        return corrected;
+    }
+
+    /**
+     * Passes the value and count of every non-empty bucket in ascending order of the values.
+     * @param consumer
+     *  the consumer of the lowest value in microseconds and the count of every bucket
+     */
+    void forEachBucket(BucketConsumer consumer) {
+
+        for (int i = 0; i < counts.length(); i++) {
+            final long count = counts.get(i);
+            if (count != 0) {
+                consumer.accept(valueFromIndex(i), count);
+            }
+        }
+    }
+
+    /**
+     * Consumer of the buckets of a histogram
+     */
+    @FunctionalInterface
+    interface BucketConsumer {
+
+        /**
+         * @param micros
+         *  the lowest value of the bucket in microseconds
+         * @param count
+         *  the number of values recorded in the bucket
+         */
+        void accept(long micros, long count);
+    }
+
+    /**
+     * Removes all recorded values. Values recorded concurrently may get lost.
+     */
+    public void reset() {
+
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalSum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    /**
+     * The number of recorded values
+     * @return
+     *  the total count
+     */
+    public long getTotalCount() {
+
+        return totalCount.sum();
+    }
+
+    /**
+     * The exact minimum of all recorded values
+     * @return
+     *  the minimum duration or zero if no value was recorded
+     */
+    public Duration getMin() {
+
+        return getTotalCount() == 0 ? Duration.ZERO : Duration.of(min.get(), ChronoUnit.MICROS);
+    }
+
+    /**
+     * The exact maximum of all recorded values
+     * @return
+     *  the maximum duration or zero if no value was recorded
+     */
+    public Duration getMax() {
+
+        return Duration.of(max.get(), ChronoUnit.MICROS);
+    }
+
+    /**
+     * The exact mean of all recorded values
+     * @return
+     *  the mean duration or zero if no value was recorded
+     */
+    public Duration getMean() {
+
+        final long count = getTotalCount();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(Math.round(totalSum.sum() * 1000d / count));
+    }
+
+    /**
+     * The value at the given percentile. The returned value is the highest value that is equivalent to the
+     * recorded value at the percentile within the precision of the histogram.
+     * @param percentile
+     *  the percentile between 0 and 100, i.e. 99.9
+     * @return
+     *  the duration at the percentile, or zero if no value was recorded
+     */
+    public Duration getValueAtPercentile(double percentile) {
+
+        return Duration.of(getValueAtPercentileMicros(percentile), ChronoUnit.MICROS);
+    }
+
+    /**
+     * The number of recorded values that are less or equal to the given value, within the precision of the
+     * histogram.
+     * @param duration
+     *  the upper limit
+     * @return
+     *  the number of values at or below the limit
+     */
+    public long getCountAtOrBelow(Duration duration) {
+
+        final int maxIndex = countsIndex(Math.min(Math.max(0, toMicros(duration)), highestTrackableValue));
+        long count = 0;
+        for (int i = 0; i <= maxIndex; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    long getValueAtPercentileMicros(double percentile) {
+
+        final double requested = Math.min(Math.max(percentile, 0), 100);
+        final long total = getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+        final long countAtPercentile = Math.max(1, (long) (requested / 100 * total + 0.5));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(valueFromIndex(i)), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private int countsIndex(long value) {
+
+        final int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        final int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private long valueFromIndex(int index) {
+
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private long highestEquivalentValue(long value) {
+
+        final int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        return value + (1L << bucketIndex) - 1;
+    }
+
+    private static long toMicros(Duration duration) {
+
+        return duration.getSeconds() * 1_000_000L + duration.getNano() / 1_000;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(64)
+            .append("Histogram{")
+            .append("count=").append(getTotalCount())
+            .append(", mean=").append(getMean())
+            .append(", p50=").append(getValueAtPercentile(50))
+            .append(", p99=").append(getValueAtPercentile(99))
+            .append(", max=").append(getMax())
+            .append('}');
+        return sb.toString();
+    }
+}
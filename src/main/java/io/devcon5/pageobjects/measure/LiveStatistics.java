@@ -0,0 +1,343 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Live statistics of the finished transactions within sliding time windows, i.e. of the last 10 seconds, minute and
+ * 5 minutes. Each window is divided into buckets, every bucket records the durations of the transactions finished
+ * in its time slot into a {@link io.devcon5.pageobjects.measure.Histogram}. When a new time slot starts, the bucket
+ * of the oldest slot is replaced by a compare-and-set, so that neither recording nor rotating requires a lock.
+ * Reading the statistics of a window merges the buckets of the window.
+ * <br>
+ * The statistics are fed by a {@link io.devcon5.pageobjects.measure.MeasureListener}, a transaction is assigned to
+ * the time slot in which it is received, according to the current
+ * {@link io.devcon5.pageobjects.measure.TimeSource}.
+ * <pre>
+ *     LiveStatistics stats = LiveStatistics.builder().build().register();
+ *     ...
+ *     WindowStatistics lastMinute = stats.getStatistics("Login", Duration.ofMinutes(1));
+ *     ...
+ *     stats.close();
+ * </pre>
+ * Each bucket allocates a histogram of fixed size, so the memory consumption grows with the number of transactions,
+ * windows and buckets, but not with the number of recorded transactions.
+ */
+public final class LiveStatistics implements Consumer<ResponseTime>, AutoCloseable {
+
+    private final List<Duration> windows;
+    private final long[] bucketNanos;
+    private final int buckets;
+    private final Histogram template;
+    private final Predicate<ResponseTime> failed;
+    private final TimeSource timeSource;
+    private final long originNanos;
+    private final TransactionTable<Ring[]> transactions = new TransactionTable<>();
+    private volatile MeasureListener listener;
+
+    private LiveStatistics(LiveStatisticsBuilder builder) {
+
+        this.windows = Collections.unmodifiableList(new ArrayList<>(builder.windows));
+        this.buckets = builder.buckets;
+        this.bucketNanos = windows.stream().mapToLong(w -> w.toNanos() / buckets).toArray();
+        this.template = new Histogram(builder.highestTrackable, builder.significantDigits);
+        this.failed = builder.failed;
+        this.timeSource = TimeSource.current();
+        this.originNanos = timeSource.nanoTime();
+    }
+
+    /**
+     * Creates a new builder for live statistics
+     * @return
+     *  a new builder
+     */
+    public static LiveStatisticsBuilder builder() {
+
+        return new LiveStatisticsBuilder();
+    }
+
+    /**
+     * Registers the statistics as listener of the finished transactions at the
+     * {@link io.devcon5.pageobjects.measure.ResponseTimes}
+     * @return
+     *  this statistics
+     */
+    public synchronized LiveStatistics register() {
+
+        if (listener == null) {
+            listener = ResponseTimes.addListener(this);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the statistics from the {@link io.devcon5.pageobjects.measure.ResponseTimes}. The recorded statistics
+     * are retained.
+     */
+    @Override
+    public synchronized void close() {
+
+        if (listener != null) {
+            listener.close();
+            listener = null;
+        }
+    }
+
+    /**
+     * Records a finished response time. Unfinished response times are ignored.
+     * @param responseTime
+     *  the response time to record
+     */
+    @Override
+    public void accept(ResponseTime responseTime) {
+
+        if (!responseTime.isFinished()) {
+            return;
+        }
+        final long now = timeSource.nanoTime() - originNanos;
+        final boolean error = failed.test(responseTime);
+        final Ring[] rings = transactions.computeIfAbsent(responseTime.getTransactionId(), tx -> newRings());
+        for (Ring ring : rings) {
+            final Bucket bucket = ring.bucket(now);
+            bucket.histogram.record(responseTime.getDuration());
+            if (error) {
+                bucket.errors.increment();
+            }
+        }
+    }
+
+    private Ring[] newRings() {
+
+        final Ring[] rings = new Ring[bucketNanos.length];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new Ring(bucketNanos[i], buckets);
+        }
+        return rings;
+    }
+
+    /**
+     * @return
+     *  the sizes of the windows of the statistics
+     */
+    public List<Duration> getWindows() {
+
+        return windows;
+    }
+
+    /**
+     * Determines the statistics of a transaction within a window
+     * @param transaction
+     *  the name of the transaction
+     * @param window
+     *  the size of the window, must be one of the windows of the statistics
+     * @return
+     *  the statistics of the transaction, which are empty if no transaction was recorded in the window
+     */
+    public WindowStatistics getStatistics(String transaction, Duration window) {
+
+        final int w = indexOf(window);
+        final Ring[] rings = transactions.get(TransactionRegistry.idOf(transaction));
+        return statistics(rings == null ? null : rings[w], w, timeSource.nanoTime() - originNanos);
+    }
+
+    /**
+     * Determines the statistics of all transactions within a window
+     * @param window
+     *  the size of the window, must be one of the windows of the statistics
+     * @return
+     *  the statistics per transaction name of all transactions recorded since the statistics were started
+     */
+    public Map<String, WindowStatistics> getStatistics(Duration window) {
+
+        final int w = indexOf(window);
+        final long now = timeSource.nanoTime() - originNanos;
+        final Map<String, WindowStatistics> result = new HashMap<>();
+        transactions.forEach((rings, tx) -> result.put(TransactionRegistry.nameOf(tx), statistics(rings[w], w, now)));
+        return result;
+    }
+
+    private int indexOf(Duration window) {
+
+        final int w = windows.indexOf(window);
+        if (w < 0) {
+            throw new IllegalArgumentException("Unknown window " + window + ", windows are " + windows);
+        }
+        return w;
+    }
+
+    private WindowStatistics statistics(Ring ring, int w, long now) {
+
+        final long bucketSize = bucketNanos[w];
+        final long epoch = Math.floorDiv(now, bucketSize);
+        final long firstEpoch = epoch - buckets + 1;
+        final Histogram histogram = template.emptyCopy();
+        long errors = 0;
+        if (ring != null) {
+            for (int i = 0; i < buckets; i++) {
+                final Bucket bucket = ring.slots.get(i);
+                if (bucket != null && bucket.epoch >= firstEpoch && bucket.epoch <= epoch) {
+                    histogram.add(bucket.histogram);
+                    errors += bucket.errors.sum();
+                }
+            }
+        }
+        final long span = Math.max(1, Math.min(now, now - firstEpoch * bucketSize));
+        return new WindowStatistics(windows.get(w), Duration.ofNanos(span), errors, histogram);
+    }
+
+    /**
+     * Ring of the buckets of a window of a single transaction
+     */
+    private final class Ring {
+
+        final long bucketNanos;
+        final AtomicReferenceArray<Bucket> slots;
+
+        Ring(long bucketNanos, int buckets) {
+
+            this.bucketNanos = bucketNanos;
+            this.slots = new AtomicReferenceArray<>(buckets);
+        }
+
+        Bucket bucket(long now) {
+
+            final long epoch = Math.floorDiv(now, bucketNanos);
+            final int slot = (int) Math.floorMod(epoch, (long) slots.length());
+            Bucket bucket = slots.get(slot);
+            while (bucket == null || bucket.epoch < epoch) {
+                final Bucket next = new Bucket(epoch, template.emptyCopy());
+                if (slots.compareAndSet(slot, bucket, next)) {
+                    return next;
+                }
+                bucket = slots.get(slot);
+            }
+            return bucket;
+        }
+    }
+
+    /**
+     * The transactions of a single time slot
+     */
+    private static final class Bucket {
+
+        final long epoch;
+        final Histogram histogram;
+        final LongAdder errors = new LongAdder();
+
+        Bucket(long epoch, Histogram histogram) {
+
+            this.epoch = epoch;
+            this.histogram = histogram;
+        }
+    }
+
+    /**
+     * Builder for creating live statistics
+     */
+    public static class LiveStatisticsBuilder {
+
+        private List<Duration> windows = Arrays.asList(Duration.ofSeconds(10), Duration.ofMinutes(1),
+                                                       Duration.ofMinutes(5));
+        private int buckets = 10;
+        private Duration highestTrackable = Duration.ofMinutes(1);
+        private int significantDigits = 2;
+        private Predicate<ResponseTime> failed = rt -> !rt.isSuccessful();
+
+        LiveStatisticsBuilder() {
+
+        }
+
+        /**
+         * The sizes of the sliding windows. Default are 10 seconds, 1 minute and 5 minutes.
+         */
+        public LiveStatisticsBuilder windows(Duration... windows) {
+
+            this.windows = Arrays.asList(windows);
+            return this;
+        }
+
+        /**
+         * The number of buckets per window. More buckets let the window slide more smoothly but require more memory.
+         * Default is 10.
+         */
+        public LiveStatisticsBuilder buckets(int buckets) {
+
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * The highest duration tracked by the histograms of the buckets. Default is 1 minute.
+         */
+        public LiveStatisticsBuilder highestTrackable(Duration highestTrackable) {
+
+            this.highestTrackable = highestTrackable;
+            return this;
+        }
+
+        /**
+         * The precision of the histograms of the buckets. Default is 2 significant digits.
+         */
+        public LiveStatisticsBuilder significantDigits(int significantDigits) {
+
+            this.significantDigits = significantDigits;
+            return this;
+        }
+
+        /**
+         * Predicate determining whether a response time denotes a failed transaction. Default are all response times
+         * whose outcome is not {@link Outcome#SUCCESS}.
+         */
+        public LiveStatisticsBuilder failed(Predicate<ResponseTime> failed) {
+
+            this.failed = failed;
+            return this;
+        }
+
+        public LiveStatistics build() {
+
+            Objects.requireNonNull(windows, "Windows must not be null");
+            Objects.requireNonNull(highestTrackable, "HighestTrackable must not be null");
+            Objects.requireNonNull(failed, "Failed must not be null");
+            if (windows.isEmpty()) {
+                throw new IllegalArgumentException("At least one window is required");
+            }
+            if (buckets < 1) {
+                throw new IllegalArgumentException("At least one bucket is required");
+            }
+            for (Duration window : windows) {
+                if (window.toNanos() / buckets < 1) {
+                    throw new IllegalArgumentException("Window " + window + " is too small for the buckets");
+                }
+            }
+            return new LiveStatistics(this);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A time source that only advances when told to. Use it to test measurements with exact, reproducible durations:
+ * <pre>
+ *     ManualTimeSource time = new ManualTimeSource(Instant.parse("2016-01-01T00:00:00Z"));
+ *     TimeSource.setCurrent(time);
+ *     collector.startTx("tx");
+ *     time.advance(Duration.ofMillis(5));
+ *     collector.stopTx("tx");
+ * </pre>
+ */
+public class ManualTimeSource extends TimeSource {
+
+    private final Instant anchor;
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    /**
+     * Creates a manual time source starting at the current time of the system clock
+     */
+    public ManualTimeSource() {
+        this(Instant.now());
+    }
+
+    /**
+     * Creates a manual time source
+     * @param start
+     *  the point in time the time source starts at
+     */
+    public ManualTimeSource(Instant start) {
+        this.anchor = start;
+    }
+
+    /**
+     * Advances the time
+     * @param duration
+     *  the duration to advance the time. Must not be negative as the time source is monotonic.
+     */
+    public void advance(Duration duration) {
+
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Time can not go backwards");
+        }
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+    @Override
+    public long nanoTime() {
+
+        return nanoTime.get();
+    }
+
+    @Override
+    public Instant toInstant(long nanoTime) {
+
+        return anchor.plusNanos(nanoTime);
+    }
+}
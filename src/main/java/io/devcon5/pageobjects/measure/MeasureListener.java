@@ -0,0 +1,314 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Listener that is notified about response times recorded by {@link io.devcon5.pageobjects.measure.ResponseTimes}
+ * in addition to the measure handlers. Any number of listeners may be registered using
+ * {@link ResponseTimes#addListener(MeasureListener)}. Each listener receives the response times of the transactions
+ * matching its transaction name pattern, either synchronously on the measured thread or asynchronously in batches
+ * on a background thread.
+ * <pre>
+ *     MeasureListener exporter = MeasureListener.builder()
+ *                                               .batchConsumer(database::insertAll)
+ *                                               .transactions("Login.*")
+ *                                               .delivery(Delivery.ASYNC_BATCH)
+ *                                               .build();
+ *     ResponseTimes.addListener(exporter);
+ *     ...
+ *     exporter.close();
+ * </pre>
+ */
+public final class MeasureListener implements AutoCloseable {
+
+    /**
+     * Defines how response times are delivered to the listener.
+     */
+    public enum Delivery {
+        /**
+         * Response times are delivered one by one on the measured thread (default)
+         */
+        SYNC,
+        /**
+         * Response times are delivered in batches on a background thread, see
+         * {@link io.devcon5.pageobjects.measure.AsyncResponseTimeConsumer}
+         */
+        ASYNC_BATCH
+    }
+
+    private final Pattern transactions;
+    private final boolean measureStart;
+    private final boolean measureEnd;
+    private final Delivery delivery;
+    private final Consumer<ResponseTime> consumer;
+    private final AsyncResponseTimeConsumer async;
+    private final TransactionTable<Boolean> matches = new TransactionTable<>();
+
+    private MeasureListener(MeasureListenerBuilder builder) {
+
+        this.transactions = builder.transactions;
+        this.measureStart = builder.measureStart;
+        this.measureEnd = builder.measureEnd;
+        this.delivery = builder.delivery;
+        if (delivery == Delivery.ASYNC_BATCH) {
+            this.async = AsyncResponseTimeConsumer.builder()
+                                                  .batchConsumer(builder.batchConsumer)
+                                                  .capacity(builder.capacity)
+                                                  .batchSize(builder.batchSize)
+                                                  .backPressure(builder.backPressure)
+                                                  .threadName("measure-listener")
+                                                  .build();
+            this.consumer = async;
+        } else {
+            final Consumer<List<ResponseTime>> batchConsumer = builder.batchConsumer;
+            this.async = null;
+            this.consumer = rt -> batchConsumer.accept(Collections.singletonList(rt));
+        }
+    }
+
+    /**
+     * Determines whether the listener is interested in the response time.
+     * @param responseTime
+     *  the recorded response time
+     * @param start
+     *  <code>true</code> if the response time denotes the start of a measure, <code>false</code> for its end
+     * @return
+     *  <code>true</code> if the response time should be delivered to the listener
+     */
+    boolean accepts(ResponseTime responseTime, boolean start) {
+
+        return (start ? measureStart : measureEnd) && matches(responseTime.getTransactionId());
+    }
+
+    private boolean matches(int transactionId) {
+
+        if (transactions == null) {
+            return true;
+        }
+        return matches.computeIfAbsent(transactionId,
+                                       tx -> transactions.matcher(TransactionRegistry.nameOf(tx)).matches());
+    }
+
+    /**
+     * Delivers the response time to the listener according to its delivery mode
+     * @param responseTime
+     *  the response time to deliver
+     */
+    void deliver(ResponseTime responseTime) {
+
+        consumer.accept(responseTime);
+    }
+
+    /**
+     * @return
+     *  the delivery mode of this listener
+     */
+    public Delivery getDelivery() {
+
+        return delivery;
+    }
+
+    /**
+     * @return
+     *  the number of response times that could not be delivered asynchronously. Always 0 for synchronous delivery
+     */
+    public long getDroppedCount() {
+
+        return async == null ? 0 : async.getDroppedCount();
+    }
+
+    /**
+     * Waits until all response times recorded so far have been delivered to the listener.
+     * @param timeout
+     *  the maximum time to wait
+     * @return
+     *  <code>true</code> if all response times have been delivered
+     */
+    public boolean flush(Duration timeout) {
+
+        return async == null || async.flush(timeout);
+    }
+
+    /**
+     * Removes the listener from {@link io.devcon5.pageobjects.measure.ResponseTimes} and delivers the pending
+     * response times.
+     */
+    @Override
+    public void close() {
+
+        ResponseTimes.removeListener(this);
+        if (async != null) {
+            async.close();
+        }
+    }
+
+    /**
+     * Creates a new builder for a listener
+     * @return
+     *  a new builder
+     */
+    public static MeasureListenerBuilder builder() {
+
+        return new MeasureListenerBuilder();
+    }
+
+    /**
+     * Builder for creating a listener. For asynchronous delivery, the background thread is started when the
+     * listener is built.
+     */
+    public static class MeasureListenerBuilder {
+
+        private Consumer<List<ResponseTime>> batchConsumer;
+        private Pattern transactions;
+        private boolean measureStart = false;
+        private boolean measureEnd = true;
+        private Delivery delivery = Delivery.SYNC;
+        private int capacity = 8192;
+        private int batchSize = 256;
+        private AsyncResponseTimeConsumer.BackPressure backPressure = AsyncResponseTimeConsumer.BackPressure.BLOCK;
+
+        MeasureListenerBuilder() {
+
+        }
+
+        /**
+         * @param consumer
+         *  the consumer to which the response times are delivered one by one
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder consumer(Consumer<ResponseTime> consumer) {
+
+            Objects.requireNonNull(consumer, "Consumer must not be null");
+            this.batchConsumer = batch -> batch.forEach(consumer);
+            return this;
+        }
+
+        /**
+         * @param batchConsumer
+         *  the consumer to which the response times are delivered in batches. With synchronous delivery, each batch
+         *  contains a single response time.
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder batchConsumer(Consumer<List<ResponseTime>> batchConsumer) {
+
+            this.batchConsumer = batchConsumer;
+            return this;
+        }
+
+        /**
+         * @param regex
+         *  regular expression the transaction name has to match completely. Default is all transactions.
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder transactions(String regex) {
+
+            this.transactions = Pattern.compile(regex);
+            return this;
+        }
+
+        /**
+         * @param measureStart
+         *  whether the listener is notified on the start of a measure. Default is <code>false</code>
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder measureStart(boolean measureStart) {
+
+            this.measureStart = measureStart;
+            return this;
+        }
+
+        /**
+         * @param measureEnd
+         *  whether the listener is notified on the end of a measure. Default is <code>true</code>
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder measureEnd(boolean measureEnd) {
+
+            this.measureEnd = measureEnd;
+            return this;
+        }
+
+        /**
+         * @param delivery
+         *  the delivery mode. Default is {@link Delivery#SYNC}
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder delivery(Delivery delivery) {
+
+            this.delivery = delivery;
+            return this;
+        }
+
+        /**
+         * @param capacity
+         *  for asynchronous delivery, the number of response times that can be buffered. Default is 8192.
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder capacity(int capacity) {
+
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param batchSize
+         *  for asynchronous delivery, the maximum number of response times delivered at once. Default is 256.
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder batchSize(int batchSize) {
+
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param backPressure
+         *  for asynchronous delivery, the policy if the buffer is full. Default is
+         *  {@link AsyncResponseTimeConsumer.BackPressure#BLOCK}
+         * @return
+         *  this builder
+         */
+        public MeasureListenerBuilder backPressure(AsyncResponseTimeConsumer.BackPressure backPressure) {
+
+            this.backPressure = backPressure;
+            return this;
+        }
+
+        public MeasureListener build() {
+
+            Objects.requireNonNull(batchConsumer, "Consumer must not be null");
+            Objects.requireNonNull(delivery, "Delivery must not be null");
+            return new MeasureListener(this);
+        }
+    }
+}
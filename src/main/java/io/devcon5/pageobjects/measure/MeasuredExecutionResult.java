@@ -67,4 +67,14 @@ public class MeasuredExecutionResult<RESULTTYPE> extends TimeMeasure {
     public boolean wasSuccessful(){
         return !throwable.isPresent();
     }
+
+    /**
+     * The outcome of the execution, see {@link Outcome#of(Throwable)}. When the result is collected using
+     * {@link ResponseTimes#collect(String, TimeMeasure)}, the response time has the same outcome.
+     * @return
+     *  the outcome of the execution
+     */
+    public Outcome getOutcome(){
+        return Outcome.of(throwable.orElse(null));
+    }
 }
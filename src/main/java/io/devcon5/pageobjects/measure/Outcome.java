@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+/**
+ * The outcome of a finished transaction.
+ */
+public enum Outcome {
+    /**
+     * The transaction completed normally
+     */
+    SUCCESS,
+    /**
+     * The transaction failed with an exception
+     */
+    FAILURE,
+    /**
+     * The transaction failed because an operation timed out
+     */
+    TIMEOUT;
+
+    /**
+     * Determines the outcome of a transaction from the exception it failed with. An exception whose class, or any
+     * of its super classes, is named <code>TimeoutException</code> or ends with it, i.e.
+     * {@link java.util.concurrent.TimeoutException}, {@link java.net.SocketTimeoutException} or the
+     * <code>TimeoutException</code> of Selenium, denotes a timeout.
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if it did not fail
+     * @return
+     *  the outcome of the transaction
+     */
+    public static Outcome of(Throwable exception) {
+
+        if (exception == null) {
+            return SUCCESS;
+        }
+        for (Class<?> type = exception.getClass(); type != null; type = type.getSuperclass()) {
+            if (type.getSimpleName().endsWith("TimeoutException")) {
+                return TIMEOUT;
+            }
+        }
+        return FAILURE;
+    }
+}
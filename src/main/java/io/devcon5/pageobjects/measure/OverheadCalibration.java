@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Calibration of the overhead the measurement adds to the duration of a transaction. The duration of a transaction
+ * started and stopped by a {@link io.devcon5.pageobjects.measure.ResponseTimeCollector} does not only contain the
+ * time spent in the transaction, but also the time of the bookkeeping between taking the start time and taking
+ * the end time, i.e. registering the open transaction, the interception of a transactional method and the
+ * reflective invocation. This overhead is determined by measuring a no-op transaction many times and taking the
+ * median of the measured durations, so that outliers, i.e. caused by garbage collection, are ignored.
+ * <br>
+ * The overhead is global. If compensation is enabled, it is subtracted from the duration of every transaction
+ * stopped by a collector, but never below zero. Captured transactions are not compensated, as their durations have
+ * been measured outside of the collector. The transactions measured during calibration are not recorded in the
+ * global {@link io.devcon5.pageobjects.measure.ResponseTimes}, but the registered
+ * {@link io.devcon5.pageobjects.measure.MeasureListener}s are notified about their start, so the calibration
+ * should be done on startup, before listeners are registered.
+ */
+public final class OverheadCalibration {
+
+    /**
+     * Name of the no-op transaction used for calibration
+     */
+    public static final String CALIBRATION_TX = "calibration";
+
+    private static final int DEFAULT_WARMUP = 20_000;
+    private static final int DEFAULT_ITERATIONS = 10_000;
+
+    private static volatile Duration overhead = Duration.ZERO;
+    private static volatile long compensationNanos;
+    private static volatile boolean compensating;
+
+    private OverheadCalibration() {
+    }
+
+    /**
+     * Calibrates the overhead of a no-op transaction started and stopped directly on a collector.
+     * @return
+     *  the calibrated overhead
+     */
+    public static Duration calibrate() {
+
+        final int txId = TransactionRegistry.idOf(CALIBRATION_TX);
+        return calibrate(() -> {
+            final ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+            rtc.startTx(txId);
+            rtc.stopTx(txId);
+        });
+    }
+
+    /**
+     * Calibrates the overhead of the no-op transaction with the default number of warmup and measured iterations.
+     * @param noOpTransaction
+     *  a runnable that starts and stops a transaction without doing anything within, i.e. by invoking an empty
+     *  transactional method. The transaction is recorded by the collector bound to the current thread.
+     * @return
+     *  the calibrated overhead
+     */
+    public static Duration calibrate(Runnable noOpTransaction) {
+
+        return calibrate(noOpTransaction, DEFAULT_WARMUP, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Calibrates the overhead of the no-op transaction.
+     * @param noOpTransaction
+     *  a runnable that starts and stops a transaction without doing anything within, i.e. by invoking an empty
+     *  transactional method. The transaction is recorded by the collector bound to the current thread.
+     * @param warmup
+     *  the number of executions to warm up the code path before measuring, the results are discarded
+     * @param iterations
+     *  the number of measured executions
+     * @return
+     *  the calibrated overhead
+     */
+    public static Duration calibrate(Runnable noOpTransaction, int warmup, int iterations) {
+
+        Objects.requireNonNull(noOpTransaction, "NoOpTransaction must not be null");
+        if (warmup < 0) {
+            throw new IllegalArgumentException("Warmup must not be negative");
+        }
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        final Samples samples = new Samples(warmup + iterations);
+        final ResponseTimeCollector collector = new ResponseTimeCollector(samples);
+        final Optional<ResponseTimeCollector> previous = ResponseTimeCollector.bind(Optional.of(collector));
+        try {
+            for (int i = 0; i < warmup + iterations; i++) {
+                noOpTransaction.run();
+            }
+        } finally {
+            ResponseTimeCollector.bind(previous);
+        }
+        if (samples.count <= warmup) {
+            throw new IllegalStateException("The calibration transaction recorded no response times");
+        }
+        final Duration result = Duration.ofNanos(samples.median(warmup));
+        setOverhead(result);
+        return result;
+    }
+
+    /**
+     * @return
+     *  the overhead determined by the last calibration or set explicitly, zero if the overhead has not been
+     *  calibrated yet
+     */
+    public static Duration getOverhead() {
+
+        return overhead;
+    }
+
+    /**
+     * Sets the overhead explicitly, i.e. to a value determined by an earlier calibration on the same machine.
+     * @param overhead
+     *  the overhead of a transaction
+     */
+    public static synchronized void setOverhead(Duration overhead) {
+
+        Objects.requireNonNull(overhead, "Overhead must not be null");
+        if (overhead.isNegative()) {
+            throw new IllegalArgumentException("Overhead must not be negative");
+        }
+        OverheadCalibration.overhead = overhead;
+        updateCompensation();
+    }
+
+    /**
+     * Enables or disables the compensation of the overhead. Compensation is disabled by default.
+     * @param compensating
+     *  true if the overhead should be subtracted from the durations of all transactions stopped by a collector
+     */
+    public static synchronized void setCompensating(boolean compensating) {
+
+        OverheadCalibration.compensating = compensating;
+        updateCompensation();
+    }
+
+    /**
+     * @return
+     *  true if the overhead is subtracted from the durations of the transactions
+     */
+    public static boolean isCompensating() {
+
+        return compensating;
+    }
+
+    /**
+     * Resets the overhead to zero and disables the compensation
+     */
+    public static synchronized void reset() {
+
+        overhead = Duration.ZERO;
+        compensating = false;
+        updateCompensation();
+    }
+
+    /**
+     * @return
+     *  the nanoseconds to subtract from the duration of a transaction, zero if compensation is disabled
+     */
+    static long getCompensationNanos() {
+
+        return compensationNanos;
+    }
+
+    private static void updateCompensation() {
+
+        compensationNanos = compensating ? overhead.toNanos() : 0;
+    }
+
+    /**
+     * Receives the response times of the calibration collector, discarding them from the global open transactions.
+     */
+    private static final class Samples implements Consumer<ResponseTime> {
+
+        final long[] durations;
+        int count;
+
+        Samples(int capacity) {
+
+            this.durations = new long[capacity];
+        }
+
+        @Override
+        public void accept(ResponseTime rt) {
+
+            ResponseTimes.discard(rt);
+            if (count < durations.length) {
+                durations[count++] = rt.getDuration().toNanos();
+            }
+        }
+
+        long median(int from) {
+
+            final long[] measured = Arrays.copyOfRange(durations, from, count);
+            Arrays.sort(measured);
+            return measured[measured.length / 2];
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compares the response times of a run with a {@link Baseline} and flags the transactions that got significantly
+ * slower. Per transaction the one-sided Mann-Whitney U test checks whether the durations of the current run tend to
+ * be longer than those of the baseline. The test is computed on the buckets of the histograms, values in the same
+ * bucket are treated as ties, and the p-value is taken from the normal approximation with tie and continuity
+ * correction. Other than comparing means or percentiles directly, the test does not assume a distribution of the
+ * durations and is robust against outliers.
+ * <br>
+ * As with many samples even irrelevant slowdowns are significant, a transaction is only flagged as regression if the
+ * p-value is below the significance level and its median got slower by at least the minimum relative change.
+ * Transactions that are missing in the baseline or in the current run or that have too few samples are reported with
+ * a p-value of <code>NaN</code>, but never flagged. The histogram of the missing side is empty.
+ */
+public final class RegressionDetector {
+
+    private final double significance;
+    private final double minimumChange;
+    private final long minimumSamples;
+
+    RegressionDetector(double significance, double minimumChange, long minimumSamples) {
+
+        this.significance = significance;
+        this.minimumChange = minimumChange;
+        this.minimumSamples = minimumSamples;
+    }
+
+    /**
+     * Creates a new builder for a detector
+     * @return
+     *  a new builder
+     */
+    public static RegressionDetectorBuilder builder() {
+
+        return new RegressionDetectorBuilder();
+    }
+
+    /**
+     * Compares the successful transactions recorded so far with the baseline
+     * @param baseline
+     *  the baseline to compare with
+     * @return
+     *  the report of all transactions contained in the baseline and the current run
+     */
+    public RegressionReport compare(Baseline baseline) {
+
+        return compare(baseline, ResponseTimes.getHistograms());
+    }
+
+    /**
+     * Compares the histograms with the baseline
+     * @param baseline
+     *  the baseline to compare with
+     * @param current
+     *  the histograms of the current run per transaction name
+     * @return
+     *  the report of all transactions contained in the baseline or the current run, ordered by transaction name
+     */
+    public RegressionReport compare(Baseline baseline, Map<String, Histogram> current) {
+
+        Objects.requireNonNull(baseline, "Baseline must not be null");
+        final Set<String> transactions = new TreeSet<>(baseline.getHistograms().keySet());
+        transactions.addAll(current.keySet());
+        final List<RegressionReport.Result> results = new ArrayList<>();
+        for (String tx : transactions) {
+            final Histogram before = orEmpty(baseline.getHistograms().get(tx));
+            final Histogram after = orEmpty(current.get(tx));
+            if (before.getTotalCount() == 0 || after.getTotalCount() == 0) {
+                results.add(new RegressionReport.Result(tx, before, after, Double.NaN, Double.NaN, Double.NaN, false));
+                continue;
+            }
+            final double[] test = mannWhitney(before, after);
+            final boolean enoughSamples = before.getTotalCount() >= minimumSamples
+                                          && after.getTotalCount() >= minimumSamples;
+            final double pValue = enoughSamples ? test[1] : Double.NaN;
+            final double medianChange = relativeChange(before.getValueAtPercentile(50),
+                                                       after.getValueAtPercentile(50));
+            final boolean regression = enoughSamples && pValue < significance && medianChange >= minimumChange;
+            results.add(new RegressionReport.Result(tx,
+                                                    before,
+                                                    after,
+                                                    medianChange,
+                                                    test[0],
+                                                    pValue,
+                                                    regression));
+        }
+        return new RegressionReport(results);
+    }
+
+    private static Histogram orEmpty(Histogram histogram) {
+
+        return histogram == null ? new Histogram() : histogram;
+    }
+
+    private static double relativeChange(Duration before, Duration after) {
+
+        if (before.isZero()) {
+            return after.isZero() ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return (double) (after.toNanos() - before.toNanos()) / before.toNanos();
+    }
+
+    /**
+     * Performs the one-sided Mann-Whitney U test on the buckets of the histograms.
+     * @return
+     *  the probability that a duration of the current run is longer than a duration of the baseline, counting ties
+     *  half, and the p-value of the hypothesis that the current durations are longer
+     */
+    static double[] mannWhitney(Histogram baseline, Histogram current) {
+
+        final List<long[]> before = buckets(baseline);
+        final List<long[]> after = buckets(current);
+        final double n1 = baseline.getTotalCount();
+        final double n2 = current.getTotalCount();
+        final double n = n1 + n2;
+        double rank = 0;
+        double rankSum = 0;
+        double ties = 0;
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            final long value = Math.min(i < before.size() ? before.get(i)[0] : Long.MAX_VALUE,
+                                        j < after.size() ? after.get(j)[0] : Long.MAX_VALUE);
+            double c1 = 0;
+            double c2 = 0;
+            if (i < before.size() && before.get(i)[0] == value) {
+                c1 = before.get(i++)[1];
+            }
+            if (j < after.size() && after.get(j)[0] == value) {
+                c2 = after.get(j++)[1];
+            }
+            final double t = c1 + c2;
+            rankSum += c2 * (rank + (t + 1) / 2);
+            ties += t * t * t - t;
+            rank += t;
+        }
+        final double u = rankSum - n2 * (n2 + 1) / 2;
+        final double mean = n1 * n2 / 2;
+        final double variance = n1 * n2 / 12 * ((n + 1) - ties / (n * (n - 1)));
+        final double pValue = variance <= 0 ? 1 : upperTail((u - mean - 0.5) / Math.sqrt(variance));
+        return new double[] { u / (n1 * n2), pValue };
+    }
+
+    private static List<long[]> buckets(Histogram histogram) {
+
+        final List<long[]> buckets = new ArrayList<>();
+        histogram.forEachBucket((micros, count) -> buckets.add(new long[] { micros, count }));
+        return buckets;
+    }
+
+    /**
+     * The upper tail probability of the standard normal distribution, using the approximation of the complementary
+     * error function by Abramowitz and Stegun (7.1.26) with an absolute error below 1.5e-7.
+     */
+    static double upperTail(double z) {
+
+        final double x = Math.abs(z) / Math.sqrt(2);
+        final double t = 1 / (1 + 0.3275911 * x);
+        final double erfc = t * (0.254829592
+                                 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                            * Math.exp(-x * x);
+        return z >= 0 ? erfc / 2 : 1 - erfc / 2;
+    }
+
+    /**
+     * Builder for creating a regression detector
+     */
+    public static class RegressionDetectorBuilder {
+
+        private double significance = 0.01;
+        private double minimumChange = 0.05;
+        private long minimumSamples = 20;
+
+        RegressionDetectorBuilder() {
+
+        }
+
+        /**
+         * The significance level, a transaction is only flagged if the p-value of the test is below. Default is 0.01.
+         */
+        public RegressionDetectorBuilder significance(double significance) {
+
+            this.significance = significance;
+            return this;
+        }
+
+        /**
+         * The minimum relative slowdown of the median of a transaction to flag it, i.e. 0.05 for 5%. Default is 0.05.
+         */
+        public RegressionDetectorBuilder minimumChange(double minimumChange) {
+
+            this.minimumChange = minimumChange;
+            return this;
+        }
+
+        /**
+         * The minimum number of samples of a transaction in both, the baseline and the current run, for testing it.
+         * Default is 20.
+         */
+        public RegressionDetectorBuilder minimumSamples(long minimumSamples) {
+
+            this.minimumSamples = minimumSamples;
+            return this;
+        }
+
+        public RegressionDetector build() {
+
+            if (significance <= 0 || significance >= 1) {
+                throw new IllegalArgumentException("Significance must be between 0 and 1");
+            }
+            if (minimumChange < 0) {
+                throw new IllegalArgumentException("MinimumChange must not be negative");
+            }
+            if (minimumSamples < 2) {
+                throw new IllegalArgumentException("MinimumSamples must be at least 2");
+            }
+            return new RegressionDetector(significance, minimumChange, minimumSamples);
+        }
+    }
+}
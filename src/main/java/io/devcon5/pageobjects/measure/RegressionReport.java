@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Report of the comparison of a run with a {@link Baseline}, see {@link RegressionDetector}. The report contains one
+ * result per transaction and is immutable. Its string representation is a table of all results.
+ */
+public final class RegressionReport {
+
+    private final List<Result> results;
+
+    RegressionReport(List<Result> results) {
+
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return
+     *  the results of all compared transactions, ordered by transaction
+     */
+    public List<Result> getResults() {
+
+        return results;
+    }
+
+    /**
+     * @return
+     *  the results of the transactions flagged as regression
+     */
+    public List<Result> getRegressions() {
+
+        return results.stream().filter(Result::isRegression).collect(Collectors.toList());
+    }
+
+    /**
+     * @return
+     *  true if any transaction is flagged as regression
+     */
+    public boolean hasRegressions() {
+
+        return results.stream().anyMatch(Result::isRegression);
+    }
+
+    @Override
+    public String toString() {
+
+        final StringBuilder sb = new StringBuilder(128 + results.size() * 112);
+        sb.append(String.format("%-40s %10s %10s %10s %10s %8s %8s %s%n",
+                                "Transaction", "Calls", "Base p50", "p50", "p95", "Change", "p-value", "Result"));
+        for (Result result : results) {
+            final String status;
+            if (result.isMissingInBaseline()) {
+                status = "NEW";
+            } else if (result.isMissingInCurrent()) {
+                status = "MISSING";
+            } else {
+                status = result.isRegression() ? "REGRESSION" : "OK";
+            }
+            sb.append(String.format("%-40s %10d %10s %10s %10s %8s %8s %s%n",
+                                    result.getTransaction(),
+                                    result.getCurrent().getTotalCount(),
+                                    millis(result.getBaseline(), 50),
+                                    millis(result.getCurrent(), 50),
+                                    millis(result.getCurrent(), 95),
+                                    Double.isNaN(result.getMedianChange())
+                                    ? "n/a"
+                                    : String.format("%+7.1f%%", result.getMedianChange() * 100),
+                                    Double.isNaN(result.getPValue())
+                                    ? "n/a"
+                                    : String.format("%.4f", result.getPValue()),
+                                    status));
+        }
+        return sb.toString();
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+
+        return histogram.getTotalCount() == 0 ? "-" : histogram.getValueAtPercentile(percentile).toMillis() + "ms";
+    }
+
+    /**
+     * The result of the comparison of a transaction
+     */
+    public static final class Result {
+
+        private final String transaction;
+        private final Histogram baseline;
+        private final Histogram current;
+        private final double medianChange;
+        private final double probabilitySlower;
+        private final double pValue;
+        private final boolean regression;
+
+        Result(String transaction,
+               Histogram baseline,
+               Histogram current,
+               double medianChange,
+               double probabilitySlower,
+               double pValue,
+               boolean regression) {
+
+            this.transaction = transaction;
+            this.baseline = baseline;
+            this.current = current;
+            this.medianChange = medianChange;
+            this.probabilitySlower = probabilitySlower;
+            this.pValue = pValue;
+            this.regression = regression;
+        }
+
+        /**
+         * @return
+         *  the name of the transaction
+         */
+        public String getTransaction() {
+
+            return transaction;
+        }
+
+        /**
+         * @return
+         *  the histogram of the transaction in the baseline, empty if the transaction is missing in the baseline
+         */
+        public Histogram getBaseline() {
+
+            return baseline;
+        }
+
+        /**
+         * @return
+         *  the histogram of the transaction in the current run, empty if the transaction is missing in the current
+         *  run
+         */
+        public Histogram getCurrent() {
+
+            return current;
+        }
+
+        /**
+         * @return
+         *  the relative change of the median, i.e. 0.1 if the median got 10% slower, or <code>NaN</code> if the
+         *  transaction is missing in the baseline or the current run
+         */
+        public double getMedianChange() {
+
+            return medianChange;
+        }
+
+        /**
+         * The probability that a duration of the current run is longer than a duration of the baseline, counting
+         * equal durations half. A value of 0.5 denotes no difference.
+         * @return
+         *  the probability between 0 and 1 or <code>NaN</code> if the transaction is missing in the baseline or the
+         *  current run
+         */
+        public double getProbabilitySlower() {
+
+            return probabilitySlower;
+        }
+
+        /**
+         * @return
+         *  the p-value of the hypothesis that the current durations are longer than those of the baseline or
+         *  <code>NaN</code> if the transaction has too few samples to be tested or is missing in the baseline or the
+         *  current run
+         */
+        public double getPValue() {
+
+            return pValue;
+        }
+
+        /**
+         * @return
+         *  true if the transaction got significantly slower
+         */
+        public boolean isRegression() {
+
+            return regression;
+        }
+
+        /**
+         * @return
+         *  true if the transaction has no samples in the baseline, i.e. because it was added after the baseline was
+         *  captured
+         */
+        public boolean isMissingInBaseline() {
+
+            return baseline.getTotalCount() == 0;
+        }
+
+        /**
+         * @return
+         *  true if the transaction has samples in the baseline, but none in the current run
+         */
+        public boolean isMissingInCurrent() {
+
+            return baseline.getTotalCount() > 0 && current.getTotalCount() == 0;
+        }
+
+        /**
+         * @return
+         *  the median duration of the current run
+         */
+        public Duration getMedian() {
+
+            return current.getValueAtPercentile(50);
+        }
+
+        @Override
+        public String toString() {
+
+            return transaction + " median " + baseline.getValueAtPercentile(50) + " -> " + getMedian()
+                   + (regression ? " REGRESSION" : "") + " (p=" + pValue + ')';
+        }
+    }
+}
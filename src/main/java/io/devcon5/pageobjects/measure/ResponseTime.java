@@ -16,33 +16,202 @@
 
 package io.devcon5.pageobjects.measure;
 
+import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ResponseTime of a Transaction. Is a specific {@link io.devcon5.pageobjects.measure.TimeMeasure} that associates
  * a unique id with the measurement and a specific transaction with the recored times. The ResponseTime is
  * immutable. Upon starting a measurement, the duration is set to ZERO. When finishing the transaction, a new
  * instance is created.
+ * A response time may have a scheduled start that differs from the actual start, i.e. when an iteration is started
+ * by an arrival rate scheduler and could not be started in time. The difference is reported as queueing delay.
+ * A finished response time has an {@link io.devcon5.pageobjects.measure.Outcome} and, if the transaction failed,
+ * the class of the exception it failed with.
+ * Response times recorded by a {@link io.devcon5.pageobjects.measure.ResponseTimeCollector} form spans: a
+ * transaction started while another transaction of the same thread is open is its child and refers to it by the
+ * parent id. The self duration of a transaction is its duration minus the durations of its children.
  */
 public class ResponseTime extends TimeMeasure {
 
+    /**
+     * System property to set the node id of the response time ids explicitly, i.e. to distinguish multiple load
+     * agents. If not set, a random node id is used.
+     */
+    public static final String NODE_ID_PROPERTY = "io.devcon5.pageobjects.nodeId";
+
+    private static final long NODE_ID = nodeId();
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     private final UUID uuid;
-    private final String transaction;
+    private final UUID parentId;
+    private final int transactionId;
+    private final Instant scheduledStart;
+    private final Outcome outcome;
+    private final Class<? extends Throwable> exceptionClass;
+    private final long childNanos;
 
     public ResponseTime(String transaction, Instant start) {
-        this(UUID.randomUUID(), transaction, start, NEGATIVE);
+        this(TransactionRegistry.idOf(transaction), start);
     }
 
     public ResponseTime(final String txName, final Instant start, final Duration duration) {
-        this(UUID.randomUUID(), txName, start, duration);
+        this(TransactionRegistry.idOf(txName), start, duration);
+    }
+
+    /**
+     * Creates a finished response time whose actual start differs from its scheduled start.
+     * @param txName
+     *  the name of the transaction
+     * @param scheduledStart
+     *  the point in time the transaction should have been started
+     * @param start
+     *  the point in time the transaction was actually started
+     * @param duration
+     *  the duration of the transaction
+     */
+    public ResponseTime(final String txName, final Instant scheduledStart, final Instant start, final Duration duration) {
+        this(nextId(), TransactionRegistry.idOf(txName), scheduledStart, start, duration);
+    }
+
+    /**
+     * Creates a finished response time whose actual start differs from its scheduled start with the outcome of the
+     * transaction.
+     * @param txName
+     *  the name of the transaction
+     * @param scheduledStart
+     *  the point in time the transaction should have been started
+     * @param start
+     *  the point in time the transaction was actually started
+     * @param duration
+     *  the duration of the transaction
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     */
+    public ResponseTime(final String txName,
+                        final Instant scheduledStart,
+                        final Instant start,
+                        final Duration duration,
+                        final Throwable exception) {
+        this(nextId(), TransactionRegistry.idOf(txName), scheduledStart, start, duration, Outcome.of(exception),
+             exception == null ? null : exception.getClass());
+    }
+
+    /**
+     * Creates an unfinished response time for a registered transaction
+     * @param transactionId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param start
+     *  the point in time the transaction was started
+     */
+    public ResponseTime(int transactionId, Instant start) {
+        this(nextId(), transactionId, start, start, NEGATIVE);
+    }
+
+    /**
+     * Creates a finished response time for a registered transaction
+     * @param transactionId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param start
+     *  the point in time the transaction was started
+     * @param duration
+     *  the duration of the transaction
+     */
+    public ResponseTime(int transactionId, Instant start, Duration duration) {
+        this(nextId(), transactionId, start, start, duration);
+    }
+
+    /**
+     * Creates a finished response time with the outcome of the transaction
+     * @param txName
+     *  the name of the transaction
+     * @param start
+     *  the point in time the transaction was started
+     * @param duration
+     *  the duration of the transaction
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     */
+    public ResponseTime(final String txName, final Instant start, final Duration duration, final Throwable exception) {
+        this(nextId(), TransactionRegistry.idOf(txName), start, start, duration, Outcome.of(exception),
+             exception == null ? null : exception.getClass());
+    }
+
+    ResponseTime(int transactionId, Instant start, Duration duration, Outcome outcome) {
+        this(nextId(), transactionId, start, start, duration, outcome, null);
+    }
+
+    /**
+     * Creates an unfinished response time for a transaction started within another transaction
+     * @param transactionId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param start
+     *  the point in time the transaction was started
+     * @param parentId
+     *  the id of the response time of the enclosing transaction or <code>null</code> if there is none
+     */
+    ResponseTime(int transactionId, Instant start, UUID parentId) {
+        this(nextId(), parentId, transactionId, start, start, NEGATIVE, 0, Outcome.SUCCESS, null);
     }
 
     ResponseTime(UUID uuid, String transaction, Instant start, Duration duration) {
+        this(uuid, TransactionRegistry.idOf(transaction), start, start, duration);
+    }
+
+    ResponseTime(UUID uuid, int transactionId, Instant scheduledStart, Instant start, Duration duration) {
+        this(uuid, transactionId, scheduledStart, start, duration, Outcome.SUCCESS, null);
+    }
+
+    ResponseTime(UUID uuid,
+                 int transactionId,
+                 Instant scheduledStart,
+                 Instant start,
+                 Duration duration,
+                 Outcome outcome,
+                 Class<? extends Throwable> exceptionClass) {
+        this(uuid, null, transactionId, scheduledStart, start, duration, 0, outcome, exceptionClass);
+    }
+
+    ResponseTime(UUID uuid,
+                 UUID parentId,
+                 int transactionId,
+                 Instant scheduledStart,
+                 Instant start,
+                 Duration duration,
+                 long childNanos,
+                 Outcome outcome,
+                 Class<? extends Throwable> exceptionClass) {
         super(start, duration);
         this.uuid = uuid;
-        this.transaction = transaction;
+        this.parentId = parentId;
+        this.transactionId = transactionId;
+        this.scheduledStart = scheduledStart;
+        this.childNanos = childNanos;
+        this.outcome = outcome;
+        this.exceptionClass = exceptionClass;
+    }
+
+    /**
+     * Creates the next unique id. The most significant bits of the id contain the node id, the least significant bits
+     * a sequence number that is incremented for every response time, so that ids are unique across JVMs and
+     * monotonically increasing within a JVM. Other than {@link UUID#randomUUID()}, creating an id is cheap and
+     * does not synchronize on a {@link SecureRandom}, which would pin virtual threads and serialize concurrent
+     * measurements.
+     * @return
+     *  a new id
+     */
+    private static UUID nextId() {
+        return new UUID(NODE_ID, SEQUENCE.incrementAndGet());
+    }
+
+    private static long nodeId() {
+        final Long configured = Long.getLong(NODE_ID_PROPERTY);
+        return configured != null ? configured : new SecureRandom().nextLong();
     }
 
     /**
@@ -51,7 +220,7 @@ public class ResponseTime extends TimeMeasure {
      *  the response time representing the end of the transaction
      */
     public ResponseTime finish(){
-        return finish(Instant.now());
+        return finish(TimeSource.current().now());
     }
 
     /**
@@ -62,14 +231,46 @@ public class ResponseTime extends TimeMeasure {
      *  a new ResponseTime instance representing the measured time of the transaction
      */
     public ResponseTime finish(Instant end){
+        return finish(end, null);
+    }
+
+    /**
+     * Finishes the transaction response time recording on the the specific instant with the outcome determined by
+     * the exception, see {@link Outcome#of(Throwable)}.
+     * @param end
+     *  the time point when the transaction was finished
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     * @return
+     *  a new ResponseTime instance representing the measured time and outcome of the transaction
+     */
+    public ResponseTime finish(Instant end, Throwable exception){
+        return finish(end, exception, 0);
+    }
+
+    /**
+     * Finishes the transaction response time recording of a span on the specific instant.
+     * @param end
+     *  the time point when the transaction was finished
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     * @param childNanos
+     *  the summed up durations of the child transactions in nanoseconds
+     * @return
+     *  a new ResponseTime instance representing the measured time and outcome of the transaction
+     */
+    ResponseTime finish(Instant end, Throwable exception, long childNanos){
         if(isFinished()) {
             throw new IllegalStateException("Transaction already finished");
         }
-        return new ResponseTime(uuid, transaction, getStart(), Duration.between(getStart(), end));
+        return new ResponseTime(uuid, parentId, transactionId, scheduledStart, getStart(),
+                                Duration.between(getStart(), end), childNanos,
+                                Outcome.of(exception), exception == null ? null : exception.getClass());
     }
 
     /**
-     * The unique id of the measure
+     * The unique id of the measure. The id consists of the node id of the JVM and a sequence number, it is not a
+     * standard random or name based UUID.
      * @return
      *  the id of the measure
      */
@@ -77,24 +278,110 @@ public class ResponseTime extends TimeMeasure {
         return uuid;
     }
 
+    /**
+     * The id of the response time of the enclosing transaction
+     * @return
+     *  the id of the parent response time or the empty optional if the transaction was not started within another
+     *  transaction
+     */
+    public Optional<UUID> getParentId() {
+        return Optional.ofNullable(parentId);
+    }
+
+    /**
+     * The duration of the transaction without the durations of the transactions started and finished within it, that
+     * is the time actually spent in the transaction itself.
+     * @return
+     *  the self duration of the transaction, which equals the duration for transactions without children
+     */
+    public Duration getSelfDuration() {
+        if (childNanos == 0) {
+            return getDuration();
+        }
+        final Duration self = getDuration().minusNanos(childNanos);
+        return self.isNegative() ? Duration.ZERO : self;
+    }
+
     /**
      * The name of the transaction that was measured
      * @return
      *  the name of the transaction
      */
     public String getTransaction() {
-        return transaction;
+        return TransactionRegistry.nameOf(transactionId);
+    }
+
+    /**
+     * The id of the transaction that was measured
+     * @return
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     */
+    public int getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * The point in time the transaction was scheduled to start. Unless the transaction was scheduled, this is the
+     * same as the actual start.
+     * @return
+     *  the scheduled start of the transaction
+     */
+    public Instant getScheduledStart() {
+        return scheduledStart;
+    }
+
+    /**
+     * The delay between the scheduled and the actual start of the transaction, i.e. the time the transaction was
+     * queued because no user was available to start it.
+     * @return
+     *  the queueing delay, which is zero for unscheduled transactions
+     */
+    public Duration getQueueingDelay() {
+        return Duration.between(scheduledStart, getStart());
+    }
+
+    /**
+     * The outcome of the transaction. Unfinished transactions have no failure recorded, their outcome is
+     * {@link Outcome#SUCCESS}.
+     * @return
+     *  the outcome of the transaction
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Indicator whether the transaction was successful
+     * @return
+     *  true if the outcome of the transaction is {@link Outcome#SUCCESS}
+     */
+    public boolean isSuccessful() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    /**
+     * The class of the exception the transaction failed with
+     * @return
+     *  the exception class or the empty optional if the transaction did not fail with an exception
+     */
+    public Optional<Class<? extends Throwable>> getExceptionClass() {
+        return Optional.ofNullable(exceptionClass);
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(64)
             .append("ResponseTime{")
-            .append("transaction='").append(transaction).append('\'')
+            .append("transaction='").append(getTransaction()).append('\'')
             .append(", start=").append(getStart())
-            .append(", duration=").append(getDuration())
-            .append('}');
-        return sb.toString();
+            .append(", duration=").append(getDuration());
+        if (outcome != Outcome.SUCCESS) {
+            sb.append(", outcome=").append(outcome);
+        }
+        if (exceptionClass != null) {
+            sb.append(", exception=").append(exceptionClass.getName());
+        }
+        return sb.append('}').toString();
     }
 
     @Override
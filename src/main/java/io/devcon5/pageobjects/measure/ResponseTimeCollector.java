@@ -20,21 +20,48 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 
 /**
- * A collector for tracking transactions for a single thread. The collctor does not support stacking transaction
- * with the same name. Every transaction should be closed before a new transaction with the same name is started.
- * Upon stopping collecting times, all open transactions are logged out.
+ * A collector for tracking transactions for a single thread. The open transactions are kept on a stack per thread,
+ * a transaction started while another transaction is open becomes a child span of it, referring to it by its
+ * parent id, see {@link ResponseTime#getParentId()}. The duration of a finished child is excluded from the self
+ * duration of its parent, see {@link ResponseTime#getSelfDuration()}. Stopping a transaction stops the innermost
+ * open transaction of that name of the current thread, so that transactions with the same name may be nested and
+ * may run concurrently on different threads sharing the collector. Transactions that are not stopped in reverse
+ * order of their start are still recorded, but their durations are not attributed to a parent that is already
+ * finished. The stack of a thread is reused for all its transactions and only held by the thread itself, so that a
+ * collector shared by many short-lived threads does not retain the stacks of finished threads. It is released on
+ * {@link #stopCollecting()}.
+ * Upon stopping collecting times, the open transactions of the current thread are logged out and discarded, the open
+ * transactions of other threads sharing the collector are not affected.
  * To start collecting response times, invoke the {@link #startCollecting()}
  * method, to stop recording, the {@link #stopCollecting()}. This will associate the time collection for the current
  * thread with the current instance.
- *
+ * Idle time, such as the think time of a user, can be captured using {@link #captureIdleTx(String, Instant, Duration)}.
+ * It is recorded as a separate transaction and excluded from the duration of all transactions open at that time.
+ * All points in time are taken from the current {@link io.devcon5.pageobjects.measure.TimeSource}, so that durations
+ * are measured monotonically.
+ * <br>
+ * By default, every finished transaction is passed to the global {@link io.devcon5.pageobjects.measure.ResponseTimes}
+ * immediately. A buffered collector, created with {@link #builder()}, keeps finished transactions in a
+ * preallocated buffer and passes them in batches, when the buffer is full, when the oldest buffered transaction
+ * exceeds the flush interval, on {@link #flush()} and on {@link #stopCollecting()}. As a collector is usually bound
+ * to a single user thread, its buffer is effectively thread-local and the threads of many concurrent users access
+ * the global store far less often. Buffered transactions are not visible in the global store until they are
+ * flushed, the flush interval is only checked when a transaction is recorded.
+ * <br>
+ * If overhead compensation is enabled, the calibrated overhead of the measurement is subtracted from the duration of
+ * every stopped transaction, see {@link io.devcon5.pageobjects.measure.OverheadCalibration}.
  */
 public class ResponseTimeCollector {
 
@@ -43,13 +70,86 @@ public class ResponseTimeCollector {
     private static final ThreadLocal<Optional<ResponseTimeCollector>> CURRENT = ThreadLocal.withInitial
             (Optional::empty);
 
-    private final Map<String, ResponseTime> responseTimes = new ConcurrentHashMap<>();
+    /**
+     * The stack of open transactions of the current thread, not set before the first transaction of the thread and
+     * after collecting was stopped
+     */
+    private final ThreadLocal<SpanStack> currentStack = new ThreadLocal<>();
+
+    /**
+     * Finished response times not yet passed to the global store or <code>null</code> if the collector is not
+     * buffered. The buffer and its state are guarded by the monitor of the buffer.
+     */
+    private final ResponseTime[] buffer;
+    private final long flushIntervalNanos;
+
+    /**
+     * Consumer of the finished transactions instead of the global store or <code>null</code>. A collector with a
+     * sink is used for calibration, its transactions are never compensated and neither their start nor their end
+     * is passed to the global store.
+     */
+    private final Consumer<ResponseTime> sink;
+    private int buffered;
+    private long bufferStartNanos;
+
+    /**
+     * Creates a collector that passes every finished transaction to the global store immediately
+     */
+    public ResponseTimeCollector() {
+
+        this(0, Duration.ZERO);
+    }
+
+    private ResponseTimeCollector(int bufferSize, Duration flushInterval) {
+
+        this.buffer = bufferSize > 0 ? new ResponseTime[bufferSize] : null;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.sink = null;
+    }
+
+    /**
+     * Creates an unbuffered collector that passes every finished transaction to the sink instead of the global store
+     * @param sink
+     *  the consumer of the finished transactions
+     */
+    ResponseTimeCollector(Consumer<ResponseTime> sink) {
+
+        this.buffer = null;
+        this.flushIntervalNanos = 0;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a new builder for a buffered collector
+     * @return
+     *  a new builder
+     */
+    public static ResponseTimeCollectorBuilder builder() {
+
+        return new ResponseTimeCollectorBuilder();
+    }
 
     public static Optional<ResponseTimeCollector> current() {
 
         return CURRENT.get();
     }
 
+    /**
+     * Binds the collector to the current thread without starting or stopping any recording. Other than
+     * {@link #stopCollecting()}, unbinding a collector does not discard its open transactions, so that the same
+     * collector may be shared by multiple threads.
+     * @param collector
+     *  the collector to bind to the current thread or the empty optional to unbind the current collector
+     * @return
+     *  the collector that was bound to the current thread before
+     */
+    public static Optional<ResponseTimeCollector> bind(Optional<ResponseTimeCollector> collector) {
+
+        final Optional<ResponseTimeCollector> previous = CURRENT.get();
+        CURRENT.set(collector);
+        return previous;
+    }
+
     /**
      * Starts the recording of response times for the current thread.
      */
@@ -59,15 +159,23 @@ public class ResponseTimeCollector {
     }
 
     /**
-     * Stops the recoding of the response times for the current thread.
+     * Stops the recoding of the response times for the current thread. Open transactions of the current thread are
+     * logged and discarded, open transactions of other threads remain open.
      */
     public void stopCollecting() {
 
         CURRENT.set(Optional.empty());
-        if (!responseTimes.isEmpty()) {
+        flush();
+        final SpanStack stack = currentStack.get();
+        if (stack == null) {
+            return;
+        }
+        currentStack.remove();
+        final List<ResponseTime> incomplete = new ArrayList<>();
+        stack.clear(incomplete);
+        if (!incomplete.isEmpty()) {
             LOG.warn("Some Transactions have not been completed:\n{}",
-                     responseTimes.values().stream().map(ResponseTime::toString).collect(Collectors.joining("\n")));
-            responseTimes.clear();
+                     incomplete.stream().map(ResponseTime::toString).collect(Collectors.joining("\n")));
         }
     }
 
@@ -95,7 +203,65 @@ public class ResponseTimeCollector {
      */
     public void captureTx(String txName, Instant start, Duration duration) {
         LOG.trace("TX {} started {} took {}", txName, start, duration);
-        ResponseTimes.collect(new ResponseTime(txName, start, duration));
+        record(new ResponseTime(txName, start, duration));
+    }
+
+    /**
+     * Captures a completed transaction that has been scheduled to start at a specific point in time, but was
+     * actually started later.
+     * @param txName
+     *  the name of the transaction
+     * @param scheduledStart
+     *  the point in time the transaction was scheduled to start
+     * @param start
+     *  the actual start point
+     * @param duration
+     *  the duration of the execution
+     */
+    public void captureTx(String txName, Instant scheduledStart, Instant start, Duration duration) {
+        LOG.trace("TX {} scheduled {} started {} took {}", txName, scheduledStart, start, duration);
+        record(new ResponseTime(txName, scheduledStart, start, duration));
+    }
+
+    /**
+     * Captures a completed transaction that has been scheduled to start at a specific point in time, but was
+     * actually started later, with the outcome determined by the exception, see {@link Outcome#of(Throwable)}.
+     * @param txName
+     *  the name of the transaction
+     * @param scheduledStart
+     *  the point in time the transaction was scheduled to start
+     * @param start
+     *  the actual start point
+     * @param duration
+     *  the duration of the execution
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     */
+    public void captureTx(String txName,
+                          Instant scheduledStart,
+                          Instant start,
+                          Duration duration,
+                          Throwable exception) {
+        LOG.trace("TX {} scheduled {} started {} took {}", txName, scheduledStart, start, duration);
+        record(new ResponseTime(txName, scheduledStart, start, duration, exception));
+    }
+
+    /**
+     * Captures a completed period of idle time, i.e. think time or pacing of a user. The idle time is recorded as
+     * transaction of its own and is excluded from the duration of all transactions currently open on this thread.
+     * @param txName
+     *  the name of the transaction for the idle time
+     * @param start
+     *  the start point of the idle time
+     * @param duration
+     *  the duration of the idle time
+     */
+    public void captureIdleTx(String txName, Instant start, Duration duration) {
+        final SpanStack stack = currentStack.get();
+        if (stack != null) {
+            stack.addIdle(duration.toNanos());
+        }
+        captureTx(txName, start, duration);
     }
 
     /**
@@ -105,9 +271,31 @@ public class ResponseTimeCollector {
      */
     public void startTx(String tx) {
 
-        final Instant now = Instant.now();
-        LOG.trace("TX Start {} at {}", tx, now);
-        responseTimes.put(tx, ResponseTimes.startTx(tx, now));
+        startTx(TransactionRegistry.idOf(tx));
+    }
+
+    /**
+     * Starts a new transaction time recording. If another transaction is open on the current thread, the new
+     * transaction is a child of the innermost open transaction.
+     * @param txId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     */
+    public void startTx(int txId) {
+
+        final Instant now = TimeSource.current().now();
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("TX Start {} at {}", TransactionRegistry.nameOf(txId), now);
+        }
+        SpanStack stack = currentStack.get();
+        if (stack == null) {
+            stack = new SpanStack();
+            currentStack.set(stack);
+        }
+        final ResponseTime started = new ResponseTime(txId, now, stack.peekId());
+        stack.push(started);
+        if (sink == null) {
+            ResponseTimes.startTx(started);
+        }
     }
 
     /**
@@ -117,12 +305,22 @@ public class ResponseTimeCollector {
      */
     public void stopTx(String tx) {
 
-        final Instant now = Instant.now();
-        stopTx(tx, now);
+        stopTx(TransactionRegistry.idOf(tx));
+    }
+
+    /**
+     * Stops the recording of a transaction time, storing the transaction in the global response time store
+     * @param txId
+     *  the id of the transaction that has been completed
+     */
+    public void stopTx(int txId) {
+
+        stopTx(txId, TimeSource.current().now());
     }
 
     /**
-     * Stops the transaction at the specific time point
+     * Stops the transaction at the specific time point. Idle time captured while the transaction was open is
+     * excluded from its duration.
      * @param tx
      *  the transaction to stop
      * @param now
@@ -130,11 +328,230 @@ public class ResponseTimeCollector {
      */
     public void stopTx(String tx, Instant now) {
 
-        if (!responseTimes.containsKey(tx)) {
-            throw new IllegalStateException("Transaction " + tx + " not started");
+        stopTx(TransactionRegistry.idOf(tx), now);
+    }
+
+    /**
+     * Stops the transaction at the specific time point. Idle time captured while the transaction was open is
+     * excluded from its duration.
+     * @param txId
+     *  the id of the transaction to stop
+     * @param now
+     *  the manually measured time point when the transaction ended
+     */
+    public void stopTx(int txId, Instant now) {
+
+        stopTx(txId, now, null);
+    }
+
+    /**
+     * Stops the innermost open transaction of the current thread with the given id at the specific time point with
+     * the outcome determined by the exception, see {@link Outcome#of(Throwable)}. Idle time captured while the
+     * transaction was open and the compensated overhead are excluded from its duration, its duration is added to the
+     * child durations of its parent.
+     * @param txId
+     *  the id of the transaction to stop
+     * @param now
+     *  the manually measured time point when the transaction ended
+     * @param exception
+     *  the exception the transaction failed with or <code>null</code> if the transaction was successful
+     */
+    public void stopTx(int txId, Instant now, Throwable exception) {
+
+        final long overheadNanos = sink == null ? OverheadCalibration.getCompensationNanos() : 0;
+        final SpanStack stack = currentStack.get();
+        final ResponseTime finished = stack == null ? null : stack.pop(txId, now, exception, overheadNanos);
+        if (finished == null) {
+            throw new IllegalStateException("Transaction " + TransactionRegistry.nameOf(txId) + " not started");
+        }
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("TX End {} at {}", TransactionRegistry.nameOf(txId), now);
         }
-        LOG.trace("TX End {} at {}", tx, now);
-        ResponseTimes.stopTx(responseTimes.remove(tx).finish(now));
+        record(finished);
     }
 
+    /**
+     * Passes all buffered transactions to the global store. Has no effect if the collector is not buffered.
+     */
+    public void flush() {
+
+        if (buffer != null) {
+            synchronized (buffer) {
+                flushBuffer();
+            }
+        }
+    }
+
+    private void record(ResponseTime responseTime) {
+
+        if (sink != null) {
+            sink.accept(responseTime);
+            return;
+        }
+        if (buffer == null) {
+            ResponseTimes.collect(responseTime);
+            return;
+        }
+        synchronized (buffer) {
+            final long now = TimeSource.current().nanoTime();
+            if (buffered == 0) {
+                bufferStartNanos = now;
+            }
+            buffer[buffered++] = responseTime;
+            if (buffered == buffer.length || now - bufferStartNanos >= flushIntervalNanos) {
+                flushBuffer();
+            }
+        }
+    }
+
+    private void flushBuffer() {
+
+        if (buffered == 0) {
+            return;
+        }
+        try {
+            ResponseTimes.collect(buffer, buffered);
+        } finally {
+            Arrays.fill(buffer, 0, buffered, null);
+            buffered = 0;
+        }
+    }
+
+    /**
+     * Builder for creating a buffered collector
+     */
+    public static class ResponseTimeCollectorBuilder {
+
+        private int bufferSize = 256;
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        ResponseTimeCollectorBuilder() {
+
+        }
+
+        /**
+         * The number of finished transactions that are buffered before they are passed to the global store. Default
+         * is 256, a size of 0 disables buffering.
+         */
+        public ResponseTimeCollectorBuilder bufferSize(int bufferSize) {
+
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * The maximum time a finished transaction is buffered, before the buffer is flushed on the next recorded
+         * transaction. Default is 1 second.
+         */
+        public ResponseTimeCollectorBuilder flushInterval(Duration flushInterval) {
+
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        public ResponseTimeCollector build() {
+
+            Objects.requireNonNull(flushInterval, "FlushInterval must not be null");
+            if (bufferSize < 0) {
+                throw new IllegalArgumentException("BufferSize must not be negative");
+            }
+            if (flushInterval.isNegative()) {
+                throw new IllegalArgumentException("FlushInterval must not be negative");
+            }
+            return new ResponseTimeCollector(bufferSize, flushInterval);
+        }
+    }
+
+    /**
+     * Stack of the open transactions of a thread. The slots of the stack are reused for every transaction started
+     * at the same depth, a slot drops the reference to its transaction when the transaction is finished. The stack
+     * is only accessed by its thread.
+     */
+    private static final class SpanStack {
+
+        private OpenSpan[] spans = new OpenSpan[8];
+        private int depth;
+
+        UUID peekId() {
+
+            return depth == 0 ? null : spans[depth - 1].started.getUuid();
+        }
+
+        void push(ResponseTime started) {
+
+            if (depth == spans.length) {
+                spans = Arrays.copyOf(spans, depth * 2);
+            }
+            OpenSpan span = spans[depth];
+            if (span == null) {
+                span = new OpenSpan();
+                spans[depth] = span;
+            }
+            span.started = started;
+            span.idleNanos = 0;
+            span.childNanos = 0;
+            depth++;
+        }
+
+        /**
+         * Removes the innermost open transaction with the given id from the stack and finishes it. The idle time and
+         * the overhead are subtracted from its duration, but it does not end before its start.
+         * @return
+         *  the finished response time or <code>null</code> if no such transaction is open
+         */
+        ResponseTime pop(int txId, Instant end, Throwable exception, long overheadNanos) {
+
+            int i = depth - 1;
+            while (i >= 0 && spans[i].started.getTransactionId() != txId) {
+                i--;
+            }
+            if (i < 0) {
+                return null;
+            }
+            final OpenSpan span = spans[i];
+            final long excludedNanos = span.idleNanos + overheadNanos;
+            Instant actualEnd = excludedNanos == 0 ? end : end.minusNanos(excludedNanos);
+            if (actualEnd.isBefore(span.started.getStart())) {
+                actualEnd = span.started.getStart();
+            }
+            final ResponseTime finished = span.started.finish(actualEnd, exception, span.childNanos);
+            span.started = null;
+            System.arraycopy(spans, i + 1, spans, i, depth - i - 1);
+            depth--;
+            spans[depth] = span;
+            //the enclosing span may already be finished, if transactions are not stopped in reverse order
+            final OpenSpan parent = i > 0 ? spans[i - 1] : null;
+            if (parent != null && parent.started.getUuid().equals(finished.getParentId().orElse(null))) {
+                parent.childNanos += finished.getDuration().toNanos();
+            }
+            return finished;
+        }
+
+        void addIdle(long idleNanos) {
+
+            for (int i = 0; i < depth; i++) {
+                spans[i].idleNanos += idleNanos;
+            }
+        }
+
+        void clear(List<ResponseTime> incomplete) {
+
+            for (int i = 0; i < depth; i++) {
+                incomplete.add(spans[i].started);
+                spans[i].started = null;
+            }
+            depth = 0;
+        }
+    }
+
+    /**
+     * Slot of an open transaction, holding the response time of the started transaction, the idle time captured
+     * since its start and the durations of its finished children.
+     */
+    private static final class OpenSpan {
+
+        ResponseTime started;
+        long idleNanos;
+        long childNanos;
+    }
 }
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+
+/**
+ * Append-only log of finished response times in memory-mapped files. Each finished response time is written as a
+ * compact binary record directly into a mapped file, so that neither the samples nor any buffers are kept on the
+ * heap. As the data is written into the page cache of the operating system, it is retained even if the JVM crashes.
+ * When a file is full, the log rolls over to a new file. Optionally, only a maximum number of the files created by the
+ * log is retained, files of previous logs in the same directory are never deleted. If rolling over fails, i.e.
+ * because the disk is full, the error is logged and the samples are dropped until a new file could be created, so
+ * that the measured threads do not fail.
+ * <br>
+ * Each file starts with a header, followed by records. Every record starts with a type byte, which is written after
+ * the rest of the record, so that an incomplete record is never read. A transaction record (type 1) consists of the
+ * transaction id as int, the length of the name as unsigned short and the UTF-8 encoded name. It is written before
+ * the first sample of the transaction in each file. A sample record (type 2) consists of the transaction id as
+ * int, the start in nanoseconds since the epoch and the duration in nanoseconds as long. A type byte of 0 denotes
+ * the end of the records. The files can be read using {@link io.devcon5.pageobjects.measure.ResponseTimeLogReader}.
+ * <pre>
+ *     ResponseTimeLog log = ResponseTimeLog.builder().directory(Paths.get("target/responsetimes")).build();
+ *     ResponseTimes.onMeasureEnd(log);
+ *     ...
+ *     log.close();
+ * </pre>
+ */
+public final class ResponseTimeLog implements Consumer<ResponseTime>, AutoCloseable {
+
+    static final int MAGIC = 0x52544C47;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final byte END = 0;
+    static final byte TRANSACTION = 1;
+    static final byte SAMPLE = 2;
+
+    static final int SAMPLE_SIZE = 1 + 4 + 8 + 8;
+
+    private static final String SUFFIX = ".rtlog";
+
+    private static final Logger LOG = getLogger(ResponseTimeLog.class);
+
+    private final Path directory;
+    private final String prefix;
+    private final int fileSize;
+    private final int maxFiles;
+    private final Deque<Path> files = new ArrayDeque<>();
+    private final BitSet defined = new BitSet();
+
+    private int fileIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long samples;
+    private long dropped;
+    private boolean closed;
+    private boolean rollFailed;
+
+    private ResponseTimeLog(ResponseTimeLogBuilder builder) throws IOException {
+
+        this.directory = builder.directory;
+        this.prefix = builder.prefix;
+        this.fileSize = builder.fileSize;
+        this.maxFiles = builder.maxFiles;
+        Files.createDirectories(directory);
+        final List<Path> existing = listFiles(directory, prefix);
+        this.fileIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1), prefix);
+        roll();
+    }
+
+    /**
+     * Appends the response time to the log, if it is finished. Unfinished response times are ignored.
+     * @param responseTime
+     *  the response time to log
+     */
+    @Override
+    public void accept(ResponseTime responseTime) {
+
+        if (responseTime.isFinished()) {
+            append(responseTime.getTransactionId(),
+                   SampleStore.toEpochNanos(responseTime.getStart()),
+                   responseTime.getDuration().toNanos());
+        }
+    }
+
+    /**
+     * Appends a sample to the log. Samples appended after the log has been closed or while no new file could be
+     * created are dropped, so that neither a transaction finished after the end of the measurement nor a full disk
+     * fails the measured thread, see {@link #getDroppedCount()}.
+     * @param transactionId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param startNanos
+     *  the start of the transaction in nanoseconds since the epoch
+     * @param durationNanos
+     *  the duration of the transaction in nanoseconds
+     */
+    public synchronized void append(int transactionId, long startNanos, long durationNanos) {
+
+        if (closed) {
+            dropped++;
+            return;
+        }
+        byte[] name = null;
+        if (!defined.get(transactionId)) {
+            name = TransactionRegistry.nameOf(transactionId).getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF) {
+                throw new IllegalArgumentException("Transaction name too long");
+            }
+        }
+        if (buffer == null || buffer.remaining() < SAMPLE_SIZE + (name == null ? 0 : 7 + name.length)) {
+            if (!tryRoll()) {
+                dropped++;
+                return;
+            }
+            name = TransactionRegistry.nameOf(transactionId).getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < SAMPLE_SIZE + 7 + name.length) {
+                throw new IllegalArgumentException("Transaction name exceeds the file size");
+            }
+        }
+        if (name != null) {
+            final int pos = buffer.position();
+            ((Buffer) buffer).position(pos + 1);
+            buffer.putInt(transactionId);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            buffer.put(pos, TRANSACTION);
+            defined.set(transactionId);
+        }
+        final int pos = buffer.position();
+        ((Buffer) buffer).position(pos + 1);
+        buffer.putInt(transactionId);
+        buffer.putLong(startNanos);
+        buffer.putLong(durationNanos);
+        buffer.put(pos, SAMPLE);
+        samples++;
+    }
+
+    private boolean tryRoll() {
+
+        try {
+            roll();
+            rollFailed = false;
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            //log only the first failure, as every following sample retries
+            if (!rollFailed) {
+                LOG.error("Could not roll over response time log in {}, samples are dropped", directory, e);
+            }
+            rollFailed = true;
+            return false;
+        }
+    }
+
+    private void roll() throws IOException {
+
+        closeFile();
+        final Path file = directory.resolve(fileName(prefix, fileIndex + 1));
+        channel = FileChannel.open(file,
+                                   StandardOpenOption.CREATE_NEW,
+                                   StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        } catch (IOException e) {
+            channel.close();
+            channel = null;
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        fileIndex++;
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        defined.clear();
+        files.addLast(file);
+        while (maxFiles > 0 && files.size() > maxFiles) {
+            final Path oldest = files.removeFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                LOG.warn("Could not delete response time log file {}", oldest, e);
+            }
+        }
+    }
+
+    private void closeFile() throws IOException {
+
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+        } finally {
+            buffer = null;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } finally {
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all appended records of the current file to the storage device.
+     */
+    public synchronized void force() {
+
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * @return
+     *  the number of samples appended to the log
+     */
+    public synchronized long getSampleCount() {
+
+        return samples;
+    }
+
+    /**
+     * @return
+     *  the number of samples that were not appended because the log was closed or no new file could be created
+     */
+    public synchronized long getDroppedCount() {
+
+        return dropped;
+    }
+
+    /**
+     * @return
+     *  the retained files created by this log, from the oldest to the current file
+     */
+    public synchronized List<Path> getFiles() {
+
+        return files.stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Writes all appended records to the storage device and closes the current file. Samples appended later are
+     * dropped.
+     */
+    @Override
+    public synchronized void close() {
+
+        closed = true;
+        try {
+            closeFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String fileName(String prefix, int index) {
+
+        return String.format("%s-%06d%s", prefix, index, SUFFIX);
+    }
+
+    /**
+     * Lists the files of a log
+     * @param directory
+     *  the directory containing the log files
+     * @param prefix
+     *  the prefix of the log files
+     * @return
+     *  the log files, ordered from the oldest to the newest
+     * @throws IOException
+     *  if the directory could not be read
+     */
+    static List<Path> listFiles(Path directory, String prefix) throws IOException {
+
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.filter(p -> indexOf(p, prefix) > 0)
+                       .sorted((p1, p2) -> Integer.compare(indexOf(p1, prefix), indexOf(p2, prefix)))
+                       .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOf(Path file, String prefix) {
+
+        final Matcher m = Pattern.compile(Pattern.quote(prefix) + "-(\\d{6,})" + Pattern.quote(SUFFIX))
+                                 .matcher(file.getFileName().toString());
+        return m.matches() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    /**
+     * Creates a new builder for a log
+     * @return
+     *  a new builder
+     */
+    public static ResponseTimeLogBuilder builder() {
+
+        return new ResponseTimeLogBuilder();
+    }
+
+    /**
+     * Builder for creating a log. The first file of the log is created when the log is built. If the directory
+     * already contains files of a log with the same prefix, the new log continues with the next file and keeps the
+     * existing files.
+     */
+    public static class ResponseTimeLogBuilder {
+
+        private Path directory;
+        private String prefix = "responsetimes";
+        private int fileSize = 64 * 1024 * 1024;
+        private int maxFiles;
+
+        ResponseTimeLogBuilder() {
+
+        }
+
+        /**
+         * @param directory
+         *  the directory for the log files, created if it does not exist
+         * @return
+         *  this builder
+         */
+        public ResponseTimeLogBuilder directory(Path directory) {
+
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @param prefix
+         *  the prefix of the file names. Default is "responsetimes"
+         * @return
+         *  this builder
+         */
+        public ResponseTimeLogBuilder prefix(String prefix) {
+
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * @param fileSize
+         *  the size of each file in bytes. Default is 64 MB, which holds about 3 million samples
+         * @return
+         *  this builder
+         */
+        public ResponseTimeLogBuilder fileSize(int fileSize) {
+
+            this.fileSize = fileSize;
+            return this;
+        }
+
+        /**
+         * @param maxFiles
+         *  the maximum number of files created by the log to retain, the oldest files are deleted. Default is 0,
+         *  retaining all files
+         * @return
+         *  this builder
+         */
+        public ResponseTimeLogBuilder maxFiles(int maxFiles) {
+
+            this.maxFiles = maxFiles;
+            return this;
+        }
+
+        /**
+         * Creates the log and its first file
+         * @return
+         *  the new log
+         * @throws IOException
+         *  if the file could not be created
+         */
+        public ResponseTimeLog build() throws IOException {
+
+            Objects.requireNonNull(directory, "Directory must not be null");
+            Objects.requireNonNull(prefix, "Prefix must not be null");
+            if (fileSize < 1024) {
+                throw new IllegalArgumentException("FileSize must be at least 1024 bytes");
+            }
+            if (maxFiles < 0) {
+                throw new IllegalArgumentException("MaxFiles must not be negative");
+            }
+            return new ResponseTimeLog(this);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reader for the files written by a {@link io.devcon5.pageobjects.measure.ResponseTimeLog}. The files are mapped
+ * into memory and read sequentially, so reading requires no buffers on the heap. The transactions of the log are
+ * registered in the {@link io.devcon5.pageobjects.measure.TransactionRegistry} of the reading JVM, the samples are
+ * reported with the transaction ids of the reading JVM.
+ * <br>
+ * The reader can be used from the command line to convert a log to CSV:
+ * <pre>
+ *     java -cp ... io.devcon5.pageobjects.measure.ResponseTimeLogReader &lt;directory&gt; [prefix] &gt; times.csv
+ * </pre>
+ */
+public final class ResponseTimeLogReader {
+
+    private final List<Path> files;
+
+    private ResponseTimeLogReader(List<Path> files) {
+
+        this.files = files;
+    }
+
+    /**
+     * Creates a reader for all files of a log
+     * @param directory
+     *  the directory containing the files of the log
+     * @param prefix
+     *  the prefix of the files of the log
+     * @return
+     *  a reader for the log files, from the oldest to the newest
+     * @throws IOException
+     *  if the directory could not be read
+     */
+    public static ResponseTimeLogReader open(Path directory, String prefix) throws IOException {
+
+        return new ResponseTimeLogReader(ResponseTimeLog.listFiles(directory, prefix));
+    }
+
+    /**
+     * Creates a reader for specific log files
+     * @param files
+     *  the files to read, in the order they should be read
+     * @return
+     *  a reader for the files
+     */
+    public static ResponseTimeLogReader of(Path... files) {
+
+        return new ResponseTimeLogReader(Arrays.asList(files));
+    }
+
+    /**
+     * @return
+     *  the files read by this reader
+     */
+    public List<Path> getFiles() {
+
+        return files;
+    }
+
+    /**
+     * Reads all samples of the log files
+     * @param consumer
+     *  the consumer of the samples
+     * @return
+     *  the number of samples read
+     * @throws IOException
+     *  if a file could not be read or is no valid log file
+     */
+    public long read(SampleStore.SampleConsumer consumer) throws IOException {
+
+        long count = 0;
+        for (Path file : files) {
+            count += read(file, consumer);
+        }
+        return count;
+    }
+
+    private static long read(Path file, SampleStore.SampleConsumer consumer) throws IOException {
+
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < ResponseTimeLog.HEADER_SIZE || buffer.getInt() != ResponseTimeLog.MAGIC) {
+            throw new IOException(file + " is no response time log");
+        }
+        final short version = buffer.getShort();
+        if (version != ResponseTimeLog.VERSION) {
+            throw new IOException("Unsupported version " + version + " of " + file);
+        }
+        buffer.getShort();
+        final Map<Integer, Integer> transactions = new HashMap<>();
+        long count = 0;
+        while (buffer.hasRemaining()) {
+            final byte type = buffer.get();
+            if (type == ResponseTimeLog.END) {
+                break;
+            } else if (type == ResponseTimeLog.TRANSACTION) {
+                final int id = buffer.getInt();
+                final byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                transactions.put(id, TransactionRegistry.idOf(new String(name, StandardCharsets.UTF_8)));
+            } else if (type == ResponseTimeLog.SAMPLE) {
+                final Integer txId = transactions.get(buffer.getInt());
+                if (txId == null) {
+                    throw new IOException("Undefined transaction in " + file);
+                }
+                consumer.accept(txId, buffer.getLong(), buffer.getLong());
+                count++;
+            } else {
+                throw new IOException("Invalid record type " + type + " in " + file);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads all samples of the log files as response times
+     * @param consumer
+     *  the consumer of the response times
+     * @return
+     *  the number of response times read
+     * @throws IOException
+     *  if a file could not be read or is no valid log file
+     */
+    public long forEach(Consumer<ResponseTime> consumer) throws IOException {
+
+        return read((txId, start, duration) -> consumer.accept(
+                new ResponseTime(txId, SampleStore.ofEpochNanos(start), Duration.ofNanos(duration))));
+    }
+
+    /**
+     * Writes all samples of the log files as CSV with the columns transaction, start (ISO-8601) and duration in
+     * nanoseconds.
+     * @param out
+     *  the writer to write the CSV to
+     * @return
+     *  the number of samples written
+     * @throws IOException
+     *  if a file could not be read or the CSV not be written
+     */
+    public long writeCsv(Writer out) throws IOException {
+
+        out.write("transaction,start,duration_ns\n");
+        final IOException[] error = new IOException[1];
+        final long count = read((txId, start, duration) -> {
+            if (error[0] == null) {
+                try {
+                    out.write(csvValue(TransactionRegistry.nameOf(txId)));
+                    out.write(',');
+                    out.write(SampleStore.ofEpochNanos(start).toString());
+                    out.write(',');
+                    out.write(Long.toString(duration));
+                    out.write('\n');
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        out.flush();
+        return count;
+    }
+
+    static String csvValue(String value) {
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Writes a log as CSV to the standard output
+     * @param args
+     *  the directory of the log and optionally the prefix of the log files
+     * @throws IOException
+     *  if the log could not be read
+     */
+    public static void main(String... args) throws IOException {
+
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ResponseTimeLogReader <directory> [prefix]");
+            System.exit(1);
+        }
+        final ResponseTimeLogReader reader = open(Paths.get(args[0]), args.length > 1 ? args[1] : "responsetimes");
+        final Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        reader.writeCsv(out);
+    }
+}
@@ -18,15 +18,26 @@ package io.devcon5.pageobjects.measure;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 import io.inkstand.scribble.rules.ExternalResource;
 import org.slf4j.Logger;
 
 /**
  * JUnit Rule to record response times. Use this rule if your page object model uses the transaction support
- * to record response times.
+ * to record response times. A {@link WarmUpPolicy} may be set to exclude the warm-up of the test from the
+ * recorded response times, the policy is only active while the rule is applied.
+ * <br>
+ * At the end of the test, a summary table with the statistics of each transaction is logged, see
+ * {@link ResponseTimes#getSummary()}. The single response times are not logged, they may be written to a CSV file
+ * instead, see {@link #sampleFile(Path)}.
  */
 public class ResponseTimeRecording extends ExternalResource {
 
@@ -36,6 +47,10 @@ public class ResponseTimeRecording extends ExternalResource {
 
     private boolean clearGlobalTable = true;
     private boolean printTransactions = true;
+    private WarmUpPolicy warmUpPolicy = WarmUpPolicy.none();
+    private Path sampleFile;
+    private Writer sampleWriter;
+    private MeasureListener sampleListener;
 
     /**
      * Sets whether to reset the global response time table after the test. Default is true. See {@link ResponseTimes#clear()}
@@ -52,9 +67,10 @@ public class ResponseTimeRecording extends ExternalResource {
     }
 
     /**
-     * Sets whether to print out the recorded transactions at the end of the test.
+     * Sets whether to print out a summary table of the recorded transactions at the end of the test, containing the
+     * count, min, mean, p50, p90, p95, p99, max and error count of each transaction.
      * @param printTransactions
-     *  true if the transactions should be displayed (default), false if not
+     *  true if the summary should be displayed (default), false if not
      * @return
      *  this rule
      */
@@ -64,6 +80,37 @@ public class ResponseTimeRecording extends ExternalResource {
         return this;
     }
 
+    /**
+     * Sets the policy determining the response times of the warm-up, which are recorded separately and are not part
+     * of the response times and histograms. Default is no warm-up. See
+     * {@link ResponseTimes#setWarmUpPolicy(WarmUpPolicy)} for more information
+     * @param warmUpPolicy
+     *  the warm-up policy to apply during the test
+     * @return
+     *  this rule
+     */
+    public ResponseTimeRecording warmUp(final WarmUpPolicy warmUpPolicy) {
+
+        this.warmUpPolicy = Objects.requireNonNull(warmUpPolicy, "WarmUpPolicy must not be null");
+        return this;
+    }
+
+    /**
+     * Writes every finished response time to a CSV file with the columns transaction, start (ISO-8601), duration in
+     * nanoseconds and outcome. The response times are written asynchronously on a background thread, so that the
+     * measured threads are not slowed down by the file output. The file is replaced when the rule is applied and
+     * completed when it is finished. Default is no file.
+     * @param sampleFile
+     *  the file to write the response times to
+     * @return
+     *  this rule
+     */
+    public ResponseTimeRecording sampleFile(final Path sampleFile) {
+
+        this.sampleFile = Objects.requireNonNull(sampleFile, "SampleFile must not be null");
+        return this;
+    }
+
     @Override
     protected void beforeClass() throws Throwable {
         before();
@@ -71,6 +118,10 @@ public class ResponseTimeRecording extends ExternalResource {
 
     @Override
     protected void before() throws Throwable {
+        ResponseTimes.setWarmUpPolicy(warmUpPolicy);
+        if (sampleFile != null) {
+            openSampleFile();
+        }
         collector.startCollecting();
     }
 
@@ -82,19 +133,62 @@ public class ResponseTimeRecording extends ExternalResource {
     @Override
     protected void after() {
         collector.stopCollecting();
+        if(warmUpPolicy != WarmUpPolicy.none()) {
+            ResponseTimes.setWarmUpPolicy(WarmUpPolicy.none());
+            LOG.info("Excluded {} warm-up response times",
+                     ResponseTimes.getWarmUpResponseTimes().values().stream().mapToInt(List::size).sum());
+        }
+        if(sampleWriter != null) {
+            closeSampleFile();
+        }
         if(printTransactions){
-            LOG.info("Listing transactions");
-            Map<String, List<ResponseTime>> responseTimes = ResponseTimes.getResponseTimes();
-            for(Map.Entry<String, List<ResponseTime>> e : responseTimes.entrySet()){
-                LOG.info("Transaction {}", e.getKey());
-                for(ResponseTime rt : e.getValue()){
-                    LOG.info("\tstart={} duration={}", rt.getStart(), rt.getDuration());
-                }
-            }
+            LOG.info("Transaction summary{}{}", System.lineSeparator(), ResponseTimes.getSummary());
         }
         if(clearGlobalTable) {
             ResponseTimes.clear();
         }
     }
 
+    private void openSampleFile() throws IOException {
+
+        final Writer writer = Files.newBufferedWriter(sampleFile, StandardCharsets.UTF_8);
+        writer.write("transaction,start,duration_ns,outcome\n");
+        sampleWriter = writer;
+        sampleListener = ResponseTimes.addListener(MeasureListener.builder()
+                                                                  .batchConsumer(this::writeSamples)
+                                                                  .delivery(MeasureListener.Delivery.ASYNC_BATCH)
+                                                                  .build());
+    }
+
+    private void writeSamples(List<ResponseTime> responseTimes) {
+
+        try {
+            for (ResponseTime rt : responseTimes) {
+                sampleWriter.write(ResponseTimeLogReader.csvValue(rt.getTransaction()));
+                sampleWriter.write(',');
+                sampleWriter.write(rt.getStart().toString());
+                sampleWriter.write(',');
+                sampleWriter.write(Long.toString(rt.getDuration().toNanos()));
+                sampleWriter.write(',');
+                sampleWriter.write(rt.getOutcome().name());
+                sampleWriter.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeSampleFile() {
+
+        sampleListener.close();
+        try {
+            sampleWriter.close();
+            LOG.info("Response times written to {}", sampleFile);
+        } catch (IOException e) {
+            LOG.warn("Could not write response times to {}", sampleFile, e);
+        } finally {
+            sampleListener = null;
+            sampleWriter = null;
+        }
+    }
 }
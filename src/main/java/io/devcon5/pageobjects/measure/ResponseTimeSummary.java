@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Summary of the durations of the successfully finished transactions and the number of failed transactions, see
+ * {@link ResponseTimes#getSummary()}. For transactions with an expected interval, the summary contains the statistics
+ * corrected for coordinated omission next to the recorded statistics. The summary is immutable, its string
+ * representation is a table of all transactions that is suitable for logging.
+ */
+public final class ResponseTimeSummary {
+
+    private final List<Row> rows;
+
+    ResponseTimeSummary(List<Row> rows) {
+
+        this.rows = Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * @return
+     *  the statistics of all transactions, ordered by transaction
+     */
+    public List<Row> getRows() {
+
+        return rows;
+    }
+
+    /**
+     * Determines the statistics of a transaction
+     * @param transaction
+     *  the name of the transaction
+     * @return
+     *  the statistics of the transaction or the empty optional if neither a successful nor a failed transaction was
+     *  recorded
+     */
+    public Optional<Row> getRow(String transaction) {
+
+        return rows.stream().filter(row -> row.getTransaction().equals(transaction)).findFirst();
+    }
+
+    @Override
+    public String toString() {
+
+        final boolean corrected = rows.stream().anyMatch(row -> row.getCorrected().isPresent());
+        final StringBuilder sb = new StringBuilder(256 + rows.size() * 192);
+        sb.append(String.format("%-40s %10s %11s %11s %11s %11s %11s %11s %11s %10s",
+                                "Transaction", "Count", "Min", "Mean", "p50", "p90", "p95", "p99", "Max", "Errors"));
+        if (corrected) {
+            sb.append(String.format(" | %10s %11s %11s %11s", "Corrected", "p90", "p99", "Max"));
+        }
+        sb.append(System.lineSeparator());
+        for (Row row : rows) {
+            final Histogram recorded = row.getRecorded();
+            sb.append(String.format("%-40s %10d %11s %11s %11s %11s %11s %11s %11s %10d",
+                                    row.getTransaction(),
+                                    recorded.getTotalCount(),
+                                    millis(recorded.getMin()),
+                                    millis(recorded.getMean()),
+                                    millis(recorded.getValueAtPercentile(50)),
+                                    millis(recorded.getValueAtPercentile(90)),
+                                    millis(recorded.getValueAtPercentile(95)),
+                                    millis(recorded.getValueAtPercentile(99)),
+                                    millis(recorded.getMax()),
+                                    row.getErrorCount()));
+            if (corrected) {
+                sb.append(row.getCorrected()
+                             .map(c -> String.format(" | %10d %11s %11s %11s",
+                                                     c.getTotalCount(),
+                                                     millis(c.getValueAtPercentile(90)),
+                                                     millis(c.getValueAtPercentile(99)),
+                                                     millis(c.getMax())))
+                             .orElse(String.format(" | %10s %11s %11s %11s", "-", "-", "-", "-")));
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static String millis(Duration duration) {
+
+        return String.format(Locale.ROOT, "%.3fms", duration.toNanos() / 1_000_000d);
+    }
+
+    /**
+     * The statistics of a single transaction
+     */
+    public static final class Row {
+
+        private final String transaction;
+        private final Histogram recorded;
+        private final Histogram corrected;
+        private final long errorCount;
+
+        Row(String transaction, Histogram recorded, Histogram corrected, long errorCount) {
+
+            this.transaction = transaction;
+            this.recorded = recorded;
+            this.corrected = corrected;
+            this.errorCount = errorCount;
+        }
+
+        /**
+         * @return
+         *  the name of the transaction
+         */
+        public String getTransaction() {
+
+            return transaction;
+        }
+
+        /**
+         * @return
+         *  the histogram of the recorded durations of the successful transactions
+         */
+        public Histogram getRecorded() {
+
+            return recorded;
+        }
+
+        /**
+         * @return
+         *  the histogram of the durations corrected for coordinated omission or the empty optional if the
+         *  transaction has no expected interval
+         */
+        public Optional<Histogram> getCorrected() {
+
+            return Optional.ofNullable(corrected);
+        }
+
+        /**
+         * @return
+         *  the number of transactions that did not finish successfully
+         */
+        public long getErrorCount() {
+
+            return errorCount;
+        }
+
+        @Override
+        public String toString() {
+
+            return transaction + ' ' + recorded + ", errors=" + errorCount
+                   + getCorrected().map(c -> " corrected=" + c).orElse("");
+        }
+    }
+}
@@ -16,45 +16,269 @@
 
 package io.devcon5.pageobjects.measure;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+
 /**
  * Global Handler for recording response time. As default setting, the response times are stored in a global collection.
  * This class allows to record response times of transaction across multiple threads. It must be ensured, that the
  * response are cleared after the measured sequence, otherwise the response remain in memory permanently.
+ * <br>
+ * For long running measurements, the {@link RecordingMode} can be changed so that the durations of finished
+ * transactions are aggregated into a {@link io.devcon5.pageobjects.measure.Histogram} per transaction, which
+ * requires a fixed amount of memory regardless of the number of measurements.
+ * <br>
+ * The finished response times are indexed per transaction as they are collected, so that reading the response
+ * times of a transaction returns a snapshot view without scanning or copying the recorded samples. Every finished
+ * response time increments the version of the collection, pollers may read only the response times collected since
+ * the version they have seen last, see {@link #getResponseTimesSince(long)}.
+ * <br>
+ * The first response times of a run can be excluded from the main statistics by a {@link WarmUpPolicy}. The default
+ * handler records the warm-up response times separately, see {@link #getWarmUpResponseTimes()}.
+ * <br>
+ * If the transactions are executed by a closed-loop load driver at an expected interval, the statistics can be
+ * corrected for coordinated omission, see {@link #setExpectedInterval(String, Duration)} and {@link #getSummary()}.
+ * <br>
+ * Besides the measure handlers, any number of {@link io.devcon5.pageobjects.measure.MeasureListener}s can be
+ * registered, i.e. to export response times without replacing the global collection.
  */
 public final class ResponseTimes {
 
+    private static final Logger LOG = getLogger(ResponseTimes.class);
+
+    /**
+     * Defines how the default handler records response times.
+     */
+    public enum RecordingMode {
+        /**
+         * Every response time is kept in the global collection (default)
+         */
+        SAMPLES,
+        /**
+         * The durations of finished transactions are only recorded in a histogram per transaction
+         */
+        HISTOGRAM,
+        /**
+         * The durations of finished transactions are recorded in a histogram per transaction and every response time
+         * is kept in the global collection as well
+         */
+        HISTOGRAM_AND_SAMPLES,
+        /**
+         * Finished transactions are kept in the compact, columnar {@link io.devcon5.pageobjects.measure.SampleStore}
+         * instead of the global collection. Started transactions are not recorded.
+         */
+        COMPACT
+    }
+
+    /**
+     * Started response times that are not yet finished
+     */
+    private static final Map<UUID, ResponseTime> OPEN = new ConcurrentHashMap<>();
+
+    /**
+     * Global index of the finished response times
+     */
+    private static volatile SampleIndex index = new SampleIndex(0);
+
+    /**
+     * Global Histograms per outcome and transaction id
+     */
+    private static final Map<Outcome, TransactionTable<Histogram>> HISTOGRAMS = new EnumMap<>(Outcome.class);
+
+    static {
+        for (Outcome outcome : Outcome.values()) {
+            HISTOGRAMS.put(outcome, new TransactionTable<>());
+        }
+    }
+
+    private static volatile RecordingMode recordingMode = RecordingMode.SAMPLES;
+
+    /**
+     * Global store of finished samples for the {@link RecordingMode#COMPACT} mode
+     */
+    private static volatile SampleStore sampleStore = SampleStore.onHeap();
+
+    /**
+     * Number of samples of the {@link RecordingMode#COMPACT} mode that were cleared or recorded in a previous sample
+     * store, so that the version is retained on {@link #clear()}
+     */
+    private static volatile long compactBaseVersion;
+
     /**
-     * Global ResponseTime collection.
+     * Expected intervals between two executions of a transaction for the correction of coordinated omission
      */
-    private static final Map<UUID, ResponseTime> TIMES = new ConcurrentHashMap<>();
+    private static final TransactionTable<Duration> EXPECTED_INTERVALS = new TransactionTable<>();
 
     /**
-     * Default consumer putting a response time into the global table
+     * Expected interval of all transactions without an explicit interval, <code>null</code> if there is none
      */
-    private static final Consumer<ResponseTime> DEFAULT_CONSUMER = rt -> TIMES.put(rt.getUuid(), rt);
+    private static volatile Duration defaultExpectedInterval;
+
+    /**
+     * Policy determining the response times of the warm-up
+     */
+    private static volatile WarmUpPolicy warmUpPolicy = WarmUpPolicy.none();
+
+    /**
+     * Index of the finished response times of the warm-up, regardless of the recording mode
+     */
+    private static volatile SampleIndex warmUpIndex = new SampleIndex(0);
+
+    /**
+     * Default consumer putting a response time into the global table and/or the histogram of the transaction
+     */
+    private static final Consumer<ResponseTime> DEFAULT_CONSUMER = rt -> {
+        if (rt.isFinished() && warmUpPolicy.isWarmUp(rt)) {
+            OPEN.remove(rt.getUuid());
+            warmUpIndex.add(rt);
+            return;
+        }
+        final RecordingMode mode = recordingMode;
+        if (mode == RecordingMode.COMPACT) {
+            if (rt.isFinished()) {
+                sampleStore.add(rt);
+            }
+            return;
+        }
+        if (mode != RecordingMode.HISTOGRAM) {
+            if (rt.isFinished()) {
+                OPEN.remove(rt.getUuid());
+                index.add(rt);
+            } else {
+                OPEN.put(rt.getUuid(), rt);
+            }
+        }
+        if (mode != RecordingMode.SAMPLES && rt.isFinished()) {
+            HISTOGRAMS.get(rt.getOutcome())
+                      .computeIfAbsent(rt.getTransactionId(), tx -> new Histogram())
+                      .record(rt.getDuration());
+        }
+    };
 
     private static AtomicReference<Consumer<ResponseTime>> START_TX_CONSUMER = new AtomicReference<>(DEFAULT_CONSUMER);
 
     private static AtomicReference<Consumer<ResponseTime>> STOP_TX_CONSUMER = new AtomicReference<>(DEFAULT_CONSUMER);
 
+    /**
+     * Registered listeners. The list is copied on modification, so notifying the listeners requires no locking.
+     */
+    private static final CopyOnWriteArrayList<MeasureListener> LISTENERS = new CopyOnWriteArrayList<>();
+
     private ResponseTimes(){}
 
     /**
-     * Clears the global response time collection
+     * Clears the global response time collection, the sample store, all histograms and the warm-up response times and
+     * resets the warm-up policy for a new run. The version of the collection is retained.
      */
     public static void clear() {
 
-        TIMES.clear();
+        OPEN.clear();
+        index = new SampleIndex(index.getVersion());
+        warmUpIndex = new SampleIndex(0);
+        warmUpPolicy.reset();
+        HISTOGRAMS.values().forEach(TransactionTable::clear);
+        compactBaseVersion += sampleStore.size();
+        sampleStore.clear();
+    }
+
+    /**
+     * Sets the store for the finished samples in {@link RecordingMode#COMPACT} mode, i.e. to keep the samples
+     * off-heap. Default is a {@link SampleStore#onHeap()} store.
+     * @param store
+     *  the store for the samples
+     */
+    public static void setSampleStore(SampleStore store) {
+
+        Objects.requireNonNull(store, "Store must not be null");
+        compactBaseVersion += sampleStore.size() - store.size();
+        sampleStore = store;
+    }
+
+    /**
+     * The store of the finished samples in {@link RecordingMode#COMPACT} mode. The store can be used to iterate,
+     * slice or export the samples without creating response time objects.
+     * @return
+     *  the current sample store
+     */
+    public static SampleStore getSampleStore() {
+
+        return sampleStore;
+    }
+
+    /**
+     * Sets the mode how the default handler records response times. Default is {@link RecordingMode#SAMPLES}.
+     * @param mode
+     *  the new recording mode
+     */
+    public static void setRecordingMode(RecordingMode mode) {
+
+        recordingMode = Objects.requireNonNull(mode, "Mode must not be null");
+    }
+
+    /**
+     * The mode how the default handler records response times
+     * @return
+     *  the current recording mode
+     */
+    public static RecordingMode getRecordingMode() {
+
+        return recordingMode;
+    }
+
+    /**
+     * Sets the policy determining which response times belong to the warm-up of the run. The default handler records
+     * the warm-up response times separately, they are neither contained in the response times nor in the histograms
+     * or the sample store. Listeners are still notified about them. The state of the policy is reset, so the warm-up
+     * starts with the next finished response time. Default is {@link WarmUpPolicy#none()}.
+     * @param policy
+     *  the warm-up policy
+     */
+    public static void setWarmUpPolicy(WarmUpPolicy policy) {
+
+        Objects.requireNonNull(policy, "Policy must not be null");
+        policy.reset();
+        warmUpPolicy = policy;
+    }
+
+    /**
+     * @return
+     *  the current warm-up policy
+     */
+    public static WarmUpPolicy getWarmUpPolicy() {
+
+        return warmUpPolicy;
+    }
+
+    /**
+     * Returns the finished response times of the warm-up, i.e. for a cold-start analysis. The warm-up response times
+     * are kept as response times in every recording mode.
+     * @return a map of the transaction names to an unmodifiable snapshot of the warm-up response times in the order
+     * they were collected
+     */
+    public static Map<String, List<ResponseTime>> getWarmUpResponseTimes() {
+
+        final Map<String, List<ResponseTime>> result = new HashMap<>();
+        warmUpIndex.byTransaction.forEach((log, tx) -> result.put(TransactionRegistry.nameOf(tx), log.snapshot()));
+        return result;
     }
 
     /**
@@ -84,7 +308,58 @@ public final class ResponseTimes {
     }
 
     /**
-     * Starts a transaction on the specified point in time
+     * Registers a listener that is notified about recorded response times, in addition to the measure handlers and
+     * other listeners.
+     * @param listener
+     *  the listener to register. Registering the same listener twice has no effect.
+     * @return
+     *  the registered listener
+     */
+    public static MeasureListener addListener(MeasureListener listener) {
+
+        Objects.requireNonNull(listener, "Listener must not be null");
+        LISTENERS.addIfAbsent(listener);
+        return listener;
+    }
+
+    /**
+     * Registers a consumer that is notified synchronously about all finished response times, in addition to the
+     * measure handlers and other listeners.
+     * @param consumer
+     *  the consumer of the finished response times
+     * @return
+     *  the registered listener, to be closed when the consumer is no longer needed
+     */
+    public static MeasureListener addListener(Consumer<ResponseTime> consumer) {
+
+        return addListener(MeasureListener.builder().consumer(consumer).build());
+    }
+
+    /**
+     * Removes a listener. Response times being delivered asynchronously to the listener are still delivered.
+     * @param listener
+     *  the listener to remove
+     */
+    public static void removeListener(MeasureListener listener) {
+
+        LISTENERS.remove(listener);
+    }
+
+    private static void notifyListeners(ResponseTime responseTime, boolean start) {
+
+        for (MeasureListener listener : LISTENERS) {
+            if (listener.accepts(responseTime, start)) {
+                try {
+                    listener.deliver(responseTime);
+                } catch (RuntimeException e) {
+                    LOG.warn("Listener failed to process response time of {}", responseTime.getTransaction(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a transaction now, according to the current {@link io.devcon5.pageobjects.measure.TimeSource}
      *
      * @param transaction
      *         the transaction to start
@@ -93,7 +368,7 @@ public final class ResponseTimes {
      */
     public static ResponseTime startTx(String transaction) {
 
-        return startTx(transaction, Instant.now());
+        return startTx(transaction, TimeSource.current().now());
     }
 
     /**
@@ -107,8 +382,34 @@ public final class ResponseTimes {
      * @return the ResponseTime handle for this response time measure
      */
     public static ResponseTime startTx(String transaction, Instant start) {
-        final ResponseTime trt = new ResponseTime(transaction, start);
+        return startTx(TransactionRegistry.idOf(transaction), start);
+    }
+
+    /**
+     * Starts a registered transaction on the specified point in time
+     *
+     * @param transactionId
+     *         the id of the transaction to start, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param start
+     *         the point in time when the transaction started
+     *
+     * @return the ResponseTime handle for this response time measure
+     */
+    public static ResponseTime startTx(int transactionId, Instant start) {
+        return startTx(new ResponseTime(transactionId, start));
+    }
+
+    /**
+     * Starts the transaction of the unfinished response time
+     *
+     * @param trt
+     *         the unfinished response time of the transaction to start
+     *
+     * @return the ResponseTime handle for this response time measure
+     */
+    static ResponseTime startTx(ResponseTime trt) {
         START_TX_CONSUMER.get().accept(trt);
+        notifyListeners(trt, true);
         return trt;
     }
 
@@ -138,11 +439,53 @@ public final class ResponseTimes {
             throw new AssertionError("Collecting of unfinished responseTimes is not allowed");
         }
         STOP_TX_CONSUMER.get().accept(responseTime);
+        notifyListeners(responseTime, false);
         return responseTime;
     }
 
     /**
-     * Collects a completed time measure for a specific transaction.
+     * Discards a response time without recording it, removing it from the open transactions
+     *
+     * @param responseTime
+     *         the response time to discard
+     */
+    static void discard(ResponseTime responseTime) {
+
+        OPEN.remove(responseTime.getUuid());
+    }
+
+    /**
+     * Collects a batch of completed response times, i.e. from the buffer of a
+     * {@link io.devcon5.pageobjects.measure.ResponseTimeCollector}. In {@link RecordingMode#COMPACT} mode with the
+     * default handler, the batch is added to the sample store at once.
+     *
+     * @param responseTimes
+     *         the array containing the finished response times
+     * @param length
+     *         the number of response times to collect, starting at the first element of the array
+     */
+    static void collect(ResponseTime[] responseTimes, int length) {
+
+        final Consumer<ResponseTime> consumer = STOP_TX_CONSUMER.get();
+        if (consumer == DEFAULT_CONSUMER && recordingMode == RecordingMode.COMPACT
+            && warmUpPolicy == WarmUpPolicy.none()) {
+            sampleStore.addAll(responseTimes, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                consumer.accept(responseTimes[i]);
+            }
+        }
+        if (!LISTENERS.isEmpty()) {
+            for (int i = 0; i < length; i++) {
+                notifyListeners(responseTimes[i], false);
+            }
+        }
+    }
+
+    /**
+     * Collects a completed time measure for a specific transaction. If the time measure is a
+     * {@link io.devcon5.pageobjects.measure.MeasuredExecutionResult}, the outcome of the response time is determined
+     * by the exception of the execution.
      * @param transaction
      *  the transaction to be associated with the time measure
      * @param result
@@ -151,11 +494,17 @@ public final class ResponseTimes {
      *  the response time recorded
      */
     public static ResponseTime collect(String transaction, TimeMeasure result) {
-        return collect(new ResponseTime(transaction, result.getStart(), result.getDuration()));
+        final Throwable exception = result instanceof MeasuredExecutionResult
+                                    ? ((MeasuredExecutionResult<?>) result).getException().orElse(null)
+                                    : null;
+        return collect(new ResponseTime(transaction, result.getStart(), result.getDuration(), exception));
     }
 
     /**
-     * Returns all recorded response times.
+     * Returns all recorded response times. The lists are unmodifiable snapshots, containing the finished response times
+     * in the order they were collected, followed by the started response times not yet finished. In
+     * {@link RecordingMode#COMPACT} mode, response times are created for the samples of the sample store, so prefer
+     * accessing the {@link #getSampleStore()} directly.
      *
      * @return a map of the response times. The map contains the transaction names as key, and a list of measured
      * responseTimes for that transaction as value.
@@ -163,12 +512,351 @@ public final class ResponseTimes {
     public static Map<String, List<ResponseTime>> getResponseTimes() {
 
         final Map<String, List<ResponseTime>> result = new HashMap<>();
-        TIMES.values().stream().forEach(trt -> {
-            if (!result.containsKey(trt.getTransaction())) {
-                result.put(trt.getTransaction(), new ArrayList<>());
+        if (recordingMode == RecordingMode.COMPACT) {
+            final TransactionTable<List<ResponseTime>> byTransaction = new TransactionTable<>();
+            final SampleStore store = sampleStore;
+            for (int i = 0, size = store.size(); i < size; i++) {
+                byTransaction.computeIfAbsent(store.getTransactionId(i), tx -> new ArrayList<>()).add(store.get(i));
             }
-            result.get(trt.getTransaction()).add(trt);
+            byTransaction.forEach((list, tx) -> result.put(TransactionRegistry.nameOf(tx), list));
+            return result;
+        }
+        final TransactionTable<List<ResponseTime>> open = new TransactionTable<>();
+        OPEN.values().forEach(rt -> open.computeIfAbsent(rt.getTransactionId(), tx -> new ArrayList<>()).add(rt));
+        index.byTransaction.forEach((log, tx) -> {
+            final List<ResponseTime> started = open.get(tx);
+            result.put(TransactionRegistry.nameOf(tx),
+                       log.view(0, log.size(), started == null ? Collections.emptyList() : started));
         });
+        open.forEach((started, tx) -> result.putIfAbsent(TransactionRegistry.nameOf(tx),
+                                                         Collections.unmodifiableList(started)));
         return result;
     }
+
+    /**
+     * Returns the finished response times of a transaction. Except in {@link RecordingMode#COMPACT} mode, the
+     * response times are not copied, the returned list is a view of the response times collected so far.
+     *
+     * @param transaction
+     *         the name of the transaction
+     *
+     * @return an unmodifiable snapshot of the finished response times of the transaction in the order they were
+     * collected
+     */
+    public static List<ResponseTime> getResponseTimes(String transaction) {
+
+        final int txId = TransactionRegistry.idOf(transaction);
+        if (recordingMode == RecordingMode.COMPACT) {
+            final List<ResponseTime> result = new ArrayList<>();
+            final SampleStore store = sampleStore;
+            for (int i = 0, size = store.size(); i < size; i++) {
+                if (store.getTransactionId(i) == txId) {
+                    result.add(store.get(i));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+        final AppendLog<ResponseTime> log = index.byTransaction.get(txId);
+        return log == null ? Collections.emptyList() : log.snapshot();
+    }
+
+    /**
+     * The current version of the response time collection, which is the number of response times finished since the
+     * start of the JVM. In {@link RecordingMode#COMPACT} mode, the version is the number of samples added to the
+     * sample stores since the start of the JVM.
+     *
+     * @return the current version
+     */
+    public static long getVersion() {
+
+        return recordingMode == RecordingMode.COMPACT ? compactBaseVersion + sampleStore.size() : index.getVersion();
+    }
+
+    /**
+     * Returns the response times finished since a version, i.e. for pollers that regularly process the new response
+     * times. The returned delta contains the version to pass to the next invocation. A version greater than the
+     * current version, i.e. after switching the recording mode, returns all recorded response times.
+     *
+     * @param version
+     *         the version of the last poll, 0 to get all recorded response times
+     *
+     * @return the response times finished since the version
+     */
+    public static Delta getResponseTimesSince(long version) {
+
+        if (recordingMode == RecordingMode.COMPACT) {
+            final long base = compactBaseVersion;
+            final SampleStore store = sampleStore;
+            final int size = store.size();
+            final long to = base + size;
+            final int from = version > to ? 0 : (int) Math.max(0, version - base);
+            final List<ResponseTime> result = new ArrayList<>(size - from);
+            for (int i = from; i < size; i++) {
+                result.add(store.get(i));
+            }
+            return new Delta(to, Collections.unmodifiableList(result));
+        }
+        final SampleIndex current = index;
+        final int size = current.all.size();
+        final long to = current.baseVersion + size;
+        final int from = version > to ? 0 : (int) Math.max(0, version - current.baseVersion);
+        return new Delta(to, current.all.view(from, size, Collections.emptyList()));
+    }
+
+    /**
+     * Returns histograms of the durations of all successfully finished transactions, so that the durations of failed
+     * transactions do not distort the statistics. See {@link #getHistograms(Outcome)}.
+     *
+     * @return a map of the transaction names to the histogram of their durations
+     */
+    public static Map<String, Histogram> getHistograms() {
+
+        return getHistograms(Outcome.SUCCESS);
+    }
+
+    /**
+     * Returns histograms of the durations of all transactions finished with the outcome. If the recording mode
+     * aggregates into histograms, a copy of the current histograms is returned. Otherwise the histograms are created
+     * from the recorded samples.
+     *
+     * @param outcome
+     *         the outcome of the transactions
+     *
+     * @return a map of the transaction names to the histogram of their durations
+     */
+    public static Map<String, Histogram> getHistograms(Outcome outcome) {
+
+        final Map<String, Histogram> result = new HashMap<>();
+        if (recordingMode == RecordingMode.COMPACT) {
+            final TransactionTable<Histogram> histograms = new TransactionTable<>();
+            final SampleStore store = sampleStore;
+            for (int i = 0, size = store.size(); i < size; i++) {
+                if (store.getOutcome(i) == outcome) {
+                    histograms.computeIfAbsent(store.getTransactionId(i), tx -> new Histogram())
+                              .record(Duration.ofNanos(store.getDurationNanos(i)));
+                }
+            }
+            histograms.forEach((histogram, tx) -> result.put(TransactionRegistry.nameOf(tx), histogram));
+        } else if (recordingMode == RecordingMode.SAMPLES) {
+            index.byTransaction.forEach((log, tx) -> {
+                Histogram histogram = null;
+                for (int i = 0, size = log.size(); i < size; i++) {
+                    final ResponseTime rt = log.get(i);
+                    if (rt.getOutcome() == outcome) {
+                        if (histogram == null) {
+                            histogram = new Histogram();
+                        }
+                        histogram.record(rt.getDuration());
+                    }
+                }
+                if (histogram != null) {
+                    result.put(TransactionRegistry.nameOf(tx), histogram);
+                }
+            });
+        } else {
+            HISTOGRAMS.get(outcome)
+                      .forEach((histogram, tx) -> result.put(TransactionRegistry.nameOf(tx), histogram.copy()));
+        }
+        return result;
+    }
+
+    /**
+     * Sets the expected interval between two executions of every transaction that has no interval of its own, i.e.
+     * the pacing of the virtual users. See {@link #setExpectedInterval(String, Duration)}.
+     * @param interval
+     *  the expected interval or <code>null</code> to remove the default interval
+     */
+    public static void setExpectedInterval(Duration interval) {
+
+        defaultExpectedInterval = interval;
+    }
+
+    /**
+     * Sets the expected interval between two executions of the transaction by a single user. A load driver that waits
+     * for each transaction to finish before it starts the next one does not execute the transactions that would have
+     * been started while the system stalled, so their response times are missing and the statistics under-report the
+     * tail latency. This is known as coordinated omission. The histograms of transactions with an expected interval
+     * are corrected for it, see {@link #getCorrectedHistograms()}. The recorded response times remain unchanged.
+     * @param transaction
+     *  the name of the transaction
+     * @param interval
+     *  the expected interval or <code>null</code> to remove the interval of the transaction
+     */
+    public static void setExpectedInterval(String transaction, Duration interval) {
+
+        EXPECTED_INTERVALS.set(TransactionRegistry.idOf(transaction), interval);
+    }
+
+    /**
+     * @return
+     *  the expected interval of all transactions without an interval of their own or the empty optional if there is
+     *  none
+     */
+    public static Optional<Duration> getExpectedInterval() {
+
+        return Optional.ofNullable(defaultExpectedInterval);
+    }
+
+    /**
+     * Determines the expected interval between two executions of the transaction
+     * @param transaction
+     *  the name of the transaction
+     * @return
+     *  the interval of the transaction, the default interval or the empty optional if the transaction has none
+     */
+    public static Optional<Duration> getExpectedInterval(String transaction) {
+
+        final Duration interval = EXPECTED_INTERVALS.get(TransactionRegistry.idOf(transaction));
+        return Optional.ofNullable(interval != null ? interval : defaultExpectedInterval);
+    }
+
+    /**
+     * Removes the expected intervals of all transactions and the default interval.
+     */
+    public static void clearExpectedIntervals() {
+
+        EXPECTED_INTERVALS.clear();
+        defaultExpectedInterval = null;
+    }
+
+    /**
+     * Returns histograms of the durations of all successfully finished transactions that are corrected for coordinated
+     * omission, see {@link Histogram#copyCorrectedForCoordinatedOmission(Duration)}. Only the histograms of
+     * transactions with an expected interval are corrected, the others are returned as recorded.
+     *
+     * @return a map of the transaction names to the corrected histogram of their durations
+     */
+    public static Map<String, Histogram> getCorrectedHistograms() {
+
+        final Map<String, Histogram> result = getHistograms();
+        result.replaceAll((tx, histogram) -> getExpectedInterval(tx)
+                .map(histogram::copyCorrectedForCoordinatedOmission)
+                .orElse(histogram));
+        return result;
+    }
+
+    /**
+     * Creates a summary of the durations of all successfully finished transactions and the number of failed
+     * transactions. For transactions with an expected interval, the summary contains the recorded statistics and the
+     * statistics corrected for coordinated omission side by side.
+     * @return
+     *  a summary of the recorded response times
+     */
+    public static ResponseTimeSummary getSummary() {
+
+        final Map<String, Histogram> histograms = new TreeMap<>(getHistograms());
+        final Map<String, Long> errors = new HashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            if (outcome != Outcome.SUCCESS) {
+                getHistograms(outcome).forEach((tx, histogram) -> {
+                    errors.merge(tx, histogram.getTotalCount(), Long::sum);
+                    histograms.computeIfAbsent(tx, t -> histogram.emptyCopy());
+                });
+            }
+        }
+        return summaryOf(histograms, errors);
+    }
+
+    /**
+     * Creates a summary of the durations of the successful transactions among the response times and the number of
+     * failed ones, i.e. of the response times of a {@link Delta}. Like {@link #getSummary()}, transactions with an
+     * expected interval are summarized with and without correction for coordinated omission.
+     * @param responseTimes
+     *  the finished response times to summarize
+     * @return
+     *  a summary of the response times
+     */
+    public static ResponseTimeSummary getSummary(Collection<ResponseTime> responseTimes) {
+
+        final Map<String, Histogram> histograms = new TreeMap<>();
+        final Map<String, Long> errors = new HashMap<>();
+        for (ResponseTime rt : responseTimes) {
+            final Histogram histogram = histograms.computeIfAbsent(rt.getTransaction(), tx -> new Histogram());
+            if (rt.getOutcome() == Outcome.SUCCESS) {
+                histogram.record(rt.getDuration());
+            } else {
+                errors.merge(rt.getTransaction(), 1L, Long::sum);
+            }
+        }
+        return summaryOf(histograms, errors);
+    }
+
+    private static ResponseTimeSummary summaryOf(Map<String, Histogram> histograms, Map<String, Long> errors) {
+
+        final List<ResponseTimeSummary.Row> rows = new ArrayList<>(histograms.size());
+        histograms.forEach((tx, histogram) -> rows.add(new ResponseTimeSummary.Row(
+                tx,
+                histogram,
+                getExpectedInterval(tx).map(histogram::copyCorrectedForCoordinatedOmission).orElse(null),
+                errors.getOrDefault(tx, 0L))));
+        return new ResponseTimeSummary(rows);
+    }
+
+    /**
+     * The response times finished since a version of the response time collection
+     */
+    public static final class Delta {
+
+        private final long version;
+        private final List<ResponseTime> responseTimes;
+
+        Delta(long version, List<ResponseTime> responseTimes) {
+
+            this.version = version;
+            this.responseTimes = responseTimes;
+        }
+
+        /**
+         * @return
+         *  the version of the response time collection that includes the response times of this delta, to be passed
+         *  to the next invocation of {@link ResponseTimes#getResponseTimesSince(long)}
+         */
+        public long getVersion() {
+
+            return version;
+        }
+
+        /**
+         * @return
+         *  the finished response times in the order they were collected
+         */
+        public List<ResponseTime> getResponseTimes() {
+
+            return responseTimes;
+        }
+    }
+
+    /**
+     * Index of the finished response times in the order they were collected and per transaction. The index is
+     * replaced when the collection is cleared, starting with the version of the replaced index. A response time is
+     * added to the log of its transaction before it is published in the log of all response times, so that every
+     * response time counted by the version is also contained in the log of its transaction.
+     */
+    private static final class SampleIndex {
+
+        final long baseVersion;
+        final AppendLog<ResponseTime> all = new AppendLog<>();
+        final TransactionTable<AppendLog<ResponseTime>> byTransaction = new TransactionTable<>();
+
+        SampleIndex(long baseVersion) {
+
+            this.baseVersion = baseVersion;
+        }
+
+        void add(ResponseTime responseTime) {
+
+            final int slot = all.claim(responseTime);
+            try {
+                byTransaction.computeIfAbsent(responseTime.getTransactionId(), tx -> new AppendLog<>())
+                             .append(responseTime);
+            } finally {
+                all.publish(slot);
+            }
+        }
+
+        long getVersion() {
+
+            return baseVersion + all.size();
+        }
+    }
 }
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static io.devcon5.pageobjects.measure.ResultFileWriter.unzigzag;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reader of the compressed result files written by {@link io.devcon5.pageobjects.measure.ResultFileWriter}. All
+ * samples of a file are read as a stream, block by block, so that only a single block is held in memory. If the
+ * file has an index, samples of a time range or specific transactions are read by skipping all blocks that contain
+ * no matching sample. The transactions of the file are registered in the
+ * {@link io.devcon5.pageobjects.measure.TransactionRegistry} of the reading JVM, the samples are reported with the
+ * transaction ids of the reading JVM and a resolution of microseconds.
+ */
+public final class ResultFileReader {
+
+    private final Path file;
+    private final byte version;
+    private final List<String> names;
+    private final List<ResultFileWriter.BlockIndex> index;
+
+    private ResultFileReader(Path file,
+                             byte version,
+                             List<String> names,
+                             List<ResultFileWriter.BlockIndex> index) {
+
+        this.file = file;
+        this.version = version;
+        this.names = names;
+        this.index = index;
+    }
+
+    /**
+     * Opens a result file and reads its index, if present
+     * @param file
+     *  the file to read
+     * @return
+     *  the reader for the file
+     * @throws IOException
+     *  if the file could not be read or is no result file
+     */
+    public static ResultFileReader open(Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(5);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != ResultFileWriter.MAGIC) {
+                throw new IOException(file + " is no result file");
+            }
+            final byte version = header.get(4);
+            if (version != 1 && version != ResultFileWriter.VERSION) {
+                throw new IOException("Unsupported version " + version + " of " + file);
+            }
+            final long size = channel.size();
+            if (size < 5 + 1 + ResultFileWriter.TRAILER_SIZE) {
+                return new ResultFileReader(file, version, null, null);
+            }
+            final ByteBuffer trailer = ByteBuffer.allocate(ResultFileWriter.TRAILER_SIZE);
+            readFully(channel, trailer, size - ResultFileWriter.TRAILER_SIZE);
+            final long indexOffset = trailer.getLong(0);
+            if (trailer.getInt(8) != ResultFileWriter.MAGIC || indexOffset < 5
+                    || indexOffset >= size - ResultFileWriter.TRAILER_SIZE) {
+                return new ResultFileReader(file, version, null, null);
+            }
+            final int indexSize = (int) (size - ResultFileWriter.TRAILER_SIZE - indexOffset);
+            final ByteBuffer indexData = ByteBuffer.allocate(indexSize);
+            readFully(channel, indexData, indexOffset);
+            ((Buffer) indexData).flip();
+            if (indexData.get() != ResultFileWriter.INDEX) {
+                return new ResultFileReader(file, version, null, null);
+            }
+            final List<String> names = new ArrayList<>();
+            readNames(indexData, names);
+            final int blocks = (int) readVarLong(indexData);
+            final List<ResultFileWriter.BlockIndex> index = new ArrayList<>(blocks);
+            for (int b = 0; b < blocks; b++) {
+                final long offset = readVarLong(indexData);
+                final int count = (int) readVarLong(indexData);
+                final long minStart = unzigzag(readVarLong(indexData));
+                final long maxStart = minStart + readVarLong(indexData);
+                final BitSet codes = new BitSet();
+                for (int c = (int) readVarLong(indexData); c > 0; c--) {
+                    codes.set((int) readVarLong(indexData));
+                }
+                index.add(new ResultFileWriter.BlockIndex(offset, count, minStart, maxStart, codes));
+            }
+            return new ResultFileReader(file, version, names, index);
+        }
+    }
+
+    /**
+     * @return
+     *  <code>true</code> if the file has an index, which is written when the writer is closed
+     */
+    public boolean hasIndex() {
+
+        return index != null;
+    }
+
+    /**
+     * @return
+     *  the names of the transactions in the file, or an empty list if the file has no index
+     */
+    public List<String> getTransactions() {
+
+        return names == null ? Collections.emptyList() : Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @return
+     *  the number of samples in the file according to the index, or -1 if the file has no index
+     */
+    public long getSampleCount() {
+
+        return index == null ? -1 : index.stream().mapToLong(b -> b.count).sum();
+    }
+
+    /**
+     * Reads all samples of the file as a stream. If the file was not closed, i.e. because the writing JVM crashed or
+     * the file is still written, the samples of all complete blocks are read and an incomplete last block is
+     * ignored.
+     * @param consumer
+     *  the consumer of the samples
+     * @return
+     *  the number of samples read
+     * @throws IOException
+     *  if the file could not be read or is corrupt
+     */
+    public long read(SampleStore.SampleConsumer consumer) throws IOException {
+
+        return read(Long.MIN_VALUE, Long.MAX_VALUE, null, consumer);
+    }
+
+    /**
+     * Reads the samples of the specified transactions that started in the time range. If the file has an index,
+     * only the blocks containing matching samples are read.
+     * @param from
+     *  the start of the time range, inclusive
+     * @param to
+     *  the end of the time range, exclusive
+     * @param transactions
+     *  the names of the transactions to read, or <code>null</code> for all transactions
+     * @param consumer
+     *  the consumer of the samples
+     * @return
+     *  the number of samples read
+     * @throws IOException
+     *  if the file could not be read or is corrupt
+     */
+    public long read(Instant from, Instant to, Collection<String> transactions, SampleStore.SampleConsumer consumer)
+            throws IOException {
+
+        return read(Math.floorDiv(SampleStore.toEpochNanos(from), 1000L),
+                    Math.floorDiv(SampleStore.toEpochNanos(to), 1000L),
+                    transactions,
+                    consumer);
+    }
+
+    private long read(long from, long to, Collection<String> transactions, SampleStore.SampleConsumer consumer)
+            throws IOException {
+
+        if (index == null) {
+            return stream(new Filter(from, to, transactions), consumer);
+        }
+        final Dictionary dictionary = new Dictionary(names);
+        final Filter filter = new Filter(from, to, transactions);
+        filter.resolve(names);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(5);
+            for (ResultFileWriter.BlockIndex block : index) {
+                if (block.maxStart < from || block.minStart >= to || !filter.intersects(block.codes)) {
+                    continue;
+                }
+                ((Buffer) header).clear();
+                readFully(channel, header, block.offset);
+                final ByteBuffer payload = ByteBuffer.allocate(header.getInt(1));
+                readFully(channel, payload, block.offset + 5);
+                ((Buffer) payload).flip();
+                count += decodeBlock(payload, version, dictionary, filter, consumer);
+            }
+        }
+        return count;
+    }
+
+    private long stream(Filter filter, SampleStore.SampleConsumer consumer) throws IOException {
+
+        final Dictionary dictionary = new Dictionary(null);
+        long count = 0;
+        try (InputStream is = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is, 65536))) {
+            in.readInt();
+            in.readByte();
+            int type;
+            while ((type = in.read()) == ResultFileWriter.BLOCK) {
+                final byte[] payload;
+                try {
+                    payload = new byte[in.readInt()];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    //truncated last block of a file that was not closed
+                    return count;
+                }
+                count += decodeBlock(ByteBuffer.wrap(payload), version, dictionary, filter, consumer);
+            }
+            if (type != -1 && type != ResultFileWriter.INDEX) {
+                throw new IOException("Invalid block type " + type + " in " + file);
+            }
+        }
+        return count;
+    }
+
+    private static long decodeBlock(ByteBuffer payload,
+                                    byte version,
+                                    Dictionary dictionary,
+                                    Filter filter,
+                                    SampleStore.SampleConsumer consumer) throws IOException {
+
+        try {
+            final int count = (int) readVarLong(payload);
+            final List<String> newNames = new ArrayList<>();
+            readNames(payload, newNames);
+            dictionary.addAll(newNames, filter);
+            long start = unzigzag(readVarLong(payload));
+            final int codeBits = version == 1 ? -1 : payload.get();
+            final long codeMask = (1L << Math.max(0, codeBits)) - 1;
+            long matched = 0;
+            for (int i = 0; i < count; i++) {
+                final int code;
+                final long duration;
+                if (codeBits < 0) {
+                    code = (int) readVarLong(payload);
+                    start += unzigzag(readVarLong(payload));
+                    duration = readVarLong(payload);
+                } else {
+                    start += unzigzag(readVarLong(payload));
+                    final long durationAndCode = readVarLong(payload);
+                    code = (int) (durationAndCode & codeMask);
+                    duration = durationAndCode >>> codeBits;
+                }
+                if (start >= filter.from && start < filter.to && filter.matches(code)) {
+                    consumer.accept(dictionary.txId(code), start * 1000L, duration * 1000L);
+                    matched++;
+                }
+            }
+            return matched;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt block", e);
+        }
+    }
+
+    private static void readNames(ByteBuffer buffer, List<String> names) {
+
+        for (int n = (int) readVarLong(buffer); n > 0; n--) {
+            final byte[] utf8 = new byte[(int) readVarLong(buffer)];
+            buffer.get(utf8);
+            names.add(new String(utf8, StandardCharsets.UTF_8));
+        }
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed variable length integer");
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * Mapping of the codes of the file to the transaction ids of this JVM
+     */
+    private static final class Dictionary {
+
+        private final List<Integer> txIds = new ArrayList<>();
+        private final boolean complete;
+
+        Dictionary(List<String> names) {
+
+            this.complete = names != null;
+            if (complete) {
+                names.forEach(name -> txIds.add(TransactionRegistry.idOf(name)));
+            }
+        }
+
+        void addAll(List<String> names, Filter filter) {
+
+            if (!complete) {
+                for (String name : names) {
+                    filter.add(txIds.size(), name);
+                    txIds.add(TransactionRegistry.idOf(name));
+                }
+            }
+        }
+
+        int txId(int code) {
+
+            return txIds.get(code);
+        }
+    }
+
+    /**
+     * Filter for the samples by time range and transaction codes
+     */
+    private static final class Filter {
+
+        final long from;
+        final long to;
+        private final Collection<String> transactions;
+        private final BitSet codes = new BitSet();
+
+        Filter(long from, long to, Collection<String> transactions) {
+
+            this.from = from;
+            this.to = to;
+            this.transactions = transactions;
+        }
+
+        void resolve(List<String> names) {
+
+            for (int code = 0; code < names.size(); code++) {
+                add(code, names.get(code));
+            }
+        }
+
+        void add(int code, String name) {
+
+            if (transactions != null && transactions.contains(name)) {
+                codes.set(code);
+            }
+        }
+
+        boolean matches(int code) {
+
+            return transactions == null || codes.get(code);
+        }
+
+        boolean intersects(BitSet blockCodes) {
+
+            return transactions == null || codes.intersects(blockCodes);
+        }
+    }
+}
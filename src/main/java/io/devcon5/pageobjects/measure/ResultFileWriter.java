@@ -0,0 +1,404 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writer of compressed result files. The samples are written in blocks. Within a block, the start of each sample is
+ * stored as difference to the start of the previous sample and the duration as variable length integer, both with
+ * microsecond resolution. Transaction names are stored once per file in a dictionary and referenced by a small
+ * code, that is stored in the lowest bits of the duration. Each block uses as many code bits as required by its
+ * highest code. A typical sample requires 4 to 6 bytes, which is about a tenth or less of a CSV line.
+ * <br>
+ * The file starts with a header, followed by the blocks. Each block contains the dictionary entries of the
+ * transactions that appear in the file for the first time, so that the file can be read as a stream. Closing the
+ * writer appends an index with the time range and transactions of every block, that allows a reader to skip
+ * blocks. The file format is:
+ * <pre>
+ * file    = MAGIC:int VERSION:byte block* [index trailer]
+ * block   = BLOCK:byte length:int count:varint names baseStart:zigzag codeBits:byte sample*
+ * names   = n:varint (length:varint utf8:byte*){n}
+ * sample  = startDelta:zigzag durationAndCode:varint    (duration &lt;&lt; codeBits | code)
+ * index   = INDEX:byte names blockCount:varint (offset:varint count:varint minStart:zigzag range:varint
+ *           txCount:varint code:varint*)*
+ * trailer = indexOffset:long MAGIC:int
+ * </pre>
+ * All times are microseconds, the start since the epoch. Variable length integers use 7 bits per byte, signed
+ * values are zigzag encoded. Files of version 1 store the code of a sample as separate varint before the start
+ * delta and have no code bits in the block header, they are still read by the
+ * {@link io.devcon5.pageobjects.measure.ResultFileReader}.
+ */
+public final class ResultFileWriter implements Consumer<ResponseTime>, AutoCloseable {
+
+    static final int MAGIC = 0x504F5246;
+    static final byte VERSION = 2;
+    static final byte BLOCK = 1;
+    static final byte INDEX = 2;
+    static final int TRAILER_SIZE = 12;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+
+    /**
+     * Codes of the transactions in this file, indexed by transaction id
+     */
+    private final TransactionTable<Integer> codes = new TransactionTable<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<BlockIndex> index = new ArrayList<>();
+
+    private final Encoder block = new Encoder();
+    private final Encoder blockNames = new Encoder();
+    private int[] sampleCodes;
+    private long[] sampleDeltas;
+    private long[] sampleDurations;
+    private int maxCode;
+    private int newNames;
+    private int blockCount;
+    private long baseStart;
+    private long previousStart;
+    private long minStart;
+    private long maxStart;
+    private BitSet blockCodes = new BitSet();
+
+    private long offset;
+    private long samples;
+    private boolean closed;
+
+    private ResultFileWriter(Path file, int blockSize) throws IOException {
+
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 65536));
+        this.blockSize = blockSize;
+        final int capacity = Math.min(blockSize, 4096);
+        this.sampleCodes = new int[capacity];
+        this.sampleDeltas = new long[capacity];
+        this.sampleDurations = new long[capacity];
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        offset = 5;
+    }
+
+    /**
+     * Creates a new result file with the default block size of 4096 samples
+     * @param file
+     *  the file to create or replace
+     * @return
+     *  the writer for the file
+     * @throws IOException
+     *  if the file could not be created
+     */
+    public static ResultFileWriter create(Path file) throws IOException {
+
+        return create(file, 4096);
+    }
+
+    /**
+     * Creates a new result file
+     * @param file
+     *  the file to create or replace
+     * @param blockSize
+     *  the number of samples per block. Smaller blocks allow more precise skipping, larger blocks compress better.
+     * @return
+     *  the writer for the file
+     * @throws IOException
+     *  if the file could not be created
+     */
+    public static ResultFileWriter create(Path file, int blockSize) throws IOException {
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("BlockSize must be positive");
+        }
+        return new ResultFileWriter(file, blockSize);
+    }
+
+    /**
+     * Writes the response time to the file, if it is finished. Unfinished response times are ignored.
+     * @param responseTime
+     *  the response time to write
+     * @throws UncheckedIOException
+     *  if writing failed
+     */
+    @Override
+    public void accept(ResponseTime responseTime) {
+
+        if (responseTime.isFinished()) {
+            append(responseTime.getTransactionId(),
+                   SampleStore.toEpochNanos(responseTime.getStart()),
+                   responseTime.getDuration().toNanos());
+        }
+    }
+
+    /**
+     * Writes a sample to the file
+     * @param transactionId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param startNanos
+     *  the start of the transaction in nanoseconds since the epoch
+     * @param durationNanos
+     *  the duration of the transaction in nanoseconds
+     * @throws UncheckedIOException
+     *  if writing failed
+     */
+    public synchronized void append(int transactionId, long startNanos, long durationNanos) {
+
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        final long start = Math.floorDiv(startNanos, 1000L);
+        if (blockCount == 0) {
+            baseStart = start;
+            previousStart = start;
+            minStart = start;
+            maxStart = start;
+        }
+        final int code = codeOf(transactionId);
+        if (blockCount == sampleCodes.length) {
+            final int capacity = Math.min(blockSize, sampleCodes.length * 2);
+            sampleCodes = Arrays.copyOf(sampleCodes, capacity);
+            sampleDeltas = Arrays.copyOf(sampleDeltas, capacity);
+            sampleDurations = Arrays.copyOf(sampleDurations, capacity);
+        }
+        sampleCodes[blockCount] = code;
+        sampleDeltas[blockCount] = zigzag(start - previousStart);
+        sampleDurations[blockCount] = Math.max(0, durationNanos / 1000L);
+        maxCode = Math.max(maxCode, code);
+        blockCodes.set(code);
+        previousStart = start;
+        minStart = Math.min(minStart, start);
+        maxStart = Math.max(maxStart, start);
+        samples++;
+        if (++blockCount == blockSize) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private int codeOf(int transactionId) {
+
+        final Integer code = codes.get(transactionId);
+        if (code != null) {
+            return code;
+        }
+        final int newCode = names.size();
+        final String name = TransactionRegistry.nameOf(transactionId);
+        names.add(name);
+        codes.set(transactionId, newCode);
+        blockNames.writeString(name);
+        newNames++;
+        return newCode;
+    }
+
+    private void writeBlock() throws IOException {
+
+        final Encoder header = new Encoder();
+        header.writeVarLong(blockCount);
+        header.writeVarLong(newNames);
+        header.write(blockNames);
+        header.writeVarLong(zigzag(baseStart));
+        final int codeBits = 32 - Integer.numberOfLeadingZeros(maxCode);
+        header.writeByte(codeBits);
+        for (int i = 0; i < blockCount; i++) {
+            block.writeVarLong(sampleDeltas[i]);
+            block.writeVarLong(sampleDurations[i] << codeBits | sampleCodes[i]);
+        }
+        final int length = header.size() + block.size();
+        index.add(new BlockIndex(offset, blockCount, minStart, maxStart, blockCodes));
+        out.writeByte(BLOCK);
+        out.writeInt(length);
+        header.writeTo(out);
+        block.writeTo(out);
+        offset += 5 + length;
+        block.reset();
+        blockNames.reset();
+        newNames = 0;
+        blockCount = 0;
+        maxCode = 0;
+        blockCodes = new BitSet();
+    }
+
+    /**
+     * Writes the pending samples as block to the file, so that they can be read.
+     * @throws UncheckedIOException
+     *  if writing failed
+     */
+    public synchronized void flush() {
+
+        try {
+            if (blockCount > 0) {
+                writeBlock();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return
+     *  the number of samples written
+     */
+    public synchronized long getSampleCount() {
+
+        return samples;
+    }
+
+    /**
+     * Writes the pending samples and the index and closes the file.
+     * @throws UncheckedIOException
+     *  if writing failed
+     */
+    @Override
+    public synchronized void close() {
+
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        try {
+            final Encoder encoder = new Encoder();
+            encoder.writeVarLong(names.size());
+            names.forEach(encoder::writeString);
+            encoder.writeVarLong(index.size());
+            for (BlockIndex entry : index) {
+                encoder.writeVarLong(entry.offset);
+                encoder.writeVarLong(entry.count);
+                encoder.writeVarLong(zigzag(entry.minStart));
+                encoder.writeVarLong(entry.maxStart - entry.minStart);
+                encoder.writeVarLong(entry.codes.cardinality());
+                entry.codes.stream().forEach(encoder::writeVarLong);
+            }
+            out.writeByte(INDEX);
+            encoder.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long zigzag(long value) {
+
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Index entry of a block
+     */
+    static final class BlockIndex {
+
+        final long offset;
+        final int count;
+        final long minStart;
+        final long maxStart;
+        final BitSet codes;
+
+        BlockIndex(long offset, int count, long minStart, long maxStart, BitSet codes) {
+
+            this.offset = offset;
+            this.count = count;
+            this.minStart = minStart;
+            this.maxStart = maxStart;
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * Growable byte array for variable length encoded values
+     */
+    static final class Encoder {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void writeVarLong(long value) {
+
+            ensureCapacity(10);
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            bytes[size++] = (byte) v;
+        }
+
+        void writeByte(int value) {
+
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+
+            final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void write(Encoder other) {
+
+            ensureCapacity(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+
+            return size;
+        }
+
+        void reset() {
+
+            size = 0;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+
+            out.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer for multiple producers and a single consumer. All slots are allocated upon
+ * creation. Each slot has a sequence number that tells whether the slot is free for the producer of a specific
+ * position or contains an element for the consumer. Producers claim a position by a CAS on the tail, so a producer
+ * never waits for another producer or the consumer. If the buffer is full, {@link #offer(Object)} fails immediately.
+ * @param <T>
+ *  the type of the elements
+ */
+final class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Creates a new ring buffer
+     * @param capacity
+     *  the minimum capacity of the buffer. The actual capacity is the next power of two.
+     */
+    RingBuffer(int capacity) {
+
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element to the buffer, if there is a free slot. May be called by any thread.
+     * @param element
+     *  the element to add
+     * @return
+     *  <code>true</code> if the element was added, <code>false</code> if the buffer is full
+     */
+    boolean offer(T element) {
+
+        long pos = tail.get();
+        for (; ; ) {
+            final int index = (int) (pos & mask);
+            final long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to max elements from the buffer and adds them to the batch. Must only be called by the single
+     * consumer thread.
+     * @param batch
+     *  the list to add the removed elements to
+     * @param max
+     *  the maximum number of elements to remove
+     * @return
+     *  the number of removed elements
+     */
+    int drainTo(List<? super T> batch, int max) {
+
+        long pos = head;
+        int count = 0;
+        while (count < max) {
+            final int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+            batch.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.set(index, pos + mask + 1);
+            pos++;
+            count++;
+        }
+        head = pos;
+        return count;
+    }
+
+    /**
+     * The number of positions claimed by producers so far. An element at a claimed position may not yet be
+     * visible to the consumer.
+     * @return
+     *  the total number of elements added to the buffer
+     */
+    long getProducedCount() {
+
+        return tail.get();
+    }
+
+    /**
+     * @return
+     *  the total number of elements removed from the buffer
+     */
+    long getConsumedCount() {
+
+        return head;
+    }
+
+    /**
+     * @return
+     *  the approximate number of elements in the buffer
+     */
+    int size() {
+
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @return
+     *  the number of slots of the buffer
+     */
+    int capacity() {
+
+        return mask + 1;
+    }
+}
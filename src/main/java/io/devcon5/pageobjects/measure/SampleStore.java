@@ -0,0 +1,585 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Compact, columnar store of finished response times. Other than a {@link ResponseTime}, a sample only consists of
+ * its transaction id, the start as nanoseconds since the epoch and the duration in nanoseconds, requiring 20 bytes
+ * per sample. The samples are stored in fixed size chunks, each holding a column of start times, a column of
+ * durations and a column of transaction ids. The chunks are either held on the heap or off-heap in a direct
+ * {@link ByteBuffer}, which is not scanned by the garbage collector and can be exported without copying. The
+ * {@link io.devcon5.pageobjects.measure.Outcome} of a sample is stored in the upper bits of the transaction id
+ * column, the class of the exception of a failed transaction is not retained.
+ * <br>
+ * Samples may be added by any thread. Readers see all samples added before they started reading.
+ */
+public final class SampleStore {
+
+    /**
+     * Number of samples per chunk
+     */
+    static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Bytes required per sample
+     */
+    public static final int SAMPLE_BYTES = 8 + 8 + 4;
+
+    /**
+     * Position of the outcome in the transaction id column
+     */
+    private static final int OUTCOME_SHIFT = 24;
+    private static final int TX_MASK = (1 << OUTCOME_SHIFT) - 1;
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final boolean offHeap;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    private SampleStore(boolean offHeap) {
+
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Creates a store that holds the samples in arrays on the heap
+     * @return
+     *  a new, empty store
+     */
+    public static SampleStore onHeap() {
+
+        return new SampleStore(false);
+    }
+
+    /**
+     * Creates a store that holds the samples in direct byte buffers outside of the heap
+     * @return
+     *  a new, empty store
+     */
+    public static SampleStore offHeap() {
+
+        return new SampleStore(true);
+    }
+
+    /**
+     * Consumer of the samples of a store
+     */
+    @FunctionalInterface
+    public interface SampleConsumer {
+
+        /**
+         * @param transactionId
+         *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+         * @param startNanos
+         *  the start of the transaction in nanoseconds since the epoch
+         * @param durationNanos
+         *  the duration of the transaction in nanoseconds
+         */
+        void accept(int transactionId, long startNanos, long durationNanos);
+    }
+
+    /**
+     * Adds a finished response time to the store. The id and the exception class of the response time are not
+     * retained.
+     * @param responseTime
+     *  the finished response time to add
+     */
+    public void add(ResponseTime responseTime) {
+
+        if (!responseTime.isFinished()) {
+            throw new IllegalArgumentException("Only finished response times can be stored");
+        }
+        add(responseTime.getTransactionId(), toEpochNanos(responseTime.getStart()),
+            responseTime.getDuration().toNanos(), responseTime.getOutcome());
+    }
+
+    /**
+     * Adds a batch of finished response times to the store, acquiring the lock of the store only once.
+     * @param responseTimes
+     *  the array containing the response times
+     * @param offset
+     *  the index of the first response time to add
+     * @param length
+     *  the number of response times to add
+     */
+    public synchronized void addAll(ResponseTime[] responseTimes, int offset, int length) {
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            add(responseTimes[i]);
+        }
+    }
+
+    /**
+     * Adds a sample of a successful transaction to the store
+     * @param transactionId
+     *  the id of the transaction
+     * @param startNanos
+     *  the start of the transaction in nanoseconds since the epoch
+     * @param durationNanos
+     *  the duration of the transaction in nanoseconds
+     */
+    public void add(int transactionId, long startNanos, long durationNanos) {
+
+        append(transactionId, startNanos, durationNanos);
+    }
+
+    /**
+     * Adds a sample to the store
+     * @param transactionId
+     *  the id of the transaction
+     * @param startNanos
+     *  the start of the transaction in nanoseconds since the epoch
+     * @param durationNanos
+     *  the duration of the transaction in nanoseconds
+     * @param outcome
+     *  the outcome of the transaction
+     */
+    public void add(int transactionId, long startNanos, long durationNanos, Outcome outcome) {
+
+        append(transactionId | outcome.ordinal() << OUTCOME_SHIFT, startNanos, durationNanos);
+    }
+
+    private synchronized void append(int txColumn, long startNanos, long durationNanos) {
+
+        final int index = size;
+        final int chunkIndex = index / CHUNK_SIZE;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            current[chunkIndex] = offHeap ? new DirectChunk() : new HeapChunk();
+            chunks = current;
+        }
+        current[chunkIndex].set(index % CHUNK_SIZE, txColumn, startNanos, durationNanos);
+        size = index + 1;
+    }
+
+    /**
+     * @return
+     *  the number of samples in the store
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * @return
+     *  <code>true</code> if the samples are stored outside of the heap
+     */
+    public boolean isOffHeap() {
+
+        return offHeap;
+    }
+
+    /**
+     * @return
+     *  the number of bytes allocated for the samples
+     */
+    public long getAllocatedBytes() {
+
+        return (long) chunks.length * CHUNK_SIZE * SAMPLE_BYTES;
+    }
+
+    /**
+     * @param index
+     *  the index of the sample
+     * @return
+     *  the transaction id of the sample
+     */
+    public int getTransactionId(int index) {
+
+        return chunk(index).txId(index % CHUNK_SIZE) & TX_MASK;
+    }
+
+    /**
+     * @param index
+     *  the index of the sample
+     * @return
+     *  the outcome of the sample
+     */
+    public Outcome getOutcome(int index) {
+
+        return OUTCOMES[chunk(index).txId(index % CHUNK_SIZE) >>> OUTCOME_SHIFT];
+    }
+
+    /**
+     * @param index
+     *  the index of the sample
+     * @return
+     *  the start of the sample in nanoseconds since the epoch
+     */
+    public long getStartNanos(int index) {
+
+        return chunk(index).start(index % CHUNK_SIZE);
+    }
+
+    /**
+     * @param index
+     *  the index of the sample
+     * @return
+     *  the duration of the sample in nanoseconds
+     */
+    public long getDurationNanos(int index) {
+
+        return chunk(index).duration(index % CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a response time from a sample. As the store does not retain the id of the response time, each
+     * invocation creates a response time with a new id.
+     * @param index
+     *  the index of the sample
+     * @return
+     *  a finished response time for the sample
+     */
+    public ResponseTime get(int index) {
+
+        final Chunk chunk = chunk(index);
+        final int i = index % CHUNK_SIZE;
+        final int txColumn = chunk.txId(i);
+        return new ResponseTime(txColumn & TX_MASK,
+                                ofEpochNanos(chunk.start(i)),
+                                Duration.ofNanos(chunk.duration(i)),
+                                OUTCOMES[txColumn >>> OUTCOME_SHIFT]);
+    }
+
+    private Chunk chunk(int index) {
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return chunks[index / CHUNK_SIZE];
+    }
+
+    /**
+     * Invokes the action for every sample in the order the samples were added.
+     * @param action
+     *  the action to invoke
+     */
+    public void forEach(SampleConsumer action) {
+
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, (tx, start, duration) -> action.accept(tx & TX_MASK, start, duration));
+    }
+
+    /**
+     * Invokes the action for every sample that started in the time range, in the order the samples were added.
+     * Chunks that contain no sample of the time range are skipped.
+     * @param from
+     *  the start of the time range, inclusive
+     * @param to
+     *  the end of the time range, exclusive
+     * @param action
+     *  the action to invoke
+     */
+    public void forEach(Instant from, Instant to, SampleConsumer action) {
+
+        scan(toEpochNanos(from), toEpochNanos(to),
+             (tx, start, duration) -> action.accept(tx & TX_MASK, start, duration));
+    }
+
+    /**
+     * Invokes the action for every sample that started in the time range with the unmasked transaction id column
+     */
+    private void scan(long fromNanos, long toNanos, SampleConsumer action) {
+
+        final int count = size;
+        final Chunk[] current = chunks;
+        for (int c = 0; c * CHUNK_SIZE < count; c++) {
+            final Chunk chunk = current[c];
+            if (chunk.maxStart < fromNanos || chunk.minStart >= toNanos) {
+                continue;
+            }
+            final int end = Math.min(CHUNK_SIZE, count - c * CHUNK_SIZE);
+            for (int i = 0; i < end; i++) {
+                final long start = chunk.start(i);
+                if (start >= fromNanos && start < toNanos) {
+                    action.accept(chunk.txId(i), start, chunk.duration(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies all samples that started in the time range into a new store on the heap.
+     * @param from
+     *  the start of the time range, inclusive
+     * @param to
+     *  the end of the time range, exclusive
+     * @return
+     *  a new store with the samples of the time range
+     */
+    public SampleStore slice(Instant from, Instant to) {
+
+        final SampleStore slice = onHeap();
+        scan(toEpochNanos(from), toEpochNanos(to), slice::append);
+        return slice;
+    }
+
+    /**
+     * Removes all samples and releases the allocated memory
+     */
+    public synchronized void clear() {
+
+        chunks = new Chunk[0];
+        size = 0;
+    }
+
+    /**
+     * Writes all samples to the channel. The samples are written in blocks of up to {@value #CHUNK_SIZE} samples.
+     * Each block starts with the number n of samples as int, followed by n start times, n durations and
+     * n transaction ids with the outcome in the upper 8 bits, all in big-endian byte order. The samples of an
+     * off-heap store are written directly from the direct buffers without copying. Transaction ids are only valid
+     * within the {@link io.devcon5.pageobjects.measure.TransactionRegistry} of the writing JVM.
+     * @param channel
+     *  the channel to write the samples to
+     * @return
+     *  the number of bytes written
+     * @throws IOException
+     *  if writing to the channel failed
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+
+        final int count = size;
+        final Chunk[] current = chunks;
+        long written = 0;
+        final ByteBuffer header = ByteBuffer.allocate(4);
+        for (int c = 0; c * CHUNK_SIZE < count; c++) {
+            final int n = Math.min(CHUNK_SIZE, count - c * CHUNK_SIZE);
+            //the Buffer methods, as the covariant overrides of ByteBuffer do not exist before Java 9
+            ((Buffer) header).clear();
+            header.putInt(n);
+            ((Buffer) header).flip();
+            written += writeFully(channel, header);
+            for (ByteBuffer column : current[c].columns(n)) {
+                written += writeFully(channel, column);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Adds all samples read from the channel to this store. The channel must provide data in the format written by
+     * {@link #writeTo(WritableByteChannel)}.
+     * @param channel
+     *  the channel to read the samples from
+     * @return
+     *  the number of samples read
+     * @throws IOException
+     *  if reading from the channel failed or the data is truncated
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+
+        final ByteBuffer header = ByteBuffer.allocate(4);
+        int total = 0;
+        while (readFully(channel, header, true)) {
+            final int n = header.getInt(0);
+            ((Buffer) header).clear();
+            if (n < 0 || n > CHUNK_SIZE) {
+                throw new IOException("Invalid block size " + n);
+            }
+            final ByteBuffer block = ByteBuffer.allocate(n * SAMPLE_BYTES);
+            readFully(channel, block, false);
+            for (int i = 0; i < n; i++) {
+                append(block.getInt(n * 16 + i * 4), block.getLong(i * 8), block.getLong(n * 8 + i * 8));
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static long writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean eofAllowed)
+            throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (eofAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Unexpected end of samples");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param instant
+     *  a point in time
+     * @return
+     *  the point in time as nanoseconds since the epoch
+     */
+    static long toEpochNanos(Instant instant) {
+
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * @param epochNanos
+     *  nanoseconds since the epoch
+     * @return
+     *  the point in time
+     */
+    static Instant ofEpochNanos(long epochNanos) {
+
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+
+    /**
+     * Fixed size part of the columns. Values are written by the adding thread while holding the lock of the store
+     * and are published to readers by the volatile size of the store.
+     */
+    private abstract static class Chunk {
+
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+
+        void set(int index, int txId, long start, long duration) {
+
+            minStart = Math.min(minStart, start);
+            maxStart = Math.max(maxStart, start);
+            put(index, txId, start, duration);
+        }
+
+        abstract void put(int index, int txId, long start, long duration);
+
+        abstract int txId(int index);
+
+        abstract long start(int index);
+
+        abstract long duration(int index);
+
+        /**
+         * @param count
+         *  the number of samples
+         * @return
+         *  buffers with the start, duration and transaction id columns of the first count samples
+         */
+        abstract ByteBuffer[] columns(int count);
+    }
+
+    private static final class HeapChunk extends Chunk {
+
+        private final long[] starts = new long[CHUNK_SIZE];
+        private final long[] durations = new long[CHUNK_SIZE];
+        private final int[] txIds = new int[CHUNK_SIZE];
+
+        @Override
+        void put(int index, int txId, long start, long duration) {
+
+            starts[index] = start;
+            durations[index] = duration;
+            txIds[index] = txId;
+        }
+
+        @Override
+        int txId(int index) {
+
+            return txIds[index];
+        }
+
+        @Override
+        long start(int index) {
+
+            return starts[index];
+        }
+
+        @Override
+        long duration(int index) {
+
+            return durations[index];
+        }
+
+        @Override
+        ByteBuffer[] columns(int count) {
+
+            final ByteBuffer startColumn = ByteBuffer.allocate(count * 8);
+            startColumn.asLongBuffer().put(starts, 0, count);
+            final ByteBuffer durationColumn = ByteBuffer.allocate(count * 8);
+            durationColumn.asLongBuffer().put(durations, 0, count);
+            final ByteBuffer txIdColumn = ByteBuffer.allocate(count * 4);
+            txIdColumn.asIntBuffer().put(txIds, 0, count);
+            return new ByteBuffer[]{startColumn, durationColumn, txIdColumn};
+        }
+    }
+
+    private static final class DirectChunk extends Chunk {
+
+        private static final int DURATIONS = CHUNK_SIZE * 8;
+        private static final int TX_IDS = CHUNK_SIZE * 16;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE * SAMPLE_BYTES);
+
+        @Override
+        void put(int index, int txId, long start, long duration) {
+
+            buffer.putLong(index * 8, start);
+            buffer.putLong(DURATIONS + index * 8, duration);
+            buffer.putInt(TX_IDS + index * 4, txId);
+        }
+
+        @Override
+        int txId(int index) {
+
+            return buffer.getInt(TX_IDS + index * 4);
+        }
+
+        @Override
+        long start(int index) {
+
+            return buffer.getLong(index * 8);
+        }
+
+        @Override
+        long duration(int index) {
+
+            return buffer.getLong(DURATIONS + index * 8);
+        }
+
+        @Override
+        ByteBuffer[] columns(int count) {
+
+            return new ByteBuffer[]{column(0, count * 8), column(DURATIONS, count * 8), column(TX_IDS, count * 4)};
+        }
+
+        private ByteBuffer column(int offset, int length) {
+
+            final ByteBuffer column = buffer.duplicate();
+            ((Buffer) column).limit(offset + length);
+            ((Buffer) column).position(offset);
+            return column;
+        }
+    }
+}
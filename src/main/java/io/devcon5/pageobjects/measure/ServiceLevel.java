@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Response time targets of a transaction: a maximum duration of every single call and maximum durations at
+ * percentiles over all calls of the run, i.e. the 95th percentile should be below 800 ms. Service levels are
+ * defined per transaction using {@link ServiceLevels#define(String, ServiceLevel)} or by annotating transactions,
+ * see {@link io.devcon5.pageobjects.tx.Sla}. The service level is immutable.
+ */
+public final class ServiceLevel {
+
+    private final Duration max;
+    private final SortedMap<Double, Duration> percentiles;
+
+    ServiceLevel(Duration max, SortedMap<Double, Duration> percentiles) {
+
+        this.max = max;
+        this.percentiles = Collections.unmodifiableSortedMap(new TreeMap<>(percentiles));
+    }
+
+    /**
+     * Creates a new builder for a service level
+     * @return
+     *  a new builder
+     */
+    public static ServiceLevelBuilder builder() {
+
+        return new ServiceLevelBuilder();
+    }
+
+    /**
+     * @return
+     *  the maximum duration of every call of the transaction or the empty optional if single calls are not limited
+     */
+    public Optional<Duration> getMax() {
+
+        return Optional.ofNullable(max);
+    }
+
+    /**
+     * @return
+     *  the maximum durations at the percentiles, ordered by percentile
+     */
+    public SortedMap<Double, Duration> getPercentiles() {
+
+        return percentiles;
+    }
+
+    @Override
+    public String toString() {
+
+        return "ServiceLevel{max=" + max + ", percentiles=" + percentiles + '}';
+    }
+
+    /**
+     * Builder for creating a service level
+     */
+    public static class ServiceLevelBuilder {
+
+        private Duration max;
+        private final SortedMap<Double, Duration> percentiles = new TreeMap<>();
+
+        ServiceLevelBuilder() {
+
+        }
+
+        /**
+         * The maximum duration of every single call of the transaction. Default is no limit.
+         */
+        public ServiceLevelBuilder max(Duration max) {
+
+            this.max = max;
+            return this;
+        }
+
+        /**
+         * The maximum duration at a percentile over all calls of the transaction.
+         * @param percentile
+         *  the percentile between 0 and 100, i.e. 95 for the 95th percentile
+         * @param max
+         *  the maximum duration at the percentile
+         */
+        public ServiceLevelBuilder percentile(double percentile, Duration max) {
+
+            Objects.requireNonNull(max, "Max must not be null");
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be greater than 0 and at most 100");
+            }
+            this.percentiles.put(percentile, max);
+            return this;
+        }
+
+        public ServiceLevel build() {
+
+            if (max != null && max.isNegative()) {
+                throw new IllegalArgumentException("Max must not be negative");
+            }
+            if (percentiles.values().stream().anyMatch(Duration::isNegative)) {
+                throw new IllegalArgumentException("Percentile targets must not be negative");
+            }
+            if (max == null && percentiles.isEmpty()) {
+                throw new IllegalArgumentException("At least one target must be defined");
+            }
+            return new ServiceLevel(max, percentiles);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Report of the evaluation of the service levels, see {@link ServiceLevels#evaluate()}. The report contains one
+ * result per target of a transaction and is immutable. Its string representation is a table of all results that
+ * is suitable for logging and for assertion messages.
+ */
+public final class ServiceLevelReport {
+
+    private final List<Result> results;
+
+    ServiceLevelReport(List<Result> results) {
+
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return
+     *  the results of all evaluated targets, ordered by transaction
+     */
+    public List<Result> getResults() {
+
+        return results;
+    }
+
+    /**
+     * @return
+     *  the results of the targets that have been missed
+     */
+    public List<Result> getViolations() {
+
+        return results.stream().filter(Result::isViolated).collect(Collectors.toList());
+    }
+
+    /**
+     * @return
+     *  true if any target has been missed
+     */
+    public boolean isViolated() {
+
+        return results.stream().anyMatch(Result::isViolated);
+    }
+
+    @Override
+    public String toString() {
+
+        final StringBuilder sb = new StringBuilder(128 + results.size() * 96);
+        sb.append(String.format("%-40s %6s %12s %12s %10s %s%n",
+                                "Transaction", "Target", "Limit", "Actual", "Calls", "Result"));
+        for (Result result : results) {
+            final String status;
+            if (!result.hasData()) {
+                status = "VIOLATED (no data)";
+            } else if (result.isViolated()) {
+                status = "VIOLATED (" + result.getExceedingCount() + " calls above limit)";
+            } else {
+                status = "OK";
+            }
+            sb.append(String.format("%-40s %6s %10dms %12s %10d %s%n",
+                                    result.getTransaction(),
+                                    result.getTarget(),
+                                    result.getLimit().toMillis(),
+                                    result.hasData() ? result.getActual().toMillis() + "ms" : "-",
+                                    result.getCount(),
+                                    status));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The result of a single target of a transaction
+     */
+    public static final class Result {
+
+        private final String transaction;
+        private final String target;
+        private final Duration limit;
+        private final Duration actual;
+        private final long count;
+        private final long exceedingCount;
+
+        Result(String transaction, String target, Duration limit, Duration actual, long count, long exceedingCount) {
+
+            this.transaction = transaction;
+            this.target = target;
+            this.limit = limit;
+            this.actual = actual;
+            this.count = count;
+            this.exceedingCount = exceedingCount;
+        }
+
+        /**
+         * Creates the result of a target of a transaction without successful calls
+         */
+        static Result noData(String transaction, String target, Duration limit) {
+
+            return new Result(transaction, target, limit, null, 0, 0);
+        }
+
+        /**
+         * @return
+         *  the name of the transaction
+         */
+        public String getTransaction() {
+
+            return transaction;
+        }
+
+        /**
+         * @return
+         *  the name of the target, i.e. <code>max</code> or <code>p95</code>
+         */
+        public String getTarget() {
+
+            return target;
+        }
+
+        /**
+         * @return
+         *  the maximum duration of the target
+         */
+        public Duration getLimit() {
+
+            return limit;
+        }
+
+        /**
+         * @return
+         *  the measured duration, the maximum of all calls or the duration at the percentile of the successful
+         *  calls, <code>null</code> if there is no data
+         */
+        public Duration getActual() {
+
+            return actual;
+        }
+
+        /**
+         * @return
+         *  the number of calls of the transaction the target was evaluated against
+         */
+        public long getCount() {
+
+            return count;
+        }
+
+        /**
+         * @return
+         *  the number of calls of the transaction that took longer than the limit
+         */
+        public long getExceedingCount() {
+
+            return exceedingCount;
+        }
+
+        /**
+         * @return
+         *  true if the target was evaluated against measured durations, false if no call of the transaction was
+         *  successful
+         */
+        public boolean hasData() {
+
+            return actual != null;
+        }
+
+        /**
+         * @return
+         *  true if the measured duration exceeds the limit or there is no data to meet the target
+         */
+        public boolean isViolated() {
+
+            return actual == null || actual.compareTo(limit) > 0;
+        }
+
+        @Override
+        public String toString() {
+
+            if (actual == null) {
+                return transaction + ' ' + target + " no data, limit " + limit;
+            }
+            return transaction + ' ' + target + '=' + actual + (isViolated() ? " > " : " <= ") + limit;
+        }
+    }
+}
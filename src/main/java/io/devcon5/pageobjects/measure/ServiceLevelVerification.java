@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import io.inkstand.scribble.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+
+/**
+ * JUnit Rule to verify the service levels of the transactions, see {@link ServiceLevels}, after a test or all tests
+ * of a class. If any target has been missed, the test fails with a report of all evaluated targets per transaction.
+ * If the test itself failed, the service levels are not verified, so that the failure of the test is reported
+ * instead of a violation caused by it.
+ * The service levels are evaluated against the global response times, so the rule has to be applied within the
+ * {@link ResponseTimeRecording}, which clears the recorded response times after the test by default:
+ * <pre>
+ *     &#64;Rule
+ *     public RuleChain rules = RuleChain.outerRule(new ResponseTimeRecording()).around(new ServiceLevelVerification());
+ * </pre>
+ */
+public class ServiceLevelVerification extends ExternalResource {
+
+    private static final Logger LOG = getLogger(ServiceLevelVerification.class);
+
+    private ServiceLevelReport report;
+
+    /**
+     * Flag to indicate the test or the tests of the class failed, guarded by the thread running the test
+     */
+    private boolean failed;
+
+    /**
+     * The report of the last verification
+     * @return
+     *  the report or <code>null</code> if the service levels have not been verified yet
+     */
+    public ServiceLevelReport getReport() {
+
+        return report;
+    }
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+
+        return super.apply(new Statement() {
+
+            @Override
+            public void evaluate() throws Throwable {
+
+                failed = false;
+                try {
+                    base.evaluate();
+                } catch (Throwable e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+        }, description);
+    }
+
+    @Override
+    protected void afterClass() {
+        after();
+    }
+
+    @Override
+    protected void after() {
+        if (failed) {
+            LOG.debug("Service levels not verified, the test failed");
+            return;
+        }
+        report = ServiceLevels.evaluate();
+        if (report.getResults().isEmpty()) {
+            return;
+        }
+        if (report.isViolated()) {
+            throw new AssertionError("Service levels violated:\n" + report);
+        }
+        LOG.info("Service levels met:\n{}", report);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Global registry of the service levels of the transactions. The percentile targets are evaluated against the
+ * histograms of the successful transactions, see {@link ResponseTimes#getHistograms()}, so that fast failures do not
+ * improve the percentiles. The maximum is evaluated against the transactions of all outcomes, so that a call that
+ * failed or timed out after a long time still violates it. Durations are compared with the precision of the
+ * histograms.
+ */
+public final class ServiceLevels {
+
+    private static final TransactionTable<ServiceLevel> SERVICE_LEVELS = new TransactionTable<>();
+
+    private ServiceLevels() {
+    }
+
+    /**
+     * Defines the service level of a transaction, replacing the service level that was defined before.
+     * @param transaction
+     *  the name of the transaction
+     * @param serviceLevel
+     *  the service level of the transaction
+     */
+    public static void define(String transaction, ServiceLevel serviceLevel) {
+
+        define(TransactionRegistry.idOf(transaction), serviceLevel);
+    }
+
+    /**
+     * Defines the service level of a registered transaction, replacing the service level that was defined before.
+     * @param txId
+     *  the id of the transaction, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     * @param serviceLevel
+     *  the service level of the transaction
+     */
+    public static void define(int txId, ServiceLevel serviceLevel) {
+
+        SERVICE_LEVELS.set(txId, Objects.requireNonNull(serviceLevel, "ServiceLevel must not be null"));
+    }
+
+    /**
+     * @param transaction
+     *  the name of the transaction
+     * @return
+     *  the service level of the transaction or the empty optional if none is defined
+     */
+    public static Optional<ServiceLevel> get(String transaction) {
+
+        return Optional.ofNullable(SERVICE_LEVELS.get(TransactionRegistry.idOf(transaction)));
+    }
+
+    /**
+     * @return
+     *  the service levels of all transactions, ordered by transaction name
+     */
+    public static Map<String, ServiceLevel> getAll() {
+
+        final Map<String, ServiceLevel> result = new TreeMap<>();
+        SERVICE_LEVELS.forEach((sl, txId) -> result.put(TransactionRegistry.nameOf(txId), sl));
+        return result;
+    }
+
+    /**
+     * Removes all service levels. Service levels declared by annotations are registered once per class, when the
+     * first transaction proxy of the class is created, and are not registered again after clearing.
+     */
+    public static void clear() {
+
+        SERVICE_LEVELS.clear();
+    }
+
+    /**
+     * Evaluates the service levels of all transactions against the response times recorded so far. Transactions
+     * without recorded response times are not evaluated. A transaction whose calls all failed or timed out has no
+     * data for its targets, which are reported as violated.
+     * @return
+     *  the report with the results of all targets
+     */
+    public static ServiceLevelReport evaluate() {
+
+        final Map<String, Histogram> all = new HashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            ResponseTimes.getHistograms(outcome).forEach((tx, histogram) -> all.merge(tx, histogram, (h1, h2) -> {
+                h1.add(h2);
+                return h1;
+            }));
+        }
+        return evaluate(ResponseTimes.getHistograms(), all);
+    }
+
+    /**
+     * Evaluates the service levels of all transactions against the histograms, both the maximum and the percentile
+     * targets.
+     * @param histograms
+     *  the histograms of the transactions
+     * @return
+     *  the report with the results of all targets of the transactions contained in the histograms
+     */
+    public static ServiceLevelReport evaluate(Map<String, Histogram> histograms) {
+
+        return evaluate(histograms, histograms);
+    }
+
+    private static ServiceLevelReport evaluate(Map<String, Histogram> successful, Map<String, Histogram> all) {
+
+        final List<ServiceLevelReport.Result> results = new ArrayList<>();
+        getAll().forEach((tx, sl) -> {
+            final Histogram recorded = all.get(tx);
+            if (recorded == null || recorded.getTotalCount() == 0) {
+                return;
+            }
+            final Histogram histogram = successful.get(tx);
+            final boolean noData = histogram == null || histogram.getTotalCount() == 0;
+            sl.getMax().ifPresent(max -> results.add(noData
+                                                     ? ServiceLevelReport.Result.noData(tx, "max", max)
+                                                     : result(tx, "max", max, recorded.getMax(), recorded)));
+            for (Map.Entry<Double, Duration> target : sl.getPercentiles().entrySet()) {
+                final String name = "p" + formatPercentile(target.getKey());
+                results.add(noData
+                            ? ServiceLevelReport.Result.noData(tx, name, target.getValue())
+                            : result(tx,
+                                     name,
+                                     target.getValue(),
+                                     histogram.getValueAtPercentile(target.getKey()),
+                                     histogram));
+            }
+        });
+        return new ServiceLevelReport(results);
+    }
+
+    private static ServiceLevelReport.Result result(String tx,
+                                                    String target,
+                                                    Duration limit,
+                                                    Duration actual,
+                                                    Histogram histogram) {
+
+        final long count = histogram.getTotalCount();
+        final long exceeding = count - histogram.getCountAtOrBelow(limit);
+        return new ServiceLevelReport.Result(tx, target, limit, actual, count, exceeding);
+    }
+
+    private static String formatPercentile(double percentile) {
+
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Tree of the spans formed by nested transactions, see {@link ResponseTime#getParentId()}. Response times whose
+ * parent is not contained in the tree, i.e. because it is still open, are roots of the tree. The children of a
+ * span are ordered by their start. The tree is immutable.
+ */
+public final class SpanTree {
+
+    private static final Comparator<ResponseTime> BY_START = Comparator.comparing(ResponseTime::getStart);
+
+    private final Map<UUID, ResponseTime> spans;
+    private final Map<UUID, List<ResponseTime>> children;
+    private final List<ResponseTime> roots;
+
+    private SpanTree(Map<UUID, ResponseTime> spans, Map<UUID, List<ResponseTime>> children, List<ResponseTime> roots) {
+
+        this.spans = spans;
+        this.children = children;
+        this.roots = roots;
+    }
+
+    /**
+     * Creates the tree of the given response times
+     * @param responseTimes
+     *  the response times to build the tree of, i.e. all response times of
+     *  {@link ResponseTimes#getResponseTimes()}
+     * @return
+     *  the tree of the response times
+     */
+    public static SpanTree of(Collection<ResponseTime> responseTimes) {
+
+        final Map<UUID, ResponseTime> spans = new HashMap<>();
+        for (ResponseTime rt : responseTimes) {
+            spans.put(rt.getUuid(), rt);
+        }
+        final Map<UUID, List<ResponseTime>> children = new HashMap<>();
+        final List<ResponseTime> roots = new ArrayList<>();
+        for (ResponseTime rt : spans.values()) {
+            final UUID parentId = rt.getParentId().orElse(null);
+            if (parentId != null && spans.containsKey(parentId)) {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(rt);
+            } else {
+                roots.add(rt);
+            }
+        }
+        roots.sort(BY_START);
+        children.values().forEach(c -> c.sort(BY_START));
+        return new SpanTree(spans, children, unmodifiableList(roots));
+    }
+
+    /**
+     * @return
+     *  the response times without a parent in the tree, ordered by their start
+     */
+    public List<ResponseTime> getRoots() {
+
+        return roots;
+    }
+
+    /**
+     * @param parent
+     *  the response time whose children should be returned
+     * @return
+     *  the response times started within the parent, ordered by their start
+     */
+    public List<ResponseTime> getChildren(ResponseTime parent) {
+
+        final List<ResponseTime> c = children.get(parent.getUuid());
+        return c == null ? emptyList() : unmodifiableList(c);
+    }
+
+    /**
+     * @param child
+     *  the response time whose parent should be returned
+     * @return
+     *  the parent of the response time or the empty optional if the response time is a root of the tree
+     */
+    public Optional<ResponseTime> getParent(ResponseTime child) {
+
+        return child.getParentId().map(spans::get);
+    }
+
+    /**
+     * Sums up the self durations of all response times per transaction, so that the time spent in nested
+     * transactions is only accounted once.
+     * @return
+     *  the total self duration per transaction name, ordered by name
+     */
+    public Map<String, Duration> getSelfDurations() {
+
+        final Map<String, Duration> result = new TreeMap<>();
+        for (ResponseTime rt : spans.values()) {
+            result.merge(rt.getTransaction(), rt.getSelfDuration(), Duration::plus);
+        }
+        return result;
+    }
+}
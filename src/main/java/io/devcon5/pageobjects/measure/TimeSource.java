@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Source of time for all measurements. Durations are measured using a monotonic, high-resolution time
+ * ({@link System#nanoTime()} for the system time source), which is not affected by adjustments of the wall
+ * clock, i.e. by NTP. Points in time are derived from the monotonic time relative to a wall-clock anchor taken
+ * when the time source was created, so that the duration between two instants of the same time source is
+ * always the exact difference of the monotonic time.
+ * <br>
+ * The current time source is global and may be replaced, i.e. by a {@link io.devcon5.pageobjects.measure.ManualTimeSource}
+ * in tests.
+ */
+public abstract class TimeSource {
+
+    private static final TimeSource SYSTEM = new SystemTimeSource();
+
+    private static volatile TimeSource current = SYSTEM;
+
+    /**
+     * The time source used for all measurements
+     * @return
+     *  the current time source
+     */
+    public static TimeSource current() {
+
+        return current;
+    }
+
+    /**
+     * Replaces the time source used for all measurements
+     * @param timeSource
+     *  the new time source
+     */
+    public static void setCurrent(TimeSource timeSource) {
+
+        current = Objects.requireNonNull(timeSource, "TimeSource must not be null");
+    }
+
+    /**
+     * Resets the time source to the system time source
+     */
+    public static void reset() {
+
+        current = SYSTEM;
+    }
+
+    /**
+     * The time source based on {@link System#nanoTime()} and the system clock
+     * @return
+     *  the system time source
+     */
+    public static TimeSource system() {
+
+        return SYSTEM;
+    }
+
+    /**
+     * The current value of the monotonic time source. The value has no relation to the wall clock, it must only be
+     * used to calculate durations and to be converted into instants of the same time source.
+     * @return
+     *  the monotonic time in nanoseconds
+     */
+    public abstract long nanoTime();
+
+    /**
+     * Converts a value of the monotonic time into a point in time.
+     * @param nanoTime
+     *  a value obtained from {@link #nanoTime()}
+     * @return
+     *  the point in time relative to the wall-clock anchor of this time source
+     */
+    public abstract Instant toInstant(long nanoTime);
+
+    /**
+     * The current point in time
+     * @return
+     *  the current instant of this time source
+     */
+    public Instant now() {
+
+        return toInstant(nanoTime());
+    }
+
+    /**
+     * The duration elapsed since a previous reading of the monotonic time
+     * @param startNanoTime
+     *  a value obtained from {@link #nanoTime()}
+     * @return
+     *  the elapsed duration
+     */
+    public Duration elapsedSince(long startNanoTime) {
+
+        return Duration.ofNanos(nanoTime() - startNanoTime);
+    }
+
+    /**
+     * Time source using {@link System#nanoTime()} anchored to the system clock at creation.
+     */
+    private static final class SystemTimeSource extends TimeSource {
+
+        private final long anchorNanos;
+        private final Instant anchor;
+
+        SystemTimeSource() {
+
+            this.anchorNanos = System.nanoTime();
+            this.anchor = Instant.now();
+        }
+
+        @Override
+        public long nanoTime() {
+
+            return System.nanoTime();
+        }
+
+        @Override
+        public Instant toInstant(long nanoTime) {
+
+            return anchor.plusNanos(nanoTime - anchorNanos);
+        }
+    }
+}
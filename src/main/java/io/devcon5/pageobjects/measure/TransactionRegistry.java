@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+
+/**
+ * Global registry of transaction names. Each transaction name is interned to a small integer id, that is used to
+ * track the transaction while it is measured. The name is only resolved when the response times are reported.
+ * Ids are assigned in the order of registration, starting with 0, and remain valid for the lifetime of the JVM.
+ * <br>
+ * The number of ids is limited. If more distinct names are used, i.e. because transaction names are built from
+ * parameters, all further new names are recorded as {@link #OVERFLOW_TRANSACTION} instead of failing the measured
+ * thread, and a warning is logged once.
+ */
+public final class TransactionRegistry {
+
+    /**
+     * Id denoting no transaction
+     */
+    public static final int NO_TRANSACTION = -1;
+
+    /**
+     * The maximum number of distinct transaction names, including the {@link #OVERFLOW_TRANSACTION}
+     */
+    public static final int MAX_TRANSACTIONS = TransactionTable.MAX_SIZE;
+
+    /**
+     * Name of the transaction all new transaction names are mapped to, once {@link #MAX_TRANSACTIONS} - 1 names
+     * have been registered
+     */
+    public static final String OVERFLOW_TRANSACTION = "OtherTransactions";
+
+    private static final Logger LOG = getLogger(TransactionRegistry.class);
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    private static final TransactionTable<String> NAMES = new TransactionTable<>();
+
+    private static volatile int size;
+
+    /**
+     * Id of the {@link #OVERFLOW_TRANSACTION} once the limit has been reached, {@link #NO_TRANSACTION} before
+     */
+    private static volatile int overflowId = NO_TRANSACTION;
+
+    private static int limit = MAX_TRANSACTIONS;
+
+    private TransactionRegistry() {
+    }
+
+    /**
+     * Determines the id of the transaction, registering the transaction name if it is not known yet.
+     * @param name
+     *  the name of the transaction
+     * @return
+     *  the id of the transaction or the id of the {@link #OVERFLOW_TRANSACTION} if the name is not registered and
+     *  the limit of transaction names has been reached
+     */
+    public static int idOf(String name) {
+
+        final Integer id = IDS.get(Objects.requireNonNull(name, "Name must not be null"));
+        if (id != null) {
+            return id;
+        }
+        final int overflow = overflowId;
+        return overflow != NO_TRANSACTION ? overflow : register(name);
+    }
+
+    private static synchronized int register(String name) {
+
+        final Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (overflowId != NO_TRANSACTION) {
+            return overflowId;
+        }
+        if (size >= limit - 1) {
+            LOG.warn("More than {} transaction names used, {} and all further new transactions are recorded as {}",
+                     limit - 1,
+                     name,
+                     OVERFLOW_TRANSACTION);
+            final Integer overflow = IDS.get(OVERFLOW_TRANSACTION);
+            overflowId = overflow != null ? overflow : add(OVERFLOW_TRANSACTION);
+            return overflowId;
+        }
+        return add(name);
+    }
+
+    private static int add(String name) {
+
+        final int next = size;
+        NAMES.set(next, name);
+        IDS.put(name, next);
+        size = next + 1;
+        return next;
+    }
+
+    /**
+     * Resolves the name of a transaction
+     * @param id
+     *  the id of the transaction
+     * @return
+     *  the name of the transaction
+     * @throws IllegalArgumentException
+     *  if no transaction with the id is registered
+     */
+    public static String nameOf(int id) {
+
+        final String name = id >= 0 && id < size ? NAMES.get(id) : null;
+        if (name == null) {
+            throw new IllegalArgumentException("Unknown transaction id " + id);
+        }
+        return name;
+    }
+
+    /**
+     * Sets the maximum number of distinct transaction names for testing the overflow, the limit must not be less
+     * than the number of registered names plus one. Setting the limit ends a previous overflow.
+     * @param maxTransactions
+     *  the maximum number of transaction names, at most {@link #MAX_TRANSACTIONS}
+     */
+    static synchronized void setLimit(int maxTransactions) {
+
+        if (maxTransactions <= size || maxTransactions > MAX_TRANSACTIONS) {
+            throw new IllegalArgumentException("Limit must be between " + (size + 1) + " and " + MAX_TRANSACTIONS);
+        }
+        limit = maxTransactions;
+        overflowId = NO_TRANSACTION;
+    }
+
+    /**
+     * @return
+     *  the number of registered transactions
+     */
+    public static int size() {
+
+        return size;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Table of values indexed by transaction id, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}.
+ * The table consists of fixed size pages that are created on first access, so that the table neither has to be
+ * resized nor locked. Lookups and updates do not allocate, once the page of an id is created.
+ * @param <T>
+ *  the type of the values
+ */
+final class TransactionTable<T> {
+
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * The maximum number of ids a table can hold
+     */
+    static final int MAX_SIZE = PAGE_SIZE * PAGE_SIZE;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> pages = new AtomicReferenceArray<>(PAGE_SIZE);
+
+    /**
+     * @param id
+     *  the transaction id
+     * @return
+     *  the value of the transaction or <code>null</code> if there is no value
+     */
+    T get(int id) {
+
+        final AtomicReferenceArray<T> page = pages.get(id >>> PAGE_BITS);
+        return page == null ? null : page.get(id & PAGE_MASK);
+    }
+
+    /**
+     * @param id
+     *  the transaction id
+     * @param value
+     *  the new value of the transaction
+     */
+    void set(int id, T value) {
+
+        page(id).set(id & PAGE_MASK, value);
+    }
+
+    /**
+     * Returns the value of the transaction, creating it if there is none.
+     * @param id
+     *  the transaction id
+     * @param factory
+     *  function to create the value for the id, may be invoked concurrently for the same id but only one value is
+     *  retained
+     * @return
+     *  the value of the transaction
+     */
+    T computeIfAbsent(int id, IntFunction<T> factory) {
+
+        final AtomicReferenceArray<T> page = page(id);
+        final int index = id & PAGE_MASK;
+        final T value = page.get(index);
+        if (value != null) {
+            return value;
+        }
+        page.compareAndSet(index, null, factory.apply(id));
+        return page.get(index);
+    }
+
+    /**
+     * Invokes the action for every value of the table
+     * @param action
+     *  the action that is invoked with the value and the transaction id
+     */
+    void forEach(ObjIntConsumer<T> action) {
+
+        for (int p = 0; p < PAGE_SIZE; p++) {
+            final AtomicReferenceArray<T> page = pages.get(p);
+            if (page != null) {
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    final T value = page.get(i);
+                    if (value != null) {
+                        action.accept(value, (p << PAGE_BITS) | i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all values from the table
+     */
+    void clear() {
+
+        for (int p = 0; p < PAGE_SIZE; p++) {
+            pages.set(p, null);
+        }
+    }
+
+    private AtomicReferenceArray<T> page(int id) {
+
+        if (id < 0 || id >= MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid transaction id " + id);
+        }
+        final int index = id >>> PAGE_BITS;
+        final AtomicReferenceArray<T> page = pages.get(index);
+        if (page != null) {
+            return page;
+        }
+        pages.compareAndSet(index, null, new AtomicReferenceArray<>(PAGE_SIZE));
+        return pages.get(index);
+    }
+}
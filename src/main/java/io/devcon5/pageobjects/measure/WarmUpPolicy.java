@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Policy determining which finished response times belong to the warm-up of a run, i.e. including JIT compilation,
+ * cache misses and connection setup. Warm-up response times are recorded separately by the default handler of
+ * {@link io.devcon5.pageobjects.measure.ResponseTimes} and are not part of the main statistics, see
+ * {@link ResponseTimes#setWarmUpPolicy(WarmUpPolicy)}. A policy keeps track of the response times it has seen,
+ * its state is reset when it is set and when the response times are cleared.
+ */
+public abstract class WarmUpPolicy {
+
+    private static final WarmUpPolicy NONE = new WarmUpPolicy() {
+
+        @Override
+        boolean isWarmUp(ResponseTime responseTime) {
+
+            return false;
+        }
+
+        @Override
+        void reset() {
+
+        }
+
+        @Override
+        public String toString() {
+
+            return "WarmUpPolicy{none}";
+        }
+    };
+
+    WarmUpPolicy() {
+
+    }
+
+    /**
+     * The policy without warm-up (default)
+     * @return
+     *  the policy treating no response time as warm-up
+     */
+    public static WarmUpPolicy none() {
+
+        return NONE;
+    }
+
+    /**
+     * Creates a policy treating the first response times of every transaction as warm-up
+     * @param samples
+     *  the number of response times per transaction that belong to the warm-up
+     * @return
+     *  a new policy
+     */
+    public static WarmUpPolicy firstSamples(int samples) {
+
+        if (samples < 0) {
+            throw new IllegalArgumentException("Samples must not be negative");
+        }
+        return new FirstSamples(samples);
+    }
+
+    /**
+     * Creates a policy treating all response times started within the duration as warm-up. The duration begins with
+     * the start of the first finished response time that is seen by the policy.
+     * @param duration
+     *  the duration of the warm-up
+     * @return
+     *  a new policy
+     */
+    public static WarmUpPolicy firstDuration(Duration duration) {
+
+        Objects.requireNonNull(duration, "Duration must not be null");
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative");
+        }
+        return new FirstDuration(duration);
+    }
+
+    /**
+     * Determines whether the finished response time belongs to the warm-up. Every response time is passed once.
+     * @param responseTime
+     *  the finished response time
+     * @return
+     *  true if the response time belongs to the warm-up
+     */
+    abstract boolean isWarmUp(ResponseTime responseTime);
+
+    /**
+     * Resets the state of the policy for a new run
+     */
+    abstract void reset();
+
+    /**
+     * Warm-up of the first response times per transaction
+     */
+    private static final class FirstSamples extends WarmUpPolicy {
+
+        private final int samples;
+        private volatile TransactionTable<AtomicLong> counts = new TransactionTable<>();
+
+        FirstSamples(int samples) {
+
+            this.samples = samples;
+        }
+
+        @Override
+        boolean isWarmUp(ResponseTime responseTime) {
+
+            return samples > 0
+                   && counts.computeIfAbsent(responseTime.getTransactionId(), tx -> new AtomicLong())
+                            .incrementAndGet() <= samples;
+        }
+
+        @Override
+        void reset() {
+
+            counts = new TransactionTable<>();
+        }
+
+        @Override
+        public String toString() {
+
+            return "WarmUpPolicy{firstSamples=" + samples + '}';
+        }
+    }
+
+    /**
+     * Warm-up of the response times started within a duration from the start of the run
+     */
+    private static final class FirstDuration extends WarmUpPolicy {
+
+        private static final long UNSET = Long.MIN_VALUE;
+
+        private final Duration duration;
+        private final long durationNanos;
+        private final AtomicLong runStart = new AtomicLong(UNSET);
+
+        FirstDuration(Duration duration) {
+
+            this.duration = duration;
+            this.durationNanos = duration.toNanos();
+        }
+
+        @Override
+        boolean isWarmUp(ResponseTime responseTime) {
+
+            final long start = SampleStore.toEpochNanos(responseTime.getStart());
+            runStart.compareAndSet(UNSET, start);
+            return start - runStart.get() < durationNanos;
+        }
+
+        @Override
+        void reset() {
+
+            runStart.set(UNSET);
+        }
+
+        @Override
+        public String toString() {
+
+            return "WarmUpPolicy{firstDuration=" + duration + '}';
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+
+/**
+ * Statistics of a transaction within a sliding time window, see
+ * {@link io.devcon5.pageobjects.measure.LiveStatistics}. The statistics are immutable.
+ */
+public final class WindowStatistics {
+
+    private final Duration window;
+    private final Duration span;
+    private final long errorCount;
+    private final Histogram histogram;
+
+    WindowStatistics(Duration window, Duration span, long errorCount, Histogram histogram) {
+
+        this.window = window;
+        this.span = span;
+        this.errorCount = errorCount;
+        this.histogram = histogram;
+    }
+
+    /**
+     * @return
+     *  the size of the window
+     */
+    public Duration getWindow() {
+
+        return window;
+    }
+
+    /**
+     * The time span actually covered by the statistics. The span is shorter than the window while the window has not
+     * been filled since the statistics were started and otherwise may differ from the window by the size of a
+     * bucket.
+     * @return
+     *  the covered time span
+     */
+    public Duration getSpan() {
+
+        return span;
+    }
+
+    /**
+     * @return
+     *  the number of transactions finished in the window
+     */
+    public long getCount() {
+
+        return histogram.getTotalCount();
+    }
+
+    /**
+     * @return
+     *  the number of failed transactions finished in the window
+     */
+    public long getErrorCount() {
+
+        return errorCount;
+    }
+
+    /**
+     * @return
+     *  the number of finished transactions per second
+     */
+    public double getThroughput() {
+
+        final long nanos = span.toNanos();
+        return nanos <= 0 ? 0 : getCount() * 1_000_000_000d / nanos;
+    }
+
+    /**
+     * @return
+     *  the ratio of failed transactions, between 0 and 1
+     */
+    public double getErrorRate() {
+
+        final long count = getCount();
+        return count == 0 ? 0 : (double) errorCount / count;
+    }
+
+    /**
+     * @return
+     *  the mean duration of the transactions finished in the window
+     */
+    public Duration getMean() {
+
+        return histogram.getMean();
+    }
+
+    /**
+     * @return
+     *  the maximum duration of the transactions finished in the window
+     */
+    public Duration getMax() {
+
+        return histogram.getMax();
+    }
+
+    /**
+     * @param percentile
+     *  the percentile between 0 and 100
+     * @return
+     *  the duration at the percentile
+     */
+    public Duration getValueAtPercentile(double percentile) {
+
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    public Duration getP90() {
+
+        return getValueAtPercentile(90);
+    }
+
+    public Duration getP95() {
+
+        return getValueAtPercentile(95);
+    }
+
+    public Duration getP99() {
+
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(128)
+            .append("WindowStatistics{")
+            .append("window=").append(window)
+            .append(", count=").append(getCount())
+            .append(", throughput=").append(String.format("%.2f/s", getThroughput()))
+            .append(", errorRate=").append(String.format("%.4f", getErrorRate()))
+            .append(", mean=").append(getMean())
+            .append(", p90=").append(getP90())
+            .append(", p95=").append(getP95())
+            .append(", p99=").append(getP99())
+            .append('}');
+        return sb.toString();
+    }
+}
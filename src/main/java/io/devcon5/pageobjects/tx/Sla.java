@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.tx;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Declares the service level of a transaction. The annotation is used together with {@link Transaction} on a page
+ * or on a transactional method and is registered in {@link io.devcon5.pageobjects.measure.ServiceLevels} when the
+ * transaction is registered. The service levels are verified by the
+ * {@link io.devcon5.pageobjects.measure.ServiceLevelVerification} rule.
+ * <pre>
+ *     &#64;Transaction("Login")
+ *     &#64;Sla(max = 2000, percentiles = &#64;Sla.Percentile(value = 95, max = 800))
+ *     public void pressLogin() { ... }
+ * </pre>
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Sla {
+
+    /**
+     * The maximum duration of every single call of the transaction. Default is no limit.
+     * @return
+     *  the maximum duration in the unit of the annotation or a negative value for no limit
+     */
+    long max() default -1;
+
+    /**
+     * The maximum durations at percentiles over all calls of the transaction.
+     * @return
+     *  the percentile targets
+     */
+    Percentile[] percentiles() default {};
+
+    /**
+     * The unit of all durations of the annotation. Default is milliseconds.
+     * @return
+     *  the time unit
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * Maximum duration at a percentile over all calls of a transaction
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({})
+    @interface Percentile {
+
+        /**
+         * @return
+         *  the percentile between 0 and 100, i.e. 95 for the 95th percentile
+         */
+        double value();
+
+        /**
+         * @return
+         *  the maximum duration at the percentile in the unit of the {@link Sla}
+         */
+        long max();
+    }
+}
@@ -16,19 +16,43 @@
 
 package io.devcon5.pageobjects.tx;
 
+import static io.devcon5.pageobjects.measure.TransactionRegistry.NO_TRANSACTION;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.devcon5.pageobjects.measure.OverheadCalibration;
+import io.devcon5.pageobjects.measure.ServiceLevel;
+import io.devcon5.pageobjects.measure.ServiceLevels;
+import io.devcon5.pageobjects.measure.TransactionRegistry;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 
 /**
- * Utility class to enhance a Page instance with transaction support.
+ * Utility class to enhance a Page instance with transaction support. The transaction names of a class are determined
+ * and registered in the {@link io.devcon5.pageobjects.measure.TransactionRegistry} once, when the first proxy for
+ * the class is built, so that intercepted calls only deal with transaction ids. If a transactional method throws an
+ * exception, the transaction is ended with the exception, so that it is recorded as failed and does not distort the
+ * durations of the successful transactions. The exception is rethrown unchanged to the caller.
  */
 public final class TransactionHelper {
 
+    /**
+     * Transaction ids of the methods per class, {@link TransactionRegistry#NO_TRANSACTION} for methods that are no
+     * transaction
+     */
+    private static final Map<Class<?>, Map<Method, Integer>> METHOD_TX_IDS = new ConcurrentHashMap<>();
+
+    /**
+     * Transaction ids of classes
+     */
+    private static final Map<Class<?>, Integer> CLASS_TX_IDS = new ConcurrentHashMap<>();
+
     private TransactionHelper() {
     }
 
@@ -44,24 +68,113 @@ public final class TransactionHelper {
      */
     @SuppressWarnings("unchecked")
     public static <T extends TransactionSupport> T addTransactionSupport(TransactionSupport transactionSupport) {
-        return (T) Enhancer.create(transactionSupport.getClass(), (MethodInterceptor) (obj, method, args, proxy) -> {
-            final Optional<String> txName = getTxName(transactionSupport, method);
+        final Class<?> type = transactionSupport.getClass();
+        final Map<Method, Integer> txIds = getMethodTxIds(type);
+        return (T) Enhancer.create(type, (MethodInterceptor) (obj, method, args, proxy) -> {
+            final int txId = getTxId(type, txIds, method);
+            if (txId != NO_TRANSACTION) {
+                transactionSupport.txBegin(txId);
+            }
+            final Object result;
             try {
-                txName.ifPresent(transactionSupport::txBegin);
-                Object result = method.invoke(transactionSupport, args);
-                //dynamically enhance return values, if they are transactionSupport and not yet enhanced
-                //this is required, i.e. if method return 'this' or create new objects which will
-                //not be enhanced
-                if (!isCGLibProxy(result) && result instanceof TransactionSupport) {
-                    result = addTransactionSupport(transactionSupport);
+                result = method.invoke(transactionSupport, args);
+            } catch (InvocationTargetException e) {
+                if (txId != NO_TRANSACTION) {
+                    transactionSupport.txEnd(txId, e.getCause());
                 }
-                return result;
-            } finally {
-                txName.ifPresent(transactionSupport::txEnd);
+                //propagate the exception of the page, not the reflection wrapper
+                throw e.getCause();
+            } catch (Throwable e) {
+                //i.e. IllegalAccessException of the reflective call, the transaction must not stay open
+                if (txId != NO_TRANSACTION) {
+                    transactionSupport.txEnd(txId, e);
+                }
+                throw e;
+            }
+            if (txId != NO_TRANSACTION) {
+                transactionSupport.txEnd(txId);
             }
+            //dynamically enhance return values, if they are transactionSupport and not yet enhanced
+            //this is required, i.e. if method return 'this' or create new objects which will
+            //not be enhanced
+            if (!isCGLibProxy(result) && result instanceof TransactionSupport) {
+                return addTransactionSupport(transactionSupport);
+            }
+            return result;
         });
     }
 
+    /**
+     * Calibrates the overhead of a transactional method, that is the time the interception, the reflective invocation
+     * and the bookkeeping of the collector add to the recorded duration, using an empty transactional method. See
+     * {@link OverheadCalibration} for enabling the compensation of the overhead.
+     * @return
+     *  the calibrated overhead
+     */
+    public static Duration calibrateOverhead() {
+
+        final CalibrationTransaction tx = addTransactionSupport(new CalibrationTransaction());
+        return OverheadCalibration.calibrate(tx::noOp);
+    }
+
+    /**
+     * Determines the transaction ids of all methods of the type, registering their transaction names.
+     * @param type
+     *  the type whose methods should be registered
+     * @return
+     *  the transaction ids of the methods of the type
+     */
+    private static Map<Method, Integer> getMethodTxIds(Class<?> type) {
+
+        return METHOD_TX_IDS.computeIfAbsent(type, t -> {
+            final Map<Method, Integer> txIds = new ConcurrentHashMap<>();
+            for (Method method : t.getMethods()) {
+                txIds.put(method, registerTx(t, method));
+            }
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    txIds.putIfAbsent(method, registerTx(t, method));
+                }
+            }
+            return txIds;
+        });
+    }
+
+    private static int getTxId(Class<?> type, Map<Method, Integer> txIds, Method method) {
+
+        final Integer txId = txIds.get(method);
+        return txId != null ? txId : txIds.computeIfAbsent(method, m -> registerTx(type, m));
+    }
+
+    private static int registerTx(Class<?> type, Method method) {
+
+        final int txId = getTxName(type, method).map(TransactionRegistry::idOf).orElse(NO_TRANSACTION);
+        registerSla(txId, method.getAnnotation(Sla.class));
+        return txId;
+    }
+
+    /**
+     * Registers the service level of a transaction if it is declared
+     * @param txId
+     *  the id of the transaction
+     * @param sla
+     *  the service level annotation of the transaction or <code>null</code> if it has none
+     */
+    private static void registerSla(int txId, Sla sla) {
+
+        if (txId == NO_TRANSACTION || sla == null) {
+            return;
+        }
+        final ServiceLevel.ServiceLevelBuilder builder = ServiceLevel.builder();
+        if (sla.max() >= 0) {
+            builder.max(Duration.ofNanos(sla.unit().toNanos(sla.max())));
+        }
+        for (Sla.Percentile p : sla.percentiles()) {
+            builder.percentile(p.value(), Duration.ofNanos(sla.unit().toNanos(p.max())));
+        }
+        ServiceLevels.define(txId, builder.build());
+    }
+
     /**
      * Determines whether an instance is a CGLib Proxy.
      * @param object
@@ -88,14 +201,30 @@ public final class TransactionHelper {
      */
     public static Optional<String> getTxName(Object object, final Method method) {
 
+        return getTxName(object.getClass(), method);
+    }
+
+    private static Optional<String> getTxName(Class<?> type, final Method method) {
+
         return Optional.ofNullable(method.getAnnotation(Transaction.class))
-                       .map(t -> getClassTxName(object.getClass())
+                       .map(t -> getClassTxName(type)
                                .map(ctx -> ctx + '_')
                                .orElse("") + (isEmpty(t.value())
                                               ? method.getName()
                                               : t.value()));
     }
 
+    /**
+     * Empty transaction for calibrating the overhead of a transactional method
+     */
+    static class CalibrationTransaction implements TransactionSupport {
+
+        @Transaction(OverheadCalibration.CALIBRATION_TX)
+        public void noOp() {
+            //no operation, only the overhead is measured
+        }
+    }
+
     /**
      * Determines the transaction name for the class. The class must be annoted with {@link Transaction} otherwise an
      * empty optional is returned. The name of the transaction is either the value of the annotation of the simple name
@@ -113,4 +242,22 @@ public final class TransactionHelper {
                                  ? type.getSimpleName()
                                  : t.value());
     }
+
+    /**
+     * Determines the transaction id for the class, registering its transaction name and service level.
+     *
+     * @param type
+     *         the type for which a transaction id should be determined
+     *
+     * @return the id of the transaction or {@link TransactionRegistry#NO_TRANSACTION} if the class is not
+     * transactional
+     */
+    public static int getClassTxId(final Class<?> type) {
+
+        return CLASS_TX_IDS.computeIfAbsent(type, t -> {
+            final int txId = getClassTxName(t).map(TransactionRegistry::idOf).orElse(NO_TRANSACTION);
+            registerSla(txId, t.getAnnotation(Sla.class));
+            return txId;
+        });
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.tx;
+
+import java.lang.reflect.Method;
+
+/**
+ * Determines which transaction methods of {@link TransactionSupport} an implementation overrides. The transaction
+ * proxies only invoke the methods taking a transaction id, so the default implementations of these methods delegate
+ * to overridden methods taking a transaction name, keeping implementations working that were written before the
+ * transaction ids were introduced. The overrides are determined once per class.
+ */
+final class TransactionOverrides {
+
+    private static final String CGLIB_PROXY = "$$EnhancerByCGLIB$$";
+
+    private static final ClassValue<TransactionOverrides> OVERRIDES = new ClassValue<TransactionOverrides>() {
+
+        @Override
+        protected TransactionOverrides computeValue(Class<?> type) {
+
+            return new TransactionOverrides(type);
+        }
+    };
+
+    private final boolean txBeginByName;
+    private final boolean txEndByName;
+    private final boolean txEndById;
+
+    private TransactionOverrides(Class<?> type) {
+
+        Class<?> actual = type;
+        while (actual.getName().contains(CGLIB_PROXY) && actual.getSuperclass() != null) {
+            actual = actual.getSuperclass();
+        }
+        this.txBeginByName = isOverridden(actual, "txBegin", String.class);
+        this.txEndByName = isOverridden(actual, "txEnd", String.class);
+        this.txEndById = isOverridden(actual, "txEnd", int.class);
+    }
+
+    /**
+     * @param type
+     *  the class implementing {@link TransactionSupport}
+     * @return
+     *  the overridden transaction methods of the class
+     */
+    static TransactionOverrides of(Class<?> type) {
+
+        return OVERRIDES.get(type);
+    }
+
+    private static boolean isOverridden(Class<?> type, String name, Class<?> parameterType) {
+
+        try {
+            final Method method = type.getMethod(name, parameterType);
+            return method.getDeclaringClass() != TransactionSupport.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return
+     *  true if the class overrides {@link TransactionSupport#txBegin(String)}
+     */
+    boolean isTxBeginByName() {
+
+        return txBeginByName;
+    }
+
+    /**
+     * @return
+     *  true if the class overrides {@link TransactionSupport#txEnd(String)}
+     */
+    boolean isTxEndByName() {
+
+        return txEndByName;
+    }
+
+    /**
+     * @return
+     *  true if the class overrides {@link TransactionSupport#txEnd(int)}
+     */
+    boolean isTxEndById() {
+
+        return txEndById;
+    }
+}
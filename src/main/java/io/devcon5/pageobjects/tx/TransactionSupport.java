@@ -17,8 +17,11 @@
 package io.devcon5.pageobjects.tx;
 
 import java.time.Instant;
+import java.util.Optional;
 
 import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.TimeSource;
+import io.devcon5.pageobjects.measure.TransactionRegistry;
 
 /**
  * Adds transaction support to a page object. Using transactions, response times of accesses to page objects can be
@@ -43,7 +46,66 @@ public interface TransactionSupport {
      *  the name of the transaction to stop
      */
     default void txEnd(String txName) {
-        Instant now = Instant.now();
+        Instant now = TimeSource.current().now();
         ResponseTimeCollector.current().ifPresent(rtc -> rtc.stopTx(txName, now));
     }
+
+    /**
+     * Starts a registered transaction. This method is invoked by the transaction proxies, so that the name of
+     * the transaction is only resolved when the response times are reported. If the implementation overrides
+     * {@link #txBegin(String)}, the overridden method is invoked with the name of the transaction instead.
+     * @param txId
+     *  the id of the transaction to start, see {@link io.devcon5.pageobjects.measure.TransactionRegistry}
+     */
+    default void txBegin(int txId) {
+        if (TransactionOverrides.of(getClass()).isTxBeginByName()) {
+            txBegin(TransactionRegistry.nameOf(txId));
+            return;
+        }
+        final Optional<ResponseTimeCollector> rtc = ResponseTimeCollector.current();
+        if (rtc.isPresent()) {
+            rtc.get().startTx(txId);
+        }
+    }
+
+    /**
+     * Stops a registered transaction. This method is invoked by the transaction proxies. If the implementation
+     * overrides {@link #txEnd(String)}, the overridden method is invoked with the name of the transaction instead.
+     * @param txId
+     *  the id of the transaction to stop
+     */
+    default void txEnd(int txId) {
+        if (TransactionOverrides.of(getClass()).isTxEndByName()) {
+            txEnd(TransactionRegistry.nameOf(txId));
+            return;
+        }
+        final Instant now = TimeSource.current().now();
+        final Optional<ResponseTimeCollector> rtc = ResponseTimeCollector.current();
+        if (rtc.isPresent()) {
+            rtc.get().stopTx(txId, now);
+        }
+    }
+
+    /**
+     * Stops a registered transaction that failed. This method is invoked by the transaction proxies if the
+     * transactional method threw an exception, so that the response time is recorded with the outcome of the
+     * exception, see {@link io.devcon5.pageobjects.measure.Outcome#of(Throwable)}. If the implementation overrides
+     * {@link #txEnd(int)} or {@link #txEnd(String)}, the overridden method is invoked instead, without the outcome.
+     * @param txId
+     *  the id of the transaction to stop
+     * @param exception
+     *  the exception the transaction failed with
+     */
+    default void txEnd(int txId, Throwable exception) {
+        final TransactionOverrides overrides = TransactionOverrides.of(getClass());
+        if (overrides.isTxEndById() || overrides.isTxEndByName()) {
+            txEnd(txId);
+            return;
+        }
+        final Instant now = TimeSource.current().now();
+        final Optional<ResponseTimeCollector> rtc = ResponseTimeCollector.current();
+        if (rtc.isPresent()) {
+            rtc.get().stopTx(txId, now, exception);
+        }
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+
+/**
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ContextCarrierTest {
+
+    @Mock
+    private WebDriver webDriver;
+
+    private SeleniumContext context;
+
+    private ResponseTimeCollector collector = new ResponseTimeCollector();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new SeleniumContext(() -> webDriver);
+        context.init();
+        collector.startCollecting();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        collector.stopCollecting();
+        context.destroy();
+    }
+
+    @Test
+    public void testCapture() throws Exception {
+        //act
+        ContextCarrier carrier = ContextCarrier.capture();
+
+        //assert
+        assertSame(context, carrier.getContext().get());
+        assertSame(collector, carrier.getCollector().get());
+    }
+
+    @Test
+    public void testWrap_callable_stateInstalled() throws Exception {
+        //prepare
+        ContextCarrier carrier = ContextCarrier.capture();
+
+        //act
+        Future<Optional<SeleniumContext>> ctx = executor.submit(carrier.wrap(SeleniumContext::currentContext));
+        Future<Optional<ResponseTimeCollector>> rtc = executor.submit(carrier.wrap(ResponseTimeCollector::current));
+
+        //assert
+        assertSame(context, ctx.get().get());
+        assertSame(collector, rtc.get().get());
+    }
+
+    @Test
+    public void testWrap_runnable_stateRestored() throws Exception {
+        //prepare
+        ContextCarrier carrier = ContextCarrier.capture();
+        executor.submit(carrier.wrap(() -> assertTrue(SeleniumContext.currentContext().isPresent()))).get();
+
+        //act
+        Future<Boolean> ctxPresent = executor.submit(() -> SeleniumContext.currentContext().isPresent());
+        Future<Boolean> rtcPresent = executor.submit(() -> ResponseTimeCollector.current().isPresent());
+
+        //assert
+        assertFalse(ctxPresent.get());
+        assertFalse(rtcPresent.get());
+    }
+
+    @Test
+    public void testRun_emptyCarrier_unbindsState() throws Exception {
+        //prepare
+        ContextCarrier carrier = executor.submit(ContextCarrier::capture).get();
+
+        //act
+        carrier.run(() -> {
+            assertFalse(SeleniumContext.currentContext().isPresent());
+            assertFalse(ResponseTimeCollector.current().isPresent());
+        });
+
+        //assert
+        assertSame(context, SeleniumContext.currentContext().get());
+        assertSame(collector, ResponseTimeCollector.current().get());
+    }
+
+    @Test
+    public void testPropagating() throws Exception {
+        //act
+        String driver = CompletableFuture.supplyAsync(() -> SeleniumContext.currentDriver().map(d -> "present").orElse("absent"),
+                                                   ContextCarrier.propagating(executor)).get();
+
+        //assert
+        assertEquals("present", driver);
+    }
+}
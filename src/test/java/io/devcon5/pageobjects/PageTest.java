@@ -16,11 +16,21 @@
 
 package io.devcon5.pageobjects;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.devcon5.pageobjects.measure.Outcome;
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.tx.Transaction;
+import io.devcon5.pageobjects.tx.TransactionSupport;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -115,6 +125,32 @@ public class PageTest {
         verify(webElement).click();
     }
 
+    @Test
+    public void testNavigateTo_failedLoad_recordedAsFailure() throws Throwable {
+        //prepare
+        AtomicReference<ResponseTime> rtEndRef = new AtomicReference<>();
+        ResponseTimes.onMeasureEnd(rtEndRef::set);
+        ResponseTimeCollector collector = new ResponseTimeCollector();
+        collector.startCollecting();
+
+        //act
+        try {
+            selenium.execute(() -> Page.navigateTo(TestFailingPage.class));
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            //expected
+        } finally {
+            collector.stopCollecting();
+            ResponseTimes.resetResponseTimeHandlers();
+        }
+
+        //assert
+        ResponseTime rt = rtEndRef.get();
+        assertNotNull(rt);
+        assertEquals("FailingPage", rt.getTransaction());
+        assertEquals(Outcome.FAILURE, rt.getOutcome());
+    }
+
     @Locator("contextRoot")
     public static class TestUrlPage implements Page {
 
@@ -125,4 +161,13 @@ public class PageTest {
 
     }
 
+    @Transaction("FailingPage")
+    public static class TestFailingPage implements Page, TransactionSupport {
+
+        @Override
+        public void loadPage() {
+            throw new IllegalStateException("page not loaded");
+        }
+    }
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Benchmark for the number of concurrent users a single JVM can sustain. Every user runs in its own scope with a
+ * headless driver and performs a number of measured transactions, separated by a think time. As long as a single
+ * run takes about {@code iterations * thinkTime}, the JVM sustains the number of users. Compare the
+ * {@code virtual=true} (user threads, virtual if supported) with the {@code virtual=false} (platform thread pool)
+ * results to see the effect of virtual threads. Run with
+ * <pre>
+ *     java -cp target/test-classes:... io.devcon5.pageobjects.UserThreadsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UserThreadsBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int users;
+
+    @Param({"10"})
+    public int iterations;
+
+    @Param({"100"})
+    public long thinkTime;
+
+    @Param({"true", "false"})
+    public boolean virtual;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        executor = virtual ? UserThreads.newUserExecutor("user-") : Executors.newCachedThreadPool();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.shutdownNow();
+        ResponseTimes.clear();
+    }
+
+    @Benchmark
+    public int runUsers() throws Exception {
+
+        final List<Future<Integer>> results = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            results.add(executor.submit(UserThreads.scoped(Drivers.HEADLESS, "about:blank", this::userFlow)));
+        }
+        int completed = 0;
+        for (Future<Integer> result : results) {
+            completed += result.get();
+        }
+        return completed;
+    }
+
+    private Integer userFlow() throws InterruptedException {
+
+        final ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+        final WebDriver driver = SeleniumContext.currentDriver().get();
+        for (int i = 0; i < iterations; i++) {
+            rtc.startTx("blank");
+            driver.get("about:blank");
+            rtc.stopTx("blank");
+            Thread.sleep(thinkTime);
+        }
+        return iterations;
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserThreadsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+
+/**
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserThreadsTest {
+
+    @Mock
+    private WebDriver webDriver;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = UserThreads.newUserExecutor("user-");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIsVirtualThreadSupported() throws Exception {
+        //prepare
+        boolean expected;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            expected = true;
+        } catch (NoSuchMethodException e) {
+            expected = false;
+        }
+
+        //act
+        boolean supported = UserThreads.isVirtualThreadSupported();
+
+        //assert
+        assertEquals(expected, supported);
+    }
+
+    @Test
+    public void testThreadFactory_namedThreads() throws Exception {
+        //act
+        Thread t = UserThreads.threadFactory("test-").newThread(() -> {});
+
+        //assert
+        assertEquals("test-0", t.getName());
+        assertTrue(t.isDaemon());
+    }
+
+    @Test
+    public void testScoped_contextBoundDuringFlow() throws Exception {
+        //prepare
+        AtomicReference<WebDriver> driver = new AtomicReference<>();
+
+        //act
+        Future<String> result = executor.submit(UserThreads.scoped(() -> webDriver, "http://localhost", () -> {
+            driver.set(SeleniumContext.currentDriver().get());
+            assertTrue(ResponseTimeCollector.current().isPresent());
+            return SeleniumContext.resolve("page");
+        }));
+
+        //assert
+        assertEquals("http://localhost/page", result.get());
+        assertSame(webDriver, driver.get());
+    }
+
+    @Test
+    public void testScoped_contextReleasedAfterFlow() throws Exception {
+        //prepare
+        AtomicReference<Boolean> boundDuringFlow = new AtomicReference<>();
+
+        //act
+        UserThreads.scoped(() -> webDriver, "http://localhost", () -> {
+            boundDuringFlow.set(SeleniumContext.currentContext().isPresent());
+            return null;
+        }).call();
+
+        //assert
+        assertTrue(boundDuringFlow.get());
+        assertFalse(SeleniumContext.currentContext().isPresent());
+        assertFalse(ResponseTimeCollector.current().isPresent());
+    }
+
+    @Test
+    public void testScoped_separateCollectorPerUser() throws Exception {
+        //prepare
+        AtomicReference<ResponseTimeCollector> rtc1 = new AtomicReference<>();
+        AtomicReference<ResponseTimeCollector> rtc2 = new AtomicReference<>();
+
+        //act
+        executor.submit(UserThreads.scoped(() -> webDriver, "http://localhost", () -> {
+            rtc1.set(ResponseTimeCollector.current().get());
+            return null;
+        })).get();
+        executor.submit(UserThreads.scoped(() -> webDriver, "http://localhost", () -> {
+            rtc2.set(ResponseTimeCollector.current().get());
+            return null;
+        })).get();
+
+        //assert
+        assertNotSame(rtc1.get(), rtc2.get());
+    }
+
+    @Test
+    public void testScoped_collectorProvider() throws Exception {
+        //prepare
+        ResponseTimeCollector collector = ResponseTimeCollector.builder().build();
+        AtomicReference<ResponseTimeCollector> rtc = new AtomicReference<>();
+
+        //act
+        executor.submit(UserThreads.scoped(() -> webDriver, () -> collector, "http://localhost", () -> {
+            rtc.set(ResponseTimeCollector.current().get());
+            return null;
+        })).get();
+
+        //assert
+        assertSame(collector, rtc.get());
+    }
+}
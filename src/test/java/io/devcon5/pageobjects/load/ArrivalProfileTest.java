@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ArrivalProfileTest {
+
+    @Test
+    public void testConstant_arrivals() throws Exception {
+        //prepare
+        ArrivalProfile profile = ArrivalProfile.constant(10, Duration.ofSeconds(1));
+
+        //act
+        List<Long> arrivals = toList(profile.arrivals());
+
+        //assert
+        assertEquals(10, arrivals.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 100_000_000L, (long) arrivals.get(i));
+        }
+    }
+
+    @Test
+    public void testRamp_arrivals() throws Exception {
+        //prepare
+        ArrivalProfile profile = ArrivalProfile.ramp(0, 10, Duration.ofSeconds(2));
+
+        //act
+        List<Long> arrivals = toList(profile.arrivals());
+
+        //assert
+        //integral of the rate: 10 arrivals over 2 seconds
+        assertEquals(10, arrivals.size());
+        assertEquals(0L, (long) arrivals.get(0));
+        //rate(t) = 5t, arrivals(t) = 2.5 t^2, the 1st arrival after the start is at sqrt(0.4)
+        assertEquals(Math.sqrt(0.4), arrivals.get(1) / 1e9, 1e-6);
+        //arrivals are getting denser
+        assertTrue(arrivals.get(9) - arrivals.get(8) < arrivals.get(2) - arrivals.get(1));
+    }
+
+    @Test
+    public void testSteps_arrivals() throws Exception {
+        //prepare
+        ArrivalProfile profile = ArrivalProfile.steps(1, 1, 3, Duration.ofSeconds(2));
+
+        //act
+        List<Long> arrivals = toList(profile.arrivals());
+
+        //assert
+        //2 + 4 + 6 arrivals
+        assertEquals(12, arrivals.size());
+        assertEquals(Duration.ofSeconds(6), profile.getDuration());
+        assertEquals(2_000_000_000L, (long) arrivals.get(2));
+        assertEquals(2_500_000_000L, (long) arrivals.get(3));
+        assertEquals(4_000_000_000L, (long) arrivals.get(6));
+    }
+
+    @Test
+    public void testThenConstant_zeroRate_pause() throws Exception {
+        //prepare
+        ArrivalProfile profile = ArrivalProfile.constant(1, Duration.ofSeconds(2))
+                                               .thenConstant(0, Duration.ofSeconds(5))
+                                               .thenConstant(1, Duration.ofSeconds(1));
+
+        //act
+        List<Long> arrivals = toList(profile.arrivals());
+
+        //assert
+        assertEquals(3, arrivals.size());
+        assertEquals(7_000_000_000L, (long) arrivals.get(2));
+    }
+
+    @Test
+    public void testRateAt() throws Exception {
+        //prepare
+        ArrivalProfile profile = ArrivalProfile.ramp(0, 10, Duration.ofSeconds(10))
+                                               .thenConstant(10, Duration.ofSeconds(10));
+
+        //act & assert
+        assertEquals(0, profile.rateAt(Duration.ZERO), 1e-9);
+        assertEquals(5, profile.rateAt(Duration.ofSeconds(5)), 1e-9);
+        assertEquals(10, profile.rateAt(Duration.ofSeconds(15)), 1e-9);
+        assertEquals(0, profile.rateAt(Duration.ofSeconds(25)), 1e-9);
+    }
+
+    @Test
+    public void testArrivals_exhausted() throws Exception {
+        //prepare
+        PrimitiveIterator.OfLong arrivals = ArrivalProfile.constant(1, Duration.ofSeconds(1)).arrivals();
+
+        //act
+        arrivals.nextLong();
+
+        //assert
+        assertFalse(arrivals.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstant_negativeRate_exception() throws Exception {
+        ArrivalProfile.constant(-1, Duration.ofSeconds(1));
+    }
+
+    private static List<Long> toList(PrimitiveIterator.OfLong it) {
+        final List<Long> result = new ArrayList<>();
+        it.forEachRemaining((long l) -> result.add(l));
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.devcon5.pageobjects.measure.Outcome;
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+
+/**
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ArrivalRateSchedulerTest {
+
+    @Mock
+    private WebDriver webDriver;
+
+    @After
+    public void tearDown() throws Exception {
+        ResponseTimes.clear();
+    }
+
+    @Test
+    public void testRun_arrivalsIndependentOfResponseTime() throws Exception {
+        //prepare
+        ArrivalRateScheduler scheduler = ArrivalRateScheduler.builder()
+                                                             .driver(() -> webDriver)
+                                                             .baseUrl("http://localhost")
+                                                             .profile(ArrivalProfile.constant(50, Duration.ofMillis(200)))
+                                                             .scenario(user -> Thread.sleep(100))
+                                                             .build();
+
+        //act
+        LoadResult result = scheduler.run();
+
+        //assert
+        //10 iterations of 100ms within 200ms can only be achieved if they are started concurrently
+        assertEquals(10, result.getIterations());
+        assertTrue(result.getDuration().compareTo(Duration.ofMillis(500)) < 0);
+        List<ResponseTime> iterations = result.getResponseTimes().get("Iteration");
+        assertEquals(10, iterations.size());
+    }
+
+    @Test
+    public void testRun_maxConcurrency_queueingDelay() throws Exception {
+        //prepare
+        ArrivalRateScheduler scheduler = ArrivalRateScheduler.builder()
+                                                             .driver(() -> webDriver)
+                                                             .baseUrl("http://localhost")
+                                                             .profile(ArrivalProfile.constant(100, Duration.ofMillis(40)))
+                                                             .maxConcurrency(1)
+                                                             .transaction("tx")
+                                                             .scenario(user -> Thread.sleep(50))
+                                                             .build();
+
+        //act
+        LoadResult result = scheduler.run();
+
+        //assert
+        List<ResponseTime> iterations = result.getResponseTimes().get("tx");
+        assertEquals(4, iterations.size());
+        //the last iteration had to wait for the 3 preceding ones
+        Duration maxDelay = iterations.stream()
+                                      .map(ResponseTime::getQueueingDelay)
+                                      .max(Duration::compareTo)
+                                      .get();
+        assertTrue(maxDelay.compareTo(Duration.ofMillis(100)) > 0);
+    }
+
+    @Test
+    public void testRun_failuresCounted() throws Exception {
+        //prepare
+        ArrivalRateScheduler scheduler = ArrivalRateScheduler.builder()
+                                                             .driver(() -> webDriver)
+                                                             .baseUrl("http://localhost")
+                                                             .profile(ArrivalProfile.constant(100, Duration.ofMillis(50)))
+                                                             .scenario(user -> {
+                                                                 throw new Exception("failed");
+                                                             })
+                                                             .build();
+
+        //act
+        LoadResult result = scheduler.run();
+
+        //assert
+        assertEquals(5, result.getIterations());
+        assertEquals(5, result.getFailures());
+        List<ResponseTime> iterations = result.getResponseTimes().get("Iteration");
+        assertEquals(5, iterations.size());
+        assertTrue(iterations.stream().allMatch(rt -> rt.getOutcome() == Outcome.FAILURE));
+        assertEquals(Exception.class, iterations.get(0).getExceptionClass().get());
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.devcon5.pageobjects.SeleniumContext;
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimeSummary;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+
+/**
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LoadGeneratorTest {
+
+    @Mock
+    private WebDriver webDriver;
+
+    @After
+    public void tearDown() throws Exception {
+        ResponseTimes.clear();
+    }
+
+    @Test
+    public void testRun_iterationLimit() throws Exception {
+        //prepare
+        AtomicInteger executions = new AtomicInteger();
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(3)
+                                         .iterations(4)
+                                         .scenario(user -> {
+                                             executions.incrementAndGet();
+                                             ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+                                             rtc.startTx("tx");
+                                             rtc.stopTx("tx");
+                                         })
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertEquals(12, executions.get());
+        assertEquals(12, result.getIterations());
+        assertEquals(0, result.getFailures());
+        assertEquals(12, result.getResponseTimes().get("tx").size());
+    }
+
+    @Test
+    public void testRun_ownContextPerUser() throws Exception {
+        //prepare
+        Map<Integer, SeleniumContext> contexts = new ConcurrentHashMap<>();
+        Set<ResponseTimeCollector> collectors = ConcurrentHashMap.newKeySet();
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(5)
+                                         .iterations(2)
+                                         .scenario(user -> {
+                                             contexts.put(user.getId(), SeleniumContext.currentContext().get());
+                                             collectors.add(ResponseTimeCollector.current().get());
+                                         })
+                                         .build();
+
+        //act
+        gen.run();
+
+        //assert
+        assertEquals(5, contexts.size());
+        assertEquals(5, collectors.size());
+        assertEquals(5, contexts.values().stream().distinct().count());
+    }
+
+    @Test
+    public void testRun_failuresCounted() throws Exception {
+        //prepare
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(2)
+                                         .iterations(3)
+                                         .scenario(user -> {
+                                             if (user.getIteration() == 1) {
+                                                 throw new Exception("failed");
+                                             }
+                                         })
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertEquals(6, result.getIterations());
+        assertEquals(2, result.getFailures());
+    }
+
+    @Test
+    public void testRun_assertionErrorCounted_userContinues() throws Exception {
+        //prepare
+        AtomicInteger executions = new AtomicInteger();
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(2)
+                                         .iterations(3)
+                                         .scenario(user -> {
+                                             executions.incrementAndGet();
+                                             if (user.getIteration() == 0) {
+                                                 throw new AssertionError("element not found");
+                                             }
+                                         })
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertEquals(6, executions.get());
+        assertEquals(6, result.getIterations());
+        assertEquals(2, result.getFailures());
+    }
+
+    @Test
+    public void testRun_previousResponseTimesNotIncluded() throws Exception {
+        //prepare
+        ResponseTimes.collect(new ResponseTime("tx", Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("before", Instant.now(), Duration.ofMillis(10)));
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(1)
+                                         .iterations(2)
+                                         .scenario(user -> {
+                                             ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+                                             rtc.startTx("tx");
+                                             rtc.stopTx("tx");
+                                         })
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertEquals(2, result.getResponseTimes().get("tx").size());
+        assertFalse(result.getResponseTimes().containsKey("before"));
+        assertEquals(2, result.getSummary().getRow("tx").get().getRecorded().getTotalCount());
+        assertFalse(result.getSummary().getRow("before").isPresent());
+    }
+
+    @Test
+    public void testRun_durationLimit_rampUpAndDown() throws Exception {
+        //prepare
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(4)
+                                         .rampUp(Duration.ofMillis(100))
+                                         .steadyState(Duration.ofMillis(200))
+                                         .rampDown(Duration.ofMillis(100))
+                                         .scenario(user -> Thread.sleep(10))
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertTrue(result.getDuration().compareTo(Duration.ofMillis(375)) >= 0);
+        assertTrue(result.getDuration().compareTo(Duration.ofSeconds(2)) < 0);
+        assertTrue(result.getIterations() > 4);
+    }
+
+    @Test
+    public void testRun_pacing() throws Exception {
+        //prepare
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(2)
+                                         .iterations(3)
+                                         .pacing(Duration.ofMillis(100))
+                                         .scenario(user -> {})
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        //no pacing after the last iteration
+        assertTrue(result.getDuration().compareTo(Duration.ofMillis(200)) >= 0);
+        assertTrue(result.getDuration().compareTo(Duration.ofMillis(300)) < 0);
+        assertEquals(4, result.getResponseTimes().get(VirtualUser.PACING_TX).size());
+    }
+
+    @Test
+    public void testRun_thinkTime() throws Exception {
+        //prepare
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(2)
+                                         .iterations(2)
+                                         .thinkTime(ThinkTime.fixed(Duration.ofMillis(10)))
+                                         .scenario(VirtualUser::think)
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        assertEquals(4, result.getResponseTimes().get(VirtualUser.THINK_TIME_TX).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuild_noLimit_exception() throws Exception {
+        LoadGenerator.builder().driver(() -> webDriver).baseUrl("http://localhost").scenario(user -> {}).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuild_rampDownWithoutSteadyState_exception() throws Exception {
+        LoadGenerator.builder()
+                     .driver(() -> webDriver)
+                     .baseUrl("http://localhost")
+                     .iterations(1)
+                     .rampDown(Duration.ofMillis(100))
+                     .scenario(user -> {})
+                     .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuild_noUsers_exception() throws Exception {
+        LoadGenerator.builder()
+                     .driver(() -> webDriver)
+                     .baseUrl("http://localhost")
+                     .users(0)
+                     .iterations(1)
+                     .scenario(user -> {})
+                     .build();
+    }
+
+    @Test
+    public void testRun_correctCoordinatedOmission() throws Exception {
+        //prepare
+        LoadGenerator gen = LoadGenerator.builder()
+                                         .driver(() -> webDriver)
+                                         .baseUrl("http://localhost")
+                                         .users(1)
+                                         .iterations(2)
+                                         .pacing(Duration.ofMillis(20))
+                                         .correctCoordinatedOmission()
+                                         .scenario(user -> {
+                                             ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+                                             rtc.startTx("tx");
+                                             if (user.getIteration() == 0) {
+                                                 Thread.sleep(100);
+                                             }
+                                             rtc.stopTx("tx");
+                                         })
+                                         .build();
+
+        //act
+        LoadResult result = gen.run();
+
+        //assert
+        ResponseTimeSummary.Row row = result.getSummary().getRow("tx").get();
+        assertEquals(2, row.getRecorded().getTotalCount());
+        assertTrue(row.getCorrected().get().getTotalCount() >= 5);
+        assertFalse(ResponseTimes.getExpectedInterval().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuild_correctCoordinatedOmission_withoutFixedPacing_exception() throws Exception {
+        LoadGenerator.builder()
+                     .driver(() -> webDriver)
+                     .baseUrl("http://localhost")
+                     .iterations(1)
+                     .pacing(ThinkTime.uniform(Duration.ofMillis(10), Duration.ofMillis(20)))
+                     .correctCoordinatedOmission()
+                     .scenario(user -> {})
+                     .build();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ThinkTimeTest {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    public void testNone() throws Exception {
+        assertEquals(Duration.ZERO, ThinkTime.none().next());
+    }
+
+    @Test
+    public void testFixed() throws Exception {
+        assertEquals(Duration.ofMillis(100), ThinkTime.fixed(Duration.ofMillis(100)).next());
+    }
+
+    @Test
+    public void testUniform() throws Exception {
+        //prepare
+        ThinkTime subject = ThinkTime.uniform(Duration.ofMillis(100), Duration.ofMillis(200));
+
+        //act
+        long[] samples = sample(subject);
+
+        //assert
+        assertTrue(LongStream.of(samples).allMatch(s -> s >= 100_000_000L && s < 200_000_000L));
+        assertEquals(150_000_000d, LongStream.of(samples).average().getAsDouble(), 2_000_000d);
+    }
+
+    @Test
+    public void testUniform_minEqualsMax() throws Exception {
+        assertEquals(Duration.ofMillis(100), ThinkTime.uniform(Duration.ofMillis(100), Duration.ofMillis(100)).next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUniform_maxLessThanMin_exception() throws Exception {
+        ThinkTime.uniform(Duration.ofMillis(200), Duration.ofMillis(100));
+    }
+
+    @Test
+    public void testNormal() throws Exception {
+        //prepare
+        ThinkTime subject = ThinkTime.normal(Duration.ofMillis(1000), Duration.ofMillis(100));
+
+        //act
+        long[] samples = sample(subject);
+
+        //assert
+        double mean = LongStream.of(samples).average().getAsDouble();
+        double variance = LongStream.of(samples).mapToDouble(s -> (s - mean) * (s - mean)).sum() / samples.length;
+        assertEquals(1_000_000_000d, mean, 5_000_000d);
+        assertEquals(100_000_000d, Math.sqrt(variance), 5_000_000d);
+    }
+
+    @Test
+    public void testNormal_truncatedAtZero() throws Exception {
+        //prepare
+        ThinkTime subject = ThinkTime.normal(Duration.ofMillis(10), Duration.ofMillis(100));
+
+        //act
+        long[] samples = sample(subject);
+
+        //assert
+        assertTrue(LongStream.of(samples).allMatch(s -> s >= 0));
+    }
+
+    @Test
+    public void testExponential() throws Exception {
+        //prepare
+        ThinkTime subject = ThinkTime.exponential(Duration.ofMillis(500));
+
+        //act
+        long[] samples = sample(subject);
+
+        //assert
+        assertTrue(LongStream.of(samples).allMatch(s -> s >= 0));
+        assertEquals(500_000_000d, LongStream.of(samples).average().getAsDouble(), 20_000_000d);
+    }
+
+    private static long[] sample(ThinkTime thinkTime) {
+        return LongStream.range(0, SAMPLES).map(i -> thinkTime.next().toNanos()).toArray();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import io.devcon5.pageobjects.measure.ResponseTime;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class VirtualUserTest {
+
+    private ResponseTimeCollector rtc = new ResponseTimeCollector();
+
+    /**
+     * The class under test
+     */
+    private VirtualUser subject = new VirtualUser(1, ThinkTime.fixed(Duration.ofMillis(50)));
+
+    @Before
+    public void setUp() throws Exception {
+        rtc.startCollecting();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        rtc.stopCollecting();
+        ResponseTimes.clear();
+    }
+
+    @Test
+    public void testThink_recordedAsTransaction() throws Exception {
+        //act
+        subject.think();
+
+        //assert
+        List<ResponseTime> thinkTimes = ResponseTimes.getResponseTimes().get(VirtualUser.THINK_TIME_TX);
+        assertNotNull(thinkTimes);
+        assertEquals(1, thinkTimes.size());
+        assertTrue(thinkTimes.get(0).getDuration().compareTo(Duration.ofMillis(50)) >= 0);
+    }
+
+    @Test
+    public void testThink_excludedFromOpenTransaction() throws Exception {
+        //prepare
+        rtc.startTx("tx");
+
+        //act
+        subject.think(ThinkTime.fixed(Duration.ofMillis(200)));
+
+        //assert
+        rtc.stopTx("tx");
+        Map<String, List<ResponseTime>> rts = ResponseTimes.getResponseTimes();
+        assertTrue(rts.get("tx").get(0).getDuration().compareTo(Duration.ofMillis(100)) < 0);
+        assertTrue(rts.get(VirtualUser.THINK_TIME_TX).get(0).getDuration().compareTo(Duration.ofMillis(200)) >= 0);
+    }
+
+    @Test
+    public void testIdle_deadlinePassed_notRecorded() throws Exception {
+        //act
+        subject.idle(VirtualUser.PACING_TX, System.nanoTime() - 1);
+
+        //assert
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testNextIteration() throws Exception {
+        //act
+        subject.nextIteration();
+
+        //assert
+        assertEquals(1, subject.getIteration());
+        assertEquals(1, subject.getId());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class AppendLogTest {
+
+    /**
+     * The class under test
+     */
+    private AppendLog<Integer> subject = new AppendLog<>();
+
+    @Test
+    public void testAppend_acrossChunks() throws Exception {
+        //act
+        for (int i = 0; i < 5000; i++) {
+            subject.append(i);
+        }
+
+        //assert
+        assertEquals(5000, subject.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(Integer.valueOf(i), subject.get(i));
+        }
+    }
+
+    @Test
+    public void testSnapshot_notAffectedByAppend() throws Exception {
+        //prepare
+        subject.append(1);
+        subject.append(2);
+
+        //act
+        List<Integer> snapshot = subject.snapshot();
+        subject.append(3);
+
+        //assert
+        assertEquals(Arrays.asList(1, 2), snapshot);
+        assertEquals(Arrays.asList(1, 2, 3), subject.snapshot());
+    }
+
+    @Test
+    public void testView_withTail() throws Exception {
+        //prepare
+        for (int i = 0; i < 5; i++) {
+            subject.append(i);
+        }
+
+        //act
+        List<Integer> view = subject.view(2, 4, Collections.singletonList(42));
+
+        //assert
+        assertEquals(Arrays.asList(2, 3, 42), view);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testView_outOfBounds() throws Exception {
+        //prepare
+        subject.append(1);
+        subject.append(2);
+
+        //act
+        subject.view(0, 1, Collections.emptyList()).get(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshot_unmodifiable() throws Exception {
+        subject.snapshot().add(1);
+    }
+
+    @Test
+    public void testClaim_visibleWhenPublished() throws Exception {
+        //prepare
+        subject.append(1);
+
+        //act
+        int first = subject.claim(2);
+        int second = subject.claim(3);
+        int sizeClaimed = subject.size();
+        subject.publish(first);
+        int sizeFirstPublished = subject.size();
+        subject.publish(second);
+
+        //assert
+        assertEquals(1, sizeClaimed);
+        assertEquals(2, sizeFirstPublished);
+        assertEquals(Arrays.asList(1, 2, 3), subject.snapshot());
+    }
+
+    @Test
+    public void testAppend_concurrent() throws Exception {
+        //prepare
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        //act
+        for (int t = 0; t < 4; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    subject.append(i);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        //assert
+        assertEquals(40_000, subject.size());
+        long sum = 0;
+        for (Integer value : subject.snapshot()) {
+            sum += value;
+        }
+        assertEquals(4L * 9999 * 10_000 / 2, sum);
+    }
+}
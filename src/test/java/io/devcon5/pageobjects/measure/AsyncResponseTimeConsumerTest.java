@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class AsyncResponseTimeConsumerTest {
+
+    private final List<ResponseTime> received = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Instant start = Instant.now();
+
+    /**
+     * The class under test
+     */
+    private AsyncResponseTimeConsumer subject;
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        if (subject != null) {
+            subject.close();
+        }
+        ResponseTimes.resetResponseTimeHandlers();
+        ResponseTimes.clear();
+    }
+
+    private ResponseTime responseTime(int i) {
+        return new ResponseTime("tx" + i, start, Duration.ofMillis(i));
+    }
+
+    private void blockingSink(ResponseTime rt) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        received.add(rt);
+    }
+
+    @Test
+    public void testAccept_deliveredInOrder() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder().consumer(received::add).batchSize(3).build();
+
+        //act
+        for (int i = 0; i < 100; i++) {
+            subject.accept(responseTime(i));
+        }
+        boolean flushed = subject.flush(Duration.ofSeconds(5));
+
+        //assert
+        assertTrue(flushed);
+        assertEquals(100, received.size());
+        assertEquals(100, subject.getDeliveredCount());
+        assertEquals(0, subject.getDroppedCount());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("tx" + i, received.get(i).getTransaction());
+        }
+    }
+
+    @Test
+    public void testAccept_batches() throws Exception {
+        //prepare
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        subject = AsyncResponseTimeConsumer.builder().batchConsumer(batch -> batchSizes.add(batch.size()))
+                                           .batchSize(10)
+                                           .build();
+
+        //act
+        for (int i = 0; i < 95; i++) {
+            subject.accept(responseTime(i));
+        }
+        subject.close();
+
+        //assert
+        assertEquals(95, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+    }
+
+    @Test
+    public void testAccept_slowConsumer_doesNotBlockWithDrop() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder()
+                                           .consumer(this::blockingSink)
+                                           .capacity(16)
+                                           .batchSize(1)
+                                           .backPressure(AsyncResponseTimeConsumer.BackPressure.DROP)
+                                           .build();
+
+        //act
+        for (int i = 0; i < 100; i++) {
+            subject.accept(responseTime(i));
+        }
+        long dropped = subject.getDroppedCount();
+        release.countDown();
+        subject.close();
+
+        //assert
+        assertTrue("dropped " + dropped, dropped >= 100 - 17);
+        assertEquals(100, dropped + received.size());
+        assertEquals(received.size(), subject.getDeliveredCount());
+    }
+
+    @Test
+    public void testAccept_sample() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder()
+                                           .consumer(this::blockingSink)
+                                           .capacity(64)
+                                           .batchSize(1)
+                                           .backPressure(AsyncResponseTimeConsumer.BackPressure.SAMPLE)
+                                           .sampleRate(1000)
+                                           .build();
+
+        //act
+        for (int i = 0; i < 1000; i++) {
+            subject.accept(responseTime(i));
+        }
+        long dropped = subject.getDroppedCount();
+        int pending = subject.getPendingCount();
+
+        //assert
+        assertTrue("pending " + pending, pending >= 31 && pending < 64);
+        assertEquals(1000, dropped + pending + 1, 1);
+    }
+
+    @Test
+    public void testAccept_block_waitsForFreeSlot() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder()
+                                           .consumer(this::blockingSink)
+                                           .capacity(2)
+                                           .batchSize(1)
+                                           .backPressure(AsyncResponseTimeConsumer.BackPressure.BLOCK)
+                                           .build();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                subject.accept(responseTime(i));
+            }
+            done.countDown();
+        });
+
+        //act
+        producer.start();
+        boolean finishedWhileBlocked = done.await(200, TimeUnit.MILLISECONDS);
+        release.countDown();
+        boolean finished = done.await(5, TimeUnit.SECONDS);
+        subject.close();
+
+        //assert
+        assertFalse(finishedWhileBlocked);
+        assertTrue(finished);
+        assertEquals(10, received.size());
+        assertEquals(0, subject.getDroppedCount());
+    }
+
+    @Test
+    public void testClose_deliversPending_dropsLater() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder().consumer(received::add).build();
+        for (int i = 0; i < 10; i++) {
+            subject.accept(responseTime(i));
+        }
+
+        //act
+        subject.close();
+        subject.accept(responseTime(10));
+
+        //assert
+        assertEquals(10, received.size());
+        assertEquals(1, subject.getDroppedCount());
+    }
+
+    @Test
+    public void testClose_concurrentAccept_noneLost() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder()
+                                           .consumer(received::add)
+                                           .backPressure(AsyncResponseTimeConsumer.BackPressure.DROP)
+                                           .build();
+        ResponseTime rt = responseTime(1);
+        int count = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < count; i++) {
+                    subject.accept(rt);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        started.await();
+
+        //act
+        subject.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //assert
+        assertEquals(4L * count, received.size() + subject.getDroppedCount());
+    }
+
+    @Test
+    public void testAccept_failingConsumer_continues() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder().consumer(rt -> {
+            if (rt.getTransaction().equals("tx0")) {
+                throw new IllegalStateException("test");
+            }
+            received.add(rt);
+        }).batchSize(1).build();
+
+        //act
+        subject.accept(responseTime(0));
+        subject.accept(responseTime(1));
+        subject.flush(Duration.ofSeconds(5));
+
+        //assert
+        assertEquals(1, received.size());
+        assertEquals(2, subject.getDeliveredCount());
+    }
+
+    @Test
+    public void testResponseTimes_asyncMeasureEnd() throws Exception {
+        //prepare
+        subject = AsyncResponseTimeConsumer.builder().consumer(received::add).build();
+        ResponseTimes.onMeasureEnd(subject);
+
+        //act
+        ResponseTimes.collect("tx", new TimeMeasure(start, Duration.ofMillis(5)));
+        subject.flush(Duration.ofSeconds(5));
+
+        //assert
+        assertEquals(1, received.size());
+        assertEquals("tx", received.get(0).getTransaction());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuild_noConsumer() throws Exception {
+        AsyncResponseTimeConsumer.builder().build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuild_invalidBatchSize() throws Exception {
+        AsyncResponseTimeConsumer.builder().consumer(received::add).batchSize(0).build();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BaselineTest {
+
+    private Path directory;
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("baseline");
+        file = directory.resolve("baseline.bin");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ResponseTimes.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testCapture() throws Exception {
+        //prepare
+        ResponseTimes.collect(new ResponseTime("baseTx", Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("baseTx", Instant.now(), Duration.ofMillis(20)));
+        ResponseTimes.collect(new ResponseTime("baseTx", Instant.now(), Duration.ofMillis(5), new RuntimeException()));
+
+        //act
+        Baseline subject = Baseline.capture();
+        ResponseTimes.collect(new ResponseTime("baseTx", Instant.now(), Duration.ofMillis(30)));
+
+        //assert
+        assertEquals(2, subject.getHistograms().get("baseTx").getTotalCount());
+    }
+
+    @Test
+    public void testWriteToRead() throws Exception {
+        //prepare
+        ResponseTimes.collect(new ResponseTime("baseTx", Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("otherTx", Instant.now(), Duration.ofSeconds(2)));
+        Baseline subject = Baseline.capture();
+
+        //act
+        subject.writeTo(file);
+        Baseline read = Baseline.read(file);
+
+        //assert
+        assertEquals(subject.getTimestamp().toEpochMilli(), read.getTimestamp().toEpochMilli());
+        assertEquals(subject.getHistograms().keySet(), read.getHistograms().keySet());
+        assertEquals(Duration.ofSeconds(2), read.getHistograms().get("otherTx").getMax());
+        assertEquals(1, read.getHistograms().get("baseTx").getTotalCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_noBaseline() throws Exception {
+        //prepare
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+        //act
+        Baseline.read(file);
+    }
+}
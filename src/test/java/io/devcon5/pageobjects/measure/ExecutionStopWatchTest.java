@@ -21,6 +21,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
+import java.time.Instant;
 
 import org.junit.Test;
 
@@ -81,4 +82,22 @@ public class ExecutionStopWatchTest {
         }
     }
 
+
+    @Test
+    public void testRunMeasured_manualTimeSource() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource(Instant.parse("2016-01-01T00:00:00Z"));
+        TimeSource.setCurrent(time);
+
+        try {
+            //act
+            MeasuredExecutionResult watch = ExecutionStopWatch.runMeasured(() -> time.advance(Duration.ofMillis(3)));
+
+            //assert
+            assertEquals(Duration.ofMillis(3), watch.getDuration());
+            assertEquals(Instant.parse("2016-01-01T00:00:00Z"), watch.getStart());
+        } finally {
+            TimeSource.reset();
+        }
+    }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class HistogramTest {
+
+    /**
+     * The class under test
+     */
+    private Histogram subject = new Histogram();
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertEquals(0, subject.getTotalCount());
+        assertEquals(Duration.ZERO, subject.getMin());
+        assertEquals(Duration.ZERO, subject.getMax());
+        assertEquals(Duration.ZERO, subject.getMean());
+        assertEquals(Duration.ZERO, subject.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testRecord_exactStatistics() throws Exception {
+        //act
+        subject.record(Duration.ofMillis(10));
+        subject.record(Duration.ofMillis(20));
+        subject.record(Duration.ofMillis(60));
+
+        //assert
+        assertEquals(3, subject.getTotalCount());
+        assertEquals(Duration.ofMillis(10), subject.getMin());
+        assertEquals(Duration.ofMillis(60), subject.getMax());
+        assertEquals(Duration.ofMillis(30), subject.getMean());
+    }
+
+    @Test
+    public void testGetValueAtPercentile_uniformValues() throws Exception {
+        //prepare
+        for (int i = 1; i <= 10_000; i++) {
+            subject.record(Duration.ofMillis(i));
+        }
+
+        //act & assert
+        assertPercentile(5_000, subject.getValueAtPercentile(50));
+        assertPercentile(9_000, subject.getValueAtPercentile(90));
+        assertPercentile(9_900, subject.getValueAtPercentile(99));
+        assertPercentile(9_990, subject.getValueAtPercentile(99.9));
+        assertPercentile(9_999, subject.getValueAtPercentile(99.99));
+        assertEquals(Duration.ofMillis(10_000), subject.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testGetValueAtPercentile_randomValues_withinPrecision() throws Exception {
+        //prepare
+        Random rnd = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.abs(rnd.nextGaussian() * 200_000) + 1000;
+            subject.recordValue(values[i], 1);
+        }
+        Arrays.sort(values);
+
+        //act & assert
+        for (double p : new double[]{50, 90, 95, 99, 99.9, 99.99}) {
+            long expected = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long actual = subject.getValueAtPercentileMicros(p);
+            assertTrue("p" + p + " expected " + expected + " was " + actual,
+                       Math.abs(actual - expected) <= expected / 1000 + 1);
+        }
+    }
+
+    @Test
+    public void testRecord_aboveHighestTrackable_clampedButMaxExact() throws Exception {
+        //prepare
+        Histogram histogram = new Histogram(Duration.ofSeconds(1), 2);
+
+        //act
+        histogram.record(Duration.ofSeconds(5));
+
+        //assert
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(Duration.ofSeconds(5), histogram.getMax());
+        assertTrue(histogram.getValueAtPercentile(100).compareTo(Duration.ofSeconds(1)) >= 0);
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        //prepare
+        Histogram other = subject.emptyCopy();
+        subject.record(Duration.ofMillis(10));
+        other.record(Duration.ofMillis(30));
+
+        //act
+        subject.add(other);
+
+        //assert
+        assertEquals(2, subject.getTotalCount());
+        assertEquals(Duration.ofMillis(20), subject.getMean());
+        assertEquals(Duration.ofMillis(10), subject.getMin());
+        assertEquals(Duration.ofMillis(30), subject.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdd_differentLayout_exception() throws Exception {
+        subject.add(new Histogram(Duration.ofSeconds(1), 2));
+    }
+
+    @Test
+    public void testCopy_independent() throws Exception {
+        //prepare
+        subject.record(Duration.ofMillis(10));
+
+        //act
+        Histogram copy = subject.copy();
+        subject.record(Duration.ofMillis(10));
+
+        //assert
+        assertEquals(1, copy.getTotalCount());
+        assertEquals(2, subject.getTotalCount());
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        //prepare
+        subject.record(Duration.ofMillis(10));
+
+        //act
+        subject.reset();
+
+        //assert
+        assertEquals(0, subject.getTotalCount());
+        assertEquals(Duration.ZERO, subject.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testGetCountAtOrBelow() throws Exception {
+        //prepare
+        subject.record(Duration.ofMillis(10));
+        subject.record(Duration.ofMillis(20));
+        subject.record(Duration.ofMillis(30));
+
+        //act
+        long count = subject.getCountAtOrBelow(Duration.ofMillis(20));
+
+        //assert
+        assertEquals(2, count);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_invalidPrecision_exception() throws Exception {
+        new Histogram(Duration.ofSeconds(1), 6);
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws Exception {
+        //prepare
+        Histogram histogram = new Histogram(Duration.ofSeconds(10), 2);
+        histogram.record(Duration.ofMillis(10));
+        histogram.record(Duration.ofMillis(20));
+        histogram.recordValue(3_000_000, 5);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //act
+        histogram.writeTo(new DataOutputStream(out));
+        Histogram read = Histogram.readFrom(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+        //assert
+        assertEquals(7, read.getTotalCount());
+        assertEquals(histogram.getMin(), read.getMin());
+        assertEquals(histogram.getMax(), read.getMax());
+        assertEquals(histogram.getMean(), read.getMean());
+        assertEquals(histogram.getValueAtPercentile(20), read.getValueAtPercentile(20));
+        read.add(histogram);
+        assertEquals(14, read.getTotalCount());
+    }
+
+    @Test
+    public void testWriteToReadFrom_empty() throws Exception {
+        //prepare
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //act
+        subject.writeTo(new DataOutputStream(out));
+        Histogram read = Histogram.readFrom(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+        //assert
+        assertEquals(0, read.getTotalCount());
+        assertEquals(Duration.ZERO, read.getMin());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadFrom_invalid() throws Exception {
+        byte[] invalidLayout = new byte[] { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 9 };
+        Histogram.readFrom(new DataInputStream(new ByteArrayInputStream(invalidLayout)));
+    }
+
+    @Test
+    public void testForEachBucket() throws Exception {
+        //prepare
+        subject.record(Duration.ofMillis(20));
+        subject.record(Duration.ofMillis(10));
+        subject.record(Duration.ofMillis(10));
+        List<long[]> buckets = new ArrayList<>();
+
+        //act
+        subject.forEachBucket((micros, count) -> buckets.add(new long[] { micros, count }));
+
+        //assert
+        assertEquals(2, buckets.size());
+        assertEquals(10_000, buckets.get(0)[0], 10);
+        assertEquals(2, buckets.get(0)[1]);
+        assertEquals(20_000, buckets.get(1)[0], 20);
+        assertEquals(1, buckets.get(1)[1]);
+    }
+
+    private static void assertPercentile(long expectedMillis, Duration actual) {
+        long expectedMicros = expectedMillis * 1000;
+        long actualMicros = actual.toNanos() / 1000;
+        assertTrue("expected " + expectedMillis + "ms but was " + actual,
+                   Math.abs(actualMicros - expectedMicros) <= expectedMicros / 1000 + 1);
+    }
+
+    @Test
+    public void testCopyCorrectedForCoordinatedOmission() throws Exception {
+        //prepare
+        Histogram subject = new Histogram();
+        for (int i = 0; i < 9; i++) {
+            subject.record(Duration.ofMillis(10));
+        }
+        subject.record(Duration.ofMillis(1000));
+
+        //act
+        Histogram corrected = subject.copyCorrectedForCoordinatedOmission(Duration.ofMillis(100));
+
+        //assert
+        //the stall of 1000ms omitted the values of 9 requests
+        assertEquals(19, corrected.getTotalCount());
+        assertEquals(9, corrected.getCountAtOrBelow(Duration.ofMillis(10)));
+        assertEquals(Duration.ofMillis(1000), corrected.getMax());
+        assertTrue(subject.getValueAtPercentile(90).compareTo(Duration.ofMillis(11)) < 0);
+        assertTrue(corrected.getValueAtPercentile(90).compareTo(Duration.ofMillis(700)) > 0);
+        assertEquals(10, subject.getTotalCount());
+    }
+
+    @Test
+    public void testCopyCorrectedForCoordinatedOmission_belowTwiceTheInterval() throws Exception {
+        //prepare
+        Histogram subject = new Histogram();
+        subject.record(Duration.ofMillis(10));
+        subject.record(Duration.ofMillis(150));
+
+        //act
+        Histogram corrected = subject.copyCorrectedForCoordinatedOmission(Duration.ofMillis(100));
+
+        //assert
+        assertEquals(2, corrected.getTotalCount());
+        assertEquals(Duration.ofMillis(150), corrected.getMax());
+    }
+}
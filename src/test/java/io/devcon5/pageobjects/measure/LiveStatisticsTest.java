@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class LiveStatisticsTest {
+
+    private static final Duration TEN_SECONDS = Duration.ofSeconds(10);
+    private static final Duration ONE_MINUTE = Duration.ofMinutes(1);
+
+    private ManualTimeSource time;
+
+    /**
+     * The class under test
+     */
+    private LiveStatistics subject;
+
+    @Before
+    public void setUp() throws Exception {
+        time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        subject = LiveStatistics.builder()
+                                .windows(TEN_SECONDS, ONE_MINUTE)
+                                .failed(rt -> rt.getTransaction().endsWith("Error"))
+                                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.close();
+        ResponseTimes.clear();
+        TimeSource.reset();
+    }
+
+    private void record(String tx, long millis) {
+        subject.accept(new ResponseTime(tx, Instant.now(), Duration.ofMillis(millis)));
+    }
+
+    @Test
+    public void testGetStatistics() throws Exception {
+        //prepare
+        for (int i = 1; i <= 100; i++) {
+            record("liveTx", i);
+        }
+        time.advance(Duration.ofSeconds(5));
+
+        //act
+        WindowStatistics stats = subject.getStatistics("liveTx", TEN_SECONDS);
+
+        //assert
+        assertEquals(100, stats.getCount());
+        assertEquals(Duration.ofSeconds(5), stats.getSpan());
+        assertEquals(20.0, stats.getThroughput(), 0.001);
+        assertEquals(Duration.ofNanos(50_500_000), stats.getMean());
+        assertEquals(90, stats.getP90().toMillis(), 1);
+        assertEquals(95, stats.getP95().toMillis(), 1);
+        assertEquals(99, stats.getP99().toMillis(), 1);
+        assertEquals(0, stats.getErrorRate(), 0.0);
+    }
+
+    @Test
+    public void testGetStatistics_windowSlides() throws Exception {
+        //prepare
+        record("liveTx", 10);
+        time.advance(Duration.ofSeconds(30));
+        record("liveTx", 20);
+        record("liveTx", 30);
+
+        //act
+        time.advance(Duration.ofSeconds(1));
+        WindowStatistics tenSeconds = subject.getStatistics("liveTx", TEN_SECONDS);
+        WindowStatistics oneMinute = subject.getStatistics("liveTx", ONE_MINUTE);
+
+        //assert
+        assertEquals(2, tenSeconds.getCount());
+        assertEquals(Duration.ofMillis(25), tenSeconds.getMean());
+        assertEquals(3, oneMinute.getCount());
+        assertEquals(Duration.ofSeconds(31), oneMinute.getSpan());
+    }
+
+    @Test
+    public void testGetStatistics_expired() throws Exception {
+        //prepare
+        record("liveTx", 10);
+
+        //act
+        time.advance(Duration.ofSeconds(11));
+
+        //assert
+        assertEquals(0, subject.getStatistics("liveTx", TEN_SECONDS).getCount());
+        assertEquals(1, subject.getStatistics("liveTx", ONE_MINUTE).getCount());
+    }
+
+    @Test
+    public void testGetStatistics_bucketReused() throws Exception {
+        //prepare
+        record("liveTx", 10);
+        time.advance(Duration.ofSeconds(10));
+
+        //act
+        record("liveTx", 20);
+
+        //assert
+        WindowStatistics stats = subject.getStatistics("liveTx", TEN_SECONDS);
+        assertEquals(1, stats.getCount());
+        assertEquals(Duration.ofMillis(20), stats.getMax());
+    }
+
+    @Test
+    public void testGetStatistics_errorRate() throws Exception {
+        //prepare
+        subject = LiveStatistics.builder().windows(TEN_SECONDS).failed(rt -> rt.getDuration().toMillis() > 50).build();
+        record("liveTx", 10);
+        record("liveTx", 100);
+        record("liveTx", 20);
+        record("liveTx", 200);
+
+        //act
+        WindowStatistics stats = subject.getStatistics("liveTx", TEN_SECONDS);
+
+        //assert
+        assertEquals(2, stats.getErrorCount());
+        assertEquals(0.5, stats.getErrorRate(), 0.0);
+    }
+
+    @Test
+    public void testGetStatistics_errorRate_byOutcome() throws Exception {
+        //prepare
+        subject = LiveStatistics.builder().windows(TEN_SECONDS).build();
+        record("liveTx", 10);
+        subject.accept(new ResponseTime("liveTx", Instant.now(), Duration.ofMillis(5), new IllegalStateException()));
+
+        //act
+        WindowStatistics stats = subject.getStatistics("liveTx", TEN_SECONDS);
+
+        //assert
+        assertEquals(1, stats.getErrorCount());
+        assertEquals(0.5, stats.getErrorRate(), 0.0);
+    }
+
+    @Test
+    public void testGetStatistics_unknownTransaction() throws Exception {
+        //act
+        WindowStatistics stats = subject.getStatistics("unknownLiveTx", TEN_SECONDS);
+
+        //assert
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getThroughput(), 0.0);
+        assertEquals(Duration.ZERO, stats.getP99());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetStatistics_unknownWindow() throws Exception {
+        subject.getStatistics("liveTx", Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void testGetStatistics_allTransactions() throws Exception {
+        //prepare
+        record("liveTx1", 10);
+        record("liveTx2", 20);
+
+        //act
+        Map<String, WindowStatistics> stats = subject.getStatistics(ONE_MINUTE);
+
+        //assert
+        assertEquals(2, stats.size());
+        assertEquals(Duration.ofMillis(20), stats.get("liveTx2").getMax());
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        //prepare
+        subject.register();
+
+        //act
+        ResponseTimes.collect("liveTx", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.startTx("liveTx");
+        subject.close();
+        ResponseTimes.collect("liveTx", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+
+        //assert
+        assertEquals(1, subject.getStatistics("liveTx", TEN_SECONDS).getCount());
+    }
+
+    @Test
+    public void testAccept_concurrentRotation() throws Exception {
+        //prepare
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    record("liveConcurrentTx", 1);
+                }
+            });
+        }
+
+        //act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //assert
+        assertEquals(40_000, subject.getStatistics("liveConcurrentTx", ONE_MINUTE).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_windowTooSmall() throws Exception {
+        LiveStatistics.builder().windows(Duration.ofNanos(5)).buckets(10).build();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class MeasureListenerTest {
+
+    private final List<ResponseTime> received = Collections.synchronizedList(new ArrayList<>());
+    private final Instant start = Instant.now();
+
+    /**
+     * The class under test
+     */
+    private MeasureListener subject;
+
+    @After
+    public void tearDown() throws Exception {
+        if (subject != null) {
+            subject.close();
+        }
+        ResponseTimes.clear();
+    }
+
+    private void measure(String transaction) {
+        ResponseTimes.stopTx(ResponseTimes.startTx(transaction, start));
+    }
+
+    @Test
+    public void testSync_endOnly_allTransactions() throws Exception {
+        //prepare
+        subject = ResponseTimes.addListener(received::add);
+
+        //act
+        measure("tx1");
+        measure("tx2");
+
+        //assert
+        assertEquals(MeasureListener.Delivery.SYNC, subject.getDelivery());
+        assertEquals(2, received.size());
+        assertTrue(received.stream().allMatch(ResponseTime::isFinished));
+    }
+
+    @Test
+    public void testSync_startAndEnd() throws Exception {
+        //prepare
+        subject = ResponseTimes.addListener(MeasureListener.builder()
+                                                           .consumer(received::add)
+                                                           .measureStart(true)
+                                                           .build());
+
+        //act
+        measure("tx1");
+
+        //assert
+        assertEquals(2, received.size());
+        assertTrue(!received.get(0).isFinished());
+        assertTrue(received.get(1).isFinished());
+    }
+
+    @Test
+    public void testFilter_byTransactionPattern() throws Exception {
+        //prepare
+        subject = ResponseTimes.addListener(MeasureListener.builder()
+                                                           .consumer(received::add)
+                                                           .transactions("Login.*")
+                                                           .build());
+
+        //act
+        measure("Login");
+        measure("LoginSubmit");
+        measure("Search");
+        measure("Login");
+
+        //assert
+        assertEquals(3, received.size());
+        assertTrue(received.stream().allMatch(rt -> rt.getTransaction().startsWith("Login")));
+    }
+
+    @Test
+    public void testMultipleListeners_defaultTableStillRecorded() throws Exception {
+        //prepare
+        final List<ResponseTime> other = new ArrayList<>();
+        subject = ResponseTimes.addListener(received::add);
+        MeasureListener second = ResponseTimes.addListener(other::add);
+
+        //act
+        measure("tx");
+        second.close();
+        measure("tx");
+
+        //assert
+        assertEquals(2, received.size());
+        assertEquals(1, other.size());
+        assertEquals(2, ResponseTimes.getResponseTimes().get("tx").stream().filter(ResponseTime::isFinished).count());
+    }
+
+    @Test
+    public void testAddListener_twice_deliveredOnce() throws Exception {
+        //prepare
+        subject = ResponseTimes.addListener(received::add);
+        ResponseTimes.addListener(subject);
+
+        //act
+        measure("tx");
+
+        //assert
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testFailingListener_othersNotified() throws Exception {
+        //prepare
+        MeasureListener failing = ResponseTimes.addListener(rt -> {
+            throw new IllegalStateException("test");
+        });
+        subject = ResponseTimes.addListener(received::add);
+
+        //act
+        try {
+            measure("tx");
+        } finally {
+            failing.close();
+        }
+
+        //assert
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testAsyncBatch() throws Exception {
+        //prepare
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        subject = ResponseTimes.addListener(MeasureListener.builder().batchConsumer(batch -> {
+            batchSizes.add(batch.size());
+            received.addAll(batch);
+        }).delivery(MeasureListener.Delivery.ASYNC_BATCH).batchSize(5).build());
+
+        //act
+        for (int i = 0; i < 20; i++) {
+            measure("tx");
+        }
+        boolean flushed = subject.flush(Duration.ofSeconds(5));
+
+        //assert
+        assertTrue(flushed);
+        assertEquals(20, received.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 5));
+        assertEquals(0, subject.getDroppedCount());
+    }
+
+    @Test
+    public void testClose_removesListener() throws Exception {
+        //prepare
+        subject = ResponseTimes.addListener(MeasureListener.builder()
+                                                           .consumer(received::add)
+                                                           .delivery(MeasureListener.Delivery.ASYNC_BATCH)
+                                                           .build());
+        measure("tx");
+
+        //act
+        subject.close();
+        measure("tx");
+
+        //assert
+        assertEquals(1, received.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testBuild_noConsumer() throws Exception {
+        MeasureListener.builder().build();
+    }
+}
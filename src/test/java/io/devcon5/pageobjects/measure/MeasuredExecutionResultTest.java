@@ -65,4 +65,18 @@ public class MeasuredExecutionResultTest {
         assertFalse(result.wasSuccessful());
     }
 
+    @Test
+    public void testGetOutcome() throws Exception {
+        //prepare
+        MeasuredExecutionResult<Object> success = new MeasuredExecutionResult<Object>(timestamp, duration, "ok");
+        MeasuredExecutionResult<Object> failure = new MeasuredExecutionResult<Object>(timestamp,
+                                                                                    duration,
+                                                                                    new Exception());
+
+        //act
+
+        //assert
+        assertEquals(Outcome.SUCCESS, success.getOutcome());
+        assertEquals(Outcome.FAILURE, failure.getOutcome());
+    }
 }
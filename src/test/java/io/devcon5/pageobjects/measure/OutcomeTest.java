@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class OutcomeTest {
+
+    @Test
+    public void testOf_noException() throws Exception {
+        assertEquals(Outcome.SUCCESS, Outcome.of(null));
+    }
+
+    @Test
+    public void testOf_exception() throws Exception {
+        assertEquals(Outcome.FAILURE, Outcome.of(new IllegalStateException()));
+    }
+
+    @Test
+    public void testOf_timeout() throws Exception {
+        assertEquals(Outcome.TIMEOUT, Outcome.of(new TimeoutException()));
+        assertEquals(Outcome.TIMEOUT, Outcome.of(new SocketTimeoutException()));
+    }
+
+    @Test
+    public void testOf_subclassOfTimeout() throws Exception {
+        assertEquals(Outcome.TIMEOUT, Outcome.of(new CustomTimeout()));
+    }
+
+    private static class CustomTimeout extends TimeoutException {
+    }
+}
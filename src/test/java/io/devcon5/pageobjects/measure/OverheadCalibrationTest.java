@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class OverheadCalibrationTest {
+
+    @After
+    public void tearDown() throws Exception {
+        OverheadCalibration.reset();
+        ResponseTimeCollector.bind(Optional.empty());
+        ResponseTimes.resetResponseTimeHandlers();
+        ResponseTimes.clear();
+        TimeSource.reset();
+    }
+
+    @Test
+    public void testCalibrate() throws Exception {
+        //prepare
+
+        //act
+        Duration overhead = OverheadCalibration.calibrate();
+
+        //assert
+        assertFalse(overhead.isNegative());
+        assertTrue(overhead.compareTo(Duration.ofMillis(1)) < 0);
+        assertEquals(overhead, OverheadCalibration.getOverhead());
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+        assertFalse(OverheadCalibration.isCompensating());
+    }
+
+    @Test
+    public void testCalibrate_medianOfMeasuredIterations() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        int txId = TransactionRegistry.idOf(OverheadCalibration.CALIBRATION_TX);
+        AtomicInteger iteration = new AtomicInteger();
+
+        //act
+        Duration overhead = OverheadCalibration.calibrate(() -> {
+            ResponseTimeCollector rtc = ResponseTimeCollector.current().get();
+            rtc.startTx(txId);
+            int i = iteration.incrementAndGet();
+            //warmup iterations take long, the measured ones 2 or 3 micros with one outlier
+            time.advance(i <= 5 ? Duration.ofMillis(1) : Duration.ofNanos(i == 10 ? 1_000_000 : 2_000 + i % 2 * 1_000));
+            rtc.stopTx(txId);
+        }, 5, 5);
+
+        //assert
+        assertEquals(Duration.ofNanos(3_000), overhead);
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testCalibrate_noGlobalStart() throws Exception {
+        //prepare
+        AtomicInteger started = new AtomicInteger();
+        ResponseTimes.onMeasureStart(rt -> started.incrementAndGet());
+
+        //act
+        OverheadCalibration.calibrate();
+
+        //assert
+        assertEquals(0, started.get());
+    }
+
+    @Test
+    public void testCalibrate_restoresBoundCollector() throws Exception {
+        //prepare
+        ResponseTimeCollector rtc = new ResponseTimeCollector();
+        ResponseTimeCollector.bind(Optional.of(rtc));
+
+        //act
+        OverheadCalibration.calibrate();
+
+        //assert
+        assertEquals(rtc, ResponseTimeCollector.current().get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCalibrate_noTransaction() throws Exception {
+        OverheadCalibration.calibrate(() -> {}, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCalibrate_noIterations() throws Exception {
+        OverheadCalibration.calibrate(() -> {}, 1, 0);
+    }
+
+    @Test
+    public void testCompensation() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        ResponseTimeCollector rtc = new ResponseTimeCollector();
+        rtc.startCollecting();
+        OverheadCalibration.setOverhead(Duration.ofMillis(1));
+
+        //act
+        OverheadCalibration.setCompensating(true);
+        rtc.startTx("compensated");
+        time.advance(Duration.ofMillis(10));
+        rtc.stopTx("compensated");
+        rtc.startTx("tooShort");
+        time.advance(Duration.ofNanos(500_000));
+        rtc.stopTx("tooShort");
+        OverheadCalibration.setCompensating(false);
+        rtc.startTx("uncompensated");
+        time.advance(Duration.ofMillis(10));
+        rtc.stopTx("uncompensated");
+        rtc.stopCollecting();
+
+        //assert
+        assertEquals(Duration.ofMillis(9), ResponseTimes.getResponseTimes("compensated").get(0).getDuration());
+        assertEquals(Duration.ZERO, ResponseTimes.getResponseTimes("tooShort").get(0).getDuration());
+        assertEquals(Duration.ofMillis(10), ResponseTimes.getResponseTimes("uncompensated").get(0).getDuration());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetOverhead_negative() throws Exception {
+        OverheadCalibration.setOverhead(Duration.ofNanos(-1));
+    }
+}
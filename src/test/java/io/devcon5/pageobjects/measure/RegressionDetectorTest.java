@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class RegressionDetectorTest {
+
+    /**
+     * The class under test
+     */
+    private RegressionDetector subject = RegressionDetector.builder().build();
+
+    private final Random random = new Random(42);
+
+    private Histogram histogram(double meanMillis, int count) {
+
+        final Histogram h = new Histogram();
+        for (int i = 0; i < count; i++) {
+            //log-normal distributed durations with a spread of about 20%
+            h.record(Duration.ofNanos((long) (meanMillis * 1_000_000 * Math.exp(random.nextGaussian() * 0.2))));
+        }
+        return h;
+    }
+
+    private static Map<String, Histogram> single(String tx, Histogram histogram) {
+
+        return Collections.singletonMap(tx, histogram);
+    }
+
+    @Test
+    public void testUpperTail() throws Exception {
+        assertEquals(0.5, RegressionDetector.upperTail(0), 1e-6);
+        assertEquals(0.025, RegressionDetector.upperTail(1.959964), 1e-6);
+        assertEquals(0.975, RegressionDetector.upperTail(-1.959964), 1e-6);
+        assertEquals(0.00135, RegressionDetector.upperTail(3), 1e-5);
+    }
+
+    @Test
+    public void testMannWhitney_separated() throws Exception {
+        //prepare
+        Histogram baseline = new Histogram();
+        Histogram current = new Histogram();
+        for (int i = 1; i <= 3; i++) {
+            baseline.record(Duration.ofMillis(i));
+            current.record(Duration.ofMillis(i + 3));
+        }
+
+        //act
+        double[] result = RegressionDetector.mannWhitney(baseline, current);
+
+        //assert
+        assertEquals(1.0, result[0], 0.0);
+        assertEquals(0.0404, result[1], 1e-3);
+    }
+
+    @Test
+    public void testMannWhitney_ties() throws Exception {
+        //prepare
+        Histogram baseline = new Histogram();
+        Histogram current = new Histogram();
+        baseline.recordValue(1000, 10);
+        current.recordValue(1000, 10);
+
+        //act
+        double[] result = RegressionDetector.mannWhitney(baseline, current);
+
+        //assert
+        assertEquals(0.5, result[0], 0.0);
+        assertEquals(1.0, result[1], 0.0);
+    }
+
+    @Test
+    public void testCompare_noise() throws Exception {
+        //prepare
+        Baseline baseline = Baseline.of(single("tx", histogram(100, 1000)));
+
+        //act
+        RegressionReport report = subject.compare(baseline, single("tx", histogram(100, 1000)));
+
+        //assert
+        assertFalse(report.hasRegressions());
+        assertEquals(1, report.getResults().size());
+        assertTrue(report.getResults().get(0).getPValue() > 0.01);
+    }
+
+    @Test
+    public void testCompare_regression() throws Exception {
+        //prepare
+        Baseline baseline = Baseline.of(single("tx", histogram(100, 500)));
+
+        //act
+        RegressionReport report = subject.compare(baseline, single("tx", histogram(120, 500)));
+
+        //assert
+        assertTrue(report.hasRegressions());
+        RegressionReport.Result result = report.getRegressions().get(0);
+        assertEquals("tx", result.getTransaction());
+        assertTrue(result.getPValue() < 1e-6);
+        assertTrue(result.getMedianChange() > 0.1);
+        assertTrue(result.getProbabilitySlower() > 0.7);
+        assertTrue(report.toString().contains("REGRESSION"));
+    }
+
+    @Test
+    public void testCompare_improvementNotFlagged() throws Exception {
+        //prepare
+        Baseline baseline = Baseline.of(single("tx", histogram(120, 500)));
+
+        //act
+        RegressionReport report = subject.compare(baseline, single("tx", histogram(100, 500)));
+
+        //assert
+        assertFalse(report.hasRegressions());
+        assertTrue(report.getResults().get(0).getPValue() > 0.99);
+    }
+
+    @Test
+    public void testCompare_significantButBelowMinimumChange() throws Exception {
+        //prepare
+        Baseline baseline = Baseline.of(single("tx", histogram(100, 50_000)));
+
+        //act
+        RegressionReport report = subject.compare(baseline, single("tx", histogram(102, 50_000)));
+
+        //assert
+        RegressionReport.Result result = report.getResults().get(0);
+        assertTrue(result.getPValue() < 0.01);
+        assertFalse(result.isRegression());
+    }
+
+    @Test
+    public void testCompare_tooFewSamples() throws Exception {
+        //prepare
+        Baseline baseline = Baseline.of(single("tx", histogram(100, 10)));
+
+        //act
+        RegressionReport report = subject.compare(baseline, single("tx", histogram(200, 10)));
+
+        //assert
+        assertTrue(Double.isNaN(report.getResults().get(0).getPValue()));
+        assertFalse(report.hasRegressions());
+    }
+
+    @Test
+    public void testCompare_missingTransactions() throws Exception {
+        //prepare
+        Map<String, Histogram> before = new HashMap<>();
+        before.put("removedTx", histogram(100, 100));
+        before.put("tx", histogram(100, 100));
+        Map<String, Histogram> after = new HashMap<>();
+        after.put("tx", histogram(100, 100));
+        after.put("newTx", histogram(100, 100));
+
+        //act
+        RegressionReport report = subject.compare(Baseline.of(before), after);
+
+        //assert
+        assertEquals(3, report.getResults().size());
+        assertFalse(report.hasRegressions());
+        RegressionReport.Result added = report.getResults().get(0);
+        assertEquals("newTx", added.getTransaction());
+        assertTrue(added.isMissingInBaseline());
+        assertFalse(added.isRegression());
+        assertTrue(Double.isNaN(added.getPValue()));
+        RegressionReport.Result removed = report.getResults().get(1);
+        assertEquals("removedTx", removed.getTransaction());
+        assertTrue(removed.isMissingInCurrent());
+        assertFalse(removed.isRegression());
+        assertTrue(Double.isNaN(removed.getPValue()));
+        assertEquals(0, removed.getCurrent().getTotalCount());
+        RegressionReport.Result compared = report.getResults().get(2);
+        assertEquals("tx", compared.getTransaction());
+        assertFalse(compared.isMissingInBaseline());
+        assertFalse(compared.isMissingInCurrent());
+        assertTrue(report.toString().contains("MISSING"));
+        assertTrue(report.toString().contains("NEW"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_invalidSignificance() throws Exception {
+        RegressionDetector.builder().significance(1.5).build();
+    }
+}
@@ -18,13 +18,17 @@ package io.devcon5.pageobjects.measure;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.After;
@@ -55,6 +59,8 @@ public class ResponseTimeCollectorTest {
         ResponseTimeCollector.current().ifPresent(ResponseTimeCollector::stopCollecting);
         ResponseTimes.resetResponseTimeHandlers();
         ResponseTimes.clear();
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.SAMPLES);
+        TimeSource.reset();
     }
 
     @Test
@@ -152,6 +158,45 @@ public class ResponseTimeCollectorTest {
         assertEquals("test", rt.getTransaction());
     }
 
+    @Test
+    public void testStartStopTx_byId() throws Exception {
+        //prepare
+        subject.startCollecting();
+        int txId = TransactionRegistry.idOf("test");
+
+        //act
+        subject.startTx(txId);
+        subject.stopTx(txId);
+
+        //assert
+        subject.stopCollecting();
+        ResponseTime rt = rtEndRef.get();
+        assertNotNull(rt);
+        assertEquals(txId, rt.getTransactionId());
+        assertEquals("test", rt.getTransaction());
+        assertEquals(rtStartRef.get().getUuid(), rt.getUuid());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopTx_notStarted() throws Exception {
+        //prepare
+        subject.startCollecting();
+
+        //act
+        subject.stopTx("notStarted");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopTx_twice() throws Exception {
+        //prepare
+        subject.startCollecting();
+        subject.startTx("test");
+        subject.stopTx("test");
+
+        //act
+        subject.stopTx("test");
+    }
+
     @Test
     public void testStopTx_Instant() throws Exception {
         //prepare
@@ -169,4 +214,336 @@ public class ResponseTimeCollectorTest {
         assertEquals("test", rt.getTransaction());
         assertTrue(rt.getDuration().compareTo(Duration.ofMillis(95)) > 0);
     }
+
+    @Test
+    public void testCaptureIdleTx_excludedFromOpenTx() throws Exception {
+        //prepare
+        subject.startCollecting();
+        Instant start = Instant.now();
+        subject.startTx("test");
+
+        //act
+        subject.captureIdleTx("idle", start, Duration.ofMillis(100));
+
+        //assert
+        assertEquals("idle", rtEndRef.get().getTransaction());
+        subject.stopTx("test", start.plus(150, ChronoUnit.MILLIS));
+        ResponseTime rt = rtEndRef.get();
+        assertEquals("test", rt.getTransaction());
+        assertTrue(rt.getDuration().compareTo(Duration.ofMillis(50)) <= 0);
+    }
+
+    @Test
+    public void testCaptureIdleTx_notExcludedFromLaterTx() throws Exception {
+        //prepare
+        subject.startCollecting();
+        subject.startTx("test");
+        subject.captureIdleTx("idle", Instant.now(), Duration.ofMillis(100));
+        subject.stopTx("test");
+
+        //act
+        subject.startTx("test");
+        Instant end = Instant.now().plus(100, ChronoUnit.MILLIS);
+        subject.stopTx("test", end);
+
+        //assert
+        assertTrue(rtEndRef.get().getDuration().compareTo(Duration.ofMillis(95)) > 0);
+    }
+
+    @Test
+    public void testStopTx_manualTimeSource_exactDuration() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        subject.startCollecting();
+        subject.startTx("test");
+
+        //act
+        time.advance(Duration.ofNanos(2_500_000));
+        subject.stopTx("test");
+
+        //assert
+        assertEquals(Duration.ofNanos(2_500_000), rtEndRef.get().getDuration());
+    }
+
+    @Test
+    public void testBuffered_flushedWhenFull() throws Exception {
+        //prepare
+        ResponseTimes.resetResponseTimeHandlers();
+        subject = ResponseTimeCollector.builder().bufferSize(3).flushInterval(Duration.ofHours(1)).build();
+        subject.startCollecting();
+        Instant now = Instant.now();
+
+        //act
+        subject.captureTx("buffered", now, Duration.ofMillis(1));
+        subject.captureTx("buffered", now, Duration.ofMillis(2));
+        int beforeFull = ResponseTimes.getResponseTimes().size();
+        subject.captureTx("buffered", now, Duration.ofMillis(3));
+
+        //assert
+        assertEquals(0, beforeFull);
+        assertEquals(3, ResponseTimes.getResponseTimes().get("buffered").size());
+    }
+
+    @Test
+    public void testBuffered_flushedOnStopCollecting() throws Exception {
+        //prepare
+        subject = ResponseTimeCollector.builder().bufferSize(100).build();
+        subject.startCollecting();
+        subject.startTx("test");
+        subject.stopTx("test");
+        assertNull(rtEndRef.get());
+
+        //act
+        subject.stopCollecting();
+
+        //assert
+        ResponseTime rt = rtEndRef.get();
+        assertNotNull(rt);
+        assertEquals("test", rt.getTransaction());
+    }
+
+    @Test
+    public void testBuffered_flushedAfterInterval() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        subject = ResponseTimeCollector.builder().bufferSize(100).flushInterval(Duration.ofSeconds(1)).build();
+        subject.startCollecting();
+        subject.captureTx("first", time.now(), Duration.ofMillis(1));
+        time.advance(Duration.ofMillis(999));
+        subject.captureTx("second", time.now(), Duration.ofMillis(1));
+        assertNull(rtEndRef.get());
+
+        //act
+        time.advance(Duration.ofMillis(1));
+        subject.captureTx("third", time.now(), Duration.ofMillis(1));
+
+        //assert
+        assertEquals("third", rtEndRef.get().getTransaction());
+    }
+
+    @Test
+    public void testBuffered_compactMode() throws Exception {
+        //prepare
+        ResponseTimes.resetResponseTimeHandlers();
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        subject = ResponseTimeCollector.builder().bufferSize(2).build();
+        subject.startCollecting();
+        Instant now = Instant.now();
+
+        //act
+        subject.captureTx("compact", now, Duration.ofMillis(1));
+        subject.captureTx("compact", now, Duration.ofMillis(2));
+
+        //assert
+        SampleStore store = ResponseTimes.getSampleStore();
+        assertEquals(2, store.size());
+        assertEquals(2_000_000L, store.getDurationNanos(1));
+    }
+
+    @Test
+    public void testFlush_unbuffered() throws Exception {
+        //prepare
+        subject.startCollecting();
+        subject.captureTx("test", Instant.now(), Duration.ofMillis(1));
+
+        //act
+        subject.flush();
+
+        //assert
+        assertEquals("test", rtEndRef.get().getTransaction());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_negativeBufferSize() throws Exception {
+        ResponseTimeCollector.builder().bufferSize(-1).build();
+    }
+
+    @Test
+    public void testStopTx_exception() throws Exception {
+        //prepare
+        subject.startCollecting();
+        int txId = TransactionRegistry.idOf("test");
+        subject.startTx(txId);
+
+        //act
+        subject.stopTx(txId, Instant.now(), new IllegalStateException());
+
+        //assert
+        ResponseTime rt = rtEndRef.get();
+        assertEquals(Outcome.FAILURE, rt.getOutcome());
+        assertEquals(IllegalStateException.class, rt.getExceptionClass().get());
+    }
+
+    @Test
+    public void testNestedTx_parentAndSelfDuration() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+
+        //act
+        subject.startTx("outer");
+        time.advance(Duration.ofMillis(10));
+        subject.startTx("inner");
+        time.advance(Duration.ofMillis(30));
+        subject.stopTx("inner");
+        time.advance(Duration.ofMillis(5));
+        subject.stopTx("outer");
+
+        //assert
+        ResponseTime outer = ResponseTimes.getResponseTimes("outer").get(0);
+        ResponseTime inner = ResponseTimes.getResponseTimes("inner").get(0);
+        assertFalse(outer.getParentId().isPresent());
+        assertEquals(outer.getUuid(), inner.getParentId().get());
+        assertEquals(Duration.ofMillis(45), outer.getDuration());
+        assertEquals(Duration.ofMillis(15), outer.getSelfDuration());
+        assertEquals(Duration.ofMillis(30), inner.getSelfDuration());
+    }
+
+    @Test
+    public void testNestedTx_sameName() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+
+        //act
+        subject.startTx("test");
+        time.advance(Duration.ofMillis(10));
+        subject.startTx("test");
+        time.advance(Duration.ofMillis(20));
+        subject.stopTx("test");
+        subject.stopTx("test");
+
+        //assert
+        List<ResponseTime> rts = ResponseTimes.getResponseTimes("test");
+        assertEquals(2, rts.size());
+        assertEquals(Duration.ofMillis(20), rts.get(0).getDuration());
+        assertEquals(Duration.ofMillis(30), rts.get(1).getDuration());
+        assertEquals(rts.get(1).getUuid(), rts.get(0).getParentId().get());
+        assertEquals(Duration.ofMillis(10), rts.get(1).getSelfDuration());
+    }
+
+    @Test
+    public void testTx_sameNameConcurrentThreads() throws Exception {
+        //prepare
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+        subject.startTx("test");
+        Thread other = new Thread(() -> {
+            ResponseTimeCollector.bind(Optional.of(subject));
+            subject.startTx("test");
+            subject.stopTx("test");
+        });
+
+        //act
+        other.start();
+        other.join();
+        subject.stopTx("test");
+
+        //assert
+        List<ResponseTime> rts = ResponseTimes.getResponseTimes("test");
+        assertEquals(2, rts.size());
+        assertFalse(rts.get(0).getParentId().isPresent());
+        assertFalse(rts.get(1).getParentId().isPresent());
+        assertNotEquals(rts.get(0).getUuid(), rts.get(1).getUuid());
+    }
+
+    @Test
+    public void testStopCollecting_otherThreadTxRemainsOpen() throws Exception {
+        //prepare
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+        subject.startTx("main");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread other = new Thread(() -> {
+            ResponseTimeCollector.bind(Optional.of(subject));
+            subject.startTx("other");
+            started.countDown();
+            try {
+                stopped.await();
+                subject.stopTx("other");
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        other.start();
+        started.await();
+
+        //act
+        subject.stopCollecting();
+        stopped.countDown();
+        other.join();
+
+        //assert
+        assertNull(failure.get());
+        assertEquals(1, ResponseTimes.getResponseTimes("other").size());
+        assertTrue(ResponseTimes.getResponseTimes("main").isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopCollecting_openTxDiscarded() throws Exception {
+        //prepare
+        subject.startCollecting();
+        subject.startTx("test");
+        subject.stopCollecting();
+
+        //act
+        subject.stopTx("test");
+    }
+
+    @Test
+    public void testNestedTx_stoppedOutOfOrder() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+        subject.startTx("outer");
+        subject.startTx("inner");
+        time.advance(Duration.ofMillis(10));
+
+        //act
+        subject.stopTx("outer");
+        time.advance(Duration.ofMillis(10));
+        subject.stopTx("inner");
+
+        //assert
+        ResponseTime outer = ResponseTimes.getResponseTimes("outer").get(0);
+        ResponseTime inner = ResponseTimes.getResponseTimes("inner").get(0);
+        assertEquals(Duration.ofMillis(10), outer.getSelfDuration());
+        assertEquals(Duration.ofMillis(20), inner.getDuration());
+        assertEquals(outer.getUuid(), inner.getParentId().get());
+    }
+
+    @Test
+    public void testCaptureIdleTx_excludedFromNestedTx() throws Exception {
+        //prepare
+        ManualTimeSource time = new ManualTimeSource();
+        TimeSource.setCurrent(time);
+        ResponseTimes.resetResponseTimeHandlers();
+        subject.startCollecting();
+        subject.startTx("outer");
+        subject.startTx("inner");
+        time.advance(Duration.ofMillis(10));
+
+        //act
+        subject.captureIdleTx("idle", time.now(), Duration.ofMillis(100));
+        time.advance(Duration.ofMillis(100));
+        subject.stopTx("inner");
+        subject.stopTx("outer");
+
+        //assert
+        ResponseTime outer = ResponseTimes.getResponseTimes("outer").get(0);
+        ResponseTime inner = ResponseTimes.getResponseTimes("inner").get(0);
+        assertEquals(Duration.ofMillis(10), inner.getDuration());
+        assertEquals(Duration.ofMillis(10), outer.getDuration());
+        assertEquals(Duration.ZERO, outer.getSelfDuration());
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ResponseTimeLogReaderTest {
+
+    private final Instant start = Instant.parse("2016-01-01T10:00:00Z");
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("rtlog");
+        try (ResponseTimeLog log = ResponseTimeLog.builder().directory(directory).build()) {
+            log.accept(new ResponseTime("Login", start, Duration.ofMillis(120)));
+            log.accept(new ResponseTime("Search, \"quick\"", start.plusMillis(500), Duration.ofNanos(42)));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRead_samples() throws Exception {
+        //prepare
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = ResponseTimeLogReader.open(directory, "responsetimes").read(store::add);
+
+        //assert
+        assertEquals(2, count);
+        assertEquals(TransactionRegistry.idOf("Login"), store.getTransactionId(0));
+        assertEquals(120_000_000L, store.getDurationNanos(0));
+    }
+
+    @Test
+    public void testWriteCsv() throws Exception {
+        //prepare
+        StringWriter out = new StringWriter();
+
+        //act
+        long count = ResponseTimeLogReader.open(directory, "responsetimes").writeCsv(out);
+
+        //assert
+        assertEquals(2, count);
+        assertEquals("transaction,start,duration_ns\n"
+                             + "Login,2016-01-01T10:00:00Z,120000000\n"
+                             + "\"Search, \"\"quick\"\"\",2016-01-01T10:00:00.500Z,42\n", out.toString());
+    }
+
+    @Test
+    public void testOpen_noFiles() throws Exception {
+        assertEquals(0, ResponseTimeLogReader.open(directory, "other").read((tx, s, d) -> {}));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_noLogFile() throws Exception {
+        //prepare
+        Path file = directory.resolve("invalid.rtlog");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        //act
+        ResponseTimeLogReader.of(file).read((tx, s, d) -> {});
+    }
+}
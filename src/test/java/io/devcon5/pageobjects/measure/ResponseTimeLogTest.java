@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ResponseTimeLogTest {
+
+    private final Instant start = Instant.parse("2016-01-01T10:00:00.000000001Z");
+
+    private Path directory;
+
+    /**
+     * The class under test
+     */
+    private ResponseTimeLog subject;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("rtlog");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (subject != null) {
+            subject.close();
+        }
+        ResponseTimes.resetResponseTimeHandlers();
+        ResponseTimes.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private List<ResponseTime> readAll() throws IOException {
+        List<ResponseTime> result = new ArrayList<>();
+        ResponseTimeLogReader.open(directory, "responsetimes").forEach(result::add);
+        return result;
+    }
+
+    @Test
+    public void testAccept_finishedOnly() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).build();
+
+        //act
+        subject.accept(new ResponseTime("logTx", start));
+        subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(12)));
+        subject.accept(new ResponseTime("logTx2", start.plusSeconds(1), Duration.ofNanos(5)));
+        subject.close();
+
+        //assert
+        assertEquals(2, subject.getSampleCount());
+        List<ResponseTime> read = readAll();
+        assertEquals(2, read.size());
+        assertEquals("logTx", read.get(0).getTransaction());
+        assertEquals(start, read.get(0).getStart());
+        assertEquals(Duration.ofMillis(12), read.get(0).getDuration());
+        assertEquals("logTx2", read.get(1).getTransaction());
+        assertEquals(Duration.ofNanos(5), read.get(1).getDuration());
+    }
+
+    @Test
+    public void testAppend_readableWithoutClose() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).build();
+
+        //act
+        subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(12)));
+
+        //assert
+        assertEquals(1, readAll().size());
+    }
+
+    @Test
+    public void testAppend_rollsOver() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).fileSize(1024).build();
+
+        //act
+        for (int i = 0; i < 200; i++) {
+            subject.accept(new ResponseTime(i % 2 == 0 ? "logTx" : "logTx2", start, Duration.ofMillis(i)));
+        }
+        subject.close();
+
+        //assert
+        assertEquals(5, subject.getFiles().size());
+        List<ResponseTime> read = readAll();
+        assertEquals(200, read.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(Duration.ofMillis(i), read.get(i).getDuration());
+            assertEquals(i % 2 == 0 ? "logTx" : "logTx2", read.get(i).getTransaction());
+        }
+    }
+
+    @Test
+    public void testAppend_maxFiles() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).fileSize(1024).maxFiles(2).build();
+
+        //act
+        for (int i = 0; i < 200; i++) {
+            subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(i)));
+        }
+        subject.close();
+
+        //assert
+        List<Path> files = ResponseTimeLog.listFiles(directory, "responsetimes");
+        assertEquals(2, files.size());
+        assertEquals(files, subject.getFiles());
+        List<ResponseTime> read = readAll();
+        assertTrue(read.size() < 200);
+        assertEquals(Duration.ofMillis(199), read.get(read.size() - 1).getDuration());
+    }
+
+    @Test
+    public void testBuild_continuesExistingLog() throws Exception {
+        //prepare
+        ResponseTimeLog first = ResponseTimeLog.builder().directory(directory).build();
+        first.accept(new ResponseTime("logTx", start, Duration.ofMillis(1)));
+        first.close();
+
+        //act
+        subject = ResponseTimeLog.builder().directory(directory).build();
+        subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(2)));
+        subject.close();
+
+        //assert
+        assertEquals(1, subject.getFiles().size());
+        assertTrue(subject.getFiles().get(0).getFileName().toString().endsWith("000002.rtlog"));
+        assertEquals(2, readAll().size());
+    }
+
+    @Test
+    public void testAppend_maxFiles_filesOfPreviousLogRetained() throws Exception {
+        //prepare
+        ResponseTimeLog first = ResponseTimeLog.builder().directory(directory).build();
+        first.accept(new ResponseTime("logTx", start, Duration.ofMillis(1)));
+        first.close();
+        subject = ResponseTimeLog.builder().directory(directory).fileSize(1024).maxFiles(1).build();
+
+        //act
+        for (int i = 0; i < 200; i++) {
+            subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(i)));
+        }
+        subject.close();
+
+        //assert
+        assertTrue(Files.exists(first.getFiles().get(0)));
+        assertEquals(1, subject.getFiles().size());
+        assertEquals(2, ResponseTimeLog.listFiles(directory, "responsetimes").size());
+    }
+
+    @Test
+    public void testAppend_rollFailed_dropped() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).fileSize(1024).build();
+        Files.delete(subject.getFiles().get(0));
+        Files.delete(directory);
+
+        //act
+        for (int i = 0; i < 200; i++) {
+            subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(i)));
+        }
+
+        //assert
+        assertTrue(subject.getDroppedCount() > 0);
+        assertEquals(200, subject.getSampleCount() + subject.getDroppedCount());
+        Files.createDirectories(directory);
+    }
+
+    @Test
+    public void testAsMeasureEndHandler() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).prefix("handler").build();
+        ResponseTimes.onMeasureEnd(subject);
+
+        //act
+        ResponseTimes.collect("logTx", new TimeMeasure(start, Duration.ofMillis(3)));
+
+        //assert
+        assertEquals(1, subject.getSampleCount());
+        assertFalse(ResponseTimeLogReader.open(directory, "handler").getFiles().isEmpty());
+    }
+
+    @Test
+    public void testAccept_closed_dropped() throws Exception {
+        //prepare
+        subject = ResponseTimeLog.builder().directory(directory).build();
+        subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(10)));
+        subject.close();
+
+        //act
+        subject.accept(new ResponseTime("logTx", start, Duration.ofMillis(12)));
+
+        //assert
+        assertEquals(1, subject.getSampleCount());
+        assertEquals(1, subject.getDroppedCount());
+        assertEquals(1, ResponseTimeLogReader.open(directory, "responsetimes").forEach(rt -> {}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuild_fileSizeTooSmall() throws Exception {
+        ResponseTimeLog.builder().directory(directory).fileSize(100).build();
+    }
+}
@@ -16,14 +16,23 @@
 
 package io.devcon5.pageobjects.measure;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -41,9 +50,19 @@ public class ResponseTimeRecordingTest {
     @InjectMocks
     private ResponseTimeRecording subject;
 
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("recording");
+    }
+
     @After
     public void tearDown() throws Exception {
         ResponseTimes.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
     }
 
     @Test
@@ -71,6 +90,43 @@ public class ResponseTimeRecordingTest {
         assertFalse(ResponseTimes.getResponseTimes().isEmpty());
     }
 
+    @Test
+    public void testSampleFile() throws Throwable {
+        //prepare
+        Path file = directory.resolve("samples.csv");
+        subject.sampleFile(file);
+        Instant start = Instant.parse("2016-01-01T00:00:00Z");
+
+        //act
+        subject.before();
+        ResponseTimes.collect(new ResponseTime("test", start, Duration.ofMillis(100)));
+        ResponseTimes.collect(new ResponseTime("test,2", start, Duration.ofMillis(200), new RuntimeException()));
+        subject.after();
+
+        //assert
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("transaction,start,duration_ns,outcome",
+                                   "test,2016-01-01T00:00:00Z,100000000,SUCCESS",
+                                   "\"test,2\",2016-01-01T00:00:00Z,200000000,FAILURE"), lines);
+    }
+
+    @Test
+    public void testWarmUp() throws Throwable {
+        //prepare
+        subject.warmUp(WarmUpPolicy.firstSamples(1)).clearGlobalTable(false);
+
+        //act
+        subject.before();
+        ResponseTimes.collect(new ResponseTime("test", Instant.now(), Duration.ofMillis(1000)));
+        ResponseTimes.collect(new ResponseTime("test", Instant.now(), Duration.ofMillis(100)));
+        subject.after();
+
+        //assert
+        assertEquals(1, ResponseTimes.getWarmUpResponseTimes().get("test").size());
+        assertEquals(1, ResponseTimes.getResponseTimes("test").size());
+        assertEquals(WarmUpPolicy.none(), ResponseTimes.getWarmUpPolicy());
+    }
+
     @Test
     public void testBeforeAfterClass() throws Throwable {
         try {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ResponseTimeSummaryTest {
+
+    @Test
+    public void testGetRow() throws Exception {
+        //prepare
+        ResponseTimeSummary subject = new ResponseTimeSummary(Arrays.asList(
+                new ResponseTimeSummary.Row("tx1", histogram(10, 20), null, 3)));
+
+        //act & assert
+        assertEquals(2, subject.getRow("tx1").get().getRecorded().getTotalCount());
+        assertEquals(3, subject.getRow("tx1").get().getErrorCount());
+        assertFalse(subject.getRow("tx2").isPresent());
+    }
+
+    @Test
+    public void testToString() throws Exception {
+        //prepare
+        ResponseTimeSummary subject = new ResponseTimeSummary(Arrays.asList(
+                new ResponseTimeSummary.Row("tx1", histogram(10, 20, 30), null, 2)));
+
+        //act
+        String table = subject.toString();
+
+        //assert
+        String[] lines = table.split("\\R");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].matches(
+                "Transaction\\s+Count\\s+Min\\s+Mean\\s+p50\\s+p90\\s+p95\\s+p99\\s+Max\\s+Errors"));
+        assertTrue(lines[1].startsWith("tx1"));
+        assertTrue(lines[1].contains(" 3 "));
+        assertTrue(lines[1].contains(" 10.000ms "));
+        assertTrue(lines[1].contains(" 20.000ms "));
+        assertTrue(lines[1].endsWith(" 2"));
+        assertFalse(table.contains("Corrected"));
+    }
+
+    @Test
+    public void testToString_recordedAndCorrected() throws Exception {
+        //prepare
+        Histogram recorded = histogram(10, 1000);
+        ResponseTimeSummary subject = new ResponseTimeSummary(Arrays.asList(
+                new ResponseTimeSummary.Row("tx1", recorded,
+                                            recorded.copyCorrectedForCoordinatedOmission(Duration.ofMillis(100)), 0),
+                new ResponseTimeSummary.Row("tx2", histogram(30), null, 0)));
+
+        //act
+        String table = subject.toString();
+
+        //assert
+        String[] lines = table.split("\\R");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("Transaction"));
+        assertTrue(lines[0].contains("Corrected"));
+        assertTrue(lines[1].startsWith("tx1"));
+        assertTrue(lines[1].contains("|         11 "));
+        assertTrue(lines[2].startsWith("tx2"));
+        assertTrue(lines[2].trim().endsWith("-"));
+    }
+
+    private static Histogram histogram(long... millis) {
+
+        final Histogram histogram = new Histogram();
+        for (long m : millis) {
+            histogram.record(Duration.ofMillis(m));
+        }
+        return histogram;
+    }
+}
@@ -17,12 +17,15 @@
 package io.devcon5.pageobjects.measure;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.UUID;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -104,4 +107,99 @@ public class ResponseTimeTest {
         //assert
         assertEquals(txname, actual);
     }
+
+    @Test
+    public void testGetUuid_sameNodeIncreasingSequence() throws Exception {
+        //act
+        UUID other = new ResponseTime(txname, timestamp).getUuid();
+
+        //assert
+        assertNotEquals(subject.getUuid(), other);
+        assertEquals(subject.getUuid().getMostSignificantBits(), other.getMostSignificantBits());
+        assertTrue(subject.getUuid().getLeastSignificantBits() < other.getLeastSignificantBits());
+        assertTrue(subject.getUuid().compareTo(other) < 0);
+    }
+
+    @Test
+    public void testFinish_keepsUuid() throws Exception {
+        //prepare
+        ResponseTime started = new ResponseTime(txname, timestamp);
+
+        //act
+        ResponseTime finished = started.finish();
+
+        //assert
+        assertEquals(started.getUuid(), finished.getUuid());
+    }
+
+    @Test
+    public void testGetQueueingDelay_unscheduled_zero() throws Exception {
+        assertEquals(Duration.ZERO, subject.getQueueingDelay());
+        assertEquals(timestamp, subject.getScheduledStart());
+    }
+
+    @Test
+    public void testGetQueueingDelay_scheduled() throws Exception {
+        //prepare
+        ResponseTime rt = new ResponseTime(txname, timestamp.minusMillis(20), timestamp, duration);
+
+        //act
+        Duration delay = rt.getQueueingDelay();
+
+        //assert
+        assertEquals(Duration.ofMillis(20), delay);
+    }
+
+    @Test
+    public void testFinish_success() throws Exception {
+        //act
+        ResponseTime rt = subject.finish(timestamp.plus(duration));
+
+        //assert
+        assertEquals(Outcome.SUCCESS, rt.getOutcome());
+        assertTrue(rt.isSuccessful());
+        assertFalse(rt.getExceptionClass().isPresent());
+    }
+
+    @Test
+    public void testFinish_exception() throws Exception {
+        //act
+        ResponseTime rt = subject.finish(timestamp.plus(duration), new IllegalArgumentException("failed"));
+
+        //assert
+        assertEquals(subject.getUuid(), rt.getUuid());
+        assertEquals(duration, rt.getDuration());
+        assertEquals(Outcome.FAILURE, rt.getOutcome());
+        assertFalse(rt.isSuccessful());
+        assertEquals(IllegalArgumentException.class, rt.getExceptionClass().get());
+        assertTrue(rt.toString().contains("outcome=FAILURE"));
+    }
+
+    @Test
+    public void testConstructor_timeout() throws Exception {
+        //act
+        ResponseTime rt = new ResponseTime(txname, timestamp, duration, new TimeoutException());
+
+        //assert
+        assertTrue(rt.isFinished());
+        assertEquals(Outcome.TIMEOUT, rt.getOutcome());
+        assertEquals(TimeoutException.class, rt.getExceptionClass().get());
+    }
+    @Test
+    public void testGetSelfDuration() throws Exception {
+        //prepare
+        ResponseTime parent = new ResponseTime(TransactionRegistry.idOf(txname), timestamp, (UUID) null);
+        ResponseTime child = new ResponseTime(TransactionRegistry.idOf("child"), timestamp, parent.getUuid());
+
+        //act
+        ResponseTime finishedChild = child.finish(timestamp.plusMillis(30), null, 0);
+        ResponseTime finishedParent = parent.finish(timestamp.plusMillis(100), null, 30_000_000);
+
+        //assert
+        assertFalse(finishedParent.getParentId().isPresent());
+        assertEquals(parent.getUuid(), finishedChild.getParentId().get());
+        assertEquals(Duration.ofMillis(30), finishedChild.getSelfDuration());
+        assertEquals(Duration.ofMillis(100), finishedParent.getDuration());
+        assertEquals(Duration.ofMillis(70), finishedParent.getSelfDuration());
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for the throughput of {@link ResponseTimes#collect(ResponseTime)} when many threads record response
+ * times concurrently. The {@code collect} benchmark is run with both id schemes: the random
+ * {@link UUID#randomUUID()} that was used before the sequential ids and the node id and sequence number in place now,
+ * so that the entire collect path can be compared before and after the change. The {@code randomUuid} and
+ * {@code sequentialId} benchmarks measure the id generation alone. The histogram recording mode is used to keep the memory
+ * consumption constant over long runs. The {@code capture} benchmarks compare a collector per thread that passes
+ * every response time to the global store with a buffered collector. Run with
+ * <pre>
+ *     java -cp target/test-classes:... io.devcon5.pageobjects.measure.ResponseTimesBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ResponseTimesBenchmark {
+
+    @Param({"HISTOGRAM"})
+    public ResponseTimes.RecordingMode mode;
+
+    private final Instant start = Instant.now();
+    private final Duration duration = Duration.ofMillis(10);
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ResponseTimes.setRecordingMode(mode);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ResponseTimes.clear();
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.SAMPLES);
+    }
+
+    @Benchmark
+    public ResponseTime collect(IdState ids) {
+        return ResponseTimes.collect(ids.scheme == IdScheme.RANDOM_UUID
+                                     ? new ResponseTime(UUID.randomUUID(), "tx", start, duration)
+                                     : new ResponseTime("tx", start, duration));
+    }
+
+    @Benchmark
+    public void captureUnbuffered(CollectorState collectors) {
+        collectors.unbuffered.captureTx("tx", start, duration);
+    }
+
+    @Benchmark
+    public void captureBuffered(CollectorState collectors) {
+        collectors.buffered.captureTx("tx", start, duration);
+    }
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID sequentialId() {
+        return new ResponseTime("tx", start, duration).getUuid();
+    }
+
+    /**
+     * The schemes for the ids of the response times
+     */
+    public enum IdScheme {
+        /**
+         * Random type 4 UUIDs, as created before the sequential ids
+         */
+        RANDOM_UUID,
+        /**
+         * Node id and sequence number, see {@link ResponseTime#getUuid()}
+         */
+        SEQUENTIAL
+    }
+
+    /**
+     * The id scheme of the collect benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class IdState {
+
+        @Param({"RANDOM_UUID", "SEQUENTIAL"})
+        public IdScheme scheme;
+    }
+
+    /**
+     * The collectors of a benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class CollectorState {
+
+        final ResponseTimeCollector unbuffered = new ResponseTimeCollector();
+        final ResponseTimeCollector buffered = ResponseTimeCollector.builder().build();
+
+        @TearDown(Level.Iteration)
+        public void flush() {
+            buffered.flush();
+        }
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResponseTimesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -25,8 +25,10 @@ import static org.junit.Assume.assumeTrue;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.After;
@@ -41,6 +43,10 @@ public class ResponseTimesTest {
     public void tearDown() throws Exception {
         ResponseTimes.clear();
         ResponseTimes.resetResponseTimeHandlers();
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.SAMPLES);
+        ResponseTimes.setSampleStore(SampleStore.onHeap());
+        ResponseTimes.setWarmUpPolicy(WarmUpPolicy.none());
+        ResponseTimes.clearExpectedIntervals();
     }
 
     @Test
@@ -222,4 +228,457 @@ public class ResponseTimesTest {
         assertEquals(2, rts.get("tx1").size());
         assertEquals(1, rts.get("tx2").size());
     }
+
+    @Test
+    public void testGetHistograms_samplesMode() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+        ResponseTimes.startTx("tx2");
+
+        //act
+        Map<String, Histogram> histograms = ResponseTimes.getHistograms();
+
+        //assert
+        assertEquals(1, histograms.size());
+        assertEquals(2, histograms.get("tx1").getTotalCount());
+        assertEquals(Duration.ofMillis(20), histograms.get("tx1").getMean());
+    }
+
+    @Test
+    public void testSetRecordingMode_histogram_noSamplesKept() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM);
+
+        //act
+        ResponseTimes.stopTx(ResponseTimes.startTx("tx1"));
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+
+        //assert
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+        Map<String, Histogram> histograms = ResponseTimes.getHistograms();
+        assertEquals(2, histograms.get("tx1").getTotalCount());
+        assertEquals(Duration.ofMillis(30), histograms.get("tx1").getMax());
+    }
+
+    @Test
+    public void testSetRecordingMode_histogramAndSamples() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM_AND_SAMPLES);
+
+        //act
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+
+        //assert
+        assertEquals(ResponseTimes.RecordingMode.HISTOGRAM_AND_SAMPLES, ResponseTimes.getRecordingMode());
+        assertEquals(1, ResponseTimes.getResponseTimes().get("tx1").size());
+        assertEquals(1, ResponseTimes.getHistograms().get("tx1").getTotalCount());
+    }
+
+    @Test
+    public void testClear_histograms() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM);
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+
+        //act
+        ResponseTimes.clear();
+
+        //assert
+        assertTrue(ResponseTimes.getHistograms().isEmpty());
+    }
+
+    @Test
+    public void testSetRecordingMode_compact() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        ResponseTimes.setSampleStore(SampleStore.offHeap());
+        Instant start = Instant.now();
+
+        //act
+        ResponseTimes.startTx("tx1");
+        ResponseTimes.collect("tx1", new TimeMeasure(start, Duration.ofMillis(30)));
+        ResponseTimes.collect("tx2", new TimeMeasure(start, Duration.ofMillis(10)));
+
+        //assert
+        assertEquals(2, ResponseTimes.getSampleStore().size());
+        Map<String, List<ResponseTime>> times = ResponseTimes.getResponseTimes();
+        assertEquals(1, times.get("tx1").size());
+        assertEquals(start, times.get("tx1").get(0).getStart());
+        assertEquals(Duration.ofMillis(30), times.get("tx1").get(0).getDuration());
+        assertEquals(1, times.get("tx2").size());
+        assertEquals(Duration.ofMillis(10), ResponseTimes.getHistograms().get("tx2").getMax());
+    }
+
+    @Test
+    public void testClear_sampleStore() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+
+        //act
+        ResponseTimes.clear();
+
+        //assert
+        assertEquals(0, ResponseTimes.getSampleStore().size());
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testGetResponseTimes_openTransactionsIncluded() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTime open = ResponseTimes.startTx("tx1");
+        ResponseTimes.startTx("tx2");
+
+        //act
+        Map<String, List<ResponseTime>> rts = ResponseTimes.getResponseTimes();
+
+        //assert
+        assertEquals(2, rts.get("tx1").size());
+        assertEquals(open, rts.get("tx1").get(1));
+        assertEquals(1, rts.get("tx2").size());
+    }
+
+    @Test
+    public void testGetResponseTimes_finishedReplacesStarted() throws Exception {
+        //prepare
+        ResponseTime started = ResponseTimes.startTx("tx1");
+
+        //act
+        ResponseTimes.stopTx(started);
+
+        //assert
+        List<ResponseTime> rts = ResponseTimes.getResponseTimes().get("tx1");
+        assertEquals(1, rts.size());
+        assertTrue(rts.get(0).isFinished());
+    }
+
+    @Test
+    public void testGetResponseTimes_transaction_snapshot() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect("tx2", new TimeMeasure(Instant.now(), Duration.ofMillis(20)));
+
+        //act
+        List<ResponseTime> snapshot = ResponseTimes.getResponseTimes("tx1");
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+
+        //assert
+        assertEquals(1, snapshot.size());
+        assertEquals(Duration.ofMillis(10), snapshot.get(0).getDuration());
+        assertEquals(2, ResponseTimes.getResponseTimes("tx1").size());
+        assertTrue(ResponseTimes.getResponseTimes("unknownTx").isEmpty());
+    }
+
+    @Test
+    public void testGetResponseTimesSince() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.Delta first = ResponseTimes.getResponseTimesSince(0);
+        ResponseTimes.collect("tx2", new TimeMeasure(Instant.now(), Duration.ofMillis(20)));
+        ResponseTimes.startTx("tx3");
+
+        //act
+        ResponseTimes.Delta second = ResponseTimes.getResponseTimesSince(first.getVersion());
+
+        //assert
+        assertEquals(1, first.getResponseTimes().size());
+        assertEquals(1, second.getResponseTimes().size());
+        assertEquals("tx2", second.getResponseTimes().get(0).getTransaction());
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(ResponseTimes.getVersion(), second.getVersion());
+        assertTrue(ResponseTimes.getResponseTimesSince(second.getVersion()).getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testGetResponseTimesSince_versionRetainedOnClear() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        long version = ResponseTimes.getVersion();
+
+        //act
+        ResponseTimes.clear();
+        ResponseTimes.collect("tx2", new TimeMeasure(Instant.now(), Duration.ofMillis(20)));
+
+        //assert
+        assertEquals(version + 1, ResponseTimes.getVersion());
+        ResponseTimes.Delta delta = ResponseTimes.getResponseTimesSince(version - 1);
+        assertEquals(1, delta.getResponseTimes().size());
+        assertEquals("tx2", delta.getResponseTimes().get(0).getTransaction());
+    }
+
+    @Test
+    public void testGetResponseTimesSince_compact() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        long version = ResponseTimes.getVersion();
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect("tx2", new TimeMeasure(Instant.now(), Duration.ofMillis(20)));
+
+        //act
+        ResponseTimes.Delta delta = ResponseTimes.getResponseTimesSince(version + 1);
+
+        //assert
+        assertEquals(version + 2, delta.getVersion());
+        assertEquals(1, delta.getResponseTimes().size());
+        assertEquals("tx2", delta.getResponseTimes().get(0).getTransaction());
+        assertEquals(1, ResponseTimes.getResponseTimes("tx1").size());
+    }
+
+    @Test
+    public void testGetResponseTimesSince_compact_versionRetainedOnClear() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect("tx2", new TimeMeasure(Instant.now(), Duration.ofMillis(20)));
+        long version = ResponseTimes.getResponseTimesSince(0).getVersion();
+
+        //act
+        ResponseTimes.clear();
+        ResponseTimes.collect("tx3", new TimeMeasure(Instant.now(), Duration.ofMillis(30)));
+        ResponseTimes.Delta delta = ResponseTimes.getResponseTimesSince(version);
+
+        //assert
+        assertEquals(version + 1, delta.getVersion());
+        assertEquals(version + 1, ResponseTimes.getVersion());
+        assertEquals(1, delta.getResponseTimes().size());
+        assertEquals("tx3", delta.getResponseTimes().get(0).getTransaction());
+        assertTrue(ResponseTimes.getResponseTimesSince(delta.getVersion()).getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testGetHistograms_perOutcome_samplesMode() throws Exception {
+        //prepare
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(500), new RuntimeException()));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofSeconds(30), new TimeoutException()));
+
+        //act
+        Map<String, Histogram> success = ResponseTimes.getHistograms();
+        Map<String, Histogram> failure = ResponseTimes.getHistograms(Outcome.FAILURE);
+        Map<String, Histogram> timeout = ResponseTimes.getHistograms(Outcome.TIMEOUT);
+
+        //assert
+        assertEquals(1, success.get("tx1").getTotalCount());
+        assertEquals(Duration.ofMillis(10), success.get("tx1").getMax());
+        assertEquals(Duration.ofMillis(500), failure.get("tx1").getMax());
+        assertEquals(Duration.ofSeconds(30), timeout.get("tx1").getMax());
+        assertEquals(3, ResponseTimes.getResponseTimes("tx1").size());
+    }
+
+    @Test
+    public void testGetHistograms_perOutcome_histogramMode() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM);
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(500), new RuntimeException()));
+
+        //act
+        Map<String, Histogram> success = ResponseTimes.getHistograms(Outcome.SUCCESS);
+        Map<String, Histogram> failure = ResponseTimes.getHistograms(Outcome.FAILURE);
+
+        //assert
+        assertEquals(Duration.ofMillis(10), success.get("tx1").getMax());
+        assertEquals(Duration.ofMillis(500), failure.get("tx1").getMax());
+        assertTrue(ResponseTimes.getHistograms(Outcome.TIMEOUT).isEmpty());
+    }
+
+    @Test
+    public void testGetHistograms_perOutcome_compactMode() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        ResponseTimes.collect("tx1", new TimeMeasure(Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(500), new RuntimeException()));
+
+        //act
+        Map<String, Histogram> success = ResponseTimes.getHistograms();
+        Map<String, Histogram> failure = ResponseTimes.getHistograms(Outcome.FAILURE);
+
+        //assert
+        assertEquals(1, success.get("tx1").getTotalCount());
+        assertEquals(Duration.ofMillis(500), failure.get("tx1").getMax());
+    }
+
+    @Test
+    public void testCollect_measuredExecutionResult_failure() throws Exception {
+        //prepare
+        MeasuredExecutionResult<Object> result = ExecutionStopWatch.runMeasured(() -> {
+            throw new TimeoutException();
+        });
+
+        //act
+        ResponseTime rt = ResponseTimes.collect("tx1", result);
+
+        //assert
+        assertEquals(Outcome.TIMEOUT, rt.getOutcome());
+        assertEquals(TimeoutException.class, rt.getExceptionClass().get());
+        assertTrue(ResponseTimes.getHistograms().isEmpty());
+    }
+
+    @Test
+    public void testSetWarmUpPolicy_samplesMode() throws Exception {
+        //prepare
+        ResponseTimes.setWarmUpPolicy(WarmUpPolicy.firstSamples(2));
+
+        //act
+        for (int i = 1; i <= 5; i++) {
+            ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(i * 100)));
+        }
+        ResponseTimes.collect(new ResponseTime("tx2", Instant.now(), Duration.ofMillis(10)));
+
+        //assert
+        Map<String, List<ResponseTime>> warmUp = ResponseTimes.getWarmUpResponseTimes();
+        assertEquals(2, warmUp.get("tx1").size());
+        assertEquals(Duration.ofMillis(100), warmUp.get("tx1").get(0).getDuration());
+        assertEquals(1, warmUp.get("tx2").size());
+        assertEquals(3, ResponseTimes.getResponseTimes("tx1").size());
+        assertEquals(Duration.ofMillis(300), ResponseTimes.getResponseTimes("tx1").get(0).getDuration());
+        assertFalse(ResponseTimes.getResponseTimes().containsKey("tx2"));
+        assertEquals(3, ResponseTimes.getHistograms().get("tx1").getTotalCount());
+        assertEquals(Duration.ofMillis(300), ResponseTimes.getHistograms().get("tx1").getMin());
+    }
+
+    @Test
+    public void testSetWarmUpPolicy_compactBatch() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.COMPACT);
+        ResponseTimes.setWarmUpPolicy(WarmUpPolicy.firstSamples(1));
+        ResponseTime[] batch = {
+                new ResponseTime("tx1", Instant.now(), Duration.ofMillis(1000)),
+                new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10)),
+                new ResponseTime("tx1", Instant.now(), Duration.ofMillis(20))
+        };
+
+        //act
+        ResponseTimes.collect(batch, batch.length);
+
+        //assert
+        assertEquals(1, ResponseTimes.getWarmUpResponseTimes().get("tx1").size());
+        assertEquals(2, ResponseTimes.getResponseTimes("tx1").size());
+        assertEquals(Duration.ofMillis(20), ResponseTimes.getHistograms().get("tx1").getMax());
+    }
+
+    @Test
+    public void testSetWarmUpPolicy_notifiesListeners() throws Exception {
+        //prepare
+        ResponseTimes.setWarmUpPolicy(WarmUpPolicy.firstSamples(1));
+        AtomicReference<ResponseTime> notified = new AtomicReference<>();
+        MeasureListener listener = ResponseTimes.addListener(notified::set);
+        ResponseTime rt = new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10));
+
+        //act
+        try {
+            ResponseTimes.collect(rt);
+        } finally {
+            ResponseTimes.removeListener(listener);
+        }
+
+        //assert
+        assertEquals(rt, notified.get());
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testClear_resetsWarmUp() throws Exception {
+        //prepare
+        ResponseTimes.setWarmUpPolicy(WarmUpPolicy.firstSamples(1));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10)));
+        assumeFalse(ResponseTimes.getWarmUpResponseTimes().isEmpty());
+
+        //act
+        ResponseTimes.clear();
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(20)));
+
+        //assert
+        assertEquals(Duration.ofMillis(20), ResponseTimes.getWarmUpResponseTimes().get("tx1").get(0).getDuration());
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+    }
+
+    @Test
+    public void testGetExpectedInterval() throws Exception {
+        //prepare
+        ResponseTimes.setExpectedInterval("tx1", Duration.ofMillis(100));
+
+        //act & assert
+        assertEquals(Duration.ofMillis(100), ResponseTimes.getExpectedInterval("tx1").get());
+        assertFalse(ResponseTimes.getExpectedInterval("tx2").isPresent());
+        ResponseTimes.setExpectedInterval(Duration.ofSeconds(1));
+        assertEquals(Duration.ofMillis(100), ResponseTimes.getExpectedInterval("tx1").get());
+        assertEquals(Duration.ofSeconds(1), ResponseTimes.getExpectedInterval("tx2").get());
+        ResponseTimes.clearExpectedIntervals();
+        assertFalse(ResponseTimes.getExpectedInterval("tx1").isPresent());
+        assertFalse(ResponseTimes.getExpectedInterval().isPresent());
+    }
+
+    @Test
+    public void testGetCorrectedHistograms() throws Exception {
+        //prepare
+        ResponseTimes.setExpectedInterval("tx1", Duration.ofMillis(100));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(500)));
+        ResponseTimes.collect(new ResponseTime("tx2", Instant.now(), Duration.ofMillis(500)));
+
+        //act
+        Map<String, Histogram> corrected = ResponseTimes.getCorrectedHistograms();
+
+        //assert
+        assertEquals(6, corrected.get("tx1").getTotalCount());
+        assertEquals(1, corrected.get("tx2").getTotalCount());
+        assertEquals(2, ResponseTimes.getHistograms().get("tx1").getTotalCount());
+    }
+
+    @Test
+    public void testGetSummary() throws Exception {
+        //prepare
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM);
+        ResponseTimes.setExpectedInterval("tx1", Duration.ofMillis(100));
+        ResponseTimes.collect(new ResponseTime("tx2", Instant.now(), Duration.ofMillis(500)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(500)));
+
+        //act
+        ResponseTimeSummary summary = ResponseTimes.getSummary();
+
+        //assert
+        assertEquals(2, summary.getRows().size());
+        assertEquals("tx1", summary.getRows().get(0).getTransaction());
+        assertEquals(1, summary.getRow("tx1").get().getRecorded().getTotalCount());
+        assertEquals(5, summary.getRow("tx1").get().getCorrected().get().getTotalCount());
+        assertFalse(summary.getRow("tx2").get().getCorrected().isPresent());
+    }
+
+    @Test
+    public void testGetSummary_errors() throws Exception {
+        //prepare
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10)));
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(20), new RuntimeException()));
+        ResponseTimes.collect(new ResponseTime("tx2", Instant.now(), Duration.ofMillis(30), new TimeoutException()));
+
+        //act
+        ResponseTimeSummary summary = ResponseTimes.getSummary();
+
+        //assert
+        assertEquals(1, summary.getRow("tx1").get().getRecorded().getTotalCount());
+        assertEquals(1, summary.getRow("tx1").get().getErrorCount());
+        assertEquals(0, summary.getRow("tx2").get().getRecorded().getTotalCount());
+        assertEquals(1, summary.getRow("tx2").get().getErrorCount());
+    }
+
+    @Test
+    public void testGetSummary_ofResponseTimes() throws Exception {
+        //prepare
+        ResponseTimes.collect(new ResponseTime("tx1", Instant.now(), Duration.ofMillis(10)));
+        List<ResponseTime> responseTimes = Arrays.asList(
+                new ResponseTime("tx2", Instant.now(), Duration.ofMillis(20)),
+                new ResponseTime("tx2", Instant.now(), Duration.ofMillis(30), new RuntimeException()));
+
+        //act
+        ResponseTimeSummary summary = ResponseTimes.getSummary(responseTimes);
+
+        //assert
+        assertEquals(1, summary.getRows().size());
+        assertEquals(1, summary.getRow("tx2").get().getRecorded().getTotalCount());
+        assertEquals(1, summary.getRow("tx2").get().getErrorCount());
+        assertFalse(summary.getRow("tx1").isPresent());
+    }
 }
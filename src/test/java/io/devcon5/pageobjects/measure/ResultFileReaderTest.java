@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ResultFileReaderTest {
+
+    private final Instant start = Instant.parse("2016-01-01T10:00:00Z");
+
+    private final long startNanos = SampleStore.toEpochNanos(start);
+
+    private Path directory;
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("results");
+        file = directory.resolve("results.prf");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes 1000 samples in blocks of 100, one sample per second alternating between transactions A and B, a
+     * transaction C is added in the last block
+     */
+    private void writeSamples(ResultFileWriter writer) {
+        for (int i = 0; i < 1000; i++) {
+            String tx = i >= 900 && i % 10 == 0 ? "ResultFile_C" : (i % 2 == 0 ? "ResultFile_A" : "ResultFile_B");
+            writer.append(TransactionRegistry.idOf(tx), startNanos + i * 1_000_000_000L, (i + 1) * 1000L);
+        }
+    }
+
+    @Test
+    public void testRead_all() throws Exception {
+        //prepare
+        try (ResultFileWriter writer = ResultFileWriter.create(file, 100)) {
+            writeSamples(writer);
+        }
+        ResultFileReader subject = ResultFileReader.open(file);
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = subject.read(store::add);
+
+        //assert
+        assertTrue(subject.hasIndex());
+        assertEquals(1000, subject.getSampleCount());
+        assertEquals(Arrays.asList("ResultFile_A", "ResultFile_B", "ResultFile_C"), subject.getTransactions());
+        assertEquals(1000, count);
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(startNanos + i * 1_000_000_000L, store.getStartNanos(i));
+            assertEquals((i + 1) * 1000L, store.getDurationNanos(i));
+        }
+        assertEquals(TransactionRegistry.idOf("ResultFile_C"), store.getTransactionId(900));
+        assertEquals(TransactionRegistry.idOf("ResultFile_B"), store.getTransactionId(901));
+    }
+
+    @Test
+    public void testRead_microsecondResolution() throws Exception {
+        //prepare
+        try (ResultFileWriter writer = ResultFileWriter.create(file)) {
+            writer.append(TransactionRegistry.idOf("ResultFile_A"), startNanos + 1_999, 2_999);
+        }
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        ResultFileReader.open(file).read(store::add);
+
+        //assert
+        assertEquals(startNanos + 1_000, store.getStartNanos(0));
+        assertEquals(2_000, store.getDurationNanos(0));
+    }
+
+    @Test
+    public void testRead_timeRange() throws Exception {
+        //prepare
+        try (ResultFileWriter writer = ResultFileWriter.create(file, 100)) {
+            writeSamples(writer);
+        }
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = ResultFileReader.open(file).read(start.plusSeconds(250), start.plusSeconds(260), null, store::add);
+
+        //assert
+        assertEquals(10, count);
+        assertEquals(startNanos + 250_000_000_000L, store.getStartNanos(0));
+    }
+
+    @Test
+    public void testRead_transactions() throws Exception {
+        //prepare
+        try (ResultFileWriter writer = ResultFileWriter.create(file, 100)) {
+            writeSamples(writer);
+        }
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = ResultFileReader.open(file)
+                                     .read(start, start.plusSeconds(1000), Collections.singleton("ResultFile_C"),
+                                           store::add);
+
+        //assert
+        assertEquals(10, count);
+        assertEquals(TransactionRegistry.idOf("ResultFile_C"), store.getTransactionId(0));
+    }
+
+    @Test
+    public void testRead_withoutIndex() throws Exception {
+        //prepare
+        ResultFileWriter writer = ResultFileWriter.create(file, 100);
+        writeSamples(writer);
+        writer.flush();
+        ResultFileReader subject = ResultFileReader.open(file);
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = subject.read(start, start.plusSeconds(1000), Collections.singleton("ResultFile_C"), store::add);
+
+        //assert
+        writer.close();
+        assertFalse(subject.hasIndex());
+        assertEquals(-1, subject.getSampleCount());
+        assertEquals(10, count);
+    }
+
+    @Test
+    public void testRead_truncatedLastBlock() throws Exception {
+        //prepare
+        ResultFileWriter writer = ResultFileWriter.create(file, 100);
+        writeSamples(writer);
+        writer.flush();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        ResultFileReader subject = ResultFileReader.open(file);
+        SampleStore store = SampleStore.onHeap();
+
+        //act
+        long count = subject.read(store::add);
+
+        //assert
+        writer.close();
+        assertFalse(subject.hasIndex());
+        assertEquals(900, count);
+        assertEquals(900, store.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_noResultFile() throws Exception {
+        //prepare
+        Files.write(file, "transaction,start,duration_ns\n".getBytes());
+
+        //act
+        ResultFileReader.open(file);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ResultFileWriterTest {
+
+    private final Instant start = Instant.parse("2016-01-01T10:00:00Z");
+
+    private Path directory;
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("results");
+        file = directory.resolve("results.prf");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testZigzag() throws Exception {
+        //prepare
+
+        //act
+
+        //assert
+        assertEquals(0, ResultFileWriter.zigzag(0));
+        assertEquals(1, ResultFileWriter.zigzag(-1));
+        assertEquals(2, ResultFileWriter.zigzag(1));
+        for (long value : new long[] { Long.MIN_VALUE, -123456789L, 42L, Long.MAX_VALUE }) {
+            assertEquals(value, ResultFileWriter.unzigzag(ResultFileWriter.zigzag(value)));
+        }
+    }
+
+    @Test
+    public void testAccept_unfinishedIgnored() throws Exception {
+        //prepare
+        ResultFileWriter subject = ResultFileWriter.create(file);
+
+        //act
+        subject.accept(new ResponseTime("Login", start));
+        subject.accept(new ResponseTime("Login", start, Duration.ofMillis(10)));
+        subject.close();
+
+        //assert
+        assertEquals(1, subject.getSampleCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAppend_closed() throws Exception {
+        //prepare
+        ResultFileWriter subject = ResultFileWriter.create(file);
+        subject.close();
+
+        //act
+        subject.append(TransactionRegistry.idOf("Login"), 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreate_invalidBlockSize() throws Exception {
+        ResultFileWriter.create(file, 0);
+    }
+
+    @Test
+    public void testFileSize_comparedToCsv() throws Exception {
+        //prepare
+        String[] transactions = { "LoginPage_login", "SearchPage_search", "CartPage_checkout", "LoginPage_logout" };
+        long startNanos = SampleStore.toEpochNanos(start);
+        StringWriter csv = new StringWriter();
+        csv.write("transaction,start,duration_ns\n");
+
+        //act
+        try (ResultFileWriter subject = ResultFileWriter.create(file)) {
+            for (int i = 0; i < 100_000; i++) {
+                String tx = transactions[i % transactions.length];
+                long txStart = startNanos + i * 2_345_678L;
+                long duration = 50_000_000L + (i * 7919L) % 450_000_000L;
+                subject.append(TransactionRegistry.idOf(tx), txStart, duration);
+                csv.append(tx).append(',').append(SampleStore.ofEpochNanos(txStart).toString())
+                   .append(',').append(Long.toString(duration)).append('\n');
+            }
+        }
+
+        //assert
+        long size = Files.size(file);
+        assertTrue("result file has " + size + " bytes, csv " + csv.toString().length(),
+                   size * 10 <= csv.toString().length());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class RingBufferTest {
+
+    /**
+     * The class under test
+     */
+    private RingBuffer<Integer> subject = new RingBuffer<>(4);
+
+    @Test
+    public void testCapacity_roundedToPowerOfTwo() throws Exception {
+        assertEquals(4, subject.capacity());
+        assertEquals(8, new RingBuffer<>(5).capacity());
+        assertEquals(1, new RingBuffer<>(1).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacity_zero() throws Exception {
+        new RingBuffer<>(0);
+    }
+
+    @Test
+    public void testOffer_full_rejected() throws Exception {
+        //act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(subject.offer(i));
+        }
+
+        //assert
+        assertFalse(subject.offer(4));
+        assertEquals(4, subject.size());
+    }
+
+    @Test
+    public void testDrainTo_inOrder() throws Exception {
+        //prepare
+        subject.offer(1);
+        subject.offer(2);
+        subject.offer(3);
+        List<Integer> batch = new ArrayList<>();
+
+        //act
+        int count = subject.drainTo(batch, 2);
+
+        //assert
+        assertEquals(2, count);
+        assertEquals(2, batch.size());
+        assertEquals(1, (int) batch.get(0));
+        assertEquals(2, (int) batch.get(1));
+        assertEquals(1, subject.size());
+        assertEquals(3, subject.getProducedCount());
+        assertEquals(2, subject.getConsumedCount());
+    }
+
+    @Test
+    public void testWrapAround() throws Exception {
+        //prepare
+        List<Integer> batch = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < 10; i++) {
+            assertTrue(subject.offer(i));
+            assertTrue(subject.offer(-i));
+            subject.drainTo(batch, 10);
+        }
+
+        //assert
+        assertEquals(20, batch.size());
+        assertEquals(9, (int) batch.get(18));
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void testConcurrentProducers_allElementsReceivedOnce() throws Exception {
+        //prepare
+        final RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        final int producers = 4;
+        final int perProducer = 10_000;
+        final ExecutorService pool = Executors.newFixedThreadPool(producers);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * perProducer;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        //act
+        start.countDown();
+        final BitSet received = new BitSet();
+        final List<Integer> batch = new ArrayList<>();
+        int total = 0;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (total < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drainTo(batch, 16);
+            for (Integer i : batch) {
+                assertFalse("duplicate " + i, received.get(i));
+                received.set(i);
+            }
+            total += batch.size();
+            batch.clear();
+        }
+        pool.shutdownNow();
+
+        //assert
+        assertEquals(producers * perProducer, total);
+        assertEquals(producers * perProducer, received.cardinality());
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SampleStoreTest {
+
+    private final Instant start = Instant.parse("2016-01-01T10:00:00.123456789Z");
+    private final int tx1 = TransactionRegistry.idOf("sampleTx1");
+    private final int tx2 = TransactionRegistry.idOf("sampleTx2");
+
+    @Test
+    public void testAddGet_onHeap() throws Exception {
+        verifyAddGet(SampleStore.onHeap());
+    }
+
+    @Test
+    public void testAddGet_offHeap() throws Exception {
+        verifyAddGet(SampleStore.offHeap());
+    }
+
+    @Test
+    public void testAddAll() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.onHeap();
+        ResponseTime[] batch = {
+                new ResponseTime("sampleTx1", start, Duration.ofMillis(1)),
+                new ResponseTime("sampleTx2", start, Duration.ofMillis(2)),
+                new ResponseTime("sampleTx1", start, Duration.ofMillis(3))
+        };
+
+        //act
+        subject.addAll(batch, 1, 2);
+
+        //assert
+        assertEquals(2, subject.size());
+        assertEquals(tx2, subject.getTransactionId(0));
+        assertEquals(3_000_000L, subject.getDurationNanos(1));
+    }
+
+    private void verifyAddGet(SampleStore subject) {
+        //act
+        subject.add(new ResponseTime("sampleTx1", start, Duration.ofMillis(15)));
+        subject.add(tx2, SampleStore.toEpochNanos(start) + 1000, 42);
+
+        //assert
+        assertEquals(2, subject.size());
+        assertEquals(tx1, subject.getTransactionId(0));
+        assertEquals(SampleStore.toEpochNanos(start), subject.getStartNanos(0));
+        assertEquals(15_000_000L, subject.getDurationNanos(0));
+        ResponseTime rt = subject.get(0);
+        assertEquals("sampleTx1", rt.getTransaction());
+        assertEquals(start, rt.getStart());
+        assertEquals(Duration.ofMillis(15), rt.getDuration());
+        assertEquals(tx2, subject.getTransactionId(1));
+        assertEquals(42, subject.getDurationNanos(1));
+    }
+
+    @Test
+    public void testAdd_multipleChunks() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.offHeap();
+        int count = SampleStore.CHUNK_SIZE * 2 + 10;
+
+        //act
+        for (int i = 0; i < count; i++) {
+            subject.add(tx1, i, i * 2L);
+        }
+
+        //assert
+        assertEquals(count, subject.size());
+        assertEquals(3L * SampleStore.CHUNK_SIZE * SampleStore.SAMPLE_BYTES, subject.getAllocatedBytes());
+        long[] sum = new long[1];
+        subject.forEach((txId, startNanos, durationNanos) -> {
+            assertEquals(startNanos * 2, durationNanos);
+            sum[0] += startNanos;
+        });
+        assertEquals((long) count * (count - 1) / 2, sum[0]);
+        assertEquals(count - 1, subject.getStartNanos(count - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdd_unfinished() throws Exception {
+        SampleStore.onHeap().add(new ResponseTime("sampleTx1", start));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGet_outOfBounds() throws Exception {
+        SampleStore.onHeap().getStartNanos(0);
+    }
+
+    @Test
+    public void testForEach_timeRange() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.onHeap();
+        for (int i = 0; i < 10; i++) {
+            subject.add(new ResponseTime("sampleTx1", start.plusSeconds(i), Duration.ofMillis(i)));
+        }
+        List<Long> durations = new ArrayList<>();
+
+        //act
+        subject.forEach(start.plusSeconds(3), start.plusSeconds(6), (txId, s, d) -> durations.add(d));
+
+        //assert
+        assertEquals(3, durations.size());
+        assertEquals(3_000_000L, (long) durations.get(0));
+        assertEquals(5_000_000L, (long) durations.get(2));
+    }
+
+    @Test
+    public void testSlice() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.offHeap();
+        for (int i = 0; i < 10; i++) {
+            subject.add(new ResponseTime("sampleTx1", start.plusSeconds(i), Duration.ofMillis(i)));
+        }
+
+        //act
+        SampleStore slice = subject.slice(start.plusSeconds(8), start.plusSeconds(20));
+
+        //assert
+        assertFalse(slice.isOffHeap());
+        assertEquals(2, slice.size());
+        assertEquals(start.plusSeconds(8), slice.get(0).getStart());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.onHeap();
+        subject.add(tx1, 1, 1);
+
+        //act
+        subject.clear();
+
+        //assert
+        assertEquals(0, subject.size());
+        assertEquals(0, subject.getAllocatedBytes());
+    }
+
+    @Test
+    public void testWriteRead_onHeap() throws Exception {
+        verifyWriteRead(SampleStore.onHeap());
+    }
+
+    @Test
+    public void testWriteRead_offHeap() throws Exception {
+        verifyWriteRead(SampleStore.offHeap());
+    }
+
+    private void verifyWriteRead(SampleStore subject) throws Exception {
+        //prepare
+        int count = SampleStore.CHUNK_SIZE + 3;
+        for (int i = 0; i < count; i++) {
+            subject.add(i % 2 == 0 ? tx1 : tx2, 1000L + i, 10L * i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //act
+        long written = subject.writeTo(Channels.newChannel(out));
+        SampleStore read = SampleStore.onHeap();
+        int readCount = read.readFrom(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+
+        //assert
+        assertEquals(2 * 4 + (long) count * SampleStore.SAMPLE_BYTES, written);
+        assertEquals(written, out.size());
+        assertEquals(count, readCount);
+        for (int i = 0; i < count; i++) {
+            assertEquals(subject.getTransactionId(i), read.getTransactionId(i));
+            assertEquals(subject.getStartNanos(i), read.getStartNanos(i));
+            assertEquals(subject.getDurationNanos(i), read.getDurationNanos(i));
+        }
+    }
+
+    @Test(expected = java.io.EOFException.class)
+    public void testReadFrom_truncated() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.onHeap();
+        subject.add(tx1, 1, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        subject.writeTo(Channels.newChannel(out));
+        byte[] data = out.toByteArray();
+        byte[] truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+        //act
+        SampleStore.onHeap().readFrom(Channels.newChannel(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void testAdd_concurrent() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.offHeap();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        //act
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    subject.add(tx1, i, 1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        //assert
+        assertEquals(20_000, subject.size());
+        long[] total = new long[1];
+        subject.forEach((txId, s, d) -> total[0] += d);
+        assertEquals(20_000, total[0]);
+    }
+
+    @Test
+    public void testOutcome() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.offHeap();
+        ResponseTime failed = new ResponseTime("sampleTx1", start, Duration.ofMillis(5), new IllegalStateException());
+
+        //act
+        subject.add(failed);
+        subject.add(tx2, SampleStore.toEpochNanos(start), 42, Outcome.TIMEOUT);
+        subject.add(tx2, SampleStore.toEpochNanos(start), 43);
+
+        //assert
+        assertEquals(tx1, subject.getTransactionId(0));
+        assertEquals(Outcome.FAILURE, subject.getOutcome(0));
+        assertEquals(Outcome.FAILURE, subject.get(0).getOutcome());
+        assertEquals(tx2, subject.getTransactionId(1));
+        assertEquals(Outcome.TIMEOUT, subject.getOutcome(1));
+        assertEquals(Outcome.SUCCESS, subject.getOutcome(2));
+        List<Integer> txIds = new ArrayList<>();
+        subject.forEach((txId, s, d) -> txIds.add(txId));
+        assertEquals(tx1, (int) txIds.get(0));
+        assertEquals(tx2, (int) txIds.get(1));
+    }
+
+    @Test
+    public void testOutcome_retainedBySliceAndChannel() throws Exception {
+        //prepare
+        SampleStore subject = SampleStore.onHeap();
+        subject.add(tx1, SampleStore.toEpochNanos(start), 42, Outcome.TIMEOUT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //act
+        SampleStore slice = subject.slice(start, start.plusSeconds(1));
+        subject.writeTo(Channels.newChannel(out));
+        SampleStore read = SampleStore.onHeap();
+        read.readFrom(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+
+        //assert
+        assertEquals(Outcome.TIMEOUT, slice.getOutcome(0));
+        assertEquals(tx1, slice.getTransactionId(0));
+        assertEquals(Outcome.TIMEOUT, read.getOutcome(0));
+        assertEquals(tx1, read.getTransactionId(0));
+    }
+}
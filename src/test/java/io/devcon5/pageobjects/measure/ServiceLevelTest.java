@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ServiceLevelTest {
+
+    @Test
+    public void testBuilder() throws Exception {
+        //prepare
+
+        //act
+        ServiceLevel subject = ServiceLevel.builder()
+                                           .max(Duration.ofSeconds(2))
+                                           .percentile(99, Duration.ofSeconds(1))
+                                           .percentile(95, Duration.ofMillis(800))
+                                           .build();
+
+        //assert
+        assertEquals(Duration.ofSeconds(2), subject.getMax().get());
+        assertEquals(2, subject.getPercentiles().size());
+        assertEquals(95.0, subject.getPercentiles().firstKey(), 0.0);
+        assertEquals(Duration.ofMillis(800), subject.getPercentiles().get(95.0));
+    }
+
+    @Test
+    public void testBuilder_percentilesOnly() throws Exception {
+        //act
+        ServiceLevel subject = ServiceLevel.builder().percentile(90, Duration.ofMillis(500)).build();
+
+        //assert
+        assertFalse(subject.getMax().isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_noTarget() throws Exception {
+        ServiceLevel.builder().build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_invalidPercentile() throws Exception {
+        ServiceLevel.builder().percentile(101, Duration.ofMillis(500));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilder_negativeMax() throws Exception {
+        ServiceLevel.builder().max(Duration.ofMillis(-1)).build();
+    }
+}
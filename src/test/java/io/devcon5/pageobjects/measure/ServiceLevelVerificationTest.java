@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ *
+ */
+public class ServiceLevelVerificationTest {
+
+    /**
+     * The class under test
+     */
+    private ServiceLevelVerification subject = new ServiceLevelVerification();
+
+    @After
+    public void tearDown() throws Exception {
+        ServiceLevels.clear();
+        ResponseTimes.clear();
+    }
+
+    @Test
+    public void testAfter_met() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().max(Duration.ofSeconds(1)).build());
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofMillis(100)));
+
+        //act
+        subject.after();
+
+        //assert
+        assertFalse(subject.getReport().isViolated());
+    }
+
+    @Test
+    public void testAfter_violated() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().max(Duration.ofSeconds(1)).build());
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofSeconds(2)));
+
+        //act
+        try {
+            subject.after();
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            //assert
+            assertTrue(e.getMessage().contains("slaTx"));
+            assertTrue(e.getMessage().contains("VIOLATED"));
+        }
+    }
+
+    @Test
+    public void testAfter_testFailed_notVerified() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().max(Duration.ofSeconds(1)).build());
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofSeconds(2)));
+        IllegalStateException failure = new IllegalStateException("test failed");
+        Statement statement = subject.apply(new Statement() {
+
+            @Override
+            public void evaluate() throws Throwable {
+
+                throw failure;
+            }
+        }, Description.EMPTY);
+
+        //act
+        try {
+            statement.evaluate();
+            fail("IllegalStateException expected");
+        } catch (Throwable e) {
+            assertSame(failure, e);
+        }
+        subject.after();
+
+        //assert
+        assertNull(subject.getReport());
+    }
+
+    @Test
+    public void testAfter_testPassed_verified() throws Throwable {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().max(Duration.ofSeconds(1)).build());
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofSeconds(2)));
+        Statement statement = subject.apply(new Statement() {
+
+            @Override
+            public void evaluate() throws Throwable {
+
+            }
+        }, Description.EMPTY);
+        statement.evaluate();
+
+        //act
+        try {
+            subject.after();
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            //assert
+            assertTrue(subject.getReport().isViolated());
+        }
+    }
+
+    @Test
+    public void testAfterClass_violated() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().percentile(90, Duration.ofSeconds(1)).build());
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofSeconds(2)));
+
+        //act
+        try {
+            subject.afterClass();
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            //assert
+            assertTrue(subject.getReport().isViolated());
+        }
+    }
+
+    @Test
+    public void testGetReport_notVerified() throws Exception {
+        assertNull(subject.getReport());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class ServiceLevelsTest {
+
+    @After
+    public void tearDown() throws Exception {
+        ServiceLevels.clear();
+        ResponseTimes.clear();
+    }
+
+    private void record(String tx, long... millis) {
+
+        for (long m : millis) {
+            ResponseTimes.collect(new ResponseTime(tx, Instant.now(), Duration.ofMillis(m)));
+        }
+    }
+
+    @Test
+    public void testDefineAndGet() throws Exception {
+        //prepare
+        ServiceLevel sl = ServiceLevel.builder().max(Duration.ofSeconds(1)).build();
+
+        //act
+        ServiceLevels.define("slaTx", sl);
+
+        //assert
+        assertEquals(sl, ServiceLevels.get("slaTx").get());
+        assertEquals(sl, ServiceLevels.getAll().get("slaTx"));
+        assertFalse(ServiceLevels.get("otherTx").isPresent());
+    }
+
+    @Test
+    public void testEvaluate_met() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder()
+                                                  .max(Duration.ofSeconds(1))
+                                                  .percentile(95, Duration.ofMillis(800))
+                                                  .build());
+        record("slaTx", 100, 200, 300, 400);
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertFalse(report.isViolated());
+        assertEquals(2, report.getResults().size());
+        ServiceLevelReport.Result max = report.getResults().get(0);
+        assertEquals("slaTx", max.getTransaction());
+        assertEquals("max", max.getTarget());
+        assertEquals(4, max.getCount());
+        assertEquals(400, max.getActual().toMillis());
+        assertEquals("p95", report.getResults().get(1).getTarget());
+    }
+
+    @Test
+    public void testEvaluate_violated() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder()
+                                                  .max(Duration.ofSeconds(1))
+                                                  .percentile(50, Duration.ofMillis(500))
+                                                  .percentile(99.9, Duration.ofSeconds(2))
+                                                  .build());
+        record("slaTx", 100, 200, 1500, 1600);
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertTrue(report.isViolated());
+        List<ServiceLevelReport.Result> violations = report.getViolations();
+        assertEquals(1, violations.size());
+        assertEquals("max", violations.get(0).getTarget());
+        assertEquals(2, violations.get(0).getExceedingCount());
+        assertEquals("p99.9", report.getResults().get(2).getTarget());
+        assertTrue(report.toString().contains("VIOLATED (2 calls above limit)"));
+    }
+
+    @Test
+    public void testEvaluate_percentileViolated() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().percentile(50, Duration.ofMillis(150)).build());
+        record("slaTx", 100, 200, 300, 400);
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertTrue(report.isViolated());
+        assertEquals(3, report.getViolations().get(0).getExceedingCount());
+    }
+
+    @Test
+    public void testEvaluate_failedTransactions_maxOfAllOutcomes() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder()
+                                                  .max(Duration.ofSeconds(1))
+                                                  .percentile(50, Duration.ofMillis(200))
+                                                  .build());
+        record("slaTx", 100);
+        ResponseTimes.collect(new ResponseTime("slaTx", Instant.now(), Duration.ofSeconds(30), new RuntimeException()));
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertTrue(report.isViolated());
+        List<ServiceLevelReport.Result> violations = report.getViolations();
+        assertEquals(1, violations.size());
+        assertEquals("max", violations.get(0).getTarget());
+        assertEquals(2, violations.get(0).getCount());
+        assertEquals(1, violations.get(0).getExceedingCount());
+        assertEquals(1, report.getResults().get(1).getCount());
+    }
+
+    @Test
+    public void testEvaluate_allTimedOut_noData() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder()
+                                                  .max(Duration.ofSeconds(1))
+                                                  .percentile(95, Duration.ofMillis(500))
+                                                  .build());
+        for (int i = 0; i < 3; i++) {
+            ResponseTimes.collect(new ResponseTime("slaTx",
+                                                   Instant.now(),
+                                                   Duration.ofMillis(100),
+                                                   new TimeoutException()));
+        }
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertTrue(report.isViolated());
+        assertEquals(2, report.getViolations().size());
+        for (ServiceLevelReport.Result result : report.getResults()) {
+            assertFalse(result.hasData());
+            assertTrue(result.isViolated());
+        }
+        assertTrue(report.toString().contains("VIOLATED (no data)"));
+    }
+
+    @Test
+    public void testEvaluate_noResponseTimes() throws Exception {
+        //prepare
+        ServiceLevels.define("slaTx", ServiceLevel.builder().max(Duration.ofSeconds(1)).build());
+        record("otherTx", 5000);
+
+        //act
+        ServiceLevelReport report = ServiceLevels.evaluate();
+
+        //assert
+        assertTrue(report.getResults().isEmpty());
+        assertFalse(report.isViolated());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SpanTreeTest {
+
+    private Instant start = Instant.parse("2016-01-01T10:00:00Z");
+
+    private ResponseTime span(String tx, UUID parentId, long startMillis, long durationMillis, long childMillis) {
+
+        return new ResponseTime(TransactionRegistry.idOf(tx), start.plusMillis(startMillis), parentId)
+                .finish(start.plusMillis(startMillis + durationMillis), null, childMillis * 1_000_000);
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        //prepare
+        ResponseTime page = span("page", null, 0, 100, 70);
+        ResponseTime search = span("search", page.getUuid(), 40, 50, 0);
+        ResponseTime load = span("load", page.getUuid(), 10, 20, 0);
+        ResponseTime other = span("other", null, 200, 10, 0);
+
+        //act
+        SpanTree subject = SpanTree.of(Arrays.asList(search, other, page, load));
+
+        //assert
+        assertEquals(Arrays.asList(page, other), subject.getRoots());
+        assertEquals(Arrays.asList(load, search), subject.getChildren(page));
+        assertTrue(subject.getChildren(load).isEmpty());
+        assertEquals(page, subject.getParent(search).get());
+        assertFalse(subject.getParent(page).isPresent());
+    }
+
+    @Test
+    public void testOf_parentMissing() throws Exception {
+        //prepare
+        ResponseTime child = span("child", UUID.randomUUID(), 0, 10, 0);
+
+        //act
+        SpanTree subject = SpanTree.of(Arrays.asList(child));
+
+        //assert
+        assertEquals(Arrays.asList(child), subject.getRoots());
+        assertFalse(subject.getParent(child).isPresent());
+    }
+
+    @Test
+    public void testGetSelfDurations() throws Exception {
+        //prepare
+        ResponseTime page = span("page", null, 0, 100, 60);
+        ResponseTime search1 = span("search", page.getUuid(), 10, 20, 0);
+        ResponseTime search2 = span("search", page.getUuid(), 40, 40, 0);
+        SpanTree subject = SpanTree.of(Arrays.asList(page, search1, search2));
+
+        //act
+        Map<String, Duration> result = subject.getSelfDurations();
+
+        //assert
+        assertEquals(Duration.ofMillis(40), result.get("page"));
+        assertEquals(Duration.ofMillis(60), result.get("search"));
+    }
+}
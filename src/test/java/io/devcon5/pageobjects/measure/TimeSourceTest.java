@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TimeSourceTest {
+
+    @After
+    public void tearDown() throws Exception {
+        TimeSource.reset();
+    }
+
+    @Test
+    public void testCurrent_defaultIsSystem() throws Exception {
+        assertSame(TimeSource.system(), TimeSource.current());
+    }
+
+    @Test
+    public void testSetCurrent_reset() throws Exception {
+        //prepare
+        ManualTimeSource manual = new ManualTimeSource();
+
+        //act
+        TimeSource.setCurrent(manual);
+
+        //assert
+        assertSame(manual, TimeSource.current());
+        TimeSource.reset();
+        assertSame(TimeSource.system(), TimeSource.current());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testSetCurrent_null_exception() throws Exception {
+        TimeSource.setCurrent(null);
+    }
+
+    @Test
+    public void testSystem_durationBetweenInstantsIsMonotonicDelta() throws Exception {
+        //prepare
+        TimeSource subject = TimeSource.system();
+        long start = subject.nanoTime();
+        long end = subject.nanoTime();
+
+        //act
+        Duration duration = Duration.between(subject.toInstant(start), subject.toInstant(end));
+
+        //assert
+        assertEquals(end - start, duration.toNanos());
+        assertTrue(!duration.isNegative());
+    }
+
+    @Test
+    public void testSystem_nowCloseToWallClock() throws Exception {
+        //act
+        Instant now = TimeSource.system().now();
+
+        //assert
+        assertTrue(Duration.between(now, Instant.now()).abs().compareTo(Duration.ofSeconds(1)) < 0);
+    }
+
+    @Test
+    public void testElapsedSince() throws Exception {
+        //prepare
+        ManualTimeSource subject = new ManualTimeSource();
+        long start = subject.nanoTime();
+
+        //act
+        subject.advance(Duration.ofMillis(5));
+
+        //assert
+        assertEquals(Duration.ofMillis(5), subject.elapsedSince(start));
+    }
+
+    @Test
+    public void testManual_advance() throws Exception {
+        //prepare
+        Instant start = Instant.parse("2016-01-01T00:00:00Z");
+        ManualTimeSource subject = new ManualTimeSource(start);
+
+        //act
+        subject.advance(Duration.ofNanos(1500));
+
+        //assert
+        assertEquals(1500, subject.nanoTime());
+        assertEquals(start.plusNanos(1500), subject.now());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testManual_advanceNegative_exception() throws Exception {
+        new ManualTimeSource().advance(Duration.ofMillis(-1));
+    }
+}
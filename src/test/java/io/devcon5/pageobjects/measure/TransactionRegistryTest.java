@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TransactionRegistryTest {
+
+    @After
+    public void tearDown() throws Exception {
+        TransactionRegistry.setLimit(TransactionRegistry.MAX_TRANSACTIONS);
+    }
+
+    @Test
+    public void testIdOf_limitReached_overflowTransaction() throws Exception {
+        //prepare
+        int known = TransactionRegistry.idOf("registryKnown");
+        TransactionRegistry.setLimit(TransactionRegistry.size() + 2);
+        int last = TransactionRegistry.idOf("registryLast");
+
+        //act
+        int overflow1 = TransactionRegistry.idOf("registryOverflow1");
+        int overflow2 = TransactionRegistry.idOf("registryOverflow2");
+
+        //assert
+        assertEquals(last + 1, overflow1);
+        assertEquals(overflow1, overflow2);
+        assertEquals(TransactionRegistry.OVERFLOW_TRANSACTION, TransactionRegistry.nameOf(overflow1));
+        assertEquals(known, TransactionRegistry.idOf("registryKnown"));
+        assertEquals("registryLast", TransactionRegistry.nameOf(last));
+    }
+
+    @Test
+    public void testIdOf_sameNameSameId() throws Exception {
+        //act
+        int id1 = TransactionRegistry.idOf("registryTest");
+        int id2 = TransactionRegistry.idOf(new String("registryTest"));
+
+        //assert
+        assertEquals(id1, id2);
+        assertTrue(id1 >= 0);
+        assertTrue(id1 < TransactionRegistry.size());
+    }
+
+    @Test
+    public void testIdOf_differentNames() throws Exception {
+        //act
+        int id1 = TransactionRegistry.idOf("registryTest1");
+        int id2 = TransactionRegistry.idOf("registryTest2");
+
+        //assert
+        assertNotEquals(id1, id2);
+    }
+
+    @Test
+    public void testNameOf() throws Exception {
+        //prepare
+        int id = TransactionRegistry.idOf("registryTestName");
+
+        //act
+        String name = TransactionRegistry.nameOf(id);
+
+        //assert
+        assertEquals("registryTestName", name);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameOf_unknownId() throws Exception {
+        TransactionRegistry.nameOf(TransactionRegistry.MAX_TRANSACTIONS - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameOf_noTransaction() throws Exception {
+        TransactionRegistry.nameOf(TransactionRegistry.NO_TRANSACTION);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testIdOf_null() throws Exception {
+        TransactionRegistry.idOf(null);
+    }
+
+    @Test
+    public void testIdOf_concurrent_uniqueIds() throws Exception {
+        //prepare
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    ids.add(TransactionRegistry.idOf("concurrent" + i));
+                }
+            });
+        }
+
+        //act
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        //assert
+        assertEquals(100, ids.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("concurrent" + i, TransactionRegistry.nameOf(TransactionRegistry.idOf("concurrent" + i)));
+        }
+    }
+}
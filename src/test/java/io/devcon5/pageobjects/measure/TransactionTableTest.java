@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class TransactionTableTest {
+
+    /**
+     * The class under test
+     */
+    private TransactionTable<String> subject = new TransactionTable<>();
+
+    @Test
+    public void testGet_empty() throws Exception {
+        assertNull(subject.get(0));
+        assertNull(subject.get(TransactionTable.MAX_SIZE - 1));
+    }
+
+    @Test
+    public void testSetGet_acrossPages() throws Exception {
+        //act
+        subject.set(0, "a");
+        subject.set(255, "b");
+        subject.set(256, "c");
+        subject.set(TransactionTable.MAX_SIZE - 1, "d");
+
+        //assert
+        assertEquals("a", subject.get(0));
+        assertEquals("b", subject.get(255));
+        assertEquals("c", subject.get(256));
+        assertEquals("d", subject.get(TransactionTable.MAX_SIZE - 1));
+        assertNull(subject.get(1));
+    }
+
+    @Test
+    public void testComputeIfAbsent() throws Exception {
+        //act
+        String first = subject.computeIfAbsent(42, id -> "v" + id);
+        String second = subject.computeIfAbsent(42, id -> "other");
+
+        //assert
+        assertEquals("v42", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testForEach() throws Exception {
+        //prepare
+        subject.set(3, "a");
+        subject.set(1000, "b");
+        Map<Integer, String> result = new HashMap<>();
+
+        //act
+        subject.forEach((value, id) -> result.put(id, value));
+
+        //assert
+        assertEquals(2, result.size());
+        assertEquals("a", result.get(3));
+        assertEquals("b", result.get(1000));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        //prepare
+        subject.set(3, "a");
+
+        //act
+        subject.clear();
+
+        //assert
+        assertNull(subject.get(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSet_invalidId() throws Exception {
+        subject.set(TransactionTable.MAX_SIZE, "a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSet_negativeId() throws Exception {
+        subject.set(-1, "a");
+    }
+}
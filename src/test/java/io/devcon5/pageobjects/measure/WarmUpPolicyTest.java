@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.measure;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class WarmUpPolicyTest {
+
+    private static final Instant T0 = Instant.parse("2016-01-01T00:00:00Z");
+
+    @Test
+    public void testNone() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.none();
+
+        //act
+        boolean warmUp = subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10)));
+
+        //assert
+        assertFalse(warmUp);
+    }
+
+    @Test
+    public void testFirstSamples_perTransaction() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.firstSamples(2);
+
+        //act & assert
+        assertTrue(subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10))));
+        assertTrue(subject.isWarmUp(new ResponseTime("tx2", T0, Duration.ofMillis(10))));
+        assertTrue(subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10))));
+        assertFalse(subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10))));
+        assertTrue(subject.isWarmUp(new ResponseTime("tx2", T0, Duration.ofMillis(10))));
+        assertFalse(subject.isWarmUp(new ResponseTime("tx2", T0, Duration.ofMillis(10))));
+    }
+
+    @Test
+    public void testFirstSamples_zero() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.firstSamples(0);
+
+        //act
+        boolean warmUp = subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10)));
+
+        //assert
+        assertFalse(warmUp);
+    }
+
+    @Test
+    public void testFirstSamples_reset() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.firstSamples(1);
+        subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10)));
+
+        //act
+        subject.reset();
+
+        //assert
+        assertTrue(subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFirstSamples_negative() throws Exception {
+
+        WarmUpPolicy.firstSamples(-1);
+    }
+
+    @Test
+    public void testFirstDuration() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.firstDuration(Duration.ofSeconds(10));
+
+        //act & assert
+        assertTrue(subject.isWarmUp(new ResponseTime("tx1", T0.plusSeconds(5), Duration.ofMillis(10))));
+        assertTrue(subject.isWarmUp(new ResponseTime("tx2", T0.plusSeconds(14), Duration.ofMillis(10))));
+        assertFalse(subject.isWarmUp(new ResponseTime("tx1", T0.plusSeconds(15), Duration.ofMillis(10))));
+        assertFalse(subject.isWarmUp(new ResponseTime("tx1", T0.plusSeconds(60), Duration.ofMillis(10))));
+    }
+
+    @Test
+    public void testFirstDuration_reset() throws Exception {
+        //prepare
+        WarmUpPolicy subject = WarmUpPolicy.firstDuration(Duration.ofSeconds(10));
+        subject.isWarmUp(new ResponseTime("tx1", T0, Duration.ofMillis(10)));
+
+        //act
+        subject.reset();
+
+        //assert
+        assertTrue(subject.isWarmUp(new ResponseTime("tx1", T0.plusSeconds(60), Duration.ofMillis(10))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFirstDuration_negative() throws Exception {
+
+        WarmUpPolicy.firstDuration(Duration.ofSeconds(-1));
+    }
+}
@@ -19,15 +19,23 @@ package io.devcon5.pageobjects.tx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import io.devcon5.pageobjects.measure.Outcome;
+import io.devcon5.pageobjects.measure.OverheadCalibration;
 import io.devcon5.pageobjects.measure.ResponseTime;
 import io.devcon5.pageobjects.measure.ResponseTimeCollector;
 import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.measure.ServiceLevel;
+import io.devcon5.pageobjects.measure.ServiceLevels;
+import io.devcon5.pageobjects.measure.TransactionRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -54,6 +62,7 @@ public class TransactionHelperTest {
         rtc.stopCollecting();
         ResponseTimes.resetResponseTimeHandlers();
         ResponseTimes.clear();
+        OverheadCalibration.reset();
     }
 
     @Test
@@ -92,6 +101,61 @@ public class TransactionHelperTest {
         assertEquals("CustomName_CustomTx", rt.getTransaction());
     }
 
+    @Test
+    public void testAddTransactionSupport_failedTx() throws Exception {
+        //prepare
+        NamedTransaction etx = TransactionHelper.addTransactionSupport(new NamedTransaction());
+
+        //act
+        Exception thrown = null;
+        try {
+            etx.failingTx();
+        } catch (Exception e) {
+            thrown = e;
+        }
+
+        //assert
+        assertNotNull(thrown);
+        assertEquals(IllegalStateException.class, thrown.getClass());
+        assertEquals("failed", thrown.getMessage());
+        ResponseTime rt = rtEndRef.get();
+        assertNotNull(rt);
+        assertEquals("CustomName_FailingTx", rt.getTransaction());
+        assertEquals(Outcome.FAILURE, rt.getOutcome());
+        assertEquals(IllegalStateException.class, rt.getExceptionClass().get());
+    }
+
+    @Test
+    public void testCalibrateOverhead() throws Exception {
+        //prepare
+
+        //act
+        Duration overhead = TransactionHelper.calibrateOverhead();
+
+        //assert
+        assertFalse(overhead.isNegative());
+        assertEquals(overhead, OverheadCalibration.getOverhead());
+        assertNull(rtEndRef.get());
+        assertTrue(ResponseTimes.getResponseTimes().isEmpty());
+        assertEquals(rtc, ResponseTimeCollector.current().get());
+    }
+
+    @Test
+    public void testAddTransactionSupport_registersSla() throws Exception {
+        //prepare
+
+        //act
+        TransactionHelper.addTransactionSupport(new NamedTransaction());
+        TransactionHelper.getClassTxId(NamedTransaction.class);
+
+        //assert
+        ServiceLevel methodSla = ServiceLevels.get("CustomName_CustomTx").get();
+        assertEquals(Duration.ofSeconds(2), methodSla.getMax().get());
+        assertEquals(Duration.ofMillis(800), methodSla.getPercentiles().get(95.0));
+        assertEquals(Duration.ofSeconds(5), ServiceLevels.get("CustomName").get().getMax().get());
+        assertFalse(ServiceLevels.get("CustomName_FailingTx").isPresent());
+    }
+
     @Test
     public void testGetTxName_unnamedTx() throws Exception {
         //prepare
@@ -162,6 +226,29 @@ public class TransactionHelperTest {
         assertFalse(txName.isPresent());
     }
 
+    @Test
+    public void testGetClassTxId() throws Exception {
+        //prepare
+
+        //act
+        int txId = TransactionHelper.getClassTxId(NamedTransaction.class);
+
+        //assert
+        assertEquals(TransactionRegistry.idOf("CustomName"), txId);
+        assertEquals(txId, TransactionHelper.getClassTxId(NamedTransaction.class));
+    }
+
+    @Test
+    public void testGetClassTxId_noTx() throws Exception {
+        //prepare
+
+        //act
+        int txId = TransactionHelper.getClassTxId(NoTransaction.class);
+
+        //assert
+        assertEquals(TransactionRegistry.NO_TRANSACTION, txId);
+    }
+
     private String verifyResult(final Optional<String> txName) {
 
         assertNotNull(txName);
@@ -181,11 +268,18 @@ public class TransactionHelperTest {
     }
 
     @Transaction("CustomName")
+    @Sla(max = 5, unit = TimeUnit.SECONDS)
     public static class NamedTransaction implements TransactionSupport {
         @Transaction("CustomTx")
+        @Sla(max = 2000, percentiles = @Sla.Percentile(value = 95, max = 800))
         public void namedTx(){}
         public void noTx(){}
 
+        @Transaction("FailingTx")
+        public void failingTx(){
+            throw new IllegalStateException("failed");
+        }
+
         public NamedTransaction someOperation(){
             return this;
         }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2016 DevCon5 GmbH, info@devcon5.ch
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.devcon5.pageobjects.tx;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.devcon5.pageobjects.measure.OverheadCalibration;
+import io.devcon5.pageobjects.measure.ResponseTimeCollector;
+import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.measure.TransactionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for the overhead of recording a transaction, to track it across releases. The {@code directCall}
+ * benchmark invokes an empty method without transaction support as baseline, the {@code collectorStartStop}
+ * benchmark starts and stops a transaction on the collector and the {@code proxiedTransaction} benchmark invokes an
+ * empty transactional method of an enhanced object, which adds the interception and the reflective invocation. The
+ * {@code calibration} benchmark measures how long the overhead calibration on startup takes. The histogram recording
+ * mode is used to keep the memory consumption constant. Run with
+ * <pre>
+ *     java -cp target/test-classes:... io.devcon5.pageobjects.tx.TransactionOverheadBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionOverheadBenchmark {
+
+    private final int txId = TransactionRegistry.idOf(OverheadCalibration.CALIBRATION_TX);
+    private final TransactionHelper.CalibrationTransaction plain = new TransactionHelper.CalibrationTransaction();
+
+    private ResponseTimeCollector collector;
+    private TransactionHelper.CalibrationTransaction proxied;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.HISTOGRAM);
+        collector = new ResponseTimeCollector();
+        collector.startCollecting();
+        proxied = TransactionHelper.addTransactionSupport(new TransactionHelper.CalibrationTransaction());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        collector.stopCollecting();
+        ResponseTimes.clear();
+        ResponseTimes.setRecordingMode(ResponseTimes.RecordingMode.SAMPLES);
+    }
+
+    @Benchmark
+    public void directCall() {
+        plain.noOp();
+    }
+
+    @Benchmark
+    public void collectorStartStop() {
+        collector.startTx(txId);
+        collector.stopTx(txId);
+    }
+
+    @Benchmark
+    public void proxiedTransaction() {
+        proxied.noOp();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Duration calibration() {
+        return TransactionHelper.calibrateOverhead();
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransactionOverheadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
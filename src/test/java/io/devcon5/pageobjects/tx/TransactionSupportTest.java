@@ -19,13 +19,20 @@ package io.devcon5.pageobjects.tx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import io.devcon5.pageobjects.measure.Outcome;
 import io.devcon5.pageobjects.measure.ResponseTime;
 import io.devcon5.pageobjects.measure.ResponseTimeCollector;
 import io.devcon5.pageobjects.measure.ResponseTimes;
+import io.devcon5.pageobjects.measure.TransactionRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -101,4 +108,66 @@ public class TransactionSupportTest {
 
     }
 
+    @Test
+    public void testTxBeginEnd_byId_overriddenByName() throws Exception {
+
+        //prepare
+        List<String> calls = new ArrayList<>();
+        TransactionSupport legacy = new TransactionSupport() {
+            @Override
+            public void txBegin(String txName) {
+                calls.add("begin " + txName);
+            }
+
+            @Override
+            public void txEnd(String txName) {
+                calls.add("end " + txName);
+            }
+        };
+        int txId = TransactionRegistry.idOf("legacyTx");
+
+        //act
+        legacy.txBegin(txId);
+        legacy.txEnd(txId);
+        legacy.txBegin(txId);
+        legacy.txEnd(txId, new IllegalStateException());
+
+        //assert
+        assertEquals(Arrays.asList("begin legacyTx", "end legacyTx", "begin legacyTx", "end legacyTx"), calls);
+        assertNull(rtStartRef.get());
+    }
+
+    @Test
+    public void testTxEnd_failed_overriddenById() throws Exception {
+
+        //prepare
+        List<Integer> ended = new ArrayList<>();
+        TransactionSupport legacy = new TransactionSupport() {
+            @Override
+            public void txEnd(int txId) {
+                ended.add(txId);
+            }
+        };
+        int txId = TransactionRegistry.idOf("legacyTx");
+
+        //act
+        legacy.txEnd(txId, new IllegalStateException());
+
+        //assert
+        assertEquals(Collections.singletonList(txId), ended);
+    }
+
+    @Test
+    public void testTxEnd_failed_default() throws Exception {
+
+        //prepare
+        int txId = TransactionRegistry.idOf("myTx");
+        subject.txBegin(txId);
+
+        //act
+        subject.txEnd(txId, new IllegalStateException());
+
+        //assert
+        assertEquals(Outcome.FAILURE, rtEndRef.get().getOutcome());
+    }
 }